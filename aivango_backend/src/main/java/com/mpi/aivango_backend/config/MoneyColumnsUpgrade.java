@@ -0,0 +1,56 @@
+package com.mpi.aivango_backend.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Денежные колонки раньше хранились как float/double. ddl-auto=update типы существующих колонок не меняет,
+ * поэтому при старте переводим оставшиеся вещественные колонки в NUMERIC с округлением до копеек
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class MoneyColumnsUpgrade {
+
+    private static final List<MoneyColumn> COLUMNS = List.of(
+            new MoneyColumn("sponsorships", "amount", 19, 2),
+            new MoneyColumn("tournament", "required_amount", 19, 2),
+            new MoneyColumn("tournament", "collected_amount", 19, 2),
+            new MoneyColumn("tournament", "prize_percent_num", 5, 2)
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void upgrade() {
+        for (MoneyColumn column : COLUMNS) {
+            try {
+                List<String> types = jdbcTemplate.queryForList(
+                        "SELECT lower(data_type) FROM information_schema.columns " +
+                                "WHERE lower(table_name) = ? AND lower(column_name) = ?",
+                        String.class, column.table(), column.name());
+                if (types.stream().noneMatch(type -> type.equals("double precision") || type.equals("real"))) {
+                    continue;
+                }
+                jdbcTemplate.execute("ALTER TABLE %1$s ALTER COLUMN %2$s TYPE NUMERIC(%3$d, %4$d) USING ROUND(%2$s::numeric, %4$d)"
+                        .formatted(column.table(), column.name(), column.precision(), column.scale()));
+                log.info("Колонка {}.{} переведена в NUMERIC({}, {})",
+                        column.table(), column.name(), column.precision(), column.scale());
+            } catch (Exception e) {
+                log.warn("Не удалось перевести колонку {}.{} в NUMERIC: {}", column.table(), column.name(), e.getMessage());
+            }
+        }
+    }
+
+    private record MoneyColumn(String table, String name, int precision, int scale) {
+    }
+}
@@ -35,7 +35,19 @@ public class SecurityConfig {
                                 "/v3/api-docs",
                                 "/swagger-resources/**",
                                 "/webjars/**",
-                                "/auth/**"
+                                "/auth/**",
+                                // Таблица симпатий и прогресс сбора публичны; EventSource не умеет передавать заголовок Authorization
+                                "/api/tournaments/*/votes/leaderboard",
+                                "/api/tournaments/*/votes/leaderboard/stream",
+                                "/api/sponsorship/tournaments/*/progress",
+                                "/api/sponsorship/tournaments/*/progress/stream",
+                                // Сетка публична, как и её живая лента: первым событием ленты приходит та же сетка
+                                "/api/tournament/*/bracket",
+                                "/api/tournament/*/bracket/stream",
+                                // Логотипы спонсоров показываются на публичных страницах турниров
+                                "/api/sponsorship/logos/*",
+                                // Шлюз не владеет JWT пользователя; контроллер есть только у внешнего шлюза и сверяет payment.callback-token
+                                "/api/payments/callback"
                         ).permitAll()
                         .anyRequest().authenticated()
                 )
@@ -0,0 +1,54 @@
+package com.mpi.aivango_backend.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Таблицы, массово заполняемые через JPA, получают ID из последовательностей (это включает пакетные вставки).
+ * В существующей базе строки уже пронумерованы identity-колонкой, а новая последовательность начинается с 1 —
+ * при старте поднимаем её выше текущего максимума
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SequenceAlignment {
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "fight_histories_seq", "fight_histories",
+            "seat_rows_seq", "seat_rows",
+            "prize_distributions_seq", "prize_distributions"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void align() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equalsIgnoreCase(database)) {
+            return;
+        }
+
+        SEQUENCES.forEach((sequence, table) -> {
+            try {
+                // Пул Hibernate выдаёт ID ниже вернувшегося значения, поэтому берём запас на один шаг
+                Long value = jdbcTemplate.queryForObject(
+                        "SELECT setval('%1$s', GREATEST((SELECT COALESCE(MAX(id), 0) FROM %2$s) + 50, " +
+                                "(SELECT last_value FROM %1$s)))".formatted(sequence, table), Long.class);
+                log.debug("Последовательность {} выставлена на {}", sequence, value);
+            } catch (Exception e) {
+                log.warn("Не удалось выровнять последовательность {}: {}", sequence, e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package com.mpi.aivango_backend.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Уникальность голоса (voter_id, tournament_id) появилась позже таблицы votes. ddl-auto=update
+ * не создаёт ограничение, если в таблице уже есть повторные голоса, и лишь пишет предупреждение,
+ * поэтому при старте удаляем повторы (остаётся самый ранний голос) и добавляем ограничение явно.
+ * Без ограничения повторные голоса проходили бы молча — если добавить его не удалось, приложение не стартует
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class VoteUniquenessUpgrade {
+
+    static final String CONSTRAINT_NAME = "uk_votes_voter_tournament";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional
+    public void upgrade() {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.table_constraints " +
+                        "WHERE lower(table_name) = 'votes' AND lower(constraint_name) = ?",
+                Integer.class, CONSTRAINT_NAME);
+        if (existing != null && existing > 0) {
+            return;
+        }
+        try {
+            int removed = jdbcTemplate.update("DELETE FROM votes WHERE id NOT IN " +
+                    "(SELECT MIN(id) FROM votes GROUP BY voter_id, tournament_id)");
+            jdbcTemplate.execute("ALTER TABLE votes ADD CONSTRAINT " + CONSTRAINT_NAME +
+                    " UNIQUE (voter_id, tournament_id)");
+            log.info("Добавлено ограничение {}, удалено повторных голосов: {}", CONSTRAINT_NAME, removed);
+        } catch (Exception e) {
+            throw new IllegalStateException("Не удалось добавить ограничение " + CONSTRAINT_NAME + " на таблицу votes", e);
+        }
+    }
+}
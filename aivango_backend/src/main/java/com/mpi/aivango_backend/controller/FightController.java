@@ -2,6 +2,8 @@ package com.mpi.aivango_backend.controller;
 
 import com.mpi.aivango_backend.dto.fight.FightDateUpdateRequest;
 import com.mpi.aivango_backend.dto.fight.FightResultRequest;
+import com.mpi.aivango_backend.dto.fight.RoundResultsRequest;
+import com.mpi.aivango_backend.dto.fight.ScheduleShiftRequest;
 import com.mpi.aivango_backend.helper.UserTokenHelper;
 import com.mpi.aivango_backend.services.fight.FightResultService;
 import lombok.RequiredArgsConstructor;
@@ -34,6 +36,22 @@ public class FightController {
         }
     }
 
+    @PatchMapping("/tournaments/{tournamentId}/results")
+    public ResponseEntity<Void> recordRoundResults(
+            @PathVariable Long tournamentId, @RequestBody RoundResultsRequest request) {
+
+        try {
+            fightResultService.recordRoundResults(tournamentId, request);
+            return ResponseEntity.ok().build();
+        } catch (IllegalArgumentException e) {
+            log.error("Ошибка при записи результатов раунда: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Ошибка при записи результатов раунда", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @PatchMapping("/{fightId}/date")
     public ResponseEntity<Void> updateFightDate(
             @PathVariable Long fightId,  @RequestBody FightDateUpdateRequest request) {
@@ -52,4 +70,23 @@ public class FightController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    @PatchMapping("/tournaments/{tournamentId}/schedule")
+    public ResponseEntity<Integer> shiftSchedule(
+            @PathVariable Long tournamentId, @RequestBody ScheduleShiftRequest request) {
+
+        Long organizerId = userTokenHelper.getCurrentUserId();
+        if (organizerId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(fightResultService.shiftSchedule(tournamentId, request, organizerId));
+        } catch (IllegalArgumentException e) {
+            log.error("Ошибка при переносе боёв: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Ошибка при переносе боёв", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 }
@@ -0,0 +1,163 @@
+package com.mpi.aivango_backend.controller;
+
+import com.mpi.aivango_backend.dto.ticket.CheckInRequest;
+import com.mpi.aivango_backend.dto.ticket.CheckInResultDTO;
+import com.mpi.aivango_backend.dto.ticket.GateStatsDTO;
+import com.mpi.aivango_backend.dto.ticket.ScanLogResultDTO;
+import com.mpi.aivango_backend.dto.ticket.ScanLogUploadRequest;
+import com.mpi.aivango_backend.dto.ticket.TicketManifest;
+import com.mpi.aivango_backend.helper.UserTokenHelper;
+import com.mpi.aivango_backend.services.checkin.GateCheckInService;
+import com.mpi.aivango_backend.services.checkin.TicketManifestService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/gate")
+@Slf4j
+public class GateController {
+
+    private final GateCheckInService gateCheckInService;
+    private final TicketManifestService ticketManifestService;
+    private final UserTokenHelper userTokenHelper;
+
+    @PostMapping("/tournaments/{tournamentId}/open")
+    public ResponseEntity<GateStatsDTO> openGate(@PathVariable Long tournamentId) {
+        Long organizerId = userTokenHelper.getCurrentUserId();
+        if (organizerId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(gateCheckInService.openGate(tournamentId, organizerId));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ошибка открытия входа на турнир {}: {}", tournamentId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Ошибка открытия входа на турнир {}", tournamentId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PostMapping("/tournaments/{tournamentId}/close")
+    public ResponseEntity<GateStatsDTO> closeGate(@PathVariable Long tournamentId) {
+        String organizerEmail = userTokenHelper.getCurrentEmailUser();
+        if (organizerEmail == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(gateCheckInService.closeGate(tournamentId, organizerEmail));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ошибка закрытия входа на турнир {}: {}", tournamentId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Ошибка закрытия входа на турнир {}", tournamentId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PostMapping("/tournaments/{tournamentId}/check-in")
+    public ResponseEntity<CheckInResultDTO> checkIn(@PathVariable Long tournamentId,
+                                                    @RequestBody CheckInRequest request) {
+        String operatorEmail = userTokenHelper.getCurrentEmailUser();
+        if (operatorEmail == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(gateCheckInService.checkIn(tournamentId, request.getBookingCode(), operatorEmail));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Ошибка проверки билета на турнир {}", tournamentId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/tournaments/{tournamentId}/stats")
+    public ResponseEntity<GateStatsDTO> getStats(@PathVariable Long tournamentId) {
+        String operatorEmail = userTokenHelper.getCurrentEmailUser();
+        if (operatorEmail == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(gateCheckInService.getStats(tournamentId, operatorEmail));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/tournaments/{tournamentId}/manifest")
+    public ResponseEntity<byte[]> getManifest(@PathVariable Long tournamentId) {
+        String operatorEmail = userTokenHelper.getCurrentEmailUser();
+        if (operatorEmail == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return toResponse(ticketManifestService.buildFullManifest(tournamentId, operatorEmail));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ошибка выгрузки манифеста турнира {}: {}", tournamentId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Ошибка выгрузки манифеста турнира {}", tournamentId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/tournaments/{tournamentId}/manifest/delta")
+    public ResponseEntity<byte[]> getManifestDelta(@PathVariable Long tournamentId, @RequestParam long since) {
+        String operatorEmail = userTokenHelper.getCurrentEmailUser();
+        if (operatorEmail == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return toResponse(ticketManifestService.buildDelta(tournamentId, since, operatorEmail));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ошибка выгрузки дельты манифеста турнира {}: {}", tournamentId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Ошибка выгрузки дельты манифеста турнира {}", tournamentId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PostMapping("/tournaments/{tournamentId}/scan-log")
+    public ResponseEntity<ScanLogResultDTO> uploadScanLog(@PathVariable Long tournamentId,
+                                                          @RequestBody ScanLogUploadRequest request) {
+        String operatorEmail = userTokenHelper.getCurrentEmailUser();
+        if (operatorEmail == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (request.getScans() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            ScanLogResultDTO result = gateCheckInService.applyScanLog(tournamentId, request.getScans(), operatorEmail);
+            log.info("Сканер {} выгрузил журнал турнира {}: {}", request.getDeviceId(), tournamentId, result);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ошибка загрузки журнала сканера для турнира {}: {}", tournamentId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Ошибка загрузки журнала сканера для турнира {}", tournamentId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    private ResponseEntity<byte[]> toResponse(TicketManifest manifest) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header("X-Manifest-Version", String.valueOf(manifest.getVersion()))
+                .header("X-Manifest-Entries", String.valueOf(manifest.getEntriesCount()))
+                .body(manifest.getPayload());
+    }
+}
@@ -1,12 +1,18 @@
 package com.mpi.aivango_backend.controller;
 
+import com.mpi.aivango_backend.dto.location.SeatRowDTO;
+import com.mpi.aivango_backend.helper.UserTokenHelper;
 import com.mpi.aivango_backend.models.tournament.Location;
+import com.mpi.aivango_backend.models.user.UserAccount;
 import com.mpi.aivango_backend.services.location.LocationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -18,6 +24,7 @@ import java.util.List;
 @Slf4j
 public class LocationController {
     private final LocationService locationService;
+    private final UserTokenHelper userTokenHelper;
 
     @GetMapping
 
@@ -29,4 +36,32 @@ public class LocationController {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
     }
+
+    @GetMapping("/{locationId}/seat-map")
+    public ResponseEntity<List<SeatRowDTO>> getSeatMap(@PathVariable Long locationId) {
+        try {
+            return ResponseEntity.ok(locationService.getSeatMap(locationId));
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @PutMapping("/{locationId}/seat-map")
+    public ResponseEntity<List<SeatRowDTO>> replaceSeatMap(@PathVariable Long locationId,
+                                                           @RequestBody List<SeatRowDTO> rows) {
+        UserAccount user = userTokenHelper.getCurrentUser();
+        if (user == null) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        try {
+            return ResponseEntity.ok(locationService.replaceSeatMap(locationId, rows, user));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ошибка изменения схемы зала локации {}: {}", locationId, e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
 }
@@ -0,0 +1,60 @@
+package com.mpi.aivango_backend.controller;
+
+import com.mpi.aivango_backend.dto.sponsorship.PaymentCallbackRequest;
+import com.mpi.aivango_backend.services.payment.PaymentCallback;
+import com.mpi.aivango_backend.services.payment.PaymentCallbackInbox;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Обратные вызовы платёжного шлюза. Результаты только ставятся в очередь — ответ шлюзу мгновенный.
+ * Есть только при внешнем шлюзе: локальный шлюз передаёт результаты в очередь напрямую
+ */
+@RestController
+@ConditionalOnExpression("!'${payment.gateway:local}'.equals('local')")
+@RequestMapping("/api/payments")
+@Slf4j
+public class PaymentController {
+
+    private final PaymentCallbackInbox callbackInbox;
+    private final String callbackToken;
+
+    public PaymentController(PaymentCallbackInbox callbackInbox,
+                             @Value("${payment.callback-token:}") String callbackToken) {
+        this.callbackInbox = callbackInbox;
+        this.callbackToken = callbackToken;
+    }
+
+    @PostMapping("/callback")
+    public ResponseEntity<Void> receiveCallback(@RequestHeader(value = "X-Payment-Token", required = false) String token,
+                                                @RequestBody PaymentCallbackRequest request) {
+        // Без общего секрета отличить шлюз от спонсора нельзя — такие вызовы не принимаются
+        if (callbackToken.isBlank()) {
+            log.error("payment.callback-token не задан, обратный вызов платежа отклонён");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (token == null || !MessageDigest.isEqual(
+                callbackToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (request.getResults() == null || request.getResults().isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        request.getResults().forEach(result -> callbackInbox.submit(
+                new PaymentCallback(result.getReference(), result.isApproved(), result.getReason())));
+        log.debug("Принято результатов платежей: {}", request.getResults().size());
+        return ResponseEntity.accepted().build();
+    }
+}
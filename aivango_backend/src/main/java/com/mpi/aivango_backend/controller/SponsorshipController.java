@@ -1,13 +1,30 @@
 package com.mpi.aivango_backend.controller;
 
+import com.mpi.aivango_backend.dto.sponsorship.FundingProgressDTO;
+import com.mpi.aivango_backend.dto.sponsorship.SponsorshipPaymentDTO;
 import com.mpi.aivango_backend.dto.sponsorship.SponsorshipRequest;
 import com.mpi.aivango_backend.helper.UserTokenHelper;
+import com.mpi.aivango_backend.services.sponsorship.FundingProgressTracker;
+import com.mpi.aivango_backend.services.sponsorship.SponsorLogoStorage;
 import com.mpi.aivango_backend.services.sponsorship.SponsorshipService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequiredArgsConstructor
@@ -17,10 +34,12 @@ public class SponsorshipController {
 
     private final SponsorshipService sponsorshipService;
     private final UserTokenHelper userTokenHelper;
+    private final FundingProgressTracker fundingProgressTracker;
+    private final SponsorLogoStorage sponsorLogoStorage;
 
     @PostMapping("/tournaments/{tournamentId}")
-    public ResponseEntity<Void> createSponsorship(@PathVariable Long tournamentId,
-                                                  @RequestBody SponsorshipRequest request) {
+    public ResponseEntity<SponsorshipPaymentDTO> createSponsorship(@PathVariable Long tournamentId,
+                                                                   @RequestBody SponsorshipRequest request) {
 
         Long sponsorId = userTokenHelper.getCurrentUserId();
         if (sponsorId == null) {
@@ -28,8 +47,9 @@ public class SponsorshipController {
         }
 
         try {
-            sponsorshipService.createSponsorship(tournamentId, request, sponsorId);
-            return ResponseEntity.ok().build();
+            // Платёж обрабатывается асинхронно — статус можно узнать через /my
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(sponsorshipService.createSponsorship(tournamentId, request, sponsorId));
         } catch (IllegalArgumentException e) {
             log.warn("Ошибка спонсорства: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
@@ -38,4 +58,110 @@ public class SponsorshipController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    @GetMapping("/tournaments/{tournamentId}/my")
+    public ResponseEntity<SponsorshipPaymentDTO> getMySponsorship(@PathVariable Long tournamentId) {
+        Long sponsorId = userTokenHelper.getCurrentUserId();
+        if (sponsorId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        try {
+            return ResponseEntity.ok(sponsorshipService.getMySponsorship(tournamentId, sponsorId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("Ошибка получения статуса спонсорства", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/tournaments/{tournamentId}/progress")
+    public ResponseEntity<FundingProgressDTO> getFundingProgress(@PathVariable Long tournamentId) {
+        try {
+            return ResponseEntity.ok(fundingProgressTracker.snapshot(tournamentId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("Ошибка получения прогресса сбора", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Поток прогресса сбора: текущий снимок сразу, дальше — по мере подтверждения взносов
+     */
+    @GetMapping(value = "/tournaments/{tournamentId}/progress/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamFundingProgress(@PathVariable Long tournamentId) {
+        try {
+            return ResponseEntity.ok(fundingProgressTracker.subscribe(tournamentId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Загрузить логотип компании к своему спонсорству. Файл читается потоком из временного файла multipart
+     */
+    @PostMapping("/tournaments/{tournamentId}/logo")
+    public ResponseEntity<String> uploadLogo(@PathVariable Long tournamentId, @RequestParam("file") MultipartFile file) {
+        Long sponsorId = userTokenHelper.getCurrentUserId();
+        if (sponsorId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (file == null || file.isEmpty()) {
+            return ResponseEntity.badRequest().body("Файл пустой");
+        }
+
+        try (InputStream content = file.getInputStream()) {
+            return ResponseEntity.ok(sponsorshipService.attachLogo(tournamentId, sponsorId, content, file.getContentType()));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ошибка загрузки логотипа: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IOException e) {
+            log.error("Ошибка при сохранении логотипа", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Ошибка сохранения файла");
+        }
+    }
+
+    /**
+     * Логотип по хешу содержимого. Файл под хешем никогда не меняется, поэтому кэшируется на год;
+     * пока уменьшенная копия не готова, вместо неё отдаётся оригинал без долгого кэша
+     */
+    @GetMapping("/logos/{hash}")
+    public ResponseEntity<Resource> getLogo(@PathVariable String hash,
+                                            @RequestParam(required = false) Integer size,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            Optional<Path> logo = sponsorLogoStorage.resolve(hash, size);
+            if (logo.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+
+            Path path = logo.get();
+            String fileName = path.getFileName().toString();
+            boolean exact = size == null || fileName.endsWith("-" + size + ".png");
+            CacheControl cacheControl = exact
+                    ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable()
+                    : CacheControl.noCache();
+            String etag = "\"" + fileName + "\"";
+
+            if (etag.equals(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+            }
+
+            // Тип по расширению, которое хранилище выставило по содержимому; браузер не должен его угадывать,
+            // а открытый напрямую файл не исполняет скриптов
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .contentType(fileName.endsWith(".png") ? MediaType.IMAGE_PNG : MediaType.IMAGE_JPEG)
+                    .header("X-Content-Type-Options", "nosniff")
+                    .header("Content-Security-Policy", "sandbox")
+                    .body(new FileSystemResource(path));
+        } catch (Exception e) {
+            log.error("Ошибка получения логотипа", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 }
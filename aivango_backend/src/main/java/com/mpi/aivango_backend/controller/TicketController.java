@@ -1,9 +1,16 @@
 package com.mpi.aivango_backend.controller;
 
+import com.mpi.aivango_backend.dto.ticket.BulkBookingRequest;
+import com.mpi.aivango_backend.dto.ticket.BulkBookingResultDTO;
+import com.mpi.aivango_backend.dto.ticket.SeatAvailabilityDTO;
 import com.mpi.aivango_backend.dto.ticket.TicketBookingRequest;
+import com.mpi.aivango_backend.dto.ticket.WaitlistPositionDTO;
 import com.mpi.aivango_backend.helper.UserTokenHelper;
 import com.mpi.aivango_backend.models.user.UserAccount;
+import com.mpi.aivango_backend.services.ticket.BulkBookingService;
+import com.mpi.aivango_backend.services.ticket.SeatAllocationService;
 import com.mpi.aivango_backend.services.ticket.TicketBookingService;
+import com.mpi.aivango_backend.services.ticket.WaitlistService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -18,6 +25,9 @@ import org.springframework.web.bind.annotation.*;
 public class TicketController {
 
     private final TicketBookingService ticketBookingService;
+    private final WaitlistService waitlistService;
+    private final SeatAllocationService seatAllocationService;
+    private final BulkBookingService bulkBookingService;
     private final UserTokenHelper userTokenHelper;
 
     @PostMapping("/tournaments/{tournamentId}")
@@ -40,4 +50,98 @@ public class TicketController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    @PostMapping("/tournaments/{tournamentId}/bulk")
+    public ResponseEntity<BulkBookingResultDTO> bookBulk(
+            @PathVariable Long tournamentId,
+            @RequestBody BulkBookingRequest request) {
+
+        UserAccount user = userTokenHelper.getCurrentUser();
+        if (user == null) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            return ResponseEntity.ok(bulkBookingService.bookBulk(tournamentId, request, user));
+        } catch (IllegalArgumentException e) {
+            log.error("Ошибка при оптовом бронировании билетов: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Ошибка при оптовом бронировании билетов", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/tournaments/{tournamentId}/seats")
+    public ResponseEntity<SeatAvailabilityDTO> getSeatAvailability(@PathVariable Long tournamentId) {
+        try {
+            return ResponseEntity.ok(seatAllocationService.getAvailability(tournamentId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/tournaments/{tournamentId}")
+    public ResponseEntity<Void> cancelTicket(@PathVariable Long tournamentId) {
+        UserAccount user = userTokenHelper.getCurrentUser();
+        if (user == null) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            ticketBookingService.cancelTicket(tournamentId, user);
+            return ResponseEntity.ok().build();
+        } catch (IllegalArgumentException e) {
+            log.error("Ошибка при отмене билета", e);
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Ошибка при отмене билета", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PostMapping("/tournaments/{tournamentId}/waitlist")
+    public ResponseEntity<WaitlistPositionDTO> joinWaitlist(
+            @PathVariable Long tournamentId,
+            @RequestBody TicketBookingRequest request) {
+
+        UserAccount user = userTokenHelper.getCurrentUser();
+        if (user == null) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            return ResponseEntity.ok(waitlistService.join(tournamentId, request, user));
+        } catch (IllegalArgumentException e) {
+            log.error("Ошибка при постановке в лист ожидания", e);
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Ошибка при постановке в лист ожидания", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/tournaments/{tournamentId}/waitlist")
+    public ResponseEntity<WaitlistPositionDTO> getWaitlistPosition(@PathVariable Long tournamentId) {
+        Long userId = userTokenHelper.getCurrentUserId();
+        if (userId == null) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            return ResponseEntity.ok(waitlistService.getPosition(tournamentId, userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/tournaments/{tournamentId}/waitlist")
+    public ResponseEntity<Void> leaveWaitlist(@PathVariable Long tournamentId) {
+        Long userId = userTokenHelper.getCurrentUserId();
+        if (userId == null) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            waitlistService.leave(tournamentId, userId);
+            return ResponseEntity.ok().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
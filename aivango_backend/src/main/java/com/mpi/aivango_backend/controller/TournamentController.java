@@ -9,6 +9,8 @@ import com.mpi.aivango_backend.models.tournament.Tournament;
 import com.mpi.aivango_backend.models.tournament.TournamentStatus;
 import com.mpi.aivango_backend.models.user.TournamentRolesEnum;
 import com.mpi.aivango_backend.services.email.EmailSendService;
+import com.mpi.aivango_backend.services.fight.BracketLiveFeed;
+import com.mpi.aivango_backend.services.fight.BracketReadModel;
 import com.mpi.aivango_backend.services.prize.PrizeCalculationService;
 import com.mpi.aivango_backend.services.report.TournamentReportService;
 import com.mpi.aivango_backend.services.reporting.ReportingService;
@@ -20,6 +22,7 @@ import com.mpi.aivango_backend.services.vote.VoteService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -30,6 +33,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -45,6 +49,8 @@ public class TournamentController {
     private final UserService userService;
     private final PrizeCalculationService prizeCalculationService;
     private final BracketGenerationService bracketGenerationService;
+    private final BracketReadModel bracketReadModel;
+    private final BracketLiveFeed bracketLiveFeed;
     private final EmailSendService emailSendService;
     private final UserTokenHelper userTokenHelper;
     private final TournamentReportService tournamentReportService;
@@ -85,6 +91,8 @@ public class TournamentController {
                 return ResponseEntity.badRequest().body("Турнир не в статусе ACTIVE");
             }
 
+            // Сначала закрываем приём голосов, затем считаем: принятый голос не пропадёт из итога
+            voteService.closeVoting(id);
             Long sympWinnerId = voteService.getWinnerKnightId(id);
             String winnerInfo = sympWinnerId != null
                     ? userService.getById(sympWinnerId).getName() + " " + userService.getById(sympWinnerId).getSecondName()
@@ -117,7 +125,7 @@ public class TournamentController {
     public ResponseEntity<TournamentBracketDTO> generateBracket(@PathVariable Long id) {
         try {
             bracketGenerationService.generateBracket(id);
-            TournamentBracketDTO bracket = bracketGenerationService.getTournamentBracket(id);
+            TournamentBracketDTO bracket = bracketReadModel.get(id);
             return ResponseEntity.ok(bracket);
         } catch (IllegalArgumentException e) {
             log.warn("Ошибка при генерации сетки турнира {}: {}", id, e.getMessage());
@@ -129,9 +137,11 @@ public class TournamentController {
     }
 
     @GetMapping("/{id}/bracket")
-    public ResponseEntity<TournamentBracketDTO> getBracket(@PathVariable Long id) {
+    public ResponseEntity<TournamentBracketDTO> getBracket(@PathVariable Long id,
+                                                           @RequestParam(required = false) Long categoryId) {
         try {
-            TournamentBracketDTO bracket = bracketGenerationService.getTournamentBracket(id);
+            // Без категории — все сетки турнира
+            TournamentBracketDTO bracket = categoryId != null ? bracketReadModel.get(id, categoryId) : bracketReadModel.get(id);
             return ResponseEntity.ok(bracket);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(null);
@@ -141,6 +151,11 @@ public class TournamentController {
         }
     }
 
+    @GetMapping(value = "/{id}/bracket/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBracket(@PathVariable Long id) {
+        return bracketLiveFeed.subscribe(id);
+    }
+
     @GetMapping("/{tournamentId}/participants")
     public ResponseEntity<List<ParticipantDTO>> getParticipantsByRole(
             @PathVariable Long tournamentId,
@@ -1,12 +1,17 @@
 package com.mpi.aivango_backend.controller;
 
 import com.mpi.aivango_backend.dto.vote.KnightForVotingDTO;
+import com.mpi.aivango_backend.dto.vote.LeaderboardDTO;
 import com.mpi.aivango_backend.dto.vote.VoteRequest;
+import com.mpi.aivango_backend.dto.vote.VoteTallyDTO;
 import com.mpi.aivango_backend.helper.UserTokenHelper;
+import com.mpi.aivango_backend.services.vote.AlreadyVotedException;
+import com.mpi.aivango_backend.services.vote.VoteLeaderboard;
 import com.mpi.aivango_backend.services.vote.VoteService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -14,6 +19,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -24,6 +30,7 @@ import java.util.List;
 public class VoteController {
 
     private final VoteService voteService;
+    private final VoteLeaderboard voteLeaderboard;
     private final UserTokenHelper userTokenHelper;
 
     @GetMapping("/tournaments/{tournamentId}/knights")
@@ -34,6 +41,8 @@ public class VoteController {
         try {
             List<KnightForVotingDTO> knights = voteService.getKnightsForVoting(tournamentId, userId);
             return ResponseEntity.ok(knights);
+        } catch (AlreadyVotedException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(null);
         } catch (Exception e) {
@@ -50,6 +59,8 @@ public class VoteController {
         try {
             voteService.submitVote(request, userId);
             return ResponseEntity.ok().build();
+        } catch (AlreadyVotedException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         } catch (Exception e) {
@@ -57,4 +68,35 @@ public class VoteController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    @GetMapping("/tournaments/{tournamentId}/votes/tally")
+    public ResponseEntity<List<VoteTallyDTO>> getVoteTally(@PathVariable Long tournamentId) {
+        try {
+            return ResponseEntity.ok(voteService.getVoteTally(tournamentId));
+        } catch (Exception e) {
+            log.error("Error loading vote tally", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/tournaments/{tournamentId}/votes/leaderboard")
+    public ResponseEntity<LeaderboardDTO> getLeaderboard(@PathVariable Long tournamentId) {
+        try {
+            return ResponseEntity.ok(voteLeaderboard.snapshot(tournamentId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        } catch (Exception e) {
+            log.error("Error loading leaderboard", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping(value = "/tournaments/{tournamentId}/votes/leaderboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamLeaderboard(@PathVariable Long tournamentId) {
+        try {
+            return ResponseEntity.ok(voteLeaderboard.subscribe(tournamentId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
@@ -0,0 +1,14 @@
+package com.mpi.aivango_backend.dto.application;
+
+import com.mpi.aivango_backend.models.user.UserAccount;
+
+/**
+ * Утверждённый участник турнира с весом из профиля и явно выбранной категорией (если есть)
+ */
+public interface ApprovedKnightView {
+    UserAccount getKnight();
+
+    Integer getWeight();
+
+    Long getCategoryId();
+}
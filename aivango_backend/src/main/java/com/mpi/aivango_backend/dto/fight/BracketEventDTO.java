@@ -0,0 +1,19 @@
+package com.mpi.aivango_backend.dto.fight;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BracketEventDTO {
+
+    private Long tournamentId;
+    private Long version;           // версия снимка сетки, в который уже вошло изменение
+
+    // Матч после изменения
+    private FightMatchDTO match;
+}
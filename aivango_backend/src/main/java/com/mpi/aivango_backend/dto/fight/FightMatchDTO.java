@@ -16,6 +16,12 @@ public class FightMatchDTO {
     private Long matchId;
     private FightRound round;                    // ROUND_OF_8, QUARTERFINAL и т.д.
     private String roundDisplayName;             // "1/8 финала", "Финал" и т.д.
+    private Integer roundNumber;                 // номер раунда от 1 (для сеток любого размера)
+    private Integer bracketPosition;             // место боя в раунде
+
+    // Категория, чья это сетка (null — общая сетка турнира)
+    private Long categoryId;
+    private String categoryName;
 
     // Участник 1
     private Long fighter1Id;
@@ -32,6 +38,10 @@ public class FightMatchDTO {
     // Время боя
     private LocalDateTime fightDate;
 
+    // Арена боя
+    private Long locationId;
+    private String locationName;
+
     // Комментарий (например, "нокаут")
     private String comment;
 
@@ -0,0 +1,24 @@
+package com.mpi.aivango_backend.dto.fight;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleShiftRequest {
+
+    // Какие бои переносятся: все бои раунда и/или бои, начинающиеся в [from, to)
+    private Integer roundNumber;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    // Насколько: сдвиг в минутах (отрицательный — раньше) или новое время первого из переносимых боёв
+    private Long offsetMinutes;
+    private LocalDateTime newStart;
+}
@@ -9,7 +9,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class TournamentBracketDTO {
@@ -17,6 +17,7 @@ public class TournamentBracketDTO {
     private Long tournamentId;
     private String tournamentName;
     private LocalDateTime generatedAt;
+    private Long version;           // растёт с каждым изменением сетки
 
     // Список всех матчей в сетке
     private List<FightMatchDTO> matches;
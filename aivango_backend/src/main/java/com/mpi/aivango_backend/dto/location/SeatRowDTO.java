@@ -0,0 +1,16 @@
+package com.mpi.aivango_backend.dto.location;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatRowDTO {
+    private String section;
+    private Integer rowNumber;
+    private Integer seatsCount;
+}
@@ -44,6 +44,7 @@ public class TournamentReportDTO {
     public static class SponsorSummary {
         private String companyName;
         private String packageType;
-        private Double amount;
+        private BigDecimal amount;
+        private String logoUrl;
     }
 }
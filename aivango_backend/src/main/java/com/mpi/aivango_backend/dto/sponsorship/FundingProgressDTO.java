@@ -0,0 +1,23 @@
+package com.mpi.aivango_backend.dto.sponsorship;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FundingProgressDTO {
+    private Long tournamentId;
+    private BigDecimal collectedAmount;
+    private BigDecimal requiredAmount;
+    private int percent;
+    private long sponsorsCount;
+    private boolean goalReached;
+    private LocalDateTime updatedAt;
+}
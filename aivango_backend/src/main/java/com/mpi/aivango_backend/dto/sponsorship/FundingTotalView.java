@@ -0,0 +1,14 @@
+package com.mpi.aivango_backend.dto.sponsorship;
+
+import java.math.BigDecimal;
+
+/**
+ * Подтверждённые взносы турнира: сумма и число спонсоров
+ */
+public interface FundingTotalView {
+    Long getTournamentId();
+
+    BigDecimal getCollected();
+
+    Long getSponsors();
+}
@@ -0,0 +1,23 @@
+package com.mpi.aivango_backend.dto.sponsorship;
+
+import com.mpi.aivango_backend.models.sponsorship.SponsorshipPackage;
+import com.mpi.aivango_backend.models.sponsorship.SponsorshipStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SponsorshipPaymentDTO {
+    private Long sponsorshipId;
+    private SponsorshipPackage packageType;
+    private BigDecimal amount;
+    private SponsorshipStatus status;
+    private LocalDateTime paidAt;
+}
@@ -15,6 +15,4 @@ public class SponsorshipRequest {
     private SponsorshipPackage packageType;
 
     private String companyName;
-
-    // В будущем: MultipartFile logo
 }
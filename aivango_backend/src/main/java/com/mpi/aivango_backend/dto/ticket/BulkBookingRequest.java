@@ -0,0 +1,32 @@
+package com.mpi.aivango_backend.dto.ticket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkBookingRequest {
+    // Школа, гильдия и т.п. — для журнала и отчётов
+    private String organizationName;
+
+    private boolean agreeToRules;
+
+    private List<Attendee> attendees;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Attendee {
+        private String email;
+        private String name;
+        private String secondName;
+        private Integer seatsCount;     // по умолчанию 1
+    }
+}
@@ -0,0 +1,28 @@
+package com.mpi.aivango_backend.dto.ticket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkBookingResultDTO {
+    private int ticketsCount;
+    private int seatsCount;
+    private List<IssuedTicket> tickets;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class IssuedTicket {
+        private String email;
+        private int seatsCount;
+        private String seats;       // места по схеме зала, если она есть
+    }
+}
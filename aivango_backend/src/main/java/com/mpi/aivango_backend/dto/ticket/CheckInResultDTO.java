@@ -0,0 +1,19 @@
+package com.mpi.aivango_backend.dto.ticket;
+
+import com.mpi.aivango_backend.models.ticket.CheckInStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckInResultDTO {
+    private CheckInStatus status;
+    private Integer seatsCount;
+    private LocalDateTime checkedInAt;     // время первого прохода по этому билету
+}
@@ -0,0 +1,26 @@
+package com.mpi.aivango_backend.dto.ticket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GateStatsDTO {
+    private Long tournamentId;
+    private LocalDateTime openedAt;
+
+    private int loadedTickets;          // билетов в индексе
+    private long admitted;              // впущено по билетам
+    private long admittedSeats;         // впущено зрителей (с учётом мест в билете)
+    private long duplicateScans;        // повторные сканирования
+    private long unknownScans;          // неизвестные коды
+
+    private double scansPerSecond;      // средняя скорость за последние 10 секунд
+    private int pendingFlush;           // отметок ожидает записи в БД
+}
@@ -0,0 +1,16 @@
+package com.mpi.aivango_backend.dto.ticket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScanLogResultDTO {
+    private int accepted;       // новые проходы
+    private int duplicates;     // билет уже был отмечен (в том числе другим сканером)
+    private int unknown;        // код не найден среди действующих билетов
+}
@@ -0,0 +1,30 @@
+package com.mpi.aivango_backend.dto.ticket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScanLogUploadRequest {
+
+    private String deviceId;
+
+    // Сканирования, накопленные сканером без связи
+    private List<ScanEntry> scans;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ScanEntry {
+        private String bookingCode;
+        private LocalDateTime scannedAt;
+    }
+}
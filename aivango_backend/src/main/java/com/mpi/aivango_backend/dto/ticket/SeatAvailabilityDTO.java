@@ -0,0 +1,30 @@
+package com.mpi.aivango_backend.dto.ticket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatAvailabilityDTO {
+    private int capacity;
+    private int freeSeats;
+    private List<RowAvailability> rows;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowAvailability {
+        private String section;
+        private Integer rowNumber;
+        private int seatsCount;
+        private int freeSeats;
+        private int longestFreeRun;     // сколько соседних мест можно взять в этом ряду
+    }
+}
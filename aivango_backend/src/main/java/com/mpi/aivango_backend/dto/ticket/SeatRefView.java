@@ -0,0 +1,10 @@
+package com.mpi.aivango_backend.dto.ticket;
+
+/**
+ * Место в зале: ряд схемы и номер места в ряду
+ */
+public interface SeatRefView {
+    Long getRowId();
+
+    Integer getSeatNumber();
+}
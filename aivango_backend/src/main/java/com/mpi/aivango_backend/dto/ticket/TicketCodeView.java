@@ -0,0 +1,20 @@
+package com.mpi.aivango_backend.dto.ticket;
+
+import java.time.LocalDateTime;
+
+/**
+ * Облегчённое представление билета для загрузки индекса кодов на воротах
+ */
+public interface TicketCodeView {
+    Long getId();
+
+    String getBookingCode();
+
+    Integer getSeatsCount();
+
+    LocalDateTime getCheckedInAt();
+
+    boolean isConfirmed();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,19 @@
+package com.mpi.aivango_backend.dto.ticket;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Бинарный манифест билетов для офлайн-сканеров.
+ * Формат (big-endian): int magic "AVGM", byte версия формата, long id турнира,
+ * long версия манифеста, byte вид (0 — полный, 1 — дельта), int число записей,
+ * далее записи, отсортированные по хешу: long первые 8 байт SHA-256 кода,
+ * byte число мест, byte флаги (1 — билет использован, 2 — билет отменён).
+ */
+@Getter
+@AllArgsConstructor
+public class TicketManifest {
+    private long version;
+    private int entriesCount;
+    private byte[] payload;
+}
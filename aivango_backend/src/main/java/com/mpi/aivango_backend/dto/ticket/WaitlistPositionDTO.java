@@ -0,0 +1,18 @@
+package com.mpi.aivango_backend.dto.ticket;
+
+import com.mpi.aivango_backend.models.waitlist.WaitlistStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistPositionDTO {
+    private Long entryId;
+    private WaitlistStatus status;
+    private Integer seatsCount;
+    private Long position;      // 1 — следующий на продвижение
+}
@@ -4,6 +4,7 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -12,9 +13,9 @@ import java.util.List;
 @Setter
 public class TournamentCreateRequest {
     private String name;
-    private Float requiredAmount;
+    private BigDecimal requiredAmount;
     private String description;
-    private Float prizePercentNum;
+    private BigDecimal prizePercentNum;
     private LocalDate eventDate;
     private Integer totalSeats;
     private Integer requiredKnights;
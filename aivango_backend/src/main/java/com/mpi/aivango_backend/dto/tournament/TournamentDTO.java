@@ -22,11 +22,11 @@ public class TournamentDTO {
     private String name;
 
     // Финансы
-    private Double collectedAmount;     // собранная сумма от спонсоров
-    private Double requiredAmount;      // необходимая сумма
+    private BigDecimal collectedAmount; // собранная сумма от спонсоров
+    private BigDecimal requiredAmount;  // необходимая сумма
 
     private String description;
-    private Float prizePercentNum;          // процент приза для победителя
+    private BigDecimal prizePercentNum;     // процент приза для победителя
 
     private TournamentStatus tournamentStatus;
 
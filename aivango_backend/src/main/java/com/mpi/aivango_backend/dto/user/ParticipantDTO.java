@@ -8,6 +8,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -31,6 +33,7 @@ public class ParticipantDTO {
 
     // Специфическая для SPONSOR
     private SponsorshipPackage packageType;
-    private Double sponsorshipAmount;
+    private BigDecimal sponsorshipAmount;
     private String companyName;
+    private String logoUrl;
 }
@@ -0,0 +1,20 @@
+package com.mpi.aivango_backend.dto.vote;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardDTO {
+    private Long tournamentId;
+    private long totalVotes;
+    private LocalDateTime updatedAt;
+    private List<VoteTallyDTO> entries;
+}
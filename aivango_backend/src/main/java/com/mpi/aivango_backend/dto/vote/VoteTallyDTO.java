@@ -0,0 +1,18 @@
+package com.mpi.aivango_backend.dto.vote;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VoteTallyDTO {
+    private int rank;
+    private Long knightId;
+    private String name;
+    private String secondName;
+    private long votes;
+}
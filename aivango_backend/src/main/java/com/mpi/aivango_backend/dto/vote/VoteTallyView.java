@@ -0,0 +1,14 @@
+package com.mpi.aivango_backend.dto.vote;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка агрегата голосов: рыцарь, число голосов и время первого голоса за него
+ */
+public interface VoteTallyView {
+    Long getKnightId();
+
+    Long getVotes();
+
+    LocalDateTime getFirstVoteAt();
+}
@@ -26,6 +26,15 @@ public class Category {
     private String name;
     private String description;
 
+    // Весовая категория: рыцари без явно выбранной категории попадают сюда по весу из профиля,
+    // minWeight <= вес < maxWeight; пустая граница не ограничивает
+    private Integer minWeight;
+    private Integer maxWeight;
+
     @OneToMany(mappedBy = "category", cascade = {CascadeType.PERSIST, CascadeType.REMOVE}, orphanRemoval = true)
     private List<CategoryApplication> categoryApplications;
+
+    public boolean fitsWeight(int weight) {
+        return (minWeight == null || weight >= minWeight) && (maxWeight == null || weight < maxWeight);
+    }
 }
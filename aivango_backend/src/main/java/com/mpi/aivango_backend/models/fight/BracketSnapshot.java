@@ -0,0 +1,38 @@
+package com.mpi.aivango_backend.models.fight;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Готовая к показу сетка турнира: имена подставлены, матчи упорядочены.
+ * Перестраивается при изменении результатов или дат боёв
+ */
+@Entity
+@Table(name = "bracket_snapshots")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BracketSnapshot {
+
+    @Id
+    @Column(name = "tournament_id")
+    private Long tournamentId;
+
+    @Column(nullable = false)
+    private long version; // растёт с каждой перестройкой
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload; // TournamentBracketDTO в JSON
+
+    @Column(name = "built_at", nullable = false)
+    private LocalDateTime builtAt;
+}
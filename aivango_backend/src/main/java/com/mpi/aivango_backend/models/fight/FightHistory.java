@@ -1,5 +1,7 @@
 package com.mpi.aivango_backend.models.fight;
 
+import com.mpi.aivango_backend.models.category.Category;
+import com.mpi.aivango_backend.models.tournament.Location;
 import com.mpi.aivango_backend.models.tournament.Tournament;
 import com.mpi.aivango_backend.models.user.UserAccount;
 import jakarta.persistence.Column;
@@ -12,7 +14,9 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -29,7 +33,8 @@ import java.time.LocalDateTime;
 public class FightHistory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fight_histories_seq")
+    @SequenceGenerator(name = "fight_histories_seq", sequenceName = "fight_histories_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -48,15 +53,34 @@ public class FightHistory {
     @JoinColumn(name = "winner_id")
     private UserAccount winner; // null если ничья или не завершено
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id")
+    private Category category; // своя сетка у каждой категории турнира; null — общая сетка
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private FightRound round;
 
+    @Column(name = "round_number")
+    private Integer roundNumber; // 1 — первый раунд сетки; финал и бой за бронзу — последний
+
+    @Column(name = "bracket_position")
+    private Integer bracketPosition; // место боя в раунде слева направо; бой за бронзу — после финала
+
     private String comment;
 
     @Column(nullable = false)
     private LocalDateTime fightDate;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "location_id")
+    private Location location; // арена боя; null — у турнира нет выбранных площадок
+
     @Column(name = "next_match_id")
     private Long nextMatchId; // ID матча следующего раунда, куда выходит победитель
+
+    // Судьи вводят результаты параллельно: устаревшая запись боя не перетрёт чужое продвижение
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
 }
@@ -1,6 +1,7 @@
 package com.mpi.aivango_backend.models.fight;
 
 public enum FightRound {
+    EARLY_ROUND("early"),
     ROUND_OF_8("1/8"),
     QUARTERFINAL("1/4"),
     SEMIFINAL("1/2"),
@@ -19,6 +20,7 @@ public enum FightRound {
 
     public String getDisplayName() {
         return switch (this) {
+            case EARLY_ROUND -> "Отборочный раунд";
             case ROUND_OF_8 -> "1/8 финала";
             case QUARTERFINAL -> "Четвертьфинал";
             case SEMIFINAL -> "Полуфинал";
@@ -26,4 +28,24 @@ public enum FightRound {
             case FINAL -> "Финал";
         };
     }
+
+    /**
+     * Название с учётом размера раунда: отборочные раунды больших сеток — «1/16 финала», «1/32 финала» и т.д.
+     */
+    public String getDisplayName(int matchesInRound) {
+        return this == EARLY_ROUND ? "1/" + matchesInRound + " финала" : getDisplayName();
+    }
+
+    /**
+     * Стадия по числу боёв в раунде полной сетки: 1 — финал, 2 — полуфинал, 4, 8 и больше — ранние раунды
+     */
+    public static FightRound forMatchesInRound(int matchesInRound) {
+        return switch (matchesInRound) {
+            case 1 -> FINAL;
+            case 2 -> SEMIFINAL;
+            case 4 -> QUARTERFINAL;
+            case 8 -> ROUND_OF_8;
+            default -> EARLY_ROUND;
+        };
+    }
 }
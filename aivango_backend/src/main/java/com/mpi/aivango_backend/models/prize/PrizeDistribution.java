@@ -20,7 +20,8 @@ import java.time.LocalDateTime;
 public class PrizeDistribution {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "prize_distributions_seq")
+    @SequenceGenerator(name = "prize_distributions_seq", sequenceName = "prize_distributions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -35,6 +36,7 @@ public class PrizeDistribution {
     private String place;
 
     /** Призовая сумма */
+    @Column(precision = 19, scale = 2)
     private BigDecimal amount;
 
     private LocalDateTime calculatedAt;
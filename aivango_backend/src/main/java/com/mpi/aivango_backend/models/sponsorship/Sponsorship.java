@@ -8,6 +8,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
@@ -34,8 +35,8 @@ public class Sponsorship {
     @Column(nullable = false)
     private SponsorshipPackage packageType;
 
-    @Column(nullable = false)
-    private Double amount;
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
 
     @Column(length = 200)
     private String companyName;
@@ -48,4 +49,10 @@ public class Sponsorship {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private SponsorshipStatus status;
+
+    /** Ссылка платежа у шлюза — ключ идемпотентности списания и обратных вызовов */
+    @Column(name = "payment_reference", unique = true, length = 64)
+    private String paymentReference;
+
+    private LocalDateTime paidAt;
 }
@@ -1,18 +1,20 @@
 package com.mpi.aivango_backend.models.sponsorship;
 
+import java.math.BigDecimal;
+
 public enum SponsorshipPackage {
-    BRONZE(5000.0),
-    SILVER(15000.0),
-    GOLD(30000.0),
-    PLATINUM(50000.0);
+    BRONZE("5000.00"),
+    SILVER("15000.00"),
+    GOLD("30000.00"),
+    PLATINUM("50000.00");
 
-    private final double amount;
+    private final BigDecimal amount;
 
-    SponsorshipPackage(double amount) {
-        this.amount = amount;
+    SponsorshipPackage(String amount) {
+        this.amount = new BigDecimal(amount);
     }
 
-    public double getAmount() {
+    public BigDecimal getAmount() {
         return amount;
     }
 }
@@ -0,0 +1,12 @@
+package com.mpi.aivango_backend.models.ticket;
+
+public enum CheckInStatus {
+    /** Билет принят, зритель прошёл */
+    ADMITTED,
+    /** Билет уже был использован ранее */
+    ALREADY_CHECKED_IN,
+    /** Код бронирования не найден среди действующих билетов турнира */
+    UNKNOWN_CODE,
+    /** Вход на турнир ещё не открыт */
+    GATE_CLOSED
+}
@@ -15,6 +15,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
@@ -51,4 +52,13 @@ public class Ticket {
 
     @Column(nullable = false)
     private LocalDateTime createdAt;
+
+    /** Время прохода через ворота (null — билет ещё не использован) */
+    @Column(name = "checked_in_at")
+    private LocalDateTime checkedInAt;
+
+    /** Время последнего изменения — по нему строятся дельты манифеста для сканеров */
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
 }
@@ -0,0 +1,53 @@
+package com.mpi.aivango_backend.models.ticket;
+
+import com.mpi.aivango_backend.models.tournament.SeatRow;
+import com.mpi.aivango_backend.models.tournament.Tournament;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Конкретное место, закреплённое за билетом. Уникальность места в рамках турнира
+ * гарантирует БД — даже если два узла разойдутся в своих картах занятости
+ */
+@Entity
+@Table(name = "ticket_seats",
+        uniqueConstraints = @UniqueConstraint(name = "uk_ticket_seats_tournament_seat",
+                columnNames = {"tournament_id", "seat_row_id", "seat_number"}),
+        indexes = @Index(name = "idx_ticket_seats_ticket", columnList = "ticket_id"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketSeat {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ticket_id", nullable = false)
+    private Ticket ticket;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "tournament_id", nullable = false)
+    private Tournament tournament;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "seat_row_id", nullable = false)
+    private SeatRow seatRow;
+
+    @Column(name = "seat_number", nullable = false)
+    private Integer seatNumber;
+}
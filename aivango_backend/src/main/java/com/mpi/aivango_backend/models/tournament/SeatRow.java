@@ -0,0 +1,48 @@
+package com.mpi.aivango_backend.models.tournament;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ряд схемы зала локации. Места в ряду нумеруются с 1 подряд
+ */
+@Entity
+@Table(name = "seat_rows", uniqueConstraints = @UniqueConstraint(
+        name = "uk_seat_rows_location_section_row", columnNames = {"location_id", "section", "row_number"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatRow {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seat_rows_seq")
+    @SequenceGenerator(name = "seat_rows_seq", sequenceName = "seat_rows_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "location_id", nullable = false)
+    private Location location;
+
+    /** Сектор (трибуна) */
+    @Column(nullable = false)
+    private String section;
+
+    @Column(name = "row_number", nullable = false)
+    private Integer rowNumber;
+
+    @Column(nullable = false)
+    private Integer seatsCount;
+}
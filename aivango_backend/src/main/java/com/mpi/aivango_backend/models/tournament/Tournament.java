@@ -6,6 +6,7 @@ import com.mpi.aivango_backend.models.application.Application;
 import com.mpi.aivango_backend.models.user.UserAccount;
 import com.mpi.aivango_backend.models.user.UserTournamentRole;
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
@@ -21,6 +22,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -35,11 +37,27 @@ public class Tournament {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     private String name;
-    private Float requiredAmount;
+    @Column(precision = 19, scale = 2)
+    private BigDecimal requiredAmount;
     private String description;
-    private Float prizePercentNum;
+    @Column(precision = 5, scale = 2)
+    private BigDecimal prizePercentNum;
     private TournamentStatus tournamentStatus;
     private Integer totalSeats;
+
+    /**
+     * Занятые места. Меняется только атомарными UPDATE в {@link com.mpi.aivango_backend.repository.TournamentRepository},
+     * поэтому сущность его не пишет
+     */
+    @Column(name = "booked_seats", insertable = false, updatable = false)
+    private Integer bookedSeats;
+
+    /**
+     * Собранная сумма подтверждённых спонсорских взносов. Как и счётчик мест, меняется только
+     * атомарным UPDATE вместе с переходом в KNIGHT_REGISTRATION
+     */
+    @Column(name = "collected_amount", precision = 19, scale = 2, insertable = false, updatable = false)
+    private BigDecimal collectedAmount;
     private LocalDate eventDate;
     @JsonIgnore
     @OneToMany(mappedBy = "tournament", cascade = {CascadeType.PERSIST, CascadeType.REMOVE})
@@ -11,7 +11,13 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "votes")
+@Table(name = "votes", uniqueConstraints = {
+        // Один голос зрителя на турнир — гарантируется БД, вставка идёт через ON CONFLICT DO NOTHING
+        @UniqueConstraint(name = "uk_votes_voter_tournament", columnNames = {"voter_id", "tournament_id"})
+}, indexes = {
+        // Покрывает агрегат голосов турнира: GROUP BY voted_for_id с MIN(vote_date)
+        @Index(name = "idx_votes_tournament_voted_for", columnList = "tournament_id, voted_for_id, vote_date")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -0,0 +1,7 @@
+package com.mpi.aivango_backend.models.waitlist;
+
+public enum WaitlistStatus {
+    WAITING,    // в очереди
+    PROMOTED,   // получил билет
+    CANCELLED   // покинул очередь или уже не может получить билет
+}
@@ -1,8 +1,11 @@
 package com.mpi.aivango_backend.repository;
 
+import com.mpi.aivango_backend.dto.application.ApprovedKnightView;
 import com.mpi.aivango_backend.models.application.Application;
 import com.mpi.aivango_backend.models.application.ApplicationStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,6 +13,17 @@ import java.util.Optional;
 public interface ApplicationRepository extends JpaRepository<Application, Long> {
     List<Application> findByTournamentIdAndStatus(Long tournamentId, ApplicationStatus status);
 
+    /**
+     * Участники для формирования сеток одним запросом. Рыцарь с несколькими категориями даёт
+     * по строке на категорию
+     */
+    @Query("SELECT a.knight AS knight, p.weight AS weight, c.id AS categoryId FROM Application a " +
+            "LEFT JOIN UserProfile p ON p.user = a.knight " +
+            "LEFT JOIN a.categoryApplications ca LEFT JOIN ca.category c " +
+            "WHERE a.tournament.id = :tournamentId AND a.status = :status ORDER BY a.id")
+    List<ApprovedKnightView> findApprovedKnights(@Param("tournamentId") Long tournamentId,
+                                                 @Param("status") ApplicationStatus status);
+
     boolean existsByKnightIdAndTournamentIdAndStatus(Long knightId, Long tournamentId, ApplicationStatus status);
 
     boolean existsByKnightIdAndTournamentId(Long knightId, Long tournamentId);
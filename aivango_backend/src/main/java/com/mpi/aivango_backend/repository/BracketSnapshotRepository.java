@@ -0,0 +1,9 @@
+package com.mpi.aivango_backend.repository;
+
+import com.mpi.aivango_backend.models.fight.BracketSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BracketSnapshotRepository extends JpaRepository<BracketSnapshot, Long> {
+}
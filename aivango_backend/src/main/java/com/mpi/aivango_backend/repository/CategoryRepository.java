@@ -2,9 +2,14 @@ package com.mpi.aivango_backend.repository;
 
 import com.mpi.aivango_backend.models.category.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     Optional<Category> findById(Long id);
+
+    @Query("SELECT c FROM Category c WHERE c.minWeight IS NOT NULL OR c.maxWeight IS NOT NULL ORDER BY c.id")
+    List<Category> findWeightClasses();
 }
@@ -2,8 +2,12 @@ package com.mpi.aivango_backend.repository;
 
 import com.mpi.aivango_backend.models.fight.FightHistory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,5 +15,31 @@ public interface FightHistoryRepository extends JpaRepository<FightHistory, Long
 
     List<FightHistory> findByTournamentId(Long tournamentId);
 
-    void deleteByTournamentId(Long tournamentId);
+    /**
+     * Все сетки турнира, к которому относится бой, вместе с участниками, аренами и категориями — одним запросом
+     */
+    @Query("SELECT f FROM FightHistory f JOIN FETCH f.tournament t LEFT JOIN FETCH t.userAccount " +
+            "LEFT JOIN FETCH f.fighter1 LEFT JOIN FETCH f.fighter2 LEFT JOIN FETCH f.winner LEFT JOIN FETCH f.location " +
+            "LEFT JOIN FETCH f.category " +
+            "WHERE t.id = (SELECT g.tournament.id FROM FightHistory g WHERE g.id = :fightId)")
+    List<FightHistory> findBracketByFightId(@Param("fightId") Long fightId);
+
+    @Query("SELECT f FROM FightHistory f JOIN FETCH f.tournament t LEFT JOIN FETCH t.userAccount " +
+            "LEFT JOIN FETCH f.fighter1 LEFT JOIN FETCH f.fighter2 LEFT JOIN FETCH f.winner LEFT JOIN FETCH f.location " +
+            "LEFT JOIN FETCH f.category " +
+            "WHERE t.id = :tournamentId")
+    List<FightHistory> findBracketByTournamentId(@Param("tournamentId") Long tournamentId);
+
+    /**
+     * Сдвинуть время несыгранных боёв одним UPDATE. Версия увеличивается, чтобы параллельная
+     * запись результата по устаревшей строке получила конфликт
+     */
+    @Modifying
+    @Query("UPDATE FightHistory f SET f.fightDate = f.fightDate + :minutes minute, f.version = f.version + 1 " +
+            "WHERE f.id IN :ids AND f.winner IS NULL")
+    int shiftFightDates(@Param("ids") Collection<Long> ids, @Param("minutes") long minutes);
+
+    @Modifying
+    @Query("DELETE FROM FightHistory f WHERE f.tournament.id = :tournamentId")
+    void deleteByTournamentId(@Param("tournamentId") Long tournamentId);
 }
@@ -0,0 +1,21 @@
+package com.mpi.aivango_backend.repository;
+
+import com.mpi.aivango_backend.models.tournament.SeatRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SeatRowRepository extends JpaRepository<SeatRow, Long> {
+
+    /** Порядок рядов задаёт приоритет «лучших» мест: сектор, затем ряд от сцены */
+    List<SeatRow> findByLocationIdOrderBySectionAscRowNumberAsc(Long locationId);
+
+    @Modifying
+    @Query("DELETE FROM SeatRow r WHERE r.location.id = :locationId")
+    void deleteByLocationId(@Param("locationId") Long locationId);
+}
@@ -1,26 +1,55 @@
 package com.mpi.aivango_backend.repository;
 
+import com.mpi.aivango_backend.dto.sponsorship.FundingTotalView;
 import com.mpi.aivango_backend.models.sponsorship.Sponsorship;
 import com.mpi.aivango_backend.models.sponsorship.SponsorshipStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface SponsorshipRepository extends JpaRepository<Sponsorship, Long> {
 
-    @Query("SELECT COALESCE(SUM(s.amount), 0.0) FROM Sponsorship s " +
-            "WHERE s.tournament.id = :tournamentId AND s.status = 'CONFIRMED'")
-    Double getTotalCollectedAmount(Long tournamentId);
-
     List<Sponsorship> findByTournamentIdAndStatus(Long tournamentId, SponsorshipStatus status);
 
-    Optional<Sponsorship> findBySponsorIdAndTournamentId(Long sponsorId, Long tournamentId);
+    @Query("SELECT s.tournament.id AS tournamentId, SUM(s.amount) AS collected, COUNT(s) AS sponsors " +
+            "FROM Sponsorship s WHERE s.tournament.id IN :tournamentIds " +
+            "AND s.status = com.mpi.aivango_backend.models.sponsorship.SponsorshipStatus.CONFIRMED " +
+            "GROUP BY s.tournament.id")
+    List<FundingTotalView> sumConfirmedByTournamentIds(@Param("tournamentIds") Collection<Long> tournamentIds);
+
+    Optional<Sponsorship> findFirstBySponsorIdAndTournamentIdOrderByIdDesc(Long sponsorId, Long tournamentId);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Sponsorship s SET s.logoPath = :logoPath WHERE s.id = :id")
+    int updateLogoPath(@Param("id") Long id, @Param("logoPath") String logoPath);
+
+    /**
+     * Спонсорства по ссылкам платежей с блокировкой строк: параллельные обработчики результатов
+     * (повторный вызов шлюза, второй узел) применяют каждый платёж один раз
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Sponsorship s JOIN FETCH s.sponsor JOIN FETCH s.tournament " +
+            "WHERE s.paymentReference IN :references ORDER BY s.id")
+    List<Sponsorship> findByPaymentReferenceIn(@Param("references") Collection<String> references);
+
+    @Query("SELECT s FROM Sponsorship s JOIN FETCH s.sponsor JOIN FETCH s.tournament " +
+            "WHERE s.status = :status AND s.paymentReference IS NOT NULL")
+    List<Sponsorship> findAwaitingPayment(@Param("status") SponsorshipStatus status);
 
-    @Query("SELECT COALESCE(SUM(s.amount), 0.0) FROM Sponsorship s " +
+    /** Точная сумма взносов в NUMERIC — складывает БД, без загрузки спонсорств */
+    @Query("SELECT COALESCE(SUM(s.amount), 0) FROM Sponsorship s " +
             "WHERE s.tournament.id = :tournamentId AND s.status = :status")
-    Double sumAmountByTournamentIdAndStatus(Long tournamentId, SponsorshipStatus status);
+    BigDecimal sumAmountByTournamentIdAndStatus(Long tournamentId, SponsorshipStatus status);
 }
@@ -1,10 +1,15 @@
 package com.mpi.aivango_backend.repository;
 
+import com.mpi.aivango_backend.dto.ticket.TicketCodeView;
 import com.mpi.aivango_backend.models.ticket.Ticket;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -16,4 +21,27 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
 
     @Query("SELECT COALESCE(SUM(t.seatsCount), 0) FROM Ticket t WHERE t.tournament.id = :tournamentId AND t.confirmed = true")
     Integer sumSeatsCountByTournamentIdAndConfirmedTrue(Long tournamentId);
+
+    /** Все действующие билеты турнира одним запросом — для индекса кодов на воротах */
+    @Query("SELECT t.id AS id, t.bookingCode AS bookingCode, t.seatsCount AS seatsCount, t.checkedInAt AS checkedInAt, " +
+            "t.confirmed AS confirmed, t.updatedAt AS updatedAt " +
+            "FROM Ticket t WHERE t.tournament.id = :tournamentId AND t.confirmed = true")
+    List<TicketCodeView> findCodesByTournamentId(Long tournamentId);
+
+    /** Билеты, изменённые после указанного момента, включая отменённые — для дельты манифеста */
+    @Query("SELECT t.id AS id, t.bookingCode AS bookingCode, t.seatsCount AS seatsCount, t.checkedInAt AS checkedInAt, " +
+            "t.confirmed AS confirmed, t.updatedAt AS updatedAt " +
+            "FROM Ticket t WHERE t.tournament.id = :tournamentId AND t.updatedAt > :since")
+    List<TicketCodeView> findCodesChangedSince(Long tournamentId, LocalDateTime since);
+
+    /** Билеты перечисленных пользователей на турнир, включая отменённые — для обновления открытых ворот */
+    @Query("SELECT t.id AS id, t.bookingCode AS bookingCode, t.seatsCount AS seatsCount, t.checkedInAt AS checkedInAt, " +
+            "t.confirmed AS confirmed, t.updatedAt AS updatedAt " +
+            "FROM Ticket t WHERE t.tournament.id = :tournamentId AND t.user.id IN :userIds")
+    List<TicketCodeView> findCodesByTournamentIdAndUserIds(@Param("tournamentId") Long tournamentId,
+                                                           @Param("userIds") Collection<Long> userIds);
+
+    /** Кто из перечисленных пользователей уже держит действующий билет на турнир */
+    @Query("SELECT t.user.id FROM Ticket t WHERE t.tournament.id = :tournamentId AND t.confirmed = true AND t.user.id IN :userIds")
+    List<Long> findUserIdsWithConfirmedTicket(@Param("tournamentId") Long tournamentId, @Param("userIds") Collection<Long> userIds);
 }
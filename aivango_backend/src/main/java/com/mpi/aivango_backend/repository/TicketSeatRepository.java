@@ -0,0 +1,29 @@
+package com.mpi.aivango_backend.repository;
+
+import com.mpi.aivango_backend.dto.ticket.SeatRefView;
+import com.mpi.aivango_backend.models.ticket.TicketSeat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TicketSeatRepository extends JpaRepository<TicketSeat, Long> {
+
+    /** Занятые места турнира — для построения карты занятости */
+    @Query("SELECT s.seatRow.id AS rowId, s.seatNumber AS seatNumber FROM TicketSeat s WHERE s.tournament.id = :tournamentId")
+    List<SeatRefView> findOccupiedByTournamentId(@Param("tournamentId") Long tournamentId);
+
+    @Query("SELECT s.seatRow.id AS rowId, s.seatNumber AS seatNumber FROM TicketSeat s " +
+            "WHERE s.ticket.id = :ticketId ORDER BY s.seatRow.id, s.seatNumber")
+    List<SeatRefView> findByTicketId(@Param("ticketId") Long ticketId);
+
+    @Modifying
+    @Query("DELETE FROM TicketSeat s WHERE s.ticket.id = :ticketId")
+    int deleteByTicketId(@Param("ticketId") Long ticketId);
+
+    boolean existsBySeatRowLocationId(Long locationId);
+}
@@ -2,18 +2,25 @@ package com.mpi.aivango_backend.repository;
 
 import com.mpi.aivango_backend.models.tournament.Tournament;
 import com.mpi.aivango_backend.models.tournament.TournamentStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 public interface TournamentRepository extends JpaRepository<Tournament, Long> {
     Optional<Tournament> findAllById(Long id);
 
+    List<Tournament> findByTournamentStatus(TournamentStatus tournamentStatus);
+
     @Query("SELECT t FROM Tournament t " +
             "LEFT JOIN FETCH t.finalLocation l " +
             "WHERE (:eventDateFrom IS NULL OR t.eventDate >= :eventDateFrom) " +
@@ -27,4 +34,68 @@ public interface TournamentRepository extends JpaRepository<Tournament, Long> {
             @Param("locationId") Long locationId,
             @Param("status") TournamentStatus status,
             Pageable pageable);
+
+    /**
+     * Занять места, если они ещё есть. Проверка и изменение счётчика — один UPDATE,
+     * поэтому параллельные бронирования не могут превысить вместимость.
+     * @return 1 — места заняты, 0 — свободных мест недостаточно
+     */
+    @Modifying
+    @Query("UPDATE Tournament t SET t.bookedSeats = COALESCE(t.bookedSeats, 0) + :seats " +
+            "WHERE t.id = :tournamentId AND COALESCE(t.bookedSeats, 0) + :seats <= t.totalSeats")
+    int reserveSeats(@Param("tournamentId") Long tournamentId, @Param("seats") int seats);
+
+    @Modifying
+    @Query("UPDATE Tournament t SET t.bookedSeats = t.bookedSeats - :seats " +
+            "WHERE t.id = :tournamentId AND t.bookedSeats >= :seats")
+    int releaseSeats(@Param("tournamentId") Long tournamentId, @Param("seats") int seats);
+
+    @Query("SELECT t.tournamentStatus FROM Tournament t WHERE t.id = :tournamentId")
+    Optional<TournamentStatus> findStatusById(@Param("tournamentId") Long tournamentId);
+
+    @Query("SELECT COALESCE(t.bookedSeats, 0) FROM Tournament t WHERE t.id = :tournamentId")
+    int findBookedSeats(@Param("tournamentId") Long tournamentId);
+
+    /**
+     * Зачесть взнос спонсора, пока цель не достигнута. Прибавка и переход в KNIGHT_REGISTRATION
+     * на достигшем цель взносе — один UPDATE: параллельные спонсоры не проходят мимо закрытого сбора,
+     * а смена статуса не теряется и не повторяется.
+     * @return 1 — взнос зачтён, 0 — сбор уже закрыт
+     */
+    @Modifying
+    @Query("UPDATE Tournament t SET t.collectedAmount = COALESCE(t.collectedAmount, 0) + :amount, " +
+            "t.tournamentStatus = CASE WHEN COALESCE(t.collectedAmount, 0) + :amount >= t.requiredAmount " +
+            "THEN com.mpi.aivango_backend.models.tournament.TournamentStatus.KNIGHT_REGISTRATION " +
+            "ELSE t.tournamentStatus END " +
+            "WHERE t.id = :tournamentId " +
+            "AND t.tournamentStatus = com.mpi.aivango_backend.models.tournament.TournamentStatus.WAITING_DONATION " +
+            "AND COALESCE(t.collectedAmount, 0) < t.requiredAmount")
+    int addFunding(@Param("tournamentId") Long tournamentId, @Param("amount") BigDecimal amount);
+
+    /**
+     * Турнир с блокировкой строки: ждёт транзакции, зачитывающие взносы ({@link #addFunding}), и не пускает новые
+     * до конца текущей транзакции
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Tournament t WHERE t.id = :tournamentId")
+    Optional<Tournament> findByIdForUpdate(@Param("tournamentId") Long tournamentId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Tournament t WHERE t.tournamentStatus = :status")
+    List<Tournament> findByTournamentStatusForUpdate(@Param("status") TournamentStatus status);
+
+    @Query("SELECT COALESCE(t.collectedAmount, 0) FROM Tournament t WHERE t.id = :tournamentId")
+    BigDecimal findCollectedAmount(@Param("tournamentId") Long tournamentId);
+
+    /** Заполнить счётчик собранной суммы у турниров, созданных до его появления */
+    @Modifying
+    @Query(value = "UPDATE tournament t SET collected_amount = (SELECT COALESCE(SUM(s.amount), 0) FROM sponsorships s " +
+            "WHERE s.tournament_id = t.id AND s.status = 'CONFIRMED') WHERE t.collected_amount IS NULL", nativeQuery = true)
+    int backfillCollectedAmount();
+
+    /** Заполнить счётчик занятых мест у турниров, созданных до его появления */
+    @Modifying
+    @Query(value = "UPDATE tournament t SET booked_seats = (SELECT COALESCE(SUM(k.seats_count), 0) FROM tickets k " +
+            "WHERE k.tournament_id = t.id AND k.confirmed = true) WHERE t.booked_seats IS NULL", nativeQuery = true)
+    int backfillBookedSeats();
 }
@@ -5,10 +5,16 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 
 public interface UserRepository extends JpaRepository<UserAccount, Long> {
     @Query(value = "SELECT * FROM user_account WHERE email = :email", nativeQuery = true)
     Optional<UserAccount> getByEmail(@Param("email") String email1);
+
+    /** Поиск пачки пользователей по email без учёта регистра; emails передаются в нижнем регистре */
+    @Query("SELECT u FROM UserAccount u WHERE LOWER(u.email) IN :emails")
+    List<UserAccount> findByLowerEmailIn(@Param("emails") Collection<String> emails);
 }
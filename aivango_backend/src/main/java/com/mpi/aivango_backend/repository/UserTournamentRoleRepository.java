@@ -1,10 +1,16 @@
 package com.mpi.aivango_backend.repository;
 
 import com.mpi.aivango_backend.models.user.TournamentRolesEnum;
+import com.mpi.aivango_backend.models.user.UserAccount;
 import com.mpi.aivango_backend.models.user.UserTournamentRole;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -16,5 +22,21 @@ public interface UserTournamentRoleRepository extends JpaRepository<UserTourname
 
     List<UserTournamentRole> findByUserId(Long userId);
 
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM UserTournamentRole r WHERE r.user.id = :userId AND r.tournament.id = :tournamentId AND r.role = :role")
+    void deleteByUserIdAndTournamentIdAndRole(@Param("userId") Long userId, @Param("tournamentId") Long tournamentId,
+                                             @Param("role") TournamentRolesEnum role);
+
     List<UserTournamentRole> findByTournamentIdAndRole(Long tournamentId, TournamentRolesEnum role);
+
+    /** Кто из перечисленных пользователей уже участвует в турнире в любой роли */
+    @Query("SELECT DISTINCT r.user.id FROM UserTournamentRole r WHERE r.tournament.id = :tournamentId AND r.user.id IN :userIds")
+    List<Long> findParticipantIds(@Param("tournamentId") Long tournamentId, @Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT r.user.id FROM UserTournamentRole r WHERE r.tournament.id = :tournamentId AND r.role = :role")
+    List<Long> findUserIdsByTournamentIdAndRole(@Param("tournamentId") Long tournamentId, @Param("role") TournamentRolesEnum role);
+
+    @Query("SELECT r.user FROM UserTournamentRole r WHERE r.tournament.id = :tournamentId AND r.role = :role")
+    List<UserAccount> findUsersByTournamentIdAndRole(@Param("tournamentId") Long tournamentId, @Param("role") TournamentRolesEnum role);
 }
@@ -1,7 +1,10 @@
 package com.mpi.aivango_backend.repository;
 
+import com.mpi.aivango_backend.dto.vote.VoteTallyView;
 import com.mpi.aivango_backend.models.vote.Vote;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,7 +12,19 @@ import java.util.Optional;
 
 @Repository
 public interface VoteRepository extends JpaRepository<Vote, Long> {
-    boolean existsByVoterIdAndTournamentId(Long voterId, Long tournamentId);
     Optional<Vote> findByVoterIdAndTournamentId(Long voterId, Long tournamentId);
     List<Vote> findByTournamentId(Long tournamentId);
+
+    /**
+     * Рейтинг рыцарей по голосам одним агрегирующим запросом.
+     * При равенстве голосов выше тот, за кого проголосовали раньше, затем — меньший id
+     */
+    @Query("SELECT v.votedFor.id AS knightId, COUNT(v) AS votes, MIN(v.voteDate) AS firstVoteAt " +
+            "FROM Vote v WHERE v.tournament.id = :tournamentId " +
+            "GROUP BY v.votedFor.id " +
+            "ORDER BY COUNT(v) DESC, MIN(v.voteDate) ASC, v.votedFor.id ASC")
+    List<VoteTallyView> tallyByTournamentId(@Param("tournamentId") Long tournamentId);
+
+    @Query("SELECT v.voter.id FROM Vote v WHERE v.tournament.id = :tournamentId")
+    List<Long> findVoterIdsByTournamentId(@Param("tournamentId") Long tournamentId);
 }
@@ -0,0 +1,35 @@
+package com.mpi.aivango_backend.repository;
+
+import com.mpi.aivango_backend.models.waitlist.WaitlistEntry;
+import com.mpi.aivango_backend.models.waitlist.WaitlistStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    Optional<WaitlistEntry> findFirstByUserIdAndTournamentIdAndStatus(Long userId, Long tournamentId, WaitlistStatus status);
+
+    /**
+     * Захватить голову очереди. Если голову держит другой обработчик, запрос ждёт его фиксации,
+     * а не берёт следующую запись, — так очередь не обгоняется и одно место не выдаётся дважды.
+     * Пусто — очередь пуста или голову только что продвинул другой обработчик
+     */
+    @Query(value = "SELECT * FROM waitlist_entries WHERE tournament_id = :tournamentId AND status = 'WAITING' " +
+            "ORDER BY id LIMIT 1 FOR UPDATE", nativeQuery = true)
+    Optional<WaitlistEntry> claimNext(@Param("tournamentId") Long tournamentId);
+
+    /** Сколько записей стоит в очереди перед указанной */
+    @Query("SELECT COUNT(w) FROM WaitlistEntry w WHERE w.tournament.id = :tournamentId " +
+            "AND w.status = com.mpi.aivango_backend.models.waitlist.WaitlistStatus.WAITING AND w.id < :entryId")
+    long countAhead(@Param("tournamentId") Long tournamentId, @Param("entryId") Long entryId);
+
+    @Query("SELECT DISTINCT w.tournament.id FROM WaitlistEntry w " +
+            "WHERE w.status = com.mpi.aivango_backend.models.waitlist.WaitlistStatus.WAITING")
+    List<Long> findTournamentIdsWithWaiting();
+}
@@ -0,0 +1,343 @@
+package com.mpi.aivango_backend.services.checkin;
+
+import com.mpi.aivango_backend.dto.ticket.CheckInResultDTO;
+import com.mpi.aivango_backend.dto.ticket.GateStatsDTO;
+import com.mpi.aivango_backend.dto.ticket.ScanLogResultDTO;
+import com.mpi.aivango_backend.dto.ticket.ScanLogUploadRequest;
+import com.mpi.aivango_backend.dto.ticket.TicketCodeView;
+import com.mpi.aivango_backend.models.ticket.CheckInStatus;
+import com.mpi.aivango_backend.models.tournament.Tournament;
+import com.mpi.aivango_backend.models.tournament.TournamentStatus;
+import com.mpi.aivango_backend.repository.TicketRepository;
+import com.mpi.aivango_backend.repository.TournamentRepository;
+import com.mpi.aivango_backend.services.ticket.SpectatorsChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Проход зрителей через ворота.
+ * При открытии ворот все действующие коды турнира загружаются в память, сканирование
+ * проверяется и отмечается без обращения к БД, а отметки прохода пишутся в БД пачками.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class GateCheckInService {
+
+    private static final int FLUSH_BATCH_SIZE = 500;
+    private static final String MARK_CHECKED_IN_SQL =
+            "UPDATE tickets SET checked_in_at = ?, updated_at = ? WHERE id = ? AND checked_in_at IS NULL";
+
+    private final TicketRepository ticketRepository;
+    private final TournamentRepository tournamentRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, GateIndex> gates = new ConcurrentHashMap<>();
+
+    /**
+     * Открыть ворота: загрузить коды бронирования турнира в память.
+     * Индекс публикуется до запроса кодов, чтобы изменения билетов во время загрузки не терялись
+     */
+    @Transactional(readOnly = true)
+    public GateStatsDTO openGate(Long tournamentId, Long organizerId) {
+        Tournament tournament = tournamentRepository.findById(tournamentId)
+                .orElseThrow(() -> new IllegalArgumentException("Турнир не найден"));
+
+        if (!tournament.getUserAccount().getId().equals(organizerId)) {
+            throw new IllegalArgumentException("Только организатор турнира может открыть вход");
+        }
+
+        if (tournament.getTournamentStatus() != TournamentStatus.TICKET_SALES
+                && tournament.getTournamentStatus() != TournamentStatus.ACTIVE) {
+            throw new IllegalArgumentException("Вход доступен только для турнира с продажей билетов или активного");
+        }
+
+        GateIndex opening = new GateIndex(tournamentId, tournament.getUserAccount().getEmail());
+        GateIndex gate = gates.putIfAbsent(tournamentId, opening);
+        if (gate != null) {
+            return toStats(gate);
+        }
+        try {
+            load(opening);
+        } catch (RuntimeException e) {
+            gates.remove(tournamentId, opening);
+            throw e;
+        }
+        return toStats(opening);
+    }
+
+    /**
+     * Загрузить коды в опубликованный индекс и перечитать билеты пользователей, изменившиеся во время загрузки:
+     * их события могли прийти раньше, чем запрос кодов увидел изменения
+     */
+    private void load(GateIndex gate) {
+        List<TicketCodeView> tickets = ticketRepository.findCodesByTournamentId(gate.getTournamentId());
+        gate.load(tickets);
+        List<Long> changed;
+        while (!(changed = gate.drainChangedWhileLoading()).isEmpty()) {
+            gate.apply(ticketRepository.findCodesByTournamentIdAndUserIds(gate.getTournamentId(), changed));
+        }
+        log.info("Вход на турнир {} открыт, загружено билетов: {}", gate.getTournamentId(), tickets.size());
+    }
+
+    /**
+     * Закрыть ворота: остановить сканирования, дописать отметки в БД и только потом освободить индекс.
+     * Если БД отметки не приняла, ворота остаются открытыми и закрытие можно повторить
+     */
+    public GateStatsDTO closeGate(Long tournamentId, String organizerEmail) {
+        GateIndex gate = requireGate(tournamentId, organizerEmail);
+        gate.getScanLock().writeLock().lock();
+        try {
+            if (gate.isClosed()) {
+                throw new IllegalArgumentException("Вход на турнир не открыт");
+            }
+            flushOrFail(gate);
+            gate.close();
+            gates.remove(tournamentId, gate);
+        } finally {
+            gate.getScanLock().writeLock().unlock();
+        }
+        log.info("Вход на турнир {} закрыт, впущено по билетам: {}", tournamentId, gate.getAdmitted().sum());
+        return toStats(gate);
+    }
+
+    /**
+     * Проверить билет на входе. Повторное сканирование того же кода безопасно
+     * и возвращает время первого прохода. Оператор сверяется по email из токена,
+     * так что на сканирование не приходится ни одного запроса к БД.
+     */
+    public CheckInResultDTO checkIn(Long tournamentId, String bookingCode, String operatorEmail) {
+        GateIndex gate = gates.get(tournamentId);
+        if (gate == null || gate.isLoading()) {
+            return CheckInResultDTO.builder().status(CheckInStatus.GATE_CLOSED).build();
+        }
+        checkOperator(gate, operatorEmail);
+        return checkIn(gate, bookingCode, LocalDateTime.now());
+    }
+
+    public GateStatsDTO getStats(Long tournamentId, String operatorEmail) {
+        return toStats(requireGate(tournamentId, operatorEmail));
+    }
+
+    /**
+     * Применить журнал сканирований, накопленный сканером без связи.
+     * Сканирования применяются в порядке времени, так что при конфликте двух сканеров
+     * проходом считается более раннее. Если ворота открыты, журнал идёт через
+     * общий индекс, иначе индекс строится на время загрузки и сразу пишется в БД;
+     * если запись не удалась, журнал не принят и сканер выгружает его повторно.
+     */
+    public ScanLogResultDTO applyScanLog(Long tournamentId, List<ScanLogUploadRequest.ScanEntry> scans,
+                                         String operatorEmail) {
+        GateIndex gate = gates.get(tournamentId);
+        if (gate != null && !gate.isLoading()) {
+            checkOperator(gate, operatorEmail);
+            gate.getScanLock().readLock().lock();
+            try {
+                if (!gate.isClosed()) {
+                    return applyScans(gate, scans);
+                }
+            } finally {
+                gate.getScanLock().readLock().unlock();
+            }
+        }
+
+        GateIndex temporary = loadTemporaryGate(tournamentId, operatorEmail);
+        ScanLogResultDTO result = applyScans(temporary, scans);
+        flushOrFail(temporary);
+        return result;
+    }
+
+    private ScanLogResultDTO applyScans(GateIndex gate, List<ScanLogUploadRequest.ScanEntry> scans) {
+        LocalDateTime receivedAt = LocalDateTime.now();
+        List<ScanLogUploadRequest.ScanEntry> ordered = new ArrayList<>(scans);
+        ordered.sort(Comparator.comparing(ScanLogUploadRequest.ScanEntry::getScannedAt,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+
+        int accepted = 0;
+        int duplicates = 0;
+        int unknown = 0;
+        for (ScanLogUploadRequest.ScanEntry scan : ordered) {
+            LocalDateTime scannedAt = scan.getScannedAt() != null ? scan.getScannedAt() : receivedAt;
+            switch (register(gate, scan.getBookingCode(), scannedAt).getStatus()) {
+                case ADMITTED -> accepted++;
+                case ALREADY_CHECKED_IN -> duplicates++;
+                default -> unknown++;
+            }
+        }
+
+        return ScanLogResultDTO.builder()
+                .accepted(accepted)
+                .duplicates(duplicates)
+                .unknown(unknown)
+                .build();
+    }
+
+    CheckInResultDTO checkIn(GateIndex gate, String bookingCode, LocalDateTime scannedAt) {
+        gate.getScanLock().readLock().lock();
+        try {
+            if (gate.isClosed()) {
+                return CheckInResultDTO.builder().status(CheckInStatus.GATE_CLOSED).build();
+            }
+            gate.getScanRate().record();
+            return register(gate, bookingCode, scannedAt);
+        } finally {
+            gate.getScanLock().readLock().unlock();
+        }
+    }
+
+    private CheckInResultDTO register(GateIndex gate, String bookingCode, LocalDateTime scannedAt) {
+        GateIndex.GateTicket ticket = bookingCode != null ? gate.find(bookingCode.trim()) : null;
+        if (ticket == null) {
+            gate.getUnknownScans().increment();
+            return CheckInResultDTO.builder().status(CheckInStatus.UNKNOWN_CODE).build();
+        }
+
+        if (ticket.markCheckedIn(scannedAt)) {
+            gate.getAdmitted().increment();
+            gate.getAdmittedSeats().add(ticket.seatsCount);
+            gate.enqueue(new GateIndex.PendingCheckIn(ticket.ticketId, scannedAt));
+            return CheckInResultDTO.builder()
+                    .status(CheckInStatus.ADMITTED)
+                    .seatsCount(ticket.seatsCount)
+                    .checkedInAt(scannedAt)
+                    .build();
+        }
+
+        gate.getDuplicateScans().increment();
+        return CheckInResultDTO.builder()
+                .status(CheckInStatus.ALREADY_CHECKED_IN)
+                .seatsCount(ticket.seatsCount)
+                .checkedInAt(ticket.checkedInAt.get())
+                .build();
+    }
+
+    /**
+     * Ворота могут быть открыты ещё во время продаж — новые бронирования и отмены
+     * после фиксации сразу попадают в индекс открытых ворот
+     */
+    @TransactionalEventListener
+    public void onSpectatorsChanged(SpectatorsChangedEvent event) {
+        GateIndex gate = gates.get(event.tournamentId());
+        if (gate == null) {
+            return;
+        }
+        List<Long> userIds = new ArrayList<>(event.admittedUserIds());
+        userIds.addAll(event.cancelledUserIds());
+        if (gate.deferWhileLoading(userIds)) {
+            return;
+        }
+        try {
+            gate.apply(ticketRepository.findCodesByTournamentIdAndUserIds(event.tournamentId(), userIds));
+        } catch (Exception e) {
+            log.error("Не удалось обновить индекс ворот турнира {}", event.tournamentId(), e);
+        }
+    }
+
+    /**
+     * Пакетная запись отметок прохода всех открытых ворот
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void flushPendingCheckIns() {
+        gates.values().forEach(this::flush);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushPendingCheckIns();
+    }
+
+    /**
+     * Записать очередь отметок в БД
+     * @return false, если часть отметок не записана и осталась в очереди
+     */
+    private boolean flush(GateIndex gate) {
+        gate.getFlushLock().lock();
+        try {
+            List<GateIndex.PendingCheckIn> batch = new ArrayList<>(FLUSH_BATCH_SIZE);
+            GateIndex.PendingCheckIn next;
+            while ((next = gate.poll()) != null) {
+                batch.add(next);
+                if (batch.size() == FLUSH_BATCH_SIZE) {
+                    if (!writeBatch(gate, batch)) {
+                        return false;
+                    }
+                    batch = new ArrayList<>(FLUSH_BATCH_SIZE);
+                }
+            }
+            return batch.isEmpty() || writeBatch(gate, batch);
+        } finally {
+            gate.getFlushLock().unlock();
+        }
+    }
+
+    private void flushOrFail(GateIndex gate) {
+        if (!flush(gate)) {
+            throw new IllegalStateException("Не удалось записать отметки прохода турнира " + gate.getTournamentId());
+        }
+    }
+
+    private boolean writeBatch(GateIndex gate, List<GateIndex.PendingCheckIn> batch) {
+        try {
+            jdbcTemplate.batchUpdate(MARK_CHECKED_IN_SQL, batch.stream()
+                    .map(checkIn -> new Object[]{checkIn.checkedInAt(), LocalDateTime.now(), checkIn.ticketId()})
+                    .toList());
+            return true;
+        } catch (Exception e) {
+            // Отметки уже учтены в памяти — возвращаем их в очередь и повторим на следующем цикле
+            log.error("Не удалось записать {} отметок прохода для турнира {}", batch.size(), gate.getTournamentId(), e);
+            batch.forEach(gate::enqueue);
+            return false;
+        }
+    }
+
+    private GateIndex loadTemporaryGate(Long tournamentId, String operatorEmail) {
+        Tournament tournament = tournamentRepository.findById(tournamentId)
+                .orElseThrow(() -> new IllegalArgumentException("Турнир не найден"));
+        GateIndex gate = new GateIndex(tournamentId, tournament.getUserAccount().getEmail(),
+                ticketRepository.findCodesByTournamentId(tournamentId));
+        checkOperator(gate, operatorEmail);
+        return gate;
+    }
+
+    private GateIndex requireGate(Long tournamentId, String operatorEmail) {
+        GateIndex gate = gates.get(tournamentId);
+        if (gate == null) {
+            throw new IllegalArgumentException("Вход на турнир не открыт");
+        }
+        checkOperator(gate, operatorEmail);
+        return gate;
+    }
+
+    private void checkOperator(GateIndex gate, String operatorEmail) {
+        if (!gate.getOrganizerEmail().equalsIgnoreCase(operatorEmail)) {
+            throw new IllegalArgumentException("Только организатор турнира может управлять входом");
+        }
+    }
+
+    private GateStatsDTO toStats(GateIndex gate) {
+        return GateStatsDTO.builder()
+                .tournamentId(gate.getTournamentId())
+                .openedAt(gate.getOpenedAt())
+                .loadedTickets(gate.getTicketsByCode().size())
+                .admitted(gate.getAdmitted().sum())
+                .admittedSeats(gate.getAdmittedSeats().sum())
+                .duplicateScans(gate.getDuplicateScans().sum())
+                .unknownScans(gate.getUnknownScans().sum())
+                .scansPerSecond(gate.getScanRate().perSecond())
+                .pendingFlush(gate.getPendingCount().get())
+                .build();
+    }
+}
@@ -0,0 +1,168 @@
+package com.mpi.aivango_backend.services.checkin;
+
+import com.mpi.aivango_backend.dto.ticket.TicketCodeView;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Индекс кодов бронирования одного турнира на время работы ворот.
+ * Таблица кодов строится при открытии и дальше пополняется новыми бронированиями
+ * и теряет отменённые, пока ворота открыты во время продаж; состояние каждого билета меняется атомарно (CAS), поэтому сканеры не блокируют друг друга.
+ * Сканирования идут под общей блокировкой {@link #scanLock}, закрытие ворот — под исключительной:
+ * после закрытия ни одна отметка не попадает в очередь, которую уже никто не запишет.
+ * Открываемые ворота публикуются раньше загрузки кодов: изменения билетов, пришедшие во время загрузки,
+ * запоминаются и перечитываются после неё, а сканирования до конца загрузки не принимаются.
+ */
+@Getter
+class GateIndex {
+
+    private final Long tournamentId;
+    private final String organizerEmail;
+    private final LocalDateTime openedAt = LocalDateTime.now();
+    private final Map<String, GateTicket> ticketsByCode;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder admittedSeats = new LongAdder();
+    private final LongAdder duplicateScans = new LongAdder();
+    private final LongAdder unknownScans = new LongAdder();
+    private final ScanRateMeter scanRate = new ScanRateMeter();
+
+    /** Отметки прохода, ещё не записанные в БД */
+    private final Queue<PendingCheckIn> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    private final ReadWriteLock scanLock = new ReentrantReadWriteLock();
+    /** Запись очереди в БД идёт одним потоком: неудачная пачка возвращается в очередь раньше следующей записи */
+    private final Lock flushLock = new ReentrantLock();
+    private volatile boolean closed;
+    private volatile boolean loading = true;
+    /** Пользователи, чьи билеты менялись во время загрузки; доступ под монитором индекса */
+    @Getter(AccessLevel.NONE)
+    private final Set<Long> changedWhileLoading = new HashSet<>();
+
+    /** Пустой индекс открываемых ворот — коды загружаются после публикации */
+    GateIndex(Long tournamentId, String organizerEmail) {
+        this.tournamentId = tournamentId;
+        this.organizerEmail = organizerEmail;
+        this.ticketsByCode = new ConcurrentHashMap<>();
+    }
+
+    GateIndex(Long tournamentId, String organizerEmail, List<TicketCodeView> tickets) {
+        this(tournamentId, organizerEmail);
+        load(tickets);
+        loading = false;
+    }
+
+    /**
+     * Загрузить коды турнира. Уже известные индексу билеты не перезаписываются:
+     * они пришли из событий, которые новее загрузки
+     */
+    void load(List<TicketCodeView> tickets) {
+        for (TicketCodeView ticket : tickets) {
+            ticketsByCode.putIfAbsent(ticket.getBookingCode(), toGateTicket(ticket));
+        }
+    }
+
+    /**
+     * Запомнить пользователей с изменившимися билетами, если индекс ещё загружается
+     * @return false — загрузка закончена, изменения нужно применить сразу
+     */
+    synchronized boolean deferWhileLoading(Collection<Long> userIds) {
+        if (!loading) {
+            return false;
+        }
+        changedWhileLoading.addAll(userIds);
+        return true;
+    }
+
+    /**
+     * Забрать отложенных пользователей; если их нет — загрузка закончена и ворота начинают принимать сканирования
+     */
+    synchronized List<Long> drainChangedWhileLoading() {
+        if (changedWhileLoading.isEmpty()) {
+            loading = false;
+            return List.of();
+        }
+        List<Long> userIds = new ArrayList<>(changedWhileLoading);
+        changedWhileLoading.clear();
+        return userIds;
+    }
+
+    /**
+     * Учесть изменившиеся билеты: действующие добавляются, отменённые убираются,
+     * если по ним ещё не было прохода
+     */
+    void apply(List<TicketCodeView> tickets) {
+        for (TicketCodeView ticket : tickets) {
+            if (ticket.isConfirmed()) {
+                ticketsByCode.putIfAbsent(ticket.getBookingCode(), toGateTicket(ticket));
+            } else {
+                ticketsByCode.computeIfPresent(ticket.getBookingCode(),
+                        (code, current) -> current.checkedInAt.get() != null ? current : null);
+            }
+        }
+    }
+
+    private static GateTicket toGateTicket(TicketCodeView ticket) {
+        return new GateTicket(ticket.getId(), ticket.getSeatsCount(), ticket.getCheckedInAt());
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    GateTicket find(String bookingCode) {
+        return ticketsByCode.get(bookingCode);
+    }
+
+    void enqueue(PendingCheckIn checkIn) {
+        pending.add(checkIn);
+        pendingCount.incrementAndGet();
+    }
+
+    PendingCheckIn poll() {
+        PendingCheckIn checkIn = pending.poll();
+        if (checkIn != null) {
+            pendingCount.decrementAndGet();
+        }
+        return checkIn;
+    }
+
+    static final class GateTicket {
+        final long ticketId;
+        final int seatsCount;
+        final AtomicReference<LocalDateTime> checkedInAt;
+
+        GateTicket(long ticketId, int seatsCount, LocalDateTime checkedInAt) {
+            this.ticketId = ticketId;
+            this.seatsCount = seatsCount;
+            this.checkedInAt = new AtomicReference<>(checkedInAt);
+        }
+
+        /** Переход «не использован → использован»; повторный вызов ничего не меняет */
+        boolean markCheckedIn(LocalDateTime at) {
+            return checkedInAt.compareAndSet(null, at);
+        }
+    }
+
+    record PendingCheckIn(long ticketId, LocalDateTime checkedInAt) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.mpi.aivango_backend.services.checkin;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Скользящий счётчик сканирований по секундным корзинам, без блокировок
+ */
+class ScanRateMeter {
+
+    private static final int WINDOW_SECONDS = 10;
+    private static final int BUCKETS = WINDOW_SECONDS + 2;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray epochs = new AtomicLongArray(BUCKETS);
+
+    void record() {
+        long second = System.currentTimeMillis() / 1000;
+        int bucket = (int) (second % BUCKETS);
+        long bucketEpoch = epochs.get(bucket);
+        if (bucketEpoch != second && epochs.compareAndSet(bucket, bucketEpoch, second)) {
+            counts.set(bucket, 0);
+        }
+        counts.incrementAndGet(bucket);
+    }
+
+    /** Среднее число сканирований в секунду за последние завершённые секунды */
+    double perSecond() {
+        long now = System.currentTimeMillis() / 1000;
+        long total = 0;
+        for (long second = now - WINDOW_SECONDS; second < now; second++) {
+            int bucket = (int) (second % BUCKETS);
+            if (epochs.get(bucket) == second) {
+                total += counts.get(bucket);
+            }
+        }
+        return (double) total / WINDOW_SECONDS;
+    }
+}
@@ -0,0 +1,140 @@
+package com.mpi.aivango_backend.services.checkin;
+
+import com.mpi.aivango_backend.dto.ticket.TicketCodeView;
+import com.mpi.aivango_backend.dto.ticket.TicketManifest;
+import com.mpi.aivango_backend.models.tournament.Tournament;
+import com.mpi.aivango_backend.repository.TicketRepository;
+import com.mpi.aivango_backend.repository.TournamentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Компактный манифест действующих билетов для сканеров, работающих без сети.
+ * Сканер хранит только хеши кодов и сверяет с ними хеш отсканированного QR;
+ * дельты по версии подтягивают новые бронирования, отмены и чужие проходы.
+ */
+@Service
+@RequiredArgsConstructor
+public class TicketManifestService {
+
+    public static final int MAGIC = 0x4156474D; // "AVGM"
+    public static final byte FORMAT_VERSION = 1;
+    public static final byte KIND_FULL = 0;
+    public static final byte KIND_DELTA = 1;
+    public static final byte FLAG_CHECKED_IN = 1;
+    public static final byte FLAG_CANCELLED = 2;
+
+    private static final int HEADER_SIZE = 4 + 1 + 8 + 8 + 1 + 4;
+    private static final int ENTRY_SIZE = 8 + 1 + 1;
+
+    /** Запас на транзакции, зафиксированные позже собственного updated_at */
+    private static final Duration DELTA_OVERLAP = Duration.ofMinutes(1);
+
+    private final TicketRepository ticketRepository;
+    private final TournamentRepository tournamentRepository;
+
+    @Transactional(readOnly = true)
+    public TicketManifest buildFullManifest(Long tournamentId, String operatorEmail) {
+        checkOrganizer(tournamentId, operatorEmail);
+        List<TicketCodeView> tickets = ticketRepository.findCodesByTournamentId(tournamentId);
+        return encode(tournamentId, KIND_FULL, tickets, 0);
+    }
+
+    /**
+     * Дельта с момента версии {@code sinceVersion}. Записи могут повторяться между дельтами —
+     * сканер применяет их идемпотентно по хешу кода.
+     */
+    @Transactional(readOnly = true)
+    public TicketManifest buildDelta(Long tournamentId, long sinceVersion, String operatorEmail) {
+        checkOrganizer(tournamentId, operatorEmail);
+        LocalDateTime since = toDateTime(sinceVersion).minus(DELTA_OVERLAP);
+        List<TicketCodeView> changed = ticketRepository.findCodesChangedSince(tournamentId, since);
+        return encode(tournamentId, KIND_DELTA, changed, sinceVersion);
+    }
+
+    /** Первые 8 байт SHA-256 кода бронирования — так же хеширует код сканер */
+    public static long hashCode(String bookingCode) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bookingCode.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest, 0, Long.BYTES).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    private TicketManifest encode(Long tournamentId, byte kind, List<TicketCodeView> tickets, long minVersion) {
+        long[] hashes = new long[tickets.size()];
+        long version = minVersion;
+        for (int i = 0; i < tickets.size(); i++) {
+            hashes[i] = hashCode(tickets.get(i).getBookingCode());
+            if (tickets.get(i).getUpdatedAt() != null) {
+                version = Math.max(version, toVersion(tickets.get(i).getUpdatedAt()));
+            }
+        }
+
+        // Сортируем индексы по хешу: сканер ищет по манифесту двоичным поиском
+        Integer[] order = new Integer[tickets.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(hashes[a], hashes[b]));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_SIZE + ENTRY_SIZE * tickets.size());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(tournamentId);
+            out.writeLong(version);
+            out.writeByte(kind);
+            out.writeInt(tickets.size());
+            for (int index : order) {
+                TicketCodeView ticket = tickets.get(index);
+                int flags = 0;
+                if (ticket.getCheckedInAt() != null) {
+                    flags |= FLAG_CHECKED_IN;
+                }
+                if (!ticket.isConfirmed()) {
+                    flags |= FLAG_CANCELLED;
+                }
+                out.writeLong(hashes[index]);
+                out.writeByte(ticket.getSeatsCount());
+                out.writeByte(flags);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new TicketManifest(version, tickets.size(), bytes.toByteArray());
+    }
+
+    private void checkOrganizer(Long tournamentId, String operatorEmail) {
+        Tournament tournament = tournamentRepository.findById(tournamentId)
+                .orElseThrow(() -> new IllegalArgumentException("Турнир не найден"));
+        if (!tournament.getUserAccount().getEmail().equalsIgnoreCase(operatorEmail)) {
+            throw new IllegalArgumentException("Только организатор турнира может выгружать манифест билетов");
+        }
+    }
+
+    private static long toVersion(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long version) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(version), ZoneId.systemDefault());
+    }
+}
@@ -20,6 +20,7 @@ import javax.mail.internet.MimeBodyPart;
 import javax.mail.internet.MimeMessage;
 import javax.mail.internet.MimeMultipart;
 import javax.mail.util.ByteArrayDataSource;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Properties;
 import java.util.Random;
@@ -215,7 +216,7 @@ public class EmailSendService {
                 + "</html>";
     }
 
-    private String createTournamentAnnouncementEmail(String name, String description, Float requiredAmount, Float winnerPercentage) {
+    private String createTournamentAnnouncementEmail(String name, String description, BigDecimal requiredAmount, BigDecimal winnerPercentage) {
         return "<!DOCTYPE html>"
                 + "<html lang=\"ru\">"
                 + "<head>"
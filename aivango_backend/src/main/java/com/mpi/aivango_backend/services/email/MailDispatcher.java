@@ -0,0 +1,71 @@
+package com.mpi.aivango_backend.services.email;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Общая очередь отправки писем. SMTP вынесен из транзакций: письма ставятся в очередь после фиксации
+ * и уходят небольшим пулом потоков, так что ни покупка билетов, ни запись результатов боёв не ждут почтовый сервер
+ */
+@Component
+@Slf4j
+public class MailDispatcher {
+
+    private static final int MAIL_THREADS = 2;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(MAIL_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "mail-send");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Отправить письма после фиксации текущей транзакции (или сразу, если транзакции нет).
+     * При откате письма не уходят. {@code send} вызывается в потоке отправки для каждого письма
+     */
+    public <T> void sendAfterCommit(List<T> mails, Consumer<T> send) {
+        if (mails.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(mails, send);
+                }
+            });
+        } else {
+            submit(mails, send);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Не все письма отправлены до остановки");
+        }
+    }
+
+    private <T> void submit(List<T> mails, Consumer<T> send) {
+        for (T mail : mails) {
+            executor.execute(() -> {
+                try {
+                    send.accept(mail);
+                } catch (Exception e) {
+                    log.error("Ошибка при отправке письма", e);
+                }
+            });
+        }
+        log.info("В очередь отправки поставлено писем: {}", mails.size());
+    }
+}
@@ -0,0 +1,14 @@
+package com.mpi.aivango_backend.services.fight;
+
+import java.util.List;
+
+/**
+ * Сетка турнира изменилась (сформирована, записан результат, перенесён бой) — снимок нужно перестроить.
+ * {@code updates} перечисляет затронутые матчи для живой ленты; пустой список — сетка сменилась целиком
+ */
+public record BracketChangedEvent(Long tournamentId, List<BracketUpdate> updates) {
+
+    public BracketChangedEvent(Long tournamentId) {
+        this(tournamentId, List.of());
+    }
+}
@@ -0,0 +1,190 @@
+package com.mpi.aivango_backend.services.fight;
+
+import com.mpi.aivango_backend.models.fight.FightHistory;
+import com.mpi.aivango_backend.models.fight.FightRound;
+import com.mpi.aivango_backend.models.user.UserAccount;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Сетка турнира в памяти: все бои загружаются одним запросом и индексируются по ID, раунду
+ * и следующему матчу. Результат боя и его последствия (выход победителя дальше, проигравший
+ * полуфиналист — в бой за бронзу) применяются здесь же, а в БД уходят только изменённые бои из {@link #changed()}.
+ * У турнира с категориями несколько независимых сеток — раунды и бой за бронзу ищутся в сетке своей категории
+ */
+public final class BracketGraph {
+
+    private final Map<Long, FightHistory> byId = new HashMap<>();
+    private final Map<Long, List<FightHistory>> feeders = new HashMap<>();
+    private final Map<Long, Map<Integer, List<FightHistory>>> byRound = new HashMap<>();
+    private final Map<Long, FightHistory> bronzes = new HashMap<>();
+    private final Map<Long, FightHistory> changed = new LinkedHashMap<>();
+
+    private BracketGraph(List<FightHistory> fights) {
+        for (FightHistory fight : fights) {
+            byId.put(fight.getId(), fight);
+            if (fight.getNextMatchId() != null) {
+                feeders.computeIfAbsent(fight.getNextMatchId(), id -> new ArrayList<>()).add(fight);
+            }
+            if (fight.getRoundNumber() != null) {
+                byRound.computeIfAbsent(bracketKey(fight), key -> new TreeMap<>())
+                        .computeIfAbsent(fight.getRoundNumber(), round -> new ArrayList<>()).add(fight);
+            }
+            if (fight.getRound() == FightRound.BRONZE) {
+                bronzes.put(bracketKey(fight), fight);
+            }
+        }
+    }
+
+    public static BracketGraph of(List<FightHistory> fights) {
+        return new BracketGraph(fights);
+    }
+
+    public FightHistory fight(Long fightId) {
+        FightHistory fight = byId.get(fightId);
+        if (fight == null) {
+            throw new IllegalArgumentException("Бой не найден");
+        }
+        return fight;
+    }
+
+    public Optional<FightHistory> next(FightHistory fight) {
+        return Optional.ofNullable(fight.getNextMatchId()).map(byId::get);
+    }
+
+    /**
+     * Бои, победители которых выходят в данный
+     */
+    public List<FightHistory> feeders(FightHistory fight) {
+        return feeders.getOrDefault(fight.getId(), List.of());
+    }
+
+    public Collection<FightHistory> fights() {
+        return byId.values();
+    }
+
+    /**
+     * Бои раунда в той же сетке, что и {@code fight}
+     */
+    public List<FightHistory> round(FightHistory fight, int roundNumber) {
+        return byRound.getOrDefault(bracketKey(fight), Map.of()).getOrDefault(roundNumber, List.of());
+    }
+
+    /**
+     * Бой за бронзу в той же сетке, что и {@code fight}
+     */
+    public Optional<FightHistory> bronze(FightHistory fight) {
+        return Optional.ofNullable(bronzes.get(bracketKey(fight)));
+    }
+
+    /**
+     * Ключ сетки боя: ID категории, 0 — общая сетка турнира без категорий
+     */
+    static Long bracketKey(FightHistory fight) {
+        return fight.getCategory() != null ? fight.getCategory().getId() : 0L;
+    }
+
+    /**
+     * Бои, изменённые с момента загрузки, в порядке изменения
+     */
+    public Collection<FightHistory> changed() {
+        return changed.values();
+    }
+
+    /**
+     * Записать победителя и продвинуть его в следующий матч; проигравший в полуфинале уходит в бой за бронзу.
+     * Место в следующем матче определяется позицией боя в сетке, так что повторный ввод результата
+     * заменяет прежнего победителя, а не занимает второе место.
+     * Бой с одним участником допускается только как финал сетки из единственного рыцаря
+     */
+    public ResultApplied recordResult(Long fightId, Long winnerId, String comment) {
+        FightHistory fight = fight(fightId);
+        if ((fight.getFighter1() == null || fight.getFighter2() == null) && !isSingleParticipantFinal(fight)) {
+            throw new IllegalArgumentException("Участники боя ещё не определены");
+        }
+        UserAccount winner = participant(fight, winnerId);
+        UserAccount loser = winner == fight.getFighter1() ? fight.getFighter2() : fight.getFighter1();
+
+        FightHistory nextFight = next(fight).orElse(null);
+        if (nextFight != null && nextFight.getWinner() != null) {
+            throw new IllegalArgumentException("Следующий бой уже сыгран, результат изменить нельзя");
+        }
+
+        fight.setWinner(winner);
+        fight.setComment(comment);
+        markChanged(fight);
+
+        if (nextFight != null) {
+            place(nextFight, fight, winner);
+        }
+
+        FightHistory bronzeFight = null;
+        if (fight.getRound() == FightRound.SEMIFINAL && loser != null) {
+            bronzeFight = bronze(fight).orElse(null);
+            if (bronzeFight != null) {
+                place(bronzeFight, fight, loser);
+            }
+        }
+        return new ResultApplied(fight, winner, loser, nextFight, bronzeFight);
+    }
+
+    /**
+     * Что изменил результат: бой, его участники, матч, куда вышел победитель, и бой за бронзу, если он пополнился
+     */
+    public record ResultApplied(FightHistory fight, UserAccount winner, UserAccount loser,
+                                FightHistory promotedTo, FightHistory bronzeFight) {
+    }
+
+    /**
+     * Финал, в который никто не выходит: в сетке единственный рыцарь
+     */
+    private boolean isSingleParticipantFinal(FightHistory fight) {
+        return fight.getRound() == FightRound.FINAL && feeders(fight).isEmpty();
+    }
+
+    private UserAccount participant(FightHistory fight, Long knightId) {
+        if (knightId != null) {
+            if (fight.getFighter1() != null && knightId.equals(fight.getFighter1().getId())) {
+                return fight.getFighter1();
+            }
+            if (fight.getFighter2() != null && knightId.equals(fight.getFighter2().getId())) {
+                return fight.getFighter2();
+            }
+        }
+        throw new IllegalArgumentException("Победитель должен быть одним из участников боя");
+    }
+
+    /**
+     * Поставить рыцаря в матч на место, закреплённое за боем-источником: чётная позиция — первый участник,
+     * нечётная — второй. У старых сеток без позиций занимается первое свободное место
+     */
+    private void place(FightHistory target, FightHistory source, UserAccount knight) {
+        Integer position = source.getBracketPosition();
+        if (position != null) {
+            if (position % 2 == 0) {
+                target.setFighter1(knight);
+            } else {
+                target.setFighter2(knight);
+            }
+        } else if (target.getFighter1() == null || Objects.equals(target.getFighter1().getId(), knight.getId())) {
+            target.setFighter1(knight);
+        } else if (target.getFighter2() == null) {
+            target.setFighter2(knight);
+        } else {
+            throw new IllegalStateException("Матч " + target.getId() + " уже заполнен");
+        }
+        markChanged(target);
+    }
+
+    private void markChanged(FightHistory fight) {
+        changed.putIfAbsent(fight.getId(), fight);
+    }
+}
@@ -0,0 +1,69 @@
+package com.mpi.aivango_backend.services.fight;
+
+import com.mpi.aivango_backend.dto.fight.BracketEventDTO;
+import com.mpi.aivango_backend.dto.fight.FightMatchDTO;
+import com.mpi.aivango_backend.dto.fight.TournamentBracketDTO;
+import com.mpi.aivango_backend.services.stream.SseHub;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Живая сетка для зрителей. Подписчик сразу получает снимок сетки, затем — изменения отдельных матчей
+ * (результат, готовность матча, перенос). Изменения берутся из уже перестроенного снимка в памяти,
+ * так что одно изменение — одна рассылка, сколько бы зрителей ни смотрело
+ */
+@Component
+@RequiredArgsConstructor
+public class BracketLiveFeed {
+
+    private static final String SNAPSHOT_EVENT = "bracket";
+
+    private final BracketReadModel bracketReadModel;
+    private final SseHub sseHub;
+
+    public SseEmitter subscribe(Long tournamentId) {
+        return sseHub.subscribe(topic(tournamentId), SNAPSHOT_EVENT, bracketReadModel.get(tournamentId));
+    }
+
+    /**
+     * Вызывается после перестройки снимка (у {@link BracketReadModel} приоритет выше)
+     */
+    @TransactionalEventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onBracketChanged(BracketChangedEvent event) {
+        String topic = topic(event.tournamentId());
+        if (!sseHub.hasSubscribers(topic)) {
+            return;
+        }
+        TournamentBracketDTO bracket = bracketReadModel.get(event.tournamentId());
+        if (event.updates().isEmpty()) {
+            sseHub.publish(topic, SNAPSHOT_EVENT, bracket);
+            return;
+        }
+
+        Map<Long, FightMatchDTO> matches = bracket.getMatches().stream()
+                .collect(Collectors.toMap(FightMatchDTO::getMatchId, Function.identity()));
+        for (BracketUpdate update : event.updates()) {
+            FightMatchDTO match = matches.get(update.matchId());
+            if (match != null) {
+                sseHub.publish(topic, update.type().getEventName(), BracketEventDTO.builder()
+                        .tournamentId(event.tournamentId())
+                        .version(bracket.getVersion())
+                        .match(match)
+                        .build());
+            }
+        }
+    }
+
+    private static String topic(Long tournamentId) {
+        return "bracket:" + tournamentId;
+    }
+}
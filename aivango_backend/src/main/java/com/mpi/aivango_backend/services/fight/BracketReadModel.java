@@ -0,0 +1,309 @@
+package com.mpi.aivango_backend.services.fight;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mpi.aivango_backend.dto.fight.FightMatchDTO;
+import com.mpi.aivango_backend.dto.fight.TournamentBracketDTO;
+import com.mpi.aivango_backend.models.fight.BracketSnapshot;
+import com.mpi.aivango_backend.models.fight.FightHistory;
+import com.mpi.aivango_backend.models.fight.FightRound;
+import com.mpi.aivango_backend.models.tournament.Tournament;
+import com.mpi.aivango_backend.models.user.UserAccount;
+import com.mpi.aivango_backend.repository.BracketSnapshotRepository;
+import com.mpi.aivango_backend.repository.FightHistoryRepository;
+import com.mpi.aivango_backend.repository.TournamentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Сетка турнира для показа. Снимок с подставленными именами и упорядоченными матчами строится
+ * одним запросом при изменении сетки, хранится в БД в JSON и в памяти. Чтение сетки — поиск по ключу
+ * в памяти; после перезапуска — одна выборка снимка по ID турнира. Снимок, который не читали
+ * {@link #DEFAULT_IDLE_TTL_MS} мс, из памяти выгружается — следующее чтение снова поднимет его из БД.
+ * Пустая сетка (боёв ещё нет) не сохраняется и не кэшируется
+ */
+@Component
+@Slf4j
+public class BracketReadModel {
+
+    private static final Comparator<FightMatchDTO> BRACKET_ORDER =
+            // Сетки категорий по очереди (общая — первой); в сетке от ранних раундов к поздним,
+            // финал после боя за бронзу, внутри раунда — по месту в сетке
+            Comparator.comparing(FightMatchDTO::getCategoryId, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparingInt((FightMatchDTO match) -> match.getRoundNumber() != null
+                            ? match.getRoundNumber() : legacyRoundOrder(match.getRound()))
+                    .thenComparingInt(match -> match.getRound() == FightRound.FINAL ? 1 : 0)
+                    .thenComparingInt(match -> match.getBracketPosition() != null ? match.getBracketPosition() : 0);
+
+    public static final long DEFAULT_IDLE_TTL_MS = 30 * 60 * 1000L;
+    private static final long EVICT_INTERVAL_MS = 60_000;
+    private static final int LOCK_STRIPES = 64;
+
+    private final FightHistoryRepository fightHistoryRepository;
+    private final TournamentRepository tournamentRepository;
+    private final BracketSnapshotRepository bracketSnapshotRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final long idleTtlNanos;
+
+    private final Map<Long, CachedBracket> snapshots = new ConcurrentHashMap<>();
+    // Загрузка и перестройка одного турнира идут под его блокировкой, запросы к БД — вне операций карты
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    @Autowired
+    public BracketReadModel(FightHistoryRepository fightHistoryRepository,
+                            TournamentRepository tournamentRepository,
+                            BracketSnapshotRepository bracketSnapshotRepository,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager) {
+        this(fightHistoryRepository, tournamentRepository, bracketSnapshotRepository, objectMapper,
+                transactionManager, DEFAULT_IDLE_TTL_MS);
+    }
+
+    public BracketReadModel(FightHistoryRepository fightHistoryRepository,
+                            TournamentRepository tournamentRepository,
+                            BracketSnapshotRepository bracketSnapshotRepository,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            long idleTtlMs) {
+        this.fightHistoryRepository = fightHistoryRepository;
+        this.tournamentRepository = tournamentRepository;
+        this.bracketSnapshotRepository = bracketSnapshotRepository;
+        this.objectMapper = objectMapper;
+        // Перестройка идёт после фиксации изменившей сетку транзакции — в собственной транзакции
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.idleTtlNanos = TimeUnit.MILLISECONDS.toNanos(idleTtlMs);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    public TournamentBracketDTO get(Long tournamentId) {
+        CachedBracket cached = snapshots.get(tournamentId);
+        if (cached != null) {
+            return cached.read();
+        }
+        synchronized (lockFor(tournamentId)) {
+            cached = snapshots.get(tournamentId);
+            if (cached != null) {
+                return cached.read();
+            }
+            TournamentBracketDTO bracket = transactionTemplate.execute(status -> loadOrBuild(tournamentId));
+            cache(tournamentId, bracket);
+            return bracket;
+        }
+    }
+
+    @TransactionalEventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onBracketChanged(BracketChangedEvent event) {
+        try {
+            rebuild(event.tournamentId());
+        } catch (Exception e) {
+            // Устаревший снимок показывать нельзя: следующее чтение построит сетку заново
+            log.warn("Не удалось перестроить сетку турнира {}", event.tournamentId(), e);
+            synchronized (lockFor(event.tournamentId())) {
+                snapshots.remove(event.tournamentId());
+                try {
+                    bracketSnapshotRepository.deleteById(event.tournamentId());
+                } catch (Exception deleteError) {
+                    log.error("Не удалось удалить устаревший снимок сетки турнира {}", event.tournamentId(), deleteError);
+                }
+            }
+        }
+    }
+
+    /**
+     * Выгрузить из памяти снимки, которые давно не читали. В БД они остаются
+     */
+    @Scheduled(fixedRate = EVICT_INTERVAL_MS)
+    public void evictIdleSnapshots() {
+        long now = System.nanoTime();
+        snapshots.entrySet().removeIf(entry -> now - entry.getValue().lastReadAt > idleTtlNanos);
+    }
+
+    public int cachedCount() {
+        return snapshots.size();
+    }
+
+    /**
+     * Сетка одной категории турнира (null — общая сетка) — выборка из снимка турнира
+     */
+    public TournamentBracketDTO get(Long tournamentId, Long categoryId) {
+        TournamentBracketDTO bracket = get(tournamentId);
+        return bracket.toBuilder()
+                .matches(bracket.getMatches().stream()
+                        .filter(match -> Objects.equals(match.getCategoryId(), categoryId))
+                        .toList())
+                .build();
+    }
+
+    /**
+     * Построить снимок заново. Перестройки одного турнира идут по очереди, читатели тем временем
+     * получают предыдущий снимок
+     */
+    public TournamentBracketDTO rebuild(Long tournamentId) {
+        synchronized (lockFor(tournamentId)) {
+            TournamentBracketDTO bracket = transactionTemplate.execute(status -> build(tournamentId));
+            cache(tournamentId, bracket);
+            return bracket;
+        }
+    }
+
+    private TournamentBracketDTO loadOrBuild(Long tournamentId) {
+        return bracketSnapshotRepository.findById(tournamentId)
+                .map(this::deserialize)
+                .orElseGet(() -> build(tournamentId));
+    }
+
+    private void cache(Long tournamentId, TournamentBracketDTO bracket) {
+        if (bracket.getMatches().isEmpty()) {
+            snapshots.remove(tournamentId);
+        } else {
+            snapshots.put(tournamentId, new CachedBracket(bracket));
+        }
+    }
+
+    private Object lockFor(Long tournamentId) {
+        return locks[Math.floorMod(tournamentId.hashCode(), LOCK_STRIPES)];
+    }
+
+    private TournamentBracketDTO build(Long tournamentId) {
+        List<FightHistory> fights = fightHistoryRepository.findBracketByTournamentId(tournamentId);
+        Tournament tournament = !fights.isEmpty() ? fights.get(0).getTournament()
+                : tournamentRepository.findById(tournamentId)
+                        .orElseThrow(() -> new IllegalArgumentException("Турнир не найден"));
+
+        // Последний раунд у каждой сетки свой: по нему «1/4 финала» и т.п. считаются от финала
+        if (fights.isEmpty()) {
+            // Боёв нет (сетка не сформирована или удалена) — сохранять нечего, прежний снимок неактуален
+            bracketSnapshotRepository.findById(tournamentId).ifPresent(bracketSnapshotRepository::delete);
+            return TournamentBracketDTO.builder()
+                    .tournamentId(tournament.getId())
+                    .tournamentName(tournament.getName())
+                    .generatedAt(LocalDateTime.now())
+                    .version(0L)
+                    .matches(List.of())
+                    .build();
+        }
+
+        Map<Long, Integer> lastRounds = fights.stream()
+                .filter(fight -> fight.getRoundNumber() != null)
+                .collect(Collectors.toMap(BracketGraph::bracketKey, FightHistory::getRoundNumber, Math::max));
+        long version = bracketSnapshotRepository.findById(tournamentId)
+                .map(BracketSnapshot::getVersion)
+                .orElse(0L) + 1;
+        LocalDateTime builtAt = LocalDateTime.now();
+
+        TournamentBracketDTO bracket = TournamentBracketDTO.builder()
+                .tournamentId(tournament.getId())
+                .tournamentName(tournament.getName())
+                .generatedAt(builtAt)
+                .version(version)
+                .matches(fights.stream()
+                        .map(fight -> toMatch(fight, lastRounds.getOrDefault(BracketGraph.bracketKey(fight), 0)))
+                        .sorted(BRACKET_ORDER)
+                        .toList())
+                .build();
+
+        bracketSnapshotRepository.save(new BracketSnapshot(tournamentId, version, serialize(bracket), builtAt));
+        log.debug("Снимок сетки турнира {} перестроен: версия {}, матчей {}", tournamentId, version, fights.size());
+        return bracket;
+    }
+
+    private String serialize(TournamentBracketDTO bracket) {
+        try {
+            return objectMapper.writeValueAsString(bracket);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сохранить снимок сетки турнира " + bracket.getTournamentId(), e);
+        }
+    }
+
+    private TournamentBracketDTO deserialize(BracketSnapshot snapshot) {
+        try {
+            return objectMapper.readValue(snapshot.getPayload(), TournamentBracketDTO.class);
+        } catch (JsonProcessingException e) {
+            // Снимок старого формата — строим заново
+            log.warn("Снимок сетки турнира {} не читается: {}", snapshot.getTournamentId(), e.getMessage());
+            return build(snapshot.getTournamentId());
+        }
+    }
+
+    private static final class CachedBracket {
+
+        private final TournamentBracketDTO bracket;
+        private volatile long lastReadAt = System.nanoTime();
+
+        private CachedBracket(TournamentBracketDTO bracket) {
+            this.bracket = bracket;
+        }
+
+        private TournamentBracketDTO read() {
+            lastReadAt = System.nanoTime();
+            return bracket;
+        }
+    }
+
+    private static FightMatchDTO toMatch(FightHistory fight, int lastRound) {
+        return FightMatchDTO.builder()
+                .matchId(fight.getId())
+                .round(fight.getRound())
+                .roundDisplayName(fight.getRoundNumber() != null
+                        ? fight.getRound().getDisplayName(1 << (lastRound - fight.getRoundNumber()))
+                        : fight.getRound().getDisplayName())
+                .roundNumber(fight.getRoundNumber())
+                .bracketPosition(fight.getBracketPosition())
+                .categoryId(fight.getCategory() != null ? fight.getCategory().getId() : null)
+                .categoryName(fight.getCategory() != null ? fight.getCategory().getName() : null)
+                .fighter1Id(idOf(fight.getFighter1()))
+                .fighter1Name(nameOf(fight.getFighter1()))
+                .fighter2Id(idOf(fight.getFighter2()))
+                .fighter2Name(nameOf(fight.getFighter2()))
+                .winnerId(idOf(fight.getWinner()))
+                .winnerName(nameOf(fight.getWinner()))
+                .fightDate(fight.getFightDate())
+                .locationId(fight.getLocation() != null ? fight.getLocation().getId() : null)
+                .locationName(fight.getLocation() != null ? fight.getLocation().getName() : null)
+                .comment(fight.getComment())
+                .nextMatchId(fight.getNextMatchId())
+                .build();
+    }
+
+    private static Long idOf(UserAccount knight) {
+        return knight != null ? knight.getId() : null;
+    }
+
+    private static String nameOf(UserAccount knight) {
+        return knight != null ? knight.getName() + " " + knight.getSecondName() : null;
+    }
+
+    /** Порядок раундов для старых сеток без номера раунда */
+    private static int legacyRoundOrder(FightRound round) {
+        return switch (round) {
+            case EARLY_ROUND -> 0;
+            case ROUND_OF_8 -> 1;
+            case QUARTERFINAL -> 2;
+            case SEMIFINAL -> 3;
+            case BRONZE -> 4;
+            case FINAL -> 5;
+        };
+    }
+}
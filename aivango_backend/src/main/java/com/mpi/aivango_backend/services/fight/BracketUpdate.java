@@ -0,0 +1,23 @@
+package com.mpi.aivango_backend.services.fight;
+
+/**
+ * Изменение одного матча сетки, о котором сообщается зрителям
+ */
+public record BracketUpdate(Type type, Long matchId) {
+
+    public enum Type {
+        RESULT_RECORDED("result-recorded"),   // записан результат
+        MATCH_READY("match-ready"),           // в матче определились оба участника
+        DATE_CHANGED("date-changed");         // бой перенесён
+
+        private final String eventName;
+
+        Type(String eventName) {
+            this.eventName = eventName;
+        }
+
+        public String getEventName() {
+            return eventName;
+        }
+    }
+}
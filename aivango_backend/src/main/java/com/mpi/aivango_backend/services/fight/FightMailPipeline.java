@@ -0,0 +1,39 @@
+package com.mpi.aivango_backend.services.fight;
+
+import com.mpi.aivango_backend.services.email.EmailSendService;
+import com.mpi.aivango_backend.services.email.MailDispatcher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Письма участникам о результатах боёв. Результаты целого раунда дают пачку писем —
+ * она уходит через {@link MailDispatcher} после фиксации, не задерживая судью
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class FightMailPipeline {
+
+    private final EmailSendService emailSendService;
+    private final MailDispatcher mailDispatcher;
+
+    public record FightMail(String email, String subject, String body) {
+    }
+
+    /**
+     * Отправить письма после фиксации текущей транзакции (или сразу, если транзакции нет).
+     * При откате письма не уходят
+     */
+    public void sendAfterCommit(List<FightMail> mails) {
+        mailDispatcher.sendAfterCommit(mails, this::send);
+    }
+
+    private void send(FightMail mail) {
+        if (!emailSendService.sendHtmlEmail(mail.email(), mail.subject(), mail.body())) {
+            log.warn("Не удалось отправить письмо о результате боя на {}", mail.email());
+        }
+    }
+}
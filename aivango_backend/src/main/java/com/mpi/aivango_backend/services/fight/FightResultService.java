@@ -2,22 +2,35 @@ package com.mpi.aivango_backend.services.fight;
 
 import com.mpi.aivango_backend.dto.fight.FightDateUpdateRequest;
 import com.mpi.aivango_backend.dto.fight.FightResultRequest;
+import com.mpi.aivango_backend.dto.fight.RoundResultsRequest;
+import com.mpi.aivango_backend.dto.fight.ScheduleShiftRequest;
 import com.mpi.aivango_backend.models.fight.FightHistory;
 import com.mpi.aivango_backend.models.fight.FightRound;
 import com.mpi.aivango_backend.models.tournament.Tournament;
 import com.mpi.aivango_backend.models.tournament.TournamentStatus;
 import com.mpi.aivango_backend.models.user.UserAccount;
 import com.mpi.aivango_backend.repository.FightHistoryRepository;
-import com.mpi.aivango_backend.repository.UserRepository;
-import com.mpi.aivango_backend.services.email.EmailSendService;
 import com.mpi.aivango_backend.services.tournament.TournamentService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Objects;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -25,151 +38,196 @@ import java.util.Objects;
 public class FightResultService {
 
     private final FightHistoryRepository fightHistoryRepository;
-    private final UserRepository userRepository;
-    private final EmailSendService emailSendService;
     private final TournamentService tournamentService;
-
-    @Transactional
+    private final TransactionTemplate transactionTemplate;
+    private final FightMailPipeline fightMailPipeline;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FightScheduler fightScheduler;
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final int MAX_ROUND_RESULTS = 512;
+
+    /**
+     * Сетка турнира загружается одним запросом, результат и его последствия применяются в памяти,
+     * затем одним saveAll сохраняются только изменённые бои. Если параллельно записанный результат
+     * изменил те же бои (версия строки не совпала), попытка повторяется на свежей сетке.
+     * Письма уходят только после успешной фиксации
+     */
     public void recordFightResult(Long fightId, FightResultRequest request) {
-        FightHistory fight = fightHistoryRepository.findById(fightId)
-                .orElseThrow(() -> new IllegalArgumentException("Бой не найден"));
-
-//        if (fight.getWinner() != null) {
-//            throw new IllegalArgumentException("Результат этого боя уже введён");
-//        }
+        List<BracketGraph.ResultApplied> results = applyWithRetry("боя " + fightId, () -> {
+            BracketGraph bracket = BracketGraph.of(fightHistoryRepository.findBracketByFightId(fightId));
+
+//            if (bracket.fight(fightId).getWinner() != null) {
+//                throw new IllegalArgumentException("Результат этого боя уже введён");
+//            }
+
+            BracketGraph.ResultApplied result = bracket.recordResult(fightId, request.getWinnerId(), request.getComment());
+            fightHistoryRepository.saveAll(bracket.changed());
+            eventPublisher.publishEvent(new BracketChangedEvent(result.fight().getTournament().getId(),
+                    updatesOf(List.of(result))));
+            return List.of(result);
+        });
+        notifyParticipants(results);
+    }
 
-        UserAccount winner = userRepository.findById(request.getWinnerId())
-                .orElseThrow(() -> new IllegalArgumentException("Победитель не найден"));
+    /**
+     * Результаты сразу нескольких боёв турнира (обычно целого раунда) одной транзакцией:
+     * либо записываются все, либо ни один. Бои применяются в порядке заявки, так что в одну заявку
+     * можно включить и полуфиналы, и финал. Письма уходят одной пачкой после фиксации
+     */
+    public void recordRoundResults(Long tournamentId, RoundResultsRequest request) {
+        List<RoundResultsRequest.Result> entries = validateRoundResults(request.getResults());
+
+        List<BracketGraph.ResultApplied> results = applyWithRetry("турнира " + tournamentId, () -> {
+            BracketGraph bracket = BracketGraph.of(fightHistoryRepository.findBracketByTournamentId(tournamentId));
+            List<BracketGraph.ResultApplied> applied = new ArrayList<>(entries.size());
+            for (RoundResultsRequest.Result entry : entries) {
+                applied.add(bracket.recordResult(entry.getFightId(), entry.getWinnerId(), entry.getComment()));
+            }
+            fightHistoryRepository.saveAll(bracket.changed());
+            eventPublisher.publishEvent(new BracketChangedEvent(tournamentId, updatesOf(applied)));
+            return applied;
+        });
+        log.info("Записаны результаты {} боёв турнира {}", results.size(), tournamentId);
+        notifyParticipants(results);
+    }
 
-        // Проверяем, что победитель — один из участников
-        if (!winner.getId().equals(fight.getFighter1().getId()) &&
-                (fight.getFighter2() == null || !winner.getId().equals(fight.getFighter2().getId()))) {
-            throw new IllegalArgumentException("Победитель должен быть одним из участников боя");
+    private List<RoundResultsRequest.Result> validateRoundResults(List<RoundResultsRequest.Result> entries) {
+        if (entries == null || entries.isEmpty()) {
+            throw new IllegalArgumentException("Список результатов пуст");
         }
-
-        // Записываем победителя и комментарий
-        fight.setWinner(winner);
-        fight.setComment(request.getComment());
-        fightHistoryRepository.save(fight);
-
-        log.info("Результат боя {} записан: победитель {}", fightId, winner.getName() + " " + winner.getSecondName());
-
-        // Автоматическое продвижение в следующий матч
-        if (fight.getNextMatchId() != null) {
-            promoteWinnerToNextMatch(fight);
+        if (entries.size() > MAX_ROUND_RESULTS) {
+            throw new IllegalArgumentException("За один раз можно записать не более " + MAX_ROUND_RESULTS + " результатов");
         }
-
-//        if (fight.getRound() == FightRound.FINAL) {
-//            var tournament = fight.getTournament();
-//            tournament.setTournamentStatus(TournamentStatus.COMPLETED);
-//            tournamentService.save(tournament);
-//        }
-
-        // Уведомления участникам
-        sendResultNotifications(fight, request.getComment());
-
-        if (fight.getRound() == FightRound.SEMIFINAL) {
-            FightHistory bronzeFight =
-                    fightHistoryRepository.findByTournamentId(fight.getTournament().getId())
-                            .stream().filter(s -> s.getRound() == FightRound.BRONZE).findFirst().orElseThrow();
-
-            UserAccount loser;
-            if (Objects.equals(fight.getFighter1().getId(), winner.getId())) {
-                loser = fight.getFighter2();
-            } else {
-                loser = fight.getFighter1();
+        Set<Long> fightIds = new HashSet<>();
+        for (RoundResultsRequest.Result entry : entries) {
+            if (entry.getFightId() == null || entry.getWinnerId() == null) {
+                throw new IllegalArgumentException("У каждого результата должны быть указаны бой и победитель");
             }
-            if (bronzeFight.getFighter1() == null) {
-                bronzeFight.setFighter1(loser);
-            } else if (bronzeFight.getFighter2() == null) {
-                bronzeFight.setFighter2(loser);
+            if (!fightIds.add(entry.getFightId())) {
+                throw new IllegalArgumentException("Бой " + entry.getFightId() + " указан в заявке дважды");
             }
-            fightHistoryRepository.save(bronzeFight);
+        }
+        return entries;
+    }
 
-            String bronzeInvitationBody = """
-                    <!DOCTYPE html>
-                    <html lang="ru">
-                    <head>
-                        <meta charset="UTF-8">
-                        <title>🏅 Бой за бронзу!</title>
-                        <style>
-                            body { font-family: 'Palatino Linotype', 'Georgia', serif; background: #f5f0e6; color: #3a3226; margin: 0; padding: 0; }
-                            .container { max-width: 600px; margin: 30px auto; background: #fff9e6; padding: 35px; border: 3px solid #d4af37; border-radius: 12px; box-shadow: 0 8px 25px rgba(212,175,55,0.3); }
-                            h1 { color: #8b0000; text-align: center; font-variant: small-caps; letter-spacing: 2px; margin-bottom: 10px; }
-                            .medal { font-size: 60px; text-align: center; margin: 10px 0; }
-                            .highlight { background: #f8f4e8; border-left: 5px solid #d4af37; padding: 15px; margin: 25px 0; font-style: italic; text-align: center; font-size: 18px; }
-                            .footer { margin-top: 40px; text-align: center; font-style: italic; color: #8b0000; font-size: 15px; }
-                        </style>
-                    </head>
-                    <body>
-                        <div class="container">
-                            <div class="medal">🏅</div>
-                            <h1>Приглашение на бой за бронзу</h1>
-                            
-                            <p>Благородный рыцарь <strong>%s %s</strong>!</p>
-                            
-                            <p>Вы показали выдающееся мастерство в полуфинале турнира <strong>«%s»</strong>.</p>
-                            
-                            <div class="highlight">
-                                Вас ждёт почётный бой за третье место!<br>
-                                Это шанс увенчать своё участие заслуженной бронзовой медалью.
-                            </div>
-                            
-                            <p>Сражайтесь с достоинством — ваша доблесть уже вписана в летопись турнира.</p>
+    /**
+     * Изменения для живой ленты: каждый записанный бой и каждый матч, где теперь известны оба участника
+     */
+    private static List<BracketUpdate> updatesOf(List<BracketGraph.ResultApplied> results) {
+        Set<BracketUpdate> updates = new LinkedHashSet<>();
+        for (BracketGraph.ResultApplied result : results) {
+            updates.add(new BracketUpdate(BracketUpdate.Type.RESULT_RECORDED, result.fight().getId()));
+            for (FightHistory filled : new FightHistory[]{result.promotedTo(), result.bronzeFight()}) {
+                if (filled != null && filled.getFighter1() != null && filled.getFighter2() != null) {
+                    updates.add(new BracketUpdate(BracketUpdate.Type.MATCH_READY, filled.getId()));
+                }
+            }
+        }
+        return List.copyOf(updates);
+    }
 
-                            <p>Ждём вас на арене!</p>
-                            
-                            <div class="footer">
-                                Честь и слава ждут достойных.<br>
-                                Сенешаль турнира Айвенго
-                            </div>
-                        </div>
-                    </body>
-                    </html>
-                    """.formatted(
-                    winner.getName(),
-                    winner.getSecondName(),
-                    fight.getTournament().getName()
-            );
-            emailSendService.sendHtmlEmail(loser.getEmail(), "🏅 Бой за бронзу — Турнир «"
-                    + fight.getTournament().getName() + "»", bronzeInvitationBody);
+    private List<BracketGraph.ResultApplied> applyWithRetry(String target,
+                                                           Supplier<List<BracketGraph.ResultApplied>> attempt) {
+        for (int number = 1; ; number++) {
+            try {
+                return transactionTemplate.execute(status -> attempt.get());
+            } catch (ConcurrencyFailureException e) {
+                if (number == MAX_ATTEMPTS) {
+                    throw new IllegalStateException("Не удалось записать результат " + target
+                            + ": сетка одновременно меняется другими судьями", e);
+                }
+                log.warn("Конфликт при записи результата {}, попытка {}: {}", target, number, e.getMessage());
+            }
         }
     }
 
-    private void promoteWinnerToNextMatch(FightHistory currentFight) {
-        FightHistory nextFight = fightHistoryRepository.findById(currentFight.getNextMatchId())
-                .orElse(null);
+    private void notifyParticipants(List<BracketGraph.ResultApplied> results) {
+        List<FightMailPipeline.FightMail> mails = new ArrayList<>();
+        for (BracketGraph.ResultApplied result : results) {
+            FightHistory fight = result.fight();
+            UserAccount winner = result.winner();
+            log.info("Результат боя {} записан: победитель {}", fight.getId(), winner.getName() + " " + winner.getSecondName());
+
+            FightHistory nextFight = result.promotedTo();
+            if (nextFight != null) {
+                log.info("Рыцарь {} продвинут в матч {}", winner.getName() + " " + winner.getSecondName(), nextFight.getId());
+
+                // Если следующий матч теперь полный (оба fighter не null) — можно уведомить организатора
+                if (nextFight.getFighter1() != null && nextFight.getFighter2() != null) {
+                    sendMatchReadyNotification(nextFight);
+                }
+            }
 
-        if (nextFight == null) {
-            return; // например, бой за бронзу или финал
-        }
+//            if (fight.getRound() == FightRound.FINAL) {
+//                var tournament = fight.getTournament();
+//                tournament.setTournamentStatus(TournamentStatus.COMPLETED);
+//                tournamentService.save(tournament);
+//            }
 
-        UserAccount winner = currentFight.getWinner();
+            // Уведомления участникам
+            addResultMails(fight, winner, result.loser(), fight.getComment(), mails);
 
-        // Определяем, в какое место следующего матча ставим победителя
-        if (nextFight.getFighter1() == null) {
-            nextFight.setFighter1(winner);
-        } else if (nextFight.getFighter2() == null) {
-            nextFight.setFighter2(winner);
-        } else {
-            // Оба места заняты — это ошибка (не должно быть)
-            log.error("Следующий матч {} уже заполнен", nextFight.getId());
-            return;
+            // Проигравший в полуфинале приглашается на бой за бронзу (его нет в сетках меньше чем на 4 участника)
+            if (result.bronzeFight() != null) {
+                mails.add(bronzeInvitationMail(fight, winner, result.loser()));
+            }
         }
+        fightMailPipeline.sendAfterCommit(mails);
+    }
 
-        fightHistoryRepository.save(nextFight);
-
-        log.info("Рыцарь {} продвинут в матч {}", winner.getName() + " " + winner.getSecondName(), nextFight.getId());
+    private FightMailPipeline.FightMail bronzeInvitationMail(FightHistory fight, UserAccount winner, UserAccount loser) {
+        String bronzeInvitationBody = """
+                <!DOCTYPE html>
+                <html lang="ru">
+                <head>
+                    <meta charset="UTF-8">
+                    <title>🏅 Бой за бронзу!</title>
+                    <style>
+                        body { font-family: 'Palatino Linotype', 'Georgia', serif; background: #f5f0e6; color: #3a3226; margin: 0; padding: 0; }
+                        .container { max-width: 600px; margin: 30px auto; background: #fff9e6; padding: 35px; border: 3px solid #d4af37; border-radius: 12px; box-shadow: 0 8px 25px rgba(212,175,55,0.3); }
+                        h1 { color: #8b0000; text-align: center; font-variant: small-caps; letter-spacing: 2px; margin-bottom: 10px; }
+                        .medal { font-size: 60px; text-align: center; margin: 10px 0; }
+                        .highlight { background: #f8f4e8; border-left: 5px solid #d4af37; padding: 15px; margin: 25px 0; font-style: italic; text-align: center; font-size: 18px; }
+                        .footer { margin-top: 40px; text-align: center; font-style: italic; color: #8b0000; font-size: 15px; }
+                    </style>
+                </head>
+                <body>
+                    <div class="container">
+                        <div class="medal">🏅</div>
+                        <h1>Приглашение на бой за бронзу</h1>
+                        
+                        <p>Благородный рыцарь <strong>%s %s</strong>!</p>
+                        
+                        <p>Вы показали выдающееся мастерство в полуфинале турнира <strong>«%s»</strong>.</p>
+                        
+                        <div class="highlight">
+                            Вас ждёт почётный бой за третье место!<br>
+                            Это шанс увенчать своё участие заслуженной бронзовой медалью.
+                        </div>
+                        
+                        <p>Сражайтесь с достоинством — ваша доблесть уже вписана в летопись турнира.</p>
 
-        // Если следующий матч теперь полный (оба fighter не null) — можно уведомить организатора
-        if (nextFight.getFighter1() != null && nextFight.getFighter2() != null) {
-            sendMatchReadyNotification(nextFight);
-        }
+                        <p>Ждём вас на арене!</p>
+                        
+                        <div class="footer">
+                            Честь и слава ждут достойных.<br>
+                            Сенешаль турнира Айвенго
+                        </div>
+                    </div>
+                </body>
+                </html>
+                """.formatted(
+                winner.getName(),
+                winner.getSecondName(),
+                fight.getTournament().getName()
+        );
+        return new FightMailPipeline.FightMail(loser.getEmail(), "🏅 Бой за бронзу — Турнир «"
+                + fight.getTournament().getName() + "»", bronzeInvitationBody);
     }
 
-    private void sendResultNotifications(FightHistory fight, String comment) {
-        UserAccount winner = fight.getWinner();
-        UserAccount loser = fight.getFighter1().getId().equals(winner.getId()) ? fight.getFighter2() : fight.getFighter1();
+    private void addResultMails(FightHistory fight, UserAccount winner, UserAccount loser, String comment,
+                                List<FightMailPipeline.FightMail> mails) {
         String winnerBody;
         if (fight.getRound() == FightRound.FINAL) {
             winnerBody = """
@@ -270,7 +328,7 @@ public class FightResultService {
                     fight.getTournament().getName()
             );
         }
-        emailSendService.sendHtmlEmail(winner.getEmail(), "Победа в бою!", winnerBody);
+        mails.add(new FightMailPipeline.FightMail(winner.getEmail(), "Победа в бою!", winnerBody));
 
         // Письмо проигравшему (если есть)
         if (loser != null) {
@@ -317,19 +375,23 @@ public class FightResultService {
                     fight.getRound().getDisplayName(),
                     fight.getTournament().getName()
             );
-            emailSendService.sendHtmlEmail(loser.getEmail(), "Результат боя", loserBody);
+            mails.add(new FightMailPipeline.FightMail(loser.getEmail(), "Результат боя", loserBody));
         }
     }
 
+    /**
+     * Перенос боя организатором. Бои, которым перенос мешает (их участники не успевают отдохнуть
+     * или занята арена), сдвигаются {@link FightScheduler} на ближайшее свободное время, остальное расписание
+     * не меняется. Участники всех перенесённых боёв получают письма после фиксации
+     */
     @Transactional
     public void updateFightDate(Long fightId, FightDateUpdateRequest request, Long organizerId) {
-        FightHistory fight = fightHistoryRepository.findById(fightId)
-                .orElseThrow(() -> new IllegalArgumentException("Бой не найден"));
+        BracketGraph bracket = BracketGraph.of(fightHistoryRepository.findBracketByFightId(fightId));
+        FightHistory fight = bracket.fight(fightId);
 
         Tournament tournament = fight.getTournament();
 
         // Проверка: организатор ли это турнира
-        // Предполагаем, что у Tournament есть поле organizer (UserAccount)
         if (!tournament.getUserAccount().getId().equals(organizerId)) {
             throw new IllegalArgumentException("Только организатор турнира может менять время матчей");
         }
@@ -341,16 +403,143 @@ public class FightResultService {
             throw new IllegalArgumentException("Новое время совпадает со старым");
         }
 
+        Map<Long, LocalDateTime> oldDates = new HashMap<>();
+        bracket.fights().forEach(f -> oldDates.put(f.getId(), f.getFightDate()));
+
         fight.setFightDate(newDate);
-        fightHistoryRepository.save(fight);
+        List<FightHistory> moved = new ArrayList<>();
+        moved.add(fight);
+        moved.addAll(fightScheduler.replan(bracket, fight));
+        fightHistoryRepository.saveAll(moved);
+        eventPublisher.publishEvent(new BracketChangedEvent(tournament.getId(), moved.stream()
+                .map(f -> new BracketUpdate(BracketUpdate.Type.DATE_CHANGED, f.getId()))
+                .toList()));
 
-        log.info("Время боя {} изменено с {} на {}", fightId, oldDate, newDate);
+        log.info("Время боя {} изменено с {} на {}, сдвинуто зависящих боёв: {}", fightId, oldDate, newDate, moved.size() - 1);
 
         // Уведомляем участников
-        sendDateChangeNotification(fight, oldDate, newDate);
+        List<FightMailPipeline.FightMail> mails = new ArrayList<>();
+        for (FightHistory f : moved) {
+            addDateChangeMails(f, oldDates.get(f.getId()), mails);
+        }
+        fightMailPipeline.sendAfterCommit(mails);
+    }
+
+    /**
+     * Перенос сразу многих боёв турнира (например, всего раунда из-за непогоды) на одно и то же смещение.
+     * Сетка читается одним запросом, перенос проверяется в памяти, время меняется одним UPDATE.
+     * Сыгранные бои не переносятся. Каждый рыцарь получает одно письмо обо всех своих перенесённых боях,
+     * живая лента — одно событие с обновлённой сеткой
+     *
+     * @return число перенесённых боёв
+     */
+    @Transactional
+    public int shiftSchedule(Long tournamentId, ScheduleShiftRequest request, Long organizerId) {
+        if (request.getRoundNumber() == null && request.getFrom() == null && request.getTo() == null) {
+            throw new IllegalArgumentException("Укажите раунд или интервал времени переносимых боёв");
+        }
+        if ((request.getOffsetMinutes() == null) == (request.getNewStart() == null)) {
+            throw new IllegalArgumentException("Укажите либо сдвиг в минутах, либо новое время начала");
+        }
+
+        List<FightHistory> bracket = fightHistoryRepository.findBracketByTournamentId(tournamentId);
+        if (bracket.isEmpty()) {
+            throw new IllegalArgumentException("Сетка турнира не найдена");
+        }
+        Tournament tournament = bracket.get(0).getTournament();
+        if (!tournament.getUserAccount().getId().equals(organizerId)) {
+            throw new IllegalArgumentException("Только организатор турнира может менять время матчей");
+        }
+
+        List<FightHistory> selected = bracket.stream()
+                .filter(f -> f.getWinner() == null)
+                .filter(f -> request.getRoundNumber() == null || request.getRoundNumber().equals(f.getRoundNumber()))
+                .filter(f -> request.getFrom() == null || !f.getFightDate().isBefore(request.getFrom()))
+                .filter(f -> request.getTo() == null || f.getFightDate().isBefore(request.getTo()))
+                .sorted(Comparator.comparing(FightHistory::getFightDate))
+                .toList();
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("Нет несыгранных боёв для переноса");
+        }
+
+        long minutes = request.getOffsetMinutes() != null ? request.getOffsetMinutes()
+                : Duration.between(selected.get(0).getFightDate(), request.getNewStart()).toMinutes();
+        if (minutes == 0) {
+            throw new IllegalArgumentException("Новое время совпадает со старым");
+        }
+        Map<Long, LocalDateTime> moves = new HashMap<>();
+        selected.forEach(f -> moves.put(f.getId(), f.getFightDate().plusMinutes(minutes)));
+        fightScheduler.checkMoves(BracketGraph.of(bracket), moves, LocalDateTime.now());
+
+        int shifted = fightHistoryRepository.shiftFightDates(moves.keySet(), minutes);
+        if (shifted != selected.size()) {
+            // Между чтением и UPDATE судья записал результат одного из боёв — переносим всё или ничего
+            throw new IllegalStateException("Сетка турнира " + tournamentId + " изменилась во время переноса, повторите запрос");
+        }
+        eventPublisher.publishEvent(new BracketChangedEvent(tournamentId));
+        log.info("Перенесено боёв турнира {}: {}, сдвиг {} мин", tournamentId, shifted, minutes);
+
+        fightMailPipeline.sendAfterCommit(scheduleDigestMails(tournament, selected, moves));
+        return shifted;
+    }
+
+    /**
+     * По одному письму каждому рыцарю со списком всех его перенесённых боёв
+     */
+    private List<FightMailPipeline.FightMail> scheduleDigestMails(Tournament tournament, List<FightHistory> moved,
+                                                                 Map<Long, LocalDateTime> moves) {
+        Map<Long, UserAccount> knights = new LinkedHashMap<>();
+        Map<Long, StringBuilder> rows = new HashMap<>();
+        for (FightHistory fight : moved) {
+            for (UserAccount knight : new UserAccount[]{fight.getFighter1(), fight.getFighter2()}) {
+                if (knight == null) {
+                    continue;
+                }
+                knights.putIfAbsent(knight.getId(), knight);
+                rows.computeIfAbsent(knight.getId(), id -> new StringBuilder()).append("""
+                        <tr><td>%s</td><td>%s</td><td>%s</td><td>%s</td></tr>
+                        """.formatted(
+                        fight.getRound().getDisplayName(),
+                        fight.getFightDate(),
+                        moves.get(fight.getId()),
+                        fight.getLocation() != null ? fight.getLocation().getName() : "—"));
+            }
+        }
+
+        List<FightMailPipeline.FightMail> mails = new ArrayList<>(knights.size());
+        for (UserAccount knight : knights.values()) {
+            String body = """
+                    <!DOCTYPE html>
+                    <html lang="ru">
+                    <head><meta charset="UTF-8"><title>Изменение расписания</title></head>
+                    <body style="font-family: 'Palatino Linotype', serif; background: #f5f0e6; color: #3a3226;">
+                        <div style="max-width: 600px; margin: 20px auto; background: #fff9e6; padding: 30px; border: 2px solid #d4af37;">
+                            <h1 style="color: #8b0000; text-align: center;">Перенос боёв</h1>
+                            <p>Благородный рыцарь <strong>%s %s</strong>!</p>
+                            <p>Расписание турнира <strong>%s</strong> изменено. Ваши бои:</p>
+                            <table style="width: 100%%; border-collapse: collapse;">
+                                <tr><th>Раунд</th><th>Было</th><th>Стало</th><th>Арена</th></tr>
+                                %s
+                            </table>
+                            <p>Пожалуйста, скорректируйте свои планы.</p>
+                            <div style="margin-top: 30px; text-align: center; font-style: italic; color: #8b0000;">
+                                Сенешаль турнира Айвенго
+                            </div>
+                        </div>
+                    </body>
+                    </html>
+                    """.formatted(
+                    knight.getName(),
+                    knight.getSecondName(),
+                    tournament.getName(),
+                    rows.get(knight.getId())
+            );
+            mails.add(new FightMailPipeline.FightMail(knight.getEmail(), "Изменение расписания турнира", body));
+        }
+        return mails;
     }
 
-    private void sendDateChangeNotification(FightHistory fight, LocalDateTime oldDate, LocalDateTime newDate) {
+    private void addDateChangeMails(FightHistory fight, LocalDateTime oldDate, List<FightMailPipeline.FightMail> mails) {
         UserAccount fighter1 = fight.getFighter1();
         UserAccount fighter2 = fight.getFighter2();
 
@@ -365,6 +554,7 @@ public class FightResultService {
                         <p>Время вашего боя в турнире <strong>%s</strong> (%s) изменено.</p>
                         <p><strong>Было:</strong> %s</p>
                         <p><strong>Стало:</strong> %s</p>
+                        %s
                         <p>Пожалуйста, скорректируйте свои планы.</p>
                         <div style="margin-top: 30px; text-align: center; font-style: italic; color: #8b0000;">
                             Сенешаль турнира Айвенго
@@ -376,14 +566,17 @@ public class FightResultService {
                 fight.getTournament().getName(),
                 fight.getRound().getDisplayName(),
                 oldDate,
-                newDate
+                fight.getFightDate(),
+                fight.getLocation() != null
+                        ? "<p><strong>Арена:</strong> " + fight.getLocation().getName() + "</p>"
+                        : ""
         );
 
         if (fighter1 != null) {
-            emailSendService.sendHtmlEmail(fighter1.getEmail(), "Перенос боя в турнире", body);
+            mails.add(new FightMailPipeline.FightMail(fighter1.getEmail(), "Перенос боя в турнире", body));
         }
         if (fighter2 != null) {
-            emailSendService.sendHtmlEmail(fighter2.getEmail(), "Перенос боя в турнире", body);
+            mails.add(new FightMailPipeline.FightMail(fighter2.getEmail(), "Перенос боя в турнире", body));
         }
     }
 
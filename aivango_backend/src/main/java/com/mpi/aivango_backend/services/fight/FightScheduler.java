@@ -0,0 +1,387 @@
+package com.mpi.aivango_backend.services.fight;
+
+import com.mpi.aivango_backend.models.fight.FightHistory;
+import com.mpi.aivango_backend.models.fight.FightRound;
+import com.mpi.aivango_backend.models.tournament.Location;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Расписание боёв по аренам турнира. Бой занимает арену на {@code fightMinutes} минут, между боями
+ * рыцарю положен отдых {@code restMinutes} минут, бои идут только в дневные часы турнира.
+ * Участники боя определяются боями, из которых они выходят, поэтому бой начинается не раньше,
+ * чем эти бои закончатся и пройдёт отдых, — так соблюдается и порядок раундов, и отдых каждого рыцаря.
+ * Планирование жадное: арена, освободившаяся раньше других, берёт готовый к началу бой самого раннего раунда.
+ * Арены работают параллельно, а время расчёта — O(n log n) от числа боёв
+ */
+@Component
+public class FightScheduler {
+
+    // Готовые бои: ранние раунды первыми, финал после боя за бронзу, внутри раунда — по месту в сетке
+    private static final Comparator<FightHistory> SCHEDULE_ORDER =
+            Comparator.comparingInt((FightHistory fight) -> fight.getRoundNumber() != null ? fight.getRoundNumber() : 0)
+                    .thenComparingInt(fight -> fight.getRound() == FightRound.FINAL ? 1 : 0)
+                    .thenComparingInt(fight -> fight.getBracketPosition() != null ? fight.getBracketPosition() : 0);
+
+    private final int fightMinutes;
+    private final int restMinutes;
+    private final LocalTime dayStart;
+    private final LocalTime dayEnd;
+
+    public FightScheduler(@Value("${fight.schedule.fight-minutes:30}") int fightMinutes,
+                          @Value("${fight.schedule.rest-minutes:60}") int restMinutes,
+                          @Value("${fight.schedule.day-start:10:00}") String dayStart,
+                          @Value("${fight.schedule.day-end:20:00}") String dayEnd) {
+        this.fightMinutes = fightMinutes;
+        this.restMinutes = restMinutes;
+        this.dayStart = LocalTime.parse(dayStart);
+        this.dayEnd = LocalTime.parse(dayEnd);
+        if (fightMinutes <= 0 || restMinutes < 0) {
+            throw new IllegalArgumentException("Длительность боя должна быть положительной, отдых — неотрицательным");
+        }
+        if (ChronoUnit.MINUTES.between(this.dayStart, this.dayEnd) < fightMinutes) {
+            throw new IllegalArgumentException("В турнирный день " + dayStart + "–" + dayEnd + " не помещается ни один бой");
+        }
+    }
+
+    /**
+     * Расписать новые сетки турнира (по одной на категорию — арены у них общие). {@code nextMatch} — куда
+     * выходит победитель боя; бой за бронзу ждёт оба полуфинала своей сетки.
+     * {@code arenas} — арены турнира (null — единственная арена без названия), финал проводится
+     * на {@code finalArena}, если она задана. Бои начинаются не раньше {@code notBefore}
+     */
+    public void plan(List<FightHistory> matches, Map<FightHistory, FightHistory> nextMatch,
+                     List<Location> arenas, Location finalArena, LocalDateTime notBefore) {
+        if (arenas.isEmpty()) {
+            throw new IllegalArgumentException("Для расписания нужна хотя бы одна арена");
+        }
+        int count = matches.size();
+        Map<FightHistory, Integer> index = new IdentityHashMap<>(count);
+        Map<Long, Integer> bronzes = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            index.put(matches.get(i), i);
+            if (matches.get(i).getRound() == FightRound.BRONZE) {
+                bronzes.put(BracketGraph.bracketKey(matches.get(i)), i);
+            }
+        }
+
+        // Рёбра «бой → бои, куда выходят его участники» и число ещё не расписанных питающих боёв
+        int[][] successors = new int[count][];
+        int[] pendingFeeders = new int[count];
+        for (int i = 0; i < count; i++) {
+            FightHistory match = matches.get(i);
+            FightHistory next = nextMatch.get(match);
+            Integer bronze = match.getRound() == FightRound.SEMIFINAL ? bronzes.get(BracketGraph.bracketKey(match)) : null;
+            successors[i] = next == null
+                    ? (bronze != null ? new int[]{bronze} : new int[0])
+                    : (bronze != null ? new int[]{index.get(next), bronze} : new int[]{index.get(next)});
+            for (int successor : successors[i]) {
+                pendingFeeders[successor]++;
+            }
+        }
+
+        LocalDateTime[] readyAt = new LocalDateTime[count];
+        PriorityQueue<Integer> waiting = new PriorityQueue<>(Comparator.<Integer, LocalDateTime>comparing(i -> readyAt[i])
+                .thenComparing(matches::get, SCHEDULE_ORDER));
+        PriorityQueue<Integer> ready = new PriorityQueue<>(Comparator.comparing(matches::get, SCHEDULE_ORDER));
+        for (int i = 0; i < count; i++) {
+            readyAt[i] = notBefore;
+            if (pendingFeeders[i] == 0) {
+                waiting.add(i);
+            }
+        }
+
+        PriorityQueue<Arena> free = new PriorityQueue<>(Comparator.<Arena, LocalDateTime>comparing(arena -> arena.freeAt)
+                .thenComparingInt(arena -> arena.order));
+        Arena finalVenue = null;
+        for (Location location : arenas) {
+            Arena arena = new Arena(location, free.size(), notBefore);
+            free.add(arena);
+            if (finalArena != null && location != null && finalArena.getId().equals(location.getId())) {
+                finalVenue = arena;
+            }
+        }
+        if (finalArena != null && finalVenue == null) {
+            finalVenue = new Arena(finalArena, free.size(), notBefore);
+        }
+
+        for (int scheduled = 0; scheduled < count; scheduled++) {
+            Arena arena = free.poll();
+            while (!waiting.isEmpty() && !readyAt[waiting.peek()].isAfter(arena.freeAt)) {
+                ready.add(waiting.poll());
+            }
+            Integer next = !ready.isEmpty() ? ready.poll() : waiting.poll();
+            if (next == null) {
+                throw new IllegalStateException("В сетке есть бой, участники которого никогда не определятся");
+            }
+            FightHistory match = matches.get(next);
+
+            boolean pooled = true;
+            if (finalVenue != null && match.getRound() == FightRound.FINAL && arena != finalVenue) {
+                free.add(arena);
+                arena = finalVenue;
+                pooled = free.remove(finalVenue);
+            }
+            LocalDateTime start = align(later(arena.freeAt, readyAt[next]));
+            match.setFightDate(start);
+            match.setLocation(arena.location);
+            arena.freeAt = start.plusMinutes(fightMinutes);
+            if (pooled) {
+                free.add(arena);
+            }
+
+            LocalDateTime participantsReady = arena.freeAt.plusMinutes(restMinutes);
+            for (int successor : successors[next]) {
+                readyAt[successor] = later(readyAt[successor], participantsReady);
+                if (--pendingFeeders[successor] == 0) {
+                    waiting.add(successor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Перепланировать сетку после ручного переноса боя {@code moved}: его новое время уже выставлено.
+     * Сдвигаются только бои, которым перенос мешает: те, чьи участники выходят из перенесённого боя
+     * и теперь не успевают отдохнуть, и те, с кем он совпал на арене; за ними — зависящие от сдвинутых.
+     * Сдвинутый бой занимает ближайшее свободное время на любой арене, раньше прежнего не переносится.
+     * Сыгранные бои не трогаются
+     *
+     * @return бои, у которых изменились время или арена, кроме перенесённого
+     */
+    public List<FightHistory> replan(BracketGraph bracket, FightHistory moved) {
+        LocalDateTime earliest = participantsReady(bracket, moved);
+        if (earliest != null && moved.getFightDate().isBefore(earliest)) {
+            throw new IllegalArgumentException("Бой нельзя начать раньше " + earliest
+                    + ": участникам нужен отдых " + restMinutes + " мин после предыдущих боёв");
+        }
+
+        Map<Long, Location> arenas = new LinkedHashMap<>();
+        Map<Long, TreeMap<LocalDateTime, Integer>> timelines = new HashMap<>();
+        for (FightHistory fight : bracket.fights()) {
+            arenas.putIfAbsent(arenaKey(fight), fight.getLocation());
+            occupy(timelines, fight);
+        }
+
+        PriorityQueue<FightHistory> affected = new PriorityQueue<>(SCHEDULE_ORDER);
+        affected.addAll(dependents(bracket, moved));
+        LocalDateTime movedEnd = moved.getFightDate().plusMinutes(fightMinutes);
+        for (FightHistory fight : bracket.fights()) {
+            if (fight != moved && arenaKey(fight).equals(arenaKey(moved))
+                    && fight.getFightDate().isBefore(movedEnd)
+                    && fight.getFightDate().plusMinutes(fightMinutes).isAfter(moved.getFightDate())) {
+                affected.add(fight);
+            }
+        }
+
+        Set<FightHistory> processed = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<FightHistory> changed = new ArrayList<>();
+        while (!affected.isEmpty()) {
+            FightHistory fight = affected.poll();
+            if (fight.getWinner() != null || !processed.add(fight)) {
+                continue;
+            }
+            release(timelines, fight);
+            LocalDateTime ready = participantsReady(bracket, fight);
+            LocalDateTime notBefore = ready != null ? later(fight.getFightDate(), ready) : fight.getFightDate();
+
+            if (notBefore.equals(fight.getFightDate()) && isFree(timelines.get(arenaKey(fight)), notBefore)) {
+                occupy(timelines, fight);
+                continue;
+            }
+
+            // Своя арена при равенстве предпочтительнее; финал остаётся на своей арене
+            Long bestArena = arenaKey(fight);
+            LocalDateTime bestStart = firstGap(timelines.get(bestArena), notBefore);
+            if (fight.getRound() != FightRound.FINAL) {
+                for (Long arena : arenas.keySet()) {
+                    LocalDateTime start = firstGap(timelines.get(arena), notBefore);
+                    if (start.isBefore(bestStart)) {
+                        bestArena = arena;
+                        bestStart = start;
+                    }
+                }
+            }
+            fight.setFightDate(bestStart);
+            fight.setLocation(arenas.get(bestArena));
+            occupy(timelines, fight);
+            changed.add(fight);
+            affected.addAll(dependents(bracket, fight));
+        }
+        return changed;
+    }
+
+    /**
+     * Проверить перенос группы боёв на новое время {@code moves} (ID боя → время): перенесённые бои
+     * начинаются не раньше {@code now} и целиком проходят в турнирные часы, участники каждого
+     * боя успевают отдохнуть после предыдущих боёв и до следующих, перенесённые бои не пересекаются
+     * на арене с другими. Расписание не меняется
+     */
+    public void checkMoves(BracketGraph bracket, Map<Long, LocalDateTime> moves, LocalDateTime now) {
+        Map<Long, List<FightHistory>> byArena = new HashMap<>();
+        for (FightHistory fight : bracket.fights()) {
+            byArena.computeIfAbsent(arenaKey(fight), arena -> new ArrayList<>()).add(fight);
+            if (!moves.containsKey(fight.getId())) {
+                continue;
+            }
+            LocalDateTime start = moves.get(fight.getId());
+            if (start.isBefore(now)) {
+                throw new IllegalArgumentException("После переноса бой " + fight.getId() + " начнётся в прошлом: " + start);
+            }
+            if (!align(start).equals(start)) {
+                throw new IllegalArgumentException("После переноса бой " + fight.getId() + " (" + start
+                        + ") выходит за турнирные часы " + dayStart + "–" + dayEnd);
+            }
+            for (FightHistory feeder : feeders(bracket, fight)) {
+                if (start.isBefore(restedAfter(moves.getOrDefault(feeder.getId(), feeder.getFightDate())))) {
+                    throw new IllegalArgumentException("После переноса участники боя " + fight.getId()
+                            + " не успеют отдохнуть после боя " + feeder.getId());
+                }
+            }
+            for (FightHistory dependent : dependents(bracket, fight)) {
+                if (moves.getOrDefault(dependent.getId(), dependent.getFightDate()).isBefore(restedAfter(start))) {
+                    throw new IllegalArgumentException("После переноса участники боя " + dependent.getId()
+                            + " не успеют отдохнуть после боя " + fight.getId());
+                }
+            }
+        }
+
+        for (List<FightHistory> arenaFights : byArena.values()) {
+            arenaFights.sort(Comparator.comparing(fight -> moves.getOrDefault(fight.getId(), fight.getFightDate())));
+            for (int i = 1; i < arenaFights.size(); i++) {
+                FightHistory previous = arenaFights.get(i - 1);
+                FightHistory current = arenaFights.get(i);
+                if ((moves.containsKey(previous.getId()) || moves.containsKey(current.getId()))
+                        && moves.getOrDefault(current.getId(), current.getFightDate()).isBefore(
+                        moves.getOrDefault(previous.getId(), previous.getFightDate()).plusMinutes(fightMinutes))) {
+                    throw new IllegalArgumentException("После переноса бои " + previous.getId() + " и "
+                            + current.getId() + " пересекаются на одной арене");
+                }
+            }
+        }
+    }
+
+    /**
+     * Когда участники боя отдохнут после боёв, из которых выходят; null — бой первого раунда
+     */
+    private LocalDateTime participantsReady(BracketGraph bracket, FightHistory fight) {
+        LocalDateTime ready = null;
+        for (FightHistory feeder : feeders(bracket, fight)) {
+            LocalDateTime rested = restedAfter(feeder.getFightDate());
+            ready = ready == null ? rested : later(ready, rested);
+        }
+        return ready;
+    }
+
+    private LocalDateTime restedAfter(LocalDateTime fightStart) {
+        return fightStart.plusMinutes(fightMinutes + restMinutes);
+    }
+
+    // Бои, из которых выходят участники; в бой за бронзу — проигравшие полуфиналисты
+    private static List<FightHistory> feeders(BracketGraph bracket, FightHistory fight) {
+        if (fight.getRound() != FightRound.BRONZE) {
+            return bracket.feeders(fight);
+        }
+        return fight.getRoundNumber() != null ? bracket.round(fight, fight.getRoundNumber() - 1) : List.of();
+    }
+
+    private static List<FightHistory> dependents(BracketGraph bracket, FightHistory fight) {
+        List<FightHistory> dependents = new ArrayList<>(2);
+        bracket.next(fight).ifPresent(dependents::add);
+        if (fight.getRound() == FightRound.SEMIFINAL) {
+            bracket.bronze(fight).ifPresent(dependents::add);
+        }
+        return dependents;
+    }
+
+    private boolean isFree(TreeMap<LocalDateTime, Integer> timeline, LocalDateTime start) {
+        if (timeline == null) {
+            return true;
+        }
+        LocalDateTime before = timeline.floorKey(start);
+        LocalDateTime after = timeline.higherKey(start);
+        return (before == null || !before.plusMinutes(fightMinutes).isAfter(start))
+                && (after == null || !after.isBefore(start.plusMinutes(fightMinutes)));
+    }
+
+    /**
+     * Ближайшее к {@code from} время в турнирный день, когда арена свободна на весь бой
+     */
+    private LocalDateTime firstGap(TreeMap<LocalDateTime, Integer> timeline, LocalDateTime from) {
+        LocalDateTime start = align(from);
+        while (timeline != null) {
+            LocalDateTime before = timeline.floorKey(start);
+            if (before != null && before.plusMinutes(fightMinutes).isAfter(start)) {
+                start = align(before.plusMinutes(fightMinutes));
+                continue;
+            }
+            LocalDateTime after = timeline.higherKey(start);
+            if (after != null && after.isBefore(start.plusMinutes(fightMinutes))) {
+                start = align(after.plusMinutes(fightMinutes));
+                continue;
+            }
+            break;
+        }
+        return start;
+    }
+
+    /**
+     * Сдвинуть начало боя в турнирные часы: до начала дня — на его начало, если бой не успевает
+     * закончиться до конца дня — на начало следующего
+     */
+    LocalDateTime align(LocalDateTime start) {
+        LocalTime time = start.toLocalTime();
+        if (time.isBefore(dayStart)) {
+            return start.toLocalDate().atTime(dayStart);
+        }
+        if (ChronoUnit.MINUTES.between(time, dayEnd) < fightMinutes) {
+            return start.toLocalDate().plusDays(1).atTime(dayStart);
+        }
+        return start;
+    }
+
+    private static void occupy(Map<Long, TreeMap<LocalDateTime, Integer>> timelines, FightHistory fight) {
+        timelines.computeIfAbsent(arenaKey(fight), arena -> new TreeMap<>()).merge(fight.getFightDate(), 1, Integer::sum);
+    }
+
+    private static void release(Map<Long, TreeMap<LocalDateTime, Integer>> timelines, FightHistory fight) {
+        timelines.get(arenaKey(fight)).computeIfPresent(fight.getFightDate(), (start, fights) -> fights > 1 ? fights - 1 : null);
+    }
+
+    // Бои без арены (старые сетки, турнир без выбранных площадок) делят одну общую
+    private static Long arenaKey(FightHistory fight) {
+        return fight.getLocation() != null ? fight.getLocation().getId() : 0L;
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static final class Arena {
+
+        private final Location location;
+        private final int order;
+        private LocalDateTime freeAt;
+
+        private Arena(Location location, int order, LocalDateTime freeAt) {
+            this.location = location;
+            this.order = order;
+            this.freeAt = freeAt;
+        }
+    }
+}
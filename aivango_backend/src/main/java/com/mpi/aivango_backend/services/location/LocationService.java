@@ -1,20 +1,84 @@
 package com.mpi.aivango_backend.services.location;
 
+import com.mpi.aivango_backend.dto.location.SeatRowDTO;
 import com.mpi.aivango_backend.models.tournament.Location;
+import com.mpi.aivango_backend.models.tournament.SeatRow;
+import com.mpi.aivango_backend.models.user.UserAccount;
 import com.mpi.aivango_backend.repository.LocationRepository;
+import com.mpi.aivango_backend.repository.SeatRowRepository;
+import com.mpi.aivango_backend.repository.TicketSeatRepository;
+import com.mpi.aivango_backend.services.ticket.SeatAllocationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class LocationService {
     private final LocationRepository locationRepository;
+    private final SeatRowRepository seatRowRepository;
+    private final TicketSeatRepository ticketSeatRepository;
+    private final SeatAllocationService seatAllocationService;
 
     public List<Location> getAllLocation() {
         return locationRepository.findAll();
     }
+
+    @Transactional(readOnly = true)
+    public List<SeatRowDTO> getSeatMap(Long locationId) {
+        return seatRowRepository.findByLocationIdOrderBySectionAscRowNumberAsc(locationId).stream()
+                .map(row -> SeatRowDTO.builder()
+                        .section(row.getSection())
+                        .rowNumber(row.getRowNumber())
+                        .seatsCount(row.getSeatsCount())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Заменить схему зала локации. Схему нельзя менять, пока по ней закреплены места
+     */
+    @Transactional
+    public List<SeatRowDTO> replaceSeatMap(Long locationId, List<SeatRowDTO> rows, UserAccount user) {
+        if (!user.isOrganizer()) {
+            throw new IllegalArgumentException("Только организатор может задавать схему зала");
+        }
+        Location location = locationRepository.findById(locationId)
+                .orElseThrow(() -> new IllegalArgumentException("Локация не найдена"));
+        if (ticketSeatRepository.existsBySeatRowLocationId(locationId)) {
+            throw new IllegalArgumentException("По схеме зала уже проданы места");
+        }
+
+        Set<String> keys = new HashSet<>();
+        for (SeatRowDTO row : rows) {
+            if (row.getSection() == null || row.getSection().isBlank()
+                    || row.getRowNumber() == null || row.getSeatsCount() == null || row.getSeatsCount() < 1) {
+                throw new IllegalArgumentException("Для ряда нужны сектор, номер ряда и число мест");
+            }
+            if (!keys.add(row.getSection() + "#" + row.getRowNumber())) {
+                throw new IllegalArgumentException("Ряд " + row.getRowNumber() + " сектора " + row.getSection() + " указан дважды");
+            }
+        }
+
+        seatRowRepository.deleteByLocationId(locationId);
+        seatRowRepository.saveAll(rows.stream()
+                .map(row -> SeatRow.builder()
+                        .location(location)
+                        .section(row.getSection())
+                        .rowNumber(row.getRowNumber())
+                        .seatsCount(row.getSeatsCount())
+                        .build())
+                .toList());
+        seatAllocationService.invalidate();
+
+        log.info("Схема зала локации {} обновлена: рядов {}, мест {}", locationId, rows.size(),
+                rows.stream().mapToInt(SeatRowDTO::getSeatsCount).sum());
+        return getSeatMap(locationId);
+    }
 }
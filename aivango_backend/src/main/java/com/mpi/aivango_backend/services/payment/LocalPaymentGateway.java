@@ -0,0 +1,56 @@
+package com.mpi.aivango_backend.services.payment;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Локальная замена платёжного шлюза для разработки и тестов: одобряет каждое списание
+ * с небольшой задержкой, как это делал бы внешний шлюз. Включена, пока не выбран другой шлюз (payment.gateway)
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "payment.gateway", havingValue = "local", matchIfMissing = true)
+public class LocalPaymentGateway implements PaymentGateway {
+
+    private final PaymentCallbackInbox callbackInbox;
+    private final long delayMillis;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "local-payment-gateway");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LocalPaymentGateway(PaymentCallbackInbox callbackInbox,
+                               @Value("${payment.local.delay-ms:300}") long delayMillis) {
+        this.callbackInbox = callbackInbox;
+        this.delayMillis = delayMillis;
+    }
+
+    @Override
+    public void submitCharge(PaymentCharge charge) {
+        if (charge.amount().signum() <= 0) {
+            scheduler.schedule(() -> callbackInbox.submit(new PaymentCallback(charge.reference(), false, "Некорректная сумма")),
+                    delayMillis, TimeUnit.MILLISECONDS);
+            return;
+        }
+        scheduler.schedule(() -> callbackInbox.submit(new PaymentCallback(charge.reference(), true, null)),
+                delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void refund(String reference) {
+        log.info("Локальный шлюз: возврат платежа {}", reference);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,7 @@
+package com.mpi.aivango_backend.services.payment;
+
+/**
+ * Результат списания от шлюза. Шлюз может прислать один и тот же результат несколько раз
+ */
+public record PaymentCallback(String reference, boolean approved, String reason) {
+}
@@ -0,0 +1,36 @@
+package com.mpi.aivango_backend.services.payment;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Входящие результаты платежей. Приём — только постановка в очередь,
+ * применяются они пачками обработчиком платежей
+ */
+@Component
+public class PaymentCallbackInbox {
+
+    private final Queue<PaymentCallback> callbacks = new ConcurrentLinkedQueue<>();
+
+    public void submit(PaymentCallback callback) {
+        callbacks.add(callback);
+    }
+
+    public List<PaymentCallback> drain(int max) {
+        List<PaymentCallback> batch = new ArrayList<>();
+        PaymentCallback next;
+        while (batch.size() < max && (next = callbacks.poll()) != null) {
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    /** Вернуть пачку, которую не удалось применить */
+    public void requeue(List<PaymentCallback> batch) {
+        callbacks.addAll(batch);
+    }
+}
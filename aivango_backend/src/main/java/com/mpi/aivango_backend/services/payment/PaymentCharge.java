@@ -0,0 +1,9 @@
+package com.mpi.aivango_backend.services.payment;
+
+import java.math.BigDecimal;
+
+/**
+ * Заявка на списание; reference — ключ идемпотентности и у шлюза, и в обратных вызовах
+ */
+public record PaymentCharge(String reference, BigDecimal amount, String payerEmail, String description) {
+}
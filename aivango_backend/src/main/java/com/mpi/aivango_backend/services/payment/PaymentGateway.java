@@ -0,0 +1,14 @@
+package com.mpi.aivango_backend.services.payment;
+
+/**
+ * Платёжный шлюз. Списание асинхронное: шлюз принимает заявку и позже присылает результат
+ * в {@link PaymentCallbackInbox} (у внешнего шлюза — через POST /api/payments/callback).
+ * Повторная заявка с той же ссылкой не должна приводить к повторному списанию.
+ */
+public interface PaymentGateway {
+
+    void submitCharge(PaymentCharge charge);
+
+    /** Вернуть списанные средства, если зачесть платёж уже нельзя */
+    void refund(String reference);
+}
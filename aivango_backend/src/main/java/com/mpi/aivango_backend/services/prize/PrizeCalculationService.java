@@ -40,6 +40,7 @@ public class PrizeCalculationService {
     private static final BigDecimal PERCENT_SECOND = new BigDecimal("0.25");
     private static final BigDecimal PERCENT_THIRD = new BigDecimal("0.10");
     private static final BigDecimal PERCENT_SYMPATHY = new BigDecimal("0.05");
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
     private static final String FIRST_PLACE = "1st";
     private static final String SECOND_PLACE = "2st";
     private static final String THIRD_PLACE = "3st";
@@ -58,14 +59,15 @@ public class PrizeCalculationService {
             throw new IllegalArgumentException("Призы уже распределены");
         }
 
-        if (tournament.getPrizePercentNum() == null ||  tournament.getPrizePercentNum() > 100 ||  tournament.getPrizePercentNum() < 0) {
+        BigDecimal prizePercent = tournament.getPrizePercentNum();
+        if (prizePercent == null || prizePercent.compareTo(HUNDRED) > 0 || prizePercent.signum() < 0) {
             throw new RuntimeException("Ошибка с распределением процента призов");
         }
 
         // Общая сумма от спонсоров с учетом процента на призы
-        BigDecimal totalFund = BigDecimal.valueOf(
-                sponsorshipRepository.sumAmountByTournamentIdAndStatus(tournamentId, SponsorshipStatus.CONFIRMED) * tournament.getPrizePercentNum() / 100
-        );
+        BigDecimal totalFund = sponsorshipRepository.sumAmountByTournamentIdAndStatus(tournamentId, SponsorshipStatus.CONFIRMED)
+                .multiply(prizePercent)
+                .divide(HUNDRED, 2, RoundingMode.HALF_UP);
 
         if (totalFund.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Призовой фонд пуст");
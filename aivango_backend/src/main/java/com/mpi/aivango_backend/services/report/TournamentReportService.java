@@ -54,22 +54,18 @@ public class TournamentReportService {
         List<Sponsorship> confirmedSponsors = sponsorshipRepository
                 .findByTournamentIdAndStatus(tournamentId, SponsorshipStatus.CONFIRMED);
 
-        BigDecimal totalCollected = BigDecimal.valueOf(
-                sponsorshipRepository.sumAmountByTournamentIdAndStatus(tournamentId, SponsorshipStatus.CONFIRMED)
-        );
+        BigDecimal totalCollected = sponsorshipRepository.sumAmountByTournamentIdAndStatus(tournamentId, SponsorshipStatus.CONFIRMED);
 
         List<TournamentReportDTO.SponsorSummary> sponsorSummaries = confirmedSponsors.stream()
                 .map(s -> TournamentReportDTO.SponsorSummary.builder()
                         .companyName(s.getCompanyName())
                         .packageType(s.getPackageType().name())
                         .amount(s.getAmount())
+                        .logoUrl(s.getLogoPath())
                         .build())
                 .toList();
 
-        BigDecimal totalPrizeFund = prizeDistributionRepository.findByTournamentId(tournamentId)
-                .stream()
-                .map(PrizeDistribution::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalPrizeFund = prizeDistributionRepository.sumAmountByTournamentId(tournamentId);
 
         report.setTotalCollected(totalCollected);
         report.setTotalPrizeFund(totalPrizeFund);
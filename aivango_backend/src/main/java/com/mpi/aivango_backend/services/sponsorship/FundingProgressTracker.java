@@ -0,0 +1,193 @@
+package com.mpi.aivango_backend.services.sponsorship;
+
+import com.mpi.aivango_backend.dto.sponsorship.FundingProgressDTO;
+import com.mpi.aivango_backend.dto.sponsorship.FundingTotalView;
+import com.mpi.aivango_backend.models.tournament.Tournament;
+import com.mpi.aivango_backend.models.tournament.TournamentStatus;
+import com.mpi.aivango_backend.repository.SponsorshipRepository;
+import com.mpi.aivango_backend.repository.TournamentRepository;
+import com.mpi.aivango_backend.services.stream.SseHub;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Живой прогресс сбора средств. Сумма и число спонсоров турниров, которые ещё собирают средства,
+ * держатся в памяти: загружаются из БД один раз на турнир и растут по событиям подтверждённых платежей.
+ * По остальным турнирам прогресс читается из БД на каждый запрос и в памяти не остаётся. Подписчики получают
+ * не больше одного снимка на турнир за {@link #PUBLISH_INTERVAL_MS} мс, запросов к БД панели не делают.
+ * Сумма копится в копейках, чтобы параллельные взносы складывались без потери точности.
+ * Итог из БД читается под блокировкой строки турнира, а взнос учитывается до фиксации зачёта, пока строка
+ * ещё заблокирована зачитывающей транзакцией: каждый взнос попадает либо в итог из БД, либо в счётчик, но не в оба
+ */
+@Component
+@Slf4j
+public class FundingProgressTracker {
+
+    static final long PUBLISH_INTERVAL_MS = 500;
+    private static final String EVENT_NAME = "funding";
+
+    private final SponsorshipRepository sponsorshipRepository;
+    private final TournamentRepository tournamentRepository;
+    private final SseHub sseHub;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, Progress> progress = new ConcurrentHashMap<>();
+
+    public FundingProgressTracker(SponsorshipRepository sponsorshipRepository,
+                                  TournamentRepository tournamentRepository,
+                                  SseHub sseHub,
+                                  PlatformTransactionManager transactionManager) {
+        this.sponsorshipRepository = sponsorshipRepository;
+        this.tournamentRepository = tournamentRepository;
+        this.sseHub = sseHub;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public FundingProgressDTO snapshot(Long tournamentId) {
+        return progressFor(tournamentId).snapshot(tournamentId);
+    }
+
+    public SseEmitter subscribe(Long tournamentId) {
+        return sseHub.subscribe(topic(tournamentId), EVENT_NAME, snapshot(tournamentId));
+    }
+
+    /**
+     * Взнос учитывается до фиксации, пока зачитывающая транзакция держит строку турнира: загрузка итога
+     * под той же блокировкой либо уже зарегистрировала счётчик, либо дождётся фиксации и увидит взнос в БД
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onSponsorshipConfirmed(SponsorshipConfirmedEvent event) {
+        Progress current = progress.get(event.tournamentId());
+        // Незагруженный турнир подхватит взнос из БД при первом обращении
+        if (current != null) {
+            current.add(event.amount());
+        }
+    }
+
+    /**
+     * Все турниры в сборе средств поднимаются одним агрегирующим запросом
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCollectingTournaments() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Tournament> collecting = tournamentRepository.findByTournamentStatusForUpdate(TournamentStatus.WAITING_DONATION);
+            if (collecting.isEmpty()) {
+                return;
+            }
+            Map<Long, FundingTotalView> totals = sponsorshipRepository
+                    .sumConfirmedByTournamentIds(collecting.stream().map(Tournament::getId).toList()).stream()
+                    .collect(Collectors.toMap(FundingTotalView::getTournamentId, Function.identity()));
+            collecting.forEach(tournament -> progress.putIfAbsent(tournament.getId(),
+                    new Progress(tournament.getRequiredAmount(), totals.get(tournament.getId()))));
+            log.info("Прогресс сбора загружен для турниров: {}", collecting.size());
+        });
+    }
+
+    /**
+     * Рассылка изменившихся сборов; турнир, достигший цели, после последнего снимка выгружается
+     */
+    @Scheduled(fixedRate = PUBLISH_INTERVAL_MS)
+    public void publishChanges() {
+        progress.forEach((tournamentId, current) -> {
+            if (!current.dirty.compareAndSet(true, false)) {
+                return;
+            }
+            FundingProgressDTO snapshot = current.snapshot(tournamentId);
+            if (sseHub.hasSubscribers(topic(tournamentId))) {
+                sseHub.publish(topic(tournamentId), EVENT_NAME, snapshot);
+            }
+            if (snapshot.isGoalReached()) {
+                progress.remove(tournamentId);
+            }
+        });
+    }
+
+    private Progress progressFor(Long tournamentId) {
+        Progress current = progress.get(tournamentId);
+        if (current != null) {
+            return current;
+        }
+        return transactionTemplate.execute(status -> {
+            Tournament tournament = tournamentRepository.findByIdForUpdate(tournamentId)
+                    .orElseThrow(() -> new IllegalArgumentException("Турнир не найден"));
+            Progress registered = progress.get(tournamentId);
+            if (registered != null) {
+                return registered;
+            }
+            List<FundingTotalView> totals = sponsorshipRepository.sumConfirmedByTournamentIds(List.of(tournamentId));
+            Progress loaded = new Progress(tournament.getRequiredAmount(), totals.isEmpty() ? null : totals.get(0));
+            if (tournament.getTournamentStatus() == TournamentStatus.WAITING_DONATION) {
+                progress.put(tournamentId, loaded);
+            }
+            return loaded;
+        });
+    }
+
+    private static String topic(Long tournamentId) {
+        return "funding:" + tournamentId;
+    }
+
+    private static final class Progress {
+        private final BigDecimal required;
+        private final LongAdder collectedCents = new LongAdder();
+        private final LongAdder sponsors = new LongAdder();
+        private final AtomicBoolean dirty = new AtomicBoolean();
+        private volatile LocalDateTime updatedAt = LocalDateTime.now();
+
+        Progress(BigDecimal required, FundingTotalView total) {
+            this.required = required != null ? required : BigDecimal.ZERO;
+            if (total != null) {
+                if (total.getCollected() != null) {
+                    collectedCents.add(toCents(total.getCollected()));
+                }
+                sponsors.add(total.getSponsors());
+            }
+        }
+
+        void add(BigDecimal amount) {
+            collectedCents.add(toCents(amount));
+            sponsors.increment();
+            updatedAt = LocalDateTime.now();
+            dirty.set(true);
+        }
+
+        FundingProgressDTO snapshot(Long tournamentId) {
+            BigDecimal sum = BigDecimal.valueOf(collectedCents.sum(), 2);
+            int percent = required.signum() > 0
+                    ? Math.min(100, sum.multiply(BigDecimal.valueOf(100)).divide(required, 0, RoundingMode.FLOOR).intValue())
+                    : 100;
+            return FundingProgressDTO.builder()
+                    .tournamentId(tournamentId)
+                    .collectedAmount(sum)
+                    .requiredAmount(required)
+                    .percent(percent)
+                    .sponsorsCount(sponsors.sum())
+                    .goalReached(sum.compareTo(required) >= 0)
+                    .updatedAt(updatedAt)
+                    .build();
+        }
+
+        private static long toCents(BigDecimal amount) {
+            return amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.mpi.aivango_backend.services.sponsorship;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Хранилище логотипов спонсоров. Файл пишется на диск потоком, без буфера в памяти, и хранится под своим
+ * SHA-256: один и тот же логотип компании на десятке турниров лежит на диске один раз.
+ * Уменьшенные PNG ({@link #SIZES}) строятся в фоновом пуле; пока их нет, отдаётся оригинал.
+ * Принимаются только PNG и JPEG: формат определяется по первым байтам файла, а не по заявленному типу,
+ * размер в пикселях проверяется по заголовку до декодирования.
+ */
+@Service
+@Slf4j
+public class SponsorLogoStorage {
+
+    public static final List<Integer> SIZES = List.of(64, 256);
+    static final long MAX_LOGO_BYTES = 5L * 1024 * 1024;
+    // Маленький файл может объявить огромное изображение; декодированное оно занимает 4 байта на пиксель
+    static final long MAX_LOGO_PIXELS = 4096L * 4096;
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] JPEG_SIGNATURE = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final int RESIZE_THREADS = 2;
+    private static final int BUFFER_SIZE = 8192;
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final Set<String> CONTENT_TYPES = Set.of("image/png", "image/jpeg", "image/jpg");
+    private static final List<String> EXTENSIONS = List.of("png", "jpg");
+
+    private final Path root;
+    private final Set<String> resizing = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(RESIZE_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "logo-resize");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SponsorLogoStorage(@Value("${logo.storage-dir:uploads/logos}") String storageDir) {
+        this.root = Paths.get(storageDir);
+    }
+
+    /**
+     * Сохранить логотип и вернуть его хеш. Повторная загрузка того же файла новый файл не создаёт.
+     * Поток не закрывается — это дело вызывающего
+     */
+    public String store(InputStream content, String contentType) throws IOException {
+        if (contentType == null || !CONTENT_TYPES.contains(contentType.toLowerCase())) {
+            throw new IllegalArgumentException("Неподдерживаемый формат. Разрешены: JPG, PNG");
+        }
+
+        Files.createDirectories(root);
+        Path temp = Files.createTempFile(root, "upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), digest)) {
+                size = copyLimited(content, out);
+            }
+            if (size == 0) {
+                throw new IllegalArgumentException("Файл пустой");
+            }
+            String extension = detectExtension(temp);
+            checkPixels(temp);
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path original = root.resolve(hash + "." + extension);
+            if (Files.exists(original)) {
+                log.debug("Логотип {} уже есть в хранилище", hash);
+            } else {
+                moveIntoPlace(temp, original);
+            }
+            scheduleResize(hash, original);
+            return hash;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Файл логотипа нужного размера; если уменьшенной копии ещё нет (или формат её не допускает) — оригинал
+     */
+    public Optional<Path> resolve(String hash, Integer size) {
+        if (hash == null || !HASH.matcher(hash).matches()) {
+            return Optional.empty();
+        }
+        if (size != null && SIZES.contains(size)) {
+            Path resized = resizedPath(hash, size);
+            if (Files.exists(resized)) {
+                return Optional.of(resized);
+            }
+        }
+        return findOriginal(hash);
+    }
+
+    /**
+     * Построить недостающие копии; одновременно по одному хешу работает одна задача
+     */
+    Future<?> scheduleResize(String hash, Path original) {
+        if (SIZES.stream().allMatch(size -> Files.exists(resizedPath(hash, size)))) {
+            return null;
+        }
+        if (!resizing.add(hash)) {
+            return null;
+        }
+        return executor.submit(() -> {
+            try {
+                resize(hash, original);
+            } catch (Exception e) {
+                log.warn("Не удалось построить уменьшенные копии логотипа {}: {}", hash, e.getMessage());
+            } finally {
+                resizing.remove(hash);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Не все логотипы обработаны до остановки");
+        }
+    }
+
+    private void resize(String hash, Path original) throws IOException {
+        checkPixels(original);
+        BufferedImage source = ImageIO.read(original.toFile());
+        if (source == null) {
+            log.warn("Логотип {} не читается как изображение", hash);
+            return;
+        }
+        for (int size : SIZES) {
+            Path target = resizedPath(hash, size);
+            if (Files.exists(target)) {
+                continue;
+            }
+            Path temp = Files.createTempFile(root, "resize-", ".tmp");
+            try {
+                ImageIO.write(scale(source, size), "png", temp.toFile());
+                moveIntoPlace(temp, target);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * Вписать в квадрат size×size с сохранением пропорций; маленькие логотипы не растягиваются
+     */
+    private static BufferedImage scale(BufferedImage source, int size) {
+        double ratio = Math.min(1.0, Math.min((double) size / source.getWidth(), (double) size / source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private Optional<Path> findOriginal(String hash) {
+        return EXTENSIONS.stream()
+                .map(extension -> root.resolve(hash + "." + extension))
+                .filter(Files::exists)
+                .findFirst();
+    }
+
+    /**
+     * Формат по сигнатуре в начале файла; заявленному клиентом типу не доверяем
+     */
+    private static String detectExtension(Path file) throws IOException {
+        byte[] header = new byte[PNG_SIGNATURE.length];
+        int read;
+        try (InputStream in = Files.newInputStream(file)) {
+            read = in.readNBytes(header, 0, header.length);
+        }
+        if (startsWith(header, read, PNG_SIGNATURE)) {
+            return "png";
+        }
+        if (startsWith(header, read, JPEG_SIGNATURE)) {
+            return "jpg";
+        }
+        throw new IllegalArgumentException("Файл не является изображением PNG или JPEG");
+    }
+
+    private static boolean startsWith(byte[] header, int length, byte[] signature) {
+        return length >= signature.length
+                && Arrays.equals(header, 0, signature.length, signature, 0, signature.length);
+    }
+
+    /**
+     * Ширина и высота читаются из заголовка, без декодирования пикселей
+     */
+    private static void checkPixels(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : Collections.emptyIterator();
+            if (!readers.hasNext()) {
+                throw new IllegalArgumentException("Файл не является изображением PNG или JPEG");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_LOGO_PIXELS) {
+                    throw new IllegalArgumentException("Изображение слишком большое (макс. 4096×4096 пикселей)");
+                }
+            } catch (IIOException e) {
+                throw new IllegalArgumentException("Файл изображения повреждён", e);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private Path resizedPath(String hash, int size) {
+        return root.resolve(hash + "-" + size + ".png");
+    }
+
+    private static long copyLimited(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+            if (total > MAX_LOGO_BYTES) {
+                throw new IllegalArgumentException("Файл слишком большой (макс. 5 МБ)");
+            }
+            out.write(buffer, 0, read);
+        }
+        return total;
+    }
+
+    /**
+     * Файл появляется под итоговым именем целиком; если параллельная загрузка успела раньше — оставляем её копию
+     */
+    private static void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                Files.move(source, target);
+            } catch (FileAlreadyExistsException ignored) {
+                // тот же хеш — то же содержимое
+            }
+        } catch (FileAlreadyExistsException ignored) {
+            // тот же хеш — то же содержимое
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
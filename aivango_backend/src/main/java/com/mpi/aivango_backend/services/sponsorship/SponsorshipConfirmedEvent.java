@@ -0,0 +1,9 @@
+package com.mpi.aivango_backend.services.sponsorship;
+
+import java.math.BigDecimal;
+
+/**
+ * Платёж спонсора подтверждён и зачтён в сбор турнира
+ */
+public record SponsorshipConfirmedEvent(Long tournamentId, BigDecimal amount) {
+}
@@ -0,0 +1,9 @@
+package com.mpi.aivango_backend.services.sponsorship;
+
+import com.mpi.aivango_backend.services.payment.PaymentCharge;
+
+/**
+ * Спонсорство записано в ожидании оплаты — после фиксации заявка уходит в шлюз
+ */
+public record SponsorshipPaymentRequestedEvent(PaymentCharge charge) {
+}
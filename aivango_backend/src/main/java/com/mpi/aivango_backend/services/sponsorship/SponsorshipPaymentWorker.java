@@ -0,0 +1,101 @@
+package com.mpi.aivango_backend.services.sponsorship;
+
+import com.mpi.aivango_backend.models.sponsorship.Sponsorship;
+import com.mpi.aivango_backend.models.sponsorship.SponsorshipStatus;
+import com.mpi.aivango_backend.repository.SponsorshipRepository;
+import com.mpi.aivango_backend.services.payment.PaymentCallback;
+import com.mpi.aivango_backend.services.payment.PaymentCallbackInbox;
+import com.mpi.aivango_backend.services.payment.PaymentCharge;
+import com.mpi.aivango_backend.services.payment.PaymentGateway;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Платёжный конвейер спонсорств. Заявки на списание уходят в шлюз из фонового потока,
+ * результаты от шлюза применяются пачками; поток запроса платёжного ввода-вывода не ждёт.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SponsorshipPaymentWorker {
+
+    static final int CALLBACK_BATCH_SIZE = 500;
+
+    private final PaymentGateway paymentGateway;
+    private final PaymentCallbackInbox callbackInbox;
+    private final SponsorshipService sponsorshipService;
+    private final SponsorshipRepository sponsorshipRepository;
+
+    private final Queue<PaymentCharge> charges = new ConcurrentLinkedQueue<>();
+
+    @TransactionalEventListener
+    public void onPaymentRequested(SponsorshipPaymentRequestedEvent event) {
+        charges.add(event.charge());
+    }
+
+    @Scheduled(fixedDelay = 200)
+    public void submitCharges() {
+        PaymentCharge charge;
+        while ((charge = charges.poll()) != null) {
+            try {
+                paymentGateway.submitCharge(charge);
+            } catch (Exception e) {
+                // Шлюз недоступен — повторим на следующем цикле; повтор по той же ссылке не спишет дважды
+                log.warn("Не удалось отправить платёж {} в шлюз: {}", charge.reference(), e.getMessage());
+                charges.add(charge);
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelay = 500)
+    public void processCallbacks() {
+        List<PaymentCallback> batch;
+        while (!(batch = callbackInbox.drain(CALLBACK_BATCH_SIZE)).isEmpty()) {
+            SponsorshipService.PaymentBatchOutcome outcome;
+            try {
+                outcome = sponsorshipService.applyPaymentResults(batch);
+            } catch (Exception e) {
+                log.error("Не удалось применить результаты платежей ({}), повторим позже", batch.size(), e);
+                callbackInbox.requeue(batch);
+                return;
+            }
+
+            for (String reference : outcome.refunds()) {
+                try {
+                    paymentGateway.refund(reference);
+                } catch (Exception e) {
+                    log.error("Не удалось оформить возврат платежа {}", reference, e);
+                }
+            }
+            for (Sponsorship sponsorship : outcome.confirmed()) {
+                try {
+                    sponsorshipService.sendConfirmationEmail(sponsorship);
+                } catch (Exception e) {
+                    log.error("Не удалось отправить письмо спонсору {}", sponsorship.getSponsor().getEmail(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Заявки живут в памяти — после перезапуска ожидающие оплаты спонсорства отправляются в шлюз повторно
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resubmitPending() {
+        List<Sponsorship> pending = sponsorshipRepository.findAwaitingPayment(SponsorshipStatus.PENDING);
+        pending.forEach(sponsorship -> charges.add(SponsorshipService.toCharge(sponsorship)));
+        if (!pending.isEmpty()) {
+            log.info("Повторно отправлено в шлюз ожидающих оплаты спонсорств: {}", pending.size());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.mpi.aivango_backend.services.sponsorship;
 
+import com.mpi.aivango_backend.dto.sponsorship.SponsorshipPaymentDTO;
 import com.mpi.aivango_backend.dto.sponsorship.SponsorshipRequest;
 import com.mpi.aivango_backend.models.sponsorship.Sponsorship;
 import com.mpi.aivango_backend.models.sponsorship.SponsorshipPackage;
@@ -14,27 +15,52 @@ import com.mpi.aivango_backend.repository.TournamentRepository;
 import com.mpi.aivango_backend.repository.UserRepository;
 import com.mpi.aivango_backend.repository.UserTournamentRoleRepository;
 import com.mpi.aivango_backend.services.email.EmailSendService;
+import com.mpi.aivango_backend.services.payment.PaymentCallback;
+import com.mpi.aivango_backend.services.payment.PaymentCharge;
 import com.mpi.aivango_backend.services.tournament.TournamentRoleService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@Slf4j
 @RequiredArgsConstructor
 public class SponsorshipService {
 
+    public static final String LOGO_URL_PREFIX = "/api/sponsorship/logos/";
+
     private final SponsorshipRepository sponsorshipRepository;
     private final TournamentRepository tournamentRepository;
     private final TournamentRoleService tournamentRoleService;
     private final UserRepository userRepository;
     private final UserTournamentRoleRepository userTournamentRoleRepository;
     private final EmailSendService emailSendService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SponsorLogoStorage sponsorLogoStorage;
 
+    /**
+     * Записать спонсорство в ожидании оплаты. Заявка на списание уходит в шлюз после фиксации,
+     * собранная сумма растёт только когда шлюз подтвердит платёж
+     */
     @Transactional
-    public void createSponsorship(Long tournamentId, SponsorshipRequest request, Long sponsorId) {
+    public SponsorshipPaymentDTO createSponsorship(Long tournamentId, SponsorshipRequest request, Long sponsorId) {
 
         Tournament tournament = tournamentRepository.findById(tournamentId)
                 .orElseThrow(() -> new IllegalArgumentException("Турнир не найден"));
@@ -53,24 +79,22 @@ public class SponsorshipService {
         }
 
         SponsorshipPackage packageType = request.getPackageType();
-        double amount = packageType.getAmount();
+        BigDecimal amount = packageType.getAmount();
 
-        // Проверяем, не достигнута ли уже цель
-        Double currentCollected = sponsorshipRepository.getTotalCollectedAmount(tournamentId);
-        if (currentCollected >= tournament.getRequiredAmount()) {
+        // Предварительная проверка; окончательно взнос зачитывается атомарно при подтверждении платежа
+        if (tournamentRepository.findCollectedAmount(tournamentId).compareTo(tournament.getRequiredAmount()) >= 0) {
             throw new IllegalArgumentException("Турнир уже собрал необходимую сумму");
         }
 
-        // Создаём спонсорство со статусом
         Sponsorship sponsorship = Sponsorship.builder()
                 .sponsor(sponsor)
                 .tournament(tournament)
                 .packageType(packageType)
                 .amount(amount)
                 .companyName(request.getCompanyName())
-                .logoPath(null) // пока без фото
                 .createdAt(LocalDateTime.now())
-                .status(SponsorshipStatus.CONFIRMED)
+                .status(SponsorshipStatus.PENDING)
+                .paymentReference(UUID.randomUUID().toString())
                 .build();
 
         sponsorshipRepository.save(sponsorship);
@@ -80,23 +104,128 @@ public class SponsorshipService {
                 .role(TournamentRolesEnum.SPONSOR)
                 .build();
         userTournamentRoleRepository.save(role);
-        updateTournamentCollectedAmountAndStatus(tournament);
 
-        // Отправляем письмо спонсору
-        sendConfirmationEmail(sponsor, tournament, packageType, amount, request.getCompanyName());
+        eventPublisher.publishEvent(new SponsorshipPaymentRequestedEvent(toCharge(sponsorship)));
+        return toPaymentDTO(sponsorship);
+    }
+
+    /**
+     * Последнее спонсорство пользователя в турнире — чтобы клиент мог дождаться результата оплаты
+     */
+    @Transactional(readOnly = true)
+    public SponsorshipPaymentDTO getMySponsorship(Long tournamentId, Long sponsorId) {
+        return sponsorshipRepository.findFirstBySponsorIdAndTournamentIdOrderByIdDesc(sponsorId, tournamentId)
+                .map(this::toPaymentDTO)
+                .orElseThrow(() -> new IllegalArgumentException("Спонсорство не найдено"));
+    }
+
+    /**
+     * Загрузить логотип к последнему спонсорству пользователя в турнире. Файл пишется вне транзакции,
+     * в спонсорстве меняется только ссылка — статус оплаты, сменившийся за время загрузки, не затирается
+     */
+    public String attachLogo(Long tournamentId, Long sponsorId, InputStream content, String contentType) throws IOException {
+        Sponsorship sponsorship = sponsorshipRepository.findFirstBySponsorIdAndTournamentIdOrderByIdDesc(sponsorId, tournamentId)
+                .orElseThrow(() -> new IllegalArgumentException("Спонсорство не найдено"));
+        if (sponsorship.getStatus() == SponsorshipStatus.REJECTED) {
+            throw new IllegalArgumentException("Спонсорство отклонено");
+        }
+
+        String logoUrl = LOGO_URL_PREFIX + sponsorLogoStorage.store(content, contentType);
+        sponsorshipRepository.updateLogoPath(sponsorship.getId(), logoUrl);
+        return logoUrl;
+    }
+
+    /**
+     * Применить пачку результатов платежей одной транзакцией. Спонсорства блокируются на время пачки,
+     * повторные результаты и уже закрытые платежи пропускаются.
+     * Одобренный платёж зачитывается в сбор; если сбор к этому моменту закрыт — платёж отклоняется и возвращается
+     */
+    @Transactional
+    public PaymentBatchOutcome applyPaymentResults(List<PaymentCallback> callbacks) {
+        Map<String, PaymentCallback> byReference = new LinkedHashMap<>();
+        callbacks.forEach(callback -> byReference.putIfAbsent(callback.reference(), callback));
+
+        Map<String, Sponsorship> sponsorships = sponsorshipRepository.findByPaymentReferenceIn(byReference.keySet()).stream()
+                .collect(Collectors.toMap(Sponsorship::getPaymentReference, Function.identity()));
+
+        List<Sponsorship> confirmed = new ArrayList<>();
+        List<String> refunds = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (PaymentCallback callback : byReference.values()) {
+            Sponsorship sponsorship = sponsorships.get(callback.reference());
+            if (sponsorship == null) {
+                log.warn("Результат платежа с неизвестной ссылкой {}", callback.reference());
+                continue;
+            }
+            if (sponsorship.getStatus() != SponsorshipStatus.PENDING) {
+                continue;
+            }
+
+            Long tournamentId = sponsorship.getTournament().getId();
+            if (callback.approved() && tournamentRepository.addFunding(tournamentId, sponsorship.getAmount()) == 1) {
+                sponsorship.setStatus(SponsorshipStatus.CONFIRMED);
+                sponsorship.setPaidAt(now);
+                confirmed.add(sponsorship);
+                eventPublisher.publishEvent(new SponsorshipConfirmedEvent(tournamentId, sponsorship.getAmount()));
+                continue;
+            }
+
+            if (callback.approved()) {
+                log.info("Платёж {} одобрен после закрытия сбора турнира {}, оформляется возврат",
+                        callback.reference(), tournamentId);
+                refunds.add(callback.reference());
+            } else {
+                log.info("Платёж {} отклонён: {}", callback.reference(), callback.reason());
+            }
+            sponsorship.setStatus(SponsorshipStatus.REJECTED);
+            userTournamentRoleRepository.deleteByUserIdAndTournamentIdAndRole(
+                    sponsorship.getSponsor().getId(), tournamentId, TournamentRolesEnum.SPONSOR);
+        }
+        return new PaymentBatchOutcome(confirmed, refunds);
     }
 
-    private void updateTournamentCollectedAmountAndStatus(Tournament tournament) {
-        Double total = sponsorshipRepository.getTotalCollectedAmount(tournament.getId());
+    /**
+     * Итог пачки: по подтверждённым — письма, по ссылкам из refunds — возвраты; и то и другое после фиксации
+     */
+    public record PaymentBatchOutcome(List<Sponsorship> confirmed, List<String> refunds) {
+    }
 
-        if (total >= tournament.getRequiredAmount()) {
-            tournament.setTournamentStatus(TournamentStatus.KNIGHT_REGISTRATION);
-            tournamentRepository.save(tournament);
+    static PaymentCharge toCharge(Sponsorship sponsorship) {
+        return new PaymentCharge(sponsorship.getPaymentReference(), sponsorship.getAmount(),
+                sponsorship.getSponsor().getEmail(), "Спонсорство турнира " + sponsorship.getTournament().getName());
+    }
+
+    private SponsorshipPaymentDTO toPaymentDTO(Sponsorship sponsorship) {
+        return SponsorshipPaymentDTO.builder()
+                .sponsorshipId(sponsorship.getId())
+                .packageType(sponsorship.getPackageType())
+                .amount(sponsorship.getAmount())
+                .status(sponsorship.getStatus())
+                .paidAt(sponsorship.getPaidAt())
+                .build();
+    }
+
+    /**
+     * Счётчик собранной суммы появился позже спонсорств — заполняем его для старых турниров
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillCollectedAmounts() {
+        int updated = tournamentRepository.backfillCollectedAmount();
+        if (updated > 0) {
+            log.info("Заполнен счётчик собранной суммы для турниров: {}", updated);
         }
     }
 
-    private void sendConfirmationEmail(UserAccount sponsor, Tournament tournament,
-                                       SponsorshipPackage packageType, double amount, String companyName) {
+    /**
+     * Письмо спонсору о подтверждённом взносе
+     */
+    void sendConfirmationEmail(Sponsorship sponsorship) {
+        UserAccount sponsor = sponsorship.getSponsor();
+        Tournament tournament = sponsorship.getTournament();
+        SponsorshipPackage packageType = sponsorship.getPackageType();
+        BigDecimal amount = sponsorship.getAmount();
+        String companyName = sponsorship.getCompanyName();
 
         String packageNameRu = switch (packageType) {
             case BRONZE -> "Бронзовый";
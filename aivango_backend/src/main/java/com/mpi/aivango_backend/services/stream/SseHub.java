@@ -0,0 +1,277 @@
+package com.mpi.aivango_backend.services.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Рассылка событий Server-Sent Events подписчикам по темам
+ * (например, «leaderboard:15» — таблица симпатий турнира 15).
+ * Публикация не блокируется: событие сериализуется один раз и кладётся в ограниченный буфер каждого
+ * клиента, а запись в соединения идёт небольшим пулом потоков. Клиент, переполнивший буфер или не принявший
+ * одно событие за {@link #DEFAULT_SEND_TIMEOUT_MS} мс, отключается — EventSource переподключится и получит
+ * свежий снимок, а поток пула не остаётся занят зависшим соединением. Раз в {@link #HEARTBEAT_INTERVAL_MS} мс
+ * всем уходит комментарий-пинг, чтобы прокси не закрывали простаивающие соединения
+ */
+@Component
+@Slf4j
+public class SseHub {
+
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+    public static final int CLIENT_BUFFER = 64;
+    static final long HEARTBEAT_INTERVAL_MS = 15_000;
+    private static final int SEND_THREADS = 4;
+    static final long DEFAULT_SEND_TIMEOUT_MS = 5_000;
+    private static final Outgoing HEARTBEAT = new Outgoing(null, "ping");
+
+    private final ObjectMapper objectMapper;
+    private final ExecutorService sender;
+    private final long sendTimeoutNanos;
+
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SseHub(ObjectMapper objectMapper) {
+        this(objectMapper, Executors.newFixedThreadPool(SEND_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "sse-send");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    public SseHub(ObjectMapper objectMapper, ExecutorService sender) {
+        this(objectMapper, sender, DEFAULT_SEND_TIMEOUT_MS);
+    }
+
+    public SseHub(ObjectMapper objectMapper, ExecutorService sender, long sendTimeoutMs) {
+        this.objectMapper = objectMapper;
+        this.sender = sender;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+    }
+
+    /**
+     * Подписаться на тему. {@code initial} (если не null) отправляется сразу, чтобы клиент не ждал первого изменения
+     */
+    public SseEmitter subscribe(String topic, String eventName, Object initial) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        Subscriber subscriber = new Subscriber(emitter, topic);
+        // Добавление и удаление подписчика атомарны относительно темы: пустая тема убирается из карты в detach
+        subscribers.compute(topic, (t, topicSubscribers) -> {
+            Set<Subscriber> current = topicSubscribers != null ? topicSubscribers : ConcurrentHashMap.<Subscriber>newKeySet();
+            current.add(subscriber);
+            return current;
+        });
+
+        emitter.onCompletion(subscriber::detach);
+        emitter.onTimeout(subscriber::detach);
+        emitter.onError(error -> subscriber.detach());
+
+        if (initial != null) {
+            subscriber.offer(new Outgoing(eventName, serialize(initial)));
+        }
+        return emitter;
+    }
+
+    public boolean hasSubscribers(String topic) {
+        Set<Subscriber> topicSubscribers = subscribers.get(topic);
+        return topicSubscribers != null && !topicSubscribers.isEmpty();
+    }
+
+    public int subscriberCount(String topic) {
+        Set<Subscriber> topicSubscribers = subscribers.get(topic);
+        return topicSubscribers == null ? 0 : topicSubscribers.size();
+    }
+
+    public int topicCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Отправить событие всем подписчикам темы. Не ждёт записи в соединения
+     */
+    public void publish(String topic, String eventName, Object payload) {
+        Set<Subscriber> topicSubscribers = subscribers.get(topic);
+        if (topicSubscribers == null || topicSubscribers.isEmpty()) {
+            return;
+        }
+        Outgoing event = new Outgoing(eventName, serialize(payload));
+        for (Subscriber subscriber : topicSubscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    @Scheduled(fixedRate = HEARTBEAT_INTERVAL_MS)
+    public void heartbeat() {
+        subscribers.values().forEach(topicSubscribers -> topicSubscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT)));
+    }
+
+    /**
+     * Отключить клиентов, запись которым висит дольше допустимого: поток отправки прерывается,
+     * а новые события такому клиенту больше не ставятся в очередь
+     */
+    @Scheduled(fixedRate = 1000)
+    public void dropStalledClients() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(topicSubscribers -> topicSubscribers.forEach(subscriber -> {
+            long startedAt = subscriber.sendingSince;
+            if (startedAt != 0 && now - startedAt > sendTimeoutNanos) {
+                subscriber.abortStalledSend();
+            }
+        }));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        subscribers.values().forEach(topicSubscribers -> topicSubscribers.forEach(Subscriber::close));
+        sender.shutdown();
+        if (!sender.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("Не все события SSE отправлены до остановки");
+        }
+    }
+
+    private String serialize(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Событие SSE не сериализуется: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Событие, уже переведённое в JSON; без имени — комментарий-пинг
+     */
+    private record Outgoing(String name, String data) {
+
+        SseEmitter.SseEventBuilder toEvent() {
+            return name == null
+                    ? SseEmitter.event().comment(data)
+                    : SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    /**
+     * Клиент с собственным буфером. Буфер опустошает не больше одной задачи пула за раз,
+     * так что события одного клиента уходят по порядку
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final String topic;
+        private final BlockingQueue<Outgoing> buffer = new ArrayBlockingQueue<>(CLIENT_BUFFER);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+        /** Начало текущей записи в соединение (System.nanoTime), 0 — запись не идёт */
+        private volatile long sendingSince;
+        private volatile Thread sendingThread;
+
+        private Subscriber(SseEmitter emitter, String topic) {
+            this.emitter = emitter;
+            this.topic = topic;
+        }
+
+        void offer(Outgoing event) {
+            if (closed) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                log.debug("Подписчик SSE не успевает читать события и отключён");
+                close();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RuntimeException e) {
+                    // Пул остановлен — приложение завершается
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            sendingThread = Thread.currentThread();
+            try {
+                Outgoing event;
+                while (!closed && (event = buffer.poll()) != null) {
+                    sendingSince = System.nanoTime();
+                    emitter.send(event.toEvent());
+                    sendingSince = 0;
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Подписчик SSE отключился: {}", e.getMessage());
+                detach();
+                emitter.completeWithError(e);
+            } finally {
+                sendingSince = 0;
+                synchronized (this) {
+                    sendingThread = null;
+                    // Прерывание предназначалось зависшей записи, а не следующей задаче пула
+                    Thread.interrupted();
+                }
+                draining.set(false);
+            }
+            // Событие могло прийти между последним poll и сбросом флага
+            if (!closed && !buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        void abortStalledSend() {
+            if (closed) {
+                return;
+            }
+            log.debug("Подписчик SSE не принимает событие дольше {} мс и отключён",
+                    TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+            detach();
+            synchronized (this) {
+                if (sendingThread != null) {
+                    sendingThread.interrupt();
+                }
+            }
+            try {
+                emitter.completeWithError(new IOException("Запись события SSE не завершилась вовремя"));
+            } catch (IllegalStateException e) {
+                log.debug("Соединение SSE уже закрыто: {}", e.getMessage());
+            }
+        }
+
+        void detach() {
+            closed = true;
+            subscribers.computeIfPresent(topic, (t, topicSubscribers) -> {
+                topicSubscribers.remove(this);
+                return topicSubscribers.isEmpty() ? null : topicSubscribers;
+            });
+            buffer.clear();
+        }
+
+        void close() {
+            detach();
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                log.debug("Соединение SSE уже закрыто: {}", e.getMessage());
+            }
+        }
+    }
+}
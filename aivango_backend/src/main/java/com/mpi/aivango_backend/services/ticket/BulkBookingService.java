@@ -0,0 +1,225 @@
+package com.mpi.aivango_backend.services.ticket;
+
+import com.mpi.aivango_backend.dto.ticket.BulkBookingRequest;
+import com.mpi.aivango_backend.dto.ticket.BulkBookingResultDTO;
+import com.mpi.aivango_backend.dto.ticket.SeatRefView;
+import com.mpi.aivango_backend.models.ticket.Ticket;
+import com.mpi.aivango_backend.models.tournament.Tournament;
+import com.mpi.aivango_backend.models.tournament.TournamentStatus;
+import com.mpi.aivango_backend.models.user.TournamentRolesEnum;
+import com.mpi.aivango_backend.models.user.UserAccount;
+import com.mpi.aivango_backend.repository.TicketRepository;
+import com.mpi.aivango_backend.repository.TournamentRepository;
+import com.mpi.aivango_backend.repository.UserRepository;
+import com.mpi.aivango_backend.repository.UserTournamentRoleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Оптовое бронирование для организаций: много зрителей одной транзакцией.
+ * Доступно только организатору этого турнира и только для зарегистрированных зрителей — аккаунты заявка не создаёт,
+ * а коды бронирования получают сами зрители письмом, в ответ организатору они не попадают.
+ * Места занимаются одним атомарным UPDATE счётчика — тем же, что и при обычной покупке,
+ * билеты и роли пишутся пачками JDBC, письма с QR уходят общим конвейером после фиксации.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BulkBookingService {
+
+    private static final int MAX_ATTENDEES = 1000;
+    private static final String INSERT_TICKET_SQL =
+            "INSERT INTO tickets (user_id, tournament_id, seats_count, booking_code, confirmed, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, ?, true, ?, ?)";
+    private static final String INSERT_ROLE_SQL =
+            "INSERT INTO user_tournament_roles (user_id, tournament_id, role) VALUES (?, ?, ?)";
+
+    private final TournamentRepository tournamentRepository;
+    private final TicketRepository ticketRepository;
+    private final UserRepository userRepository;
+    private final UserTournamentRoleRepository userTournamentRoleRepository;
+    private final TicketBookingService ticketBookingService;
+    private final SeatAllocationService seatAllocationService;
+    private final TicketMailPipeline ticketMailPipeline;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public BulkBookingResultDTO bookBulk(Long tournamentId, BulkBookingRequest request, UserAccount requester) {
+        if (!request.isAgreeToRules()) {
+            throw new IllegalArgumentException("Необходимо согласие с правилами");
+        }
+        List<BulkBookingRequest.Attendee> attendees = validateAttendees(request.getAttendees());
+
+        Tournament tournament = tournamentRepository.findById(tournamentId)
+                .orElseThrow(() -> new IllegalArgumentException("Турнир не найден"));
+        if (!tournament.getUserAccount().getId().equals(requester.getId())) {
+            throw new IllegalArgumentException("Оптовое бронирование доступно только организатору турнира");
+        }
+        if (tournament.getTournamentStatus() != TournamentStatus.TICKET_SALES) {
+            throw new IllegalArgumentException("Бронирование билетов недоступно для этого турнира");
+        }
+
+        // Зрители — только существующие пользователи, одним запросом
+        Map<String, UserAccount> users = userRepository.findByLowerEmailIn(
+                        attendees.stream().map(BulkBookingRequest.Attendee::getEmail).toList()).stream()
+                .collect(Collectors.toMap(user -> user.getEmail().toLowerCase(Locale.ROOT), Function.identity(),
+                        (first, second) -> first));
+        String unknown = attendees.stream()
+                .map(BulkBookingRequest.Attendee::getEmail)
+                .filter(email -> !users.containsKey(email))
+                .sorted()
+                .collect(Collectors.joining(", "));
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Не зарегистрированы: " + unknown);
+        }
+        checkNotParticipating(tournamentId, users);
+
+        int totalSeats = attendees.stream().mapToInt(BulkBookingRequest.Attendee::getSeatsCount).sum();
+        ticketBookingService.reserveSeats(tournament, totalSeats);
+
+        List<Ticket> tickets = insertTickets(tournament, attendees, users);
+        jdbcTemplate.batchUpdate(INSERT_ROLE_SQL, tickets.stream()
+                .map(ticket -> new Object[]{ticket.getUser().getId(), tournamentId, TournamentRolesEnum.SPECTATOR.name()})
+                .toList());
+        eventPublisher.publishEvent(SpectatorsChangedEvent.admitted(tournamentId,
+                tickets.stream().map(ticket -> ticket.getUser().getId()).toList()));
+
+        List<List<SeatRefView>> seats = seatAllocationService.assignSeats(tournament, tickets);
+        List<TicketMailPipeline.TicketMail> mails = new ArrayList<>(tickets.size());
+        List<BulkBookingResultDTO.IssuedTicket> issued = new ArrayList<>(tickets.size());
+        for (int i = 0; i < tickets.size(); i++) {
+            Ticket ticket = tickets.get(i);
+            String seatLabel = seatAllocationService.describe(tournamentId, seats.get(i));
+            mails.add(TicketMailPipeline.TicketMail.of(ticket, tournament, seatLabel));
+            issued.add(BulkBookingResultDTO.IssuedTicket.builder()
+                    .email(ticket.getUser().getEmail())
+                    .seatsCount(ticket.getSeatsCount())
+                    .seats(seatLabel)
+                    .build());
+        }
+        ticketMailPipeline.sendAfterCommit(mails);
+
+        log.info("Оптовое бронирование на турнир {} от {} ({}): билетов {}, мест {}",
+                tournamentId, requester.getEmail(), request.getOrganizationName(), tickets.size(), totalSeats);
+        return BulkBookingResultDTO.builder()
+                .ticketsCount(tickets.size())
+                .seatsCount(totalSeats)
+                .tickets(issued)
+                .build();
+    }
+
+    /** Нормализует email и число мест; повторы email внутри заявки не допускаются */
+    private List<BulkBookingRequest.Attendee> validateAttendees(List<BulkBookingRequest.Attendee> attendees) {
+        if (attendees == null || attendees.isEmpty()) {
+            throw new IllegalArgumentException("Список зрителей пуст");
+        }
+        if (attendees.size() > MAX_ATTENDEES) {
+            throw new IllegalArgumentException("За один раз можно забронировать не более " + MAX_ATTENDEES + " билетов");
+        }
+
+        Set<String> emails = new HashSet<>();
+        List<BulkBookingRequest.Attendee> normalized = new ArrayList<>(attendees.size());
+        for (BulkBookingRequest.Attendee attendee : attendees) {
+            if (attendee.getEmail() == null || attendee.getEmail().isBlank()) {
+                throw new IllegalArgumentException("У каждого зрителя должен быть email");
+            }
+            String email = attendee.getEmail().trim().toLowerCase(Locale.ROOT);
+            if (!emails.add(email)) {
+                throw new IllegalArgumentException("Зритель " + email + " указан дважды");
+            }
+            int seats = attendee.getSeatsCount() != null ? attendee.getSeatsCount() : 1;
+            if (seats < 1 || seats > 4) {
+                throw new IllegalArgumentException("Можно забронировать от 1 до 4 мест на зрителя");
+            }
+            normalized.add(BulkBookingRequest.Attendee.builder()
+                    .email(email)
+                    .name(attendee.getName())
+                    .secondName(attendee.getSecondName())
+                    .seatsCount(seats)
+                    .build());
+        }
+        return normalized;
+    }
+
+    private void checkNotParticipating(Long tournamentId, Map<String, UserAccount> existing) {
+        if (existing.isEmpty()) {
+            return;
+        }
+        Map<Long, String> emailById = existing.values().stream()
+                .collect(Collectors.toMap(UserAccount::getId, UserAccount::getEmail));
+        Set<Long> busy = new HashSet<>(ticketRepository.findUserIdsWithConfirmedTicket(tournamentId, emailById.keySet()));
+        busy.addAll(userTournamentRoleRepository.findParticipantIds(tournamentId, emailById.keySet()));
+        if (!busy.isEmpty()) {
+            throw new IllegalArgumentException("Уже участвуют в турнире: " + busy.stream()
+                    .map(emailById::get).sorted().collect(Collectors.joining(", ")));
+        }
+    }
+
+    private List<Ticket> insertTickets(Tournament tournament, List<BulkBookingRequest.Attendee> attendees,
+                                       Map<String, UserAccount> users) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Ticket> tickets = new LinkedHashMap<>();
+        for (BulkBookingRequest.Attendee attendee : attendees) {
+            tickets.put(attendee.getEmail(), Ticket.builder()
+                    .user(users.get(attendee.getEmail()))
+                    .tournament(tournament)
+                    .seatsCount(attendee.getSeatsCount())
+                    .bookingCode(UUID.randomUUID().toString())
+                    .createdAt(now)
+                    .confirmed(true)
+                    .build());
+        }
+        List<Ticket> ordered = new ArrayList<>(tickets.values());
+
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_TICKET_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Ticket ticket = ordered.get(i);
+                        ps.setLong(1, ticket.getUser().getId());
+                        ps.setLong(2, tournament.getId());
+                        ps.setInt(3, ticket.getSeatsCount());
+                        ps.setString(4, ticket.getBookingCode());
+                        ps.setTimestamp(5, Timestamp.valueOf(now));
+                        ps.setTimestamp(6, Timestamp.valueOf(now));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return ordered.size();
+                    }
+                },
+                keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < ordered.size(); i++) {
+            ordered.get(i).setId(((Number) generated.get(i).get("id")).longValue());
+        }
+        return ordered;
+    }
+}
@@ -0,0 +1,204 @@
+package com.mpi.aivango_backend.services.ticket;
+
+import com.mpi.aivango_backend.dto.ticket.SeatAvailabilityDTO;
+import com.mpi.aivango_backend.dto.ticket.SeatRefView;
+import com.mpi.aivango_backend.models.ticket.Ticket;
+import com.mpi.aivango_backend.models.tournament.Location;
+import com.mpi.aivango_backend.models.tournament.Tournament;
+import com.mpi.aivango_backend.repository.SeatRowRepository;
+import com.mpi.aivango_backend.repository.TicketSeatRepository;
+import com.mpi.aivango_backend.repository.TournamentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Рассадка по схеме зала финальной локации турнира.
+ * Карта занятости каждого турнира держится в памяти и загружается из БД при первом обращении;
+ * турниры без схемы зала продолжают работать только со счётчиком мест.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SeatAllocationService {
+
+    private static final String INSERT_SEAT_SQL =
+            "INSERT INTO ticket_seats (ticket_id, tournament_id, seat_row_id, seat_number) VALUES (?, ?, ?, ?)";
+
+    private final SeatRowRepository seatRowRepository;
+    private final TicketSeatRepository ticketSeatRepository;
+    private final TournamentRepository tournamentRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, SeatMap> maps = new ConcurrentHashMap<>();
+
+    /**
+     * Закрепить за билетом места по схеме зала. Места занимаются в памяти сразу,
+     * а при откате транзакции возвращаются обратно.
+     * @return места билета; пусто, если у локации турнира нет схемы зала
+     */
+    public List<SeatRefView> assignSeats(Tournament tournament, Ticket ticket) {
+        return assignSeats(tournament, List.of(ticket)).get(0);
+    }
+
+    /**
+     * Закрепить места за группой билетов одной пачкой INSERT.
+     * @return места каждого билета в порядке {@code tickets}
+     */
+    public List<List<SeatRefView>> assignSeats(Tournament tournament, List<Ticket> tickets) {
+        SeatMap map = mapFor(tournament);
+        if (map.isEmpty()) {
+            return tickets.stream().map(ticket -> Collections.<SeatRefView>emptyList()).toList();
+        }
+
+        List<int[]> allocated = new ArrayList<>(tickets.size());
+        afterRollback(() -> allocated.forEach(map::release));
+
+        List<Object[]> rows = new ArrayList<>();
+        List<List<SeatRefView>> result = new ArrayList<>(tickets.size());
+        for (Ticket ticket : tickets) {
+            int[] positions = map.allocate(ticket.getSeatsCount());
+            if (positions == null) {
+                throw new IllegalArgumentException("Недостаточно свободных мест на схеме зала");
+            }
+            allocated.add(positions);
+
+            List<SeatRefView> seats = new ArrayList<>(positions.length);
+            for (int position : positions) {
+                long rowId = map.rowId(map.rowOf(position));
+                int seatNumber = map.seatNumber(position);
+                rows.add(new Object[]{ticket.getId(), tournament.getId(), rowId, seatNumber});
+                seats.add(seat(rowId, seatNumber));
+            }
+            result.add(seats);
+        }
+        jdbcTemplate.batchUpdate(INSERT_SEAT_SQL, rows);
+        return result;
+    }
+
+    /**
+     * Освободить места отменённого билета. В карте места освобождаются только после фиксации
+     */
+    public void releaseSeats(Tournament tournament, Ticket ticket) {
+        List<SeatRefView> seats = ticketSeatRepository.findByTicketId(ticket.getId());
+        if (seats.isEmpty()) {
+            return;
+        }
+        ticketSeatRepository.deleteByTicketId(ticket.getId());
+
+        SeatMap map = maps.get(tournament.getId());
+        if (map != null) {
+            int[] positions = seats.stream()
+                    .mapToInt(seat -> map.position(seat.getRowId(), seat.getSeatNumber()))
+                    .filter(position -> position >= 0)
+                    .toArray();
+            afterCommit(() -> map.release(positions));
+        }
+    }
+
+    /** Подпись мест для письма с билетом, например «A, ряд 3: 5, 6»; null — мест по схеме нет */
+    public String describe(Long tournamentId, List<SeatRefView> seats) {
+        SeatMap map = maps.get(tournamentId);
+        if (seats.isEmpty() || map == null) {
+            return null;
+        }
+        Map<Long, List<Integer>> byRow = seats.stream().collect(Collectors.groupingBy(
+                SeatRefView::getRowId, LinkedHashMap::new,
+                Collectors.mapping(SeatRefView::getSeatNumber, Collectors.toList())));
+        return byRow.entrySet().stream()
+                .map(entry -> {
+                    int row = map.rowIndex(entry.getKey());
+                    return map.section(row) + ", ряд " + map.rowNumber(row) + ": " + entry.getValue().stream()
+                            .map(String::valueOf).collect(Collectors.joining(", "));
+                })
+                .collect(Collectors.joining("; "));
+    }
+
+    @Transactional(readOnly = true)
+    public SeatAvailabilityDTO getAvailability(Long tournamentId) {
+        Tournament tournament = tournamentRepository.findById(tournamentId)
+                .orElseThrow(() -> new IllegalArgumentException("Турнир не найден"));
+        SeatMap map = mapFor(tournament);
+
+        List<SeatAvailabilityDTO.RowAvailability> rows = new ArrayList<>(map.rowCount());
+        for (int r = 0; r < map.rowCount(); r++) {
+            rows.add(SeatAvailabilityDTO.RowAvailability.builder()
+                    .section(map.section(r))
+                    .rowNumber(map.rowNumber(r))
+                    .seatsCount(map.rowSize(r))
+                    .freeSeats(map.freeInRow(r))
+                    .longestFreeRun(map.longestFreeRun(r))
+                    .build());
+        }
+        return SeatAvailabilityDTO.builder()
+                .capacity(map.capacity())
+                .freeSeats(map.freeSeats())
+                .rows(rows)
+                .build();
+    }
+
+    /** Схема зала изменилась — карты будут построены заново при следующем обращении */
+    public void invalidate() {
+        maps.clear();
+    }
+
+    private SeatMap mapFor(Tournament tournament) {
+        return maps.computeIfAbsent(tournament.getId(), id -> {
+            Location location = tournament.getFinalLocation();
+            SeatMap map = new SeatMap(location == null
+                    ? Collections.emptyList()
+                    : seatRowRepository.findByLocationIdOrderBySectionAscRowNumberAsc(location.getId()));
+            if (!map.isEmpty()) {
+                List<SeatRefView> occupied = ticketSeatRepository.findOccupiedByTournamentId(id);
+                occupied.forEach(seat -> map.occupy(seat.getRowId(), seat.getSeatNumber()));
+                log.info("Карта мест турнира {} загружена: мест {}, занято {}", id, map.capacity(), occupied.size());
+            }
+            return map;
+        });
+    }
+
+    private static SeatRefView seat(long rowId, int seatNumber) {
+        return new SeatRefView() {
+            public Long getRowId() { return rowId; }
+            public Integer getSeatNumber() { return seatNumber; }
+        };
+    }
+
+    private static void afterRollback(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        action.run();
+                    }
+                }
+            });
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.mpi.aivango_backend.services.ticket;
+
+import com.mpi.aivango_backend.models.tournament.SeatRow;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Карта занятости мест одного турнира. Все места зала разложены в один BitSet
+ * ряд за рядом (в порядке приоритета рядов), бит = место занято.
+ * Поиск соседних мест перескакивает по границам занятых/свободных участков
+ * через nextSetBit/nextClearBit, поэтому не перебирает места по одному.
+ */
+class SeatMap {
+
+    private final long[] rowIds;
+    private final String[] sections;
+    private final int[] rowNumbers;
+    /** offsets[r] — позиция первого места ряда r; offsets[rows] — вместимость */
+    private final int[] offsets;
+    private final Map<Long, Integer> rowIndexById;
+    private final BitSet occupied;
+
+    SeatMap(List<SeatRow> rows) {
+        int count = rows.size();
+        this.rowIds = new long[count];
+        this.sections = new String[count];
+        this.rowNumbers = new int[count];
+        this.offsets = new int[count + 1];
+        this.rowIndexById = new HashMap<>(count * 4 / 3 + 1);
+        for (int r = 0; r < count; r++) {
+            SeatRow row = rows.get(r);
+            rowIds[r] = row.getId();
+            sections[r] = row.getSection();
+            rowNumbers[r] = row.getRowNumber();
+            offsets[r + 1] = offsets[r] + row.getSeatsCount();
+            rowIndexById.put(row.getId(), r);
+        }
+        this.occupied = new BitSet(offsets[count]);
+    }
+
+    boolean isEmpty() {
+        return capacity() == 0;
+    }
+
+    int capacity() {
+        return offsets[rowIds.length];
+    }
+
+    int rowCount() {
+        return rowIds.length;
+    }
+
+    synchronized int freeSeats() {
+        return capacity() - occupied.cardinality();
+    }
+
+    /** Отметить место занятым при загрузке карты из БД */
+    synchronized void occupy(Long rowId, int seatNumber) {
+        Integer row = rowIndexById.get(rowId);
+        if (row != null && seatNumber >= 1 && seatNumber <= rowSize(row)) {
+            occupied.set(offsets[row] + seatNumber - 1);
+        }
+    }
+
+    /**
+     * Занять {@code count} мест: первый ряд, где есть столько соседних свободных мест,
+     * а если зал слишком фрагментирован — первые свободные места по порядку.
+     * @return позиции занятых мест или null, если свободных мест меньше {@code count}
+     */
+    synchronized int[] allocate(int count) {
+        int start = findContiguous(count);
+        int[] positions = new int[count];
+        if (start >= 0) {
+            for (int i = 0; i < count; i++) {
+                positions[i] = start + i;
+            }
+        } else {
+            int pos = -1;
+            for (int i = 0; i < count; i++) {
+                pos = occupied.nextClearBit(pos + 1);
+                if (pos >= capacity()) {
+                    return null;
+                }
+                positions[i] = pos;
+            }
+        }
+        for (int position : positions) {
+            occupied.set(position);
+        }
+        return positions;
+    }
+
+    synchronized void release(int[] positions) {
+        for (int position : positions) {
+            occupied.clear(position);
+        }
+    }
+
+    /** Начало первого участка из {@code count} свободных мест в пределах одного ряда, иначе -1 */
+    private int findContiguous(int count) {
+        for (int r = 0; r < rowIds.length; r++) {
+            int end = offsets[r + 1];
+            int pos = occupied.nextClearBit(offsets[r]);
+            while (pos + count <= end) {
+                int nextTaken = occupied.nextSetBit(pos);
+                if (nextTaken < 0 || nextTaken >= pos + count) {
+                    return pos;
+                }
+                pos = occupied.nextClearBit(nextTaken);
+            }
+        }
+        return -1;
+    }
+
+    synchronized int freeInRow(int row) {
+        return rowSize(row) - occupied.get(offsets[row], offsets[row + 1]).cardinality();
+    }
+
+    synchronized int longestFreeRun(int row) {
+        int end = offsets[row + 1];
+        int longest = 0;
+        int pos = occupied.nextClearBit(offsets[row]);
+        while (pos < end) {
+            int nextTaken = occupied.nextSetBit(pos);
+            int runEnd = nextTaken < 0 || nextTaken > end ? end : nextTaken;
+            longest = Math.max(longest, runEnd - pos);
+            pos = occupied.nextClearBit(runEnd);
+        }
+        return longest;
+    }
+
+    int position(Long rowId, int seatNumber) {
+        Integer row = rowIndexById.get(rowId);
+        return row == null ? -1 : offsets[row] + seatNumber - 1;
+    }
+
+    int rowOf(int position) {
+        int idx = Arrays.binarySearch(offsets, position);
+        if (idx >= 0) {
+            // Позиция — первое место ряда; пропускаем ряды нулевой длины
+            while (idx + 1 < offsets.length && offsets[idx + 1] == position) {
+                idx++;
+            }
+            return idx;
+        }
+        return -idx - 2;
+    }
+
+    long rowId(int row) {
+        return rowIds[row];
+    }
+
+    String section(int row) {
+        return sections[row];
+    }
+
+    int rowNumber(int row) {
+        return rowNumbers[row];
+    }
+
+    int seatNumber(int position) {
+        return position - offsets[rowOf(position)] + 1;
+    }
+
+    Integer rowIndex(Long rowId) {
+        return rowIndexById.get(rowId);
+    }
+
+    int rowSize(int row) {
+        return offsets[row + 1] - offsets[row];
+    }
+}
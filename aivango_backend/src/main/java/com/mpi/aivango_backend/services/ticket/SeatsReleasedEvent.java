@@ -0,0 +1,7 @@
+package com.mpi.aivango_backend.services.ticket;
+
+/**
+ * На турнире освободились места — сигнал продвинуть лист ожидания
+ */
+public record SeatsReleasedEvent(Long tournamentId, int seats) {
+}
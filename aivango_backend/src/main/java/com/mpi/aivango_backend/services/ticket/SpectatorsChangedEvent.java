@@ -0,0 +1,17 @@
+package com.mpi.aivango_backend.services.ticket;
+
+import java.util.List;
+
+/**
+ * Состав зрителей турнира изменился: выданы билеты или отменено бронирование
+ */
+public record SpectatorsChangedEvent(Long tournamentId, List<Long> admittedUserIds, List<Long> cancelledUserIds) {
+
+    public static SpectatorsChangedEvent admitted(Long tournamentId, List<Long> userIds) {
+        return new SpectatorsChangedEvent(tournamentId, userIds, List.of());
+    }
+
+    public static SpectatorsChangedEvent cancelled(Long tournamentId, Long userId) {
+        return new SpectatorsChangedEvent(tournamentId, List.of(), List.of(userId));
+    }
+}
@@ -1,10 +1,6 @@
 package com.mpi.aivango_backend.services.ticket;
 
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.WriterException;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.qrcode.QRCodeWriter;
+import com.mpi.aivango_backend.dto.ticket.SeatRefView;
 import com.mpi.aivango_backend.dto.ticket.TicketBookingRequest;
 import com.mpi.aivango_backend.models.ticket.Ticket;
 import com.mpi.aivango_backend.models.tournament.Tournament;
@@ -15,16 +11,17 @@ import com.mpi.aivango_backend.models.user.UserTournamentRole;
 import com.mpi.aivango_backend.repository.TicketRepository;
 import com.mpi.aivango_backend.repository.TournamentRepository;
 import com.mpi.aivango_backend.repository.UserTournamentRoleRepository;
-import com.mpi.aivango_backend.services.email.EmailSendService;
 import com.mpi.aivango_backend.services.tournament.TournamentRoleService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
@@ -37,9 +34,9 @@ public class TicketBookingService {
     private final TournamentRepository tournamentRepository;
     private final TournamentRoleService tournamentRoleService;
     private final UserTournamentRoleRepository userTournamentRoleRepository;
-    private final EmailSendService emailSendService;
-
-    private static final int QR_SIZE = 300;
+    private final TicketMailPipeline ticketMailPipeline;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SeatAllocationService seatAllocationService;
 
     @Transactional
     public void bookTicket(Long tournamentId, TicketBookingRequest request, UserAccount user) {
@@ -72,33 +69,80 @@ public class TicketBookingService {
             throw new IllegalArgumentException("Вы уже участвуете в этом турнире");
         }
 
-        // Подсчёт уже забронированных мест
-        Integer bookedSeats = ticketRepository.sumSeatsCountByTournamentIdAndConfirmedTrue(tournamentId);
-        if (bookedSeats == null) bookedSeats = 0;
+        reserveSeats(tournament, request.getSeatsCount());
+
+        issueTicket(tournament, user, request.getSeatsCount());
+    }
+
+    /**
+     * Отменить своё бронирование. Места возвращаются в счётчик в той же транзакции,
+     * а после фиксации лист ожидания получает сигнал на продвижение
+     */
+    @Transactional
+    public void cancelTicket(Long tournamentId, UserAccount user) {
+        Ticket ticket = ticketRepository.findByUserIdAndTournamentIdAndConfirmedTrue(user.getId(), tournamentId)
+                .orElseThrow(() -> new IllegalArgumentException("Активное бронирование не найдено"));
+
+        if (ticket.getCheckedInAt() != null) {
+            throw new IllegalArgumentException("Нельзя отменить билет, по которому уже был проход");
+        }
+        if (ticket.getTournament().getTournamentStatus() == TournamentStatus.COMPLETED) {
+            throw new IllegalArgumentException("Турнир уже завершён");
+        }
+
+        ticket.setConfirmed(false);
+        ticketRepository.save(ticket);
+        tournamentRepository.releaseSeats(tournamentId, ticket.getSeatsCount());
+        seatAllocationService.releaseSeats(ticket.getTournament(), ticket);
+        userTournamentRoleRepository.deleteByUserIdAndTournamentIdAndRole(
+                user.getId(), tournamentId, TournamentRolesEnum.SPECTATOR);
+
+        eventPublisher.publishEvent(new SeatsReleasedEvent(tournamentId, ticket.getSeatsCount()));
+        eventPublisher.publishEvent(SpectatorsChangedEvent.cancelled(tournamentId, user.getId()));
+        log.info("Бронирование {} на турнир {} отменено, освобождено мест: {}",
+                ticket.getBookingCode(), tournamentId, ticket.getSeatsCount());
+    }
 
-        int availableSeats = tournament.getTotalSeats() - bookedSeats;
-        if (availableSeats < request.getSeatsCount()) {
+    /**
+     * Атомарно занять места; последнее место переводит турнир в ACTIVE
+     */
+    void reserveSeats(Tournament tournament, int seatsCount) {
+        if (!tryReserveSeats(tournament, seatsCount)) {
             throw new IllegalArgumentException("Недостаточно свободных мест");
         }
+    }
+
+    /**
+     * То же, что {@link #reserveSeats}, но нехватка мест — не ошибка
+     * @return false, если свободных мест меньше {@code seatsCount}
+     */
+    boolean tryReserveSeats(Tournament tournament, int seatsCount) {
+        if (tournamentRepository.reserveSeats(tournament.getId(), seatsCount) == 0) {
+            return false;
+        }
 
-        if (bookedSeats + request.getSeatsCount() == tournament.getTotalSeats()) {
+        if (tournament.getTournamentStatus() == TournamentStatus.TICKET_SALES
+                && tournamentRepository.findBookedSeats(tournament.getId()) >= tournament.getTotalSeats()) {
             tournament.setTournamentStatus(TournamentStatus.ACTIVE);
             tournamentRepository.save(tournament);
+            eventPublisher.publishEvent(new TournamentActivatedEvent(tournament.getId()));
         }
+        return true;
+    }
 
-        // Генерация уникального кода
-        String bookingCode = UUID.randomUUID().toString();
-
-        // Создание билета
+    /**
+     * Создать билет и роль зрителя на уже занятые места; если у зала есть схема — закрепить конкретные места.
+     * Письмо с билетом уходит после фиксации транзакции
+     */
+    Ticket issueTicket(Tournament tournament, UserAccount user, int seatsCount) {
         Ticket ticket = Ticket.builder()
                 .user(user)
                 .tournament(tournament)
-                .seatsCount(request.getSeatsCount())
-                .bookingCode(bookingCode)
+                .seatsCount(seatsCount)
+                .bookingCode(UUID.randomUUID().toString())
                 .createdAt(LocalDateTime.now())
                 .confirmed(true)
                 .build();
-
         ticketRepository.save(ticket);
 
         UserTournamentRole role = UserTournamentRole.builder()
@@ -107,131 +151,25 @@ public class TicketBookingService {
                 .role(TournamentRolesEnum.SPECTATOR)
                 .build();
         userTournamentRoleRepository.save(role);
+        eventPublisher.publishEvent(SpectatorsChangedEvent.admitted(tournament.getId(), List.of(user.getId())));
 
-        // Генерация и отправка QR-кода
-        sendTicketWithQR(ticket, tournament);
-    }
+        List<SeatRefView> seats = seatAllocationService.assignSeats(tournament, ticket);
 
-    private void sendTicketWithQR(Ticket ticket, Tournament tournament) {
-        String qrContent = String.format(
-                "Tournament: %s%n" +
-                        "Booking Code: %s%n" +
-                        "Seats: %d%n" +
-                        "Spectator: %s %s%n" +
-                        "Booking Date: %s",
-                tournament.getName(),
-                ticket.getBookingCode(),
-                ticket.getSeatsCount(),
-                ticket.getUser().getName(),
-                ticket.getUser().getSecondName(),
-                ticket.getCreatedAt().toString()
-        );
-
-        try {
-            byte[] qrImageBytes = generateQRCodeImage(qrContent);
-
-            // Красивое тело письма без встроенного QR (только текст + информация)
-            String emailBody = """
-                <!DOCTYPE html>
-                <html lang="ru">
-                <head>
-                    <meta charset="UTF-8">
-                    <title>Билет на турнир Айвенго</title>
-                    <style>
-                        body { font-family: 'Palatino Linotype', serif; background: #f5f0e6; color: #3a3226; }
-                        .container { max-width: 600px; margin: 20px auto; background: #fff9e6; padding: 30px; 
-                                     border: 2px solid #d4af37; box-shadow: 0 0 15px rgba(0,0,0,0.1); }
-                        h1 { color: #8b0000; text-align: center; font-variant: small-caps; }
-                        .highlight { background: #f8f8f8; border: 1px solid #d4af37; padding: 10px; 
-                                     font-weight: bold; text-align: center; margin: 15px 0; }
-                        .footer { margin-top: 30px; font-size: 14px; color: #666; text-align: center; }
-                    </style>
-                </head>
-                <body>
-                    <div class="container">
-                        <h1>Билет на турнир</h1>
-                        <p>Благородный зритель!</p>
-                        <p>Ваше бронирование на турнир успешно подтверждено.</p>
-                        
-                        <div class="highlight">
-                            Турнир: %s<br>
-                            Количество мест: %d<br>
-                            Код бронирования: %s<br>
-                            Зритель: %s %s
-                        </div>
-                        
-                        <p>QR-код с вашим билетом прикреплён к этому письму в виде файла <strong>ticket_qr.png</strong>.</p>
-                        <p>Сохраните его на телефон и предъявите на входе.</p>
-                        
-                        <div class="footer">
-                            Да пребудет с вами удача на турнире!<br>
-                            Сенешаль Айвенго
-                        </div>
-                    </div>
-                </body>
-                </html>
-                """.formatted(
-                    tournament.getName(),
-                    ticket.getSeatsCount(),
-                    ticket.getBookingCode(),
-                    ticket.getUser().getName(),
-                    ticket.getUser().getSecondName()
-            );
-
-            // Отправляем письмо с вложением
-            boolean sent = emailSendService.sendHtmlEmailWithAttachment(
-                    ticket.getUser().getEmail(),
-                    "Ваш билет на турнир «" + tournament.getName() + "»",
-                    emailBody,
-                    qrImageBytes,                   // байты изображения
-                    "ticket_qr.png"                 // имя файла вложения
-            );
-
-            if (!sent) {
-                log.warn("Не удалось отправить письмо с билетом на {}", ticket.getUser().getEmail());
-            }
-
-        } catch (Exception e) {
-            log.error("Ошибка при генерации или отправке билета с QR-кодом", e);
-        }
+        // QR-код и письмо — после фиксации, вне транзакции
+        ticketMailPipeline.sendAfterCommit(List.of(TicketMailPipeline.TicketMail.of(
+                ticket, tournament, seatAllocationService.describe(tournament.getId(), seats))));
+        return ticket;
     }
 
-//    private void sendTicketWithQR(Ticket ticket, Tournament tournament) {
-//        String qrContent = "Турнир: " + tournament.getName() +
-//                "\nКод бронирования: " + ticket.getBookingCode() +
-//                "\nМест: " + ticket.getSeatsCount() +
-//                "\nДата: " + ticket.getCreatedAt();
-//
-//        try {
-//            byte[] qrImageBytes = generateQRCodeImage(qrContent);
-//            String qrBase64 = Base64.getEncoder().encodeToString(qrImageBytes);
-//
-//            String emailBody = """
-//                    <h2>Ваше бронирование успешно создано!</h2>
-//                    <p><strong>Турнир:</strong> %s</p>
-//                    <p><strong>Количество мест:</strong> %d</p>
-//                    <p><strong>Код бронирования:</strong> %s</p>
-//                    <p>Сохраните этот QR-код — он будет нужен для входа на мероприятие.</p>
-//                    <img src="data:image/png;base64,%s" alt="QR-код бронирования" />
-//                    """.formatted(tournament.getName(), ticket.getSeatsCount(), ticket.getBookingCode(), qrBase64);
-//
-//            emailSendService.sendHtmlEmail(
-//                    ticket.getUser().getEmail(),
-//                    "Билет на турнир: " + tournament.getName(),
-//                    emailBody
-//            );
-//
-//        } catch (Exception e) {
-//            throw new RuntimeException("Ошибка при генерации или отправке QR-кода", e);
-//        }
-//    }
-
-    private byte[] generateQRCodeImage(String text) throws WriterException, IOException {
-        QRCodeWriter qrCodeWriter = new QRCodeWriter();
-        BitMatrix bitMatrix = qrCodeWriter.encode(text, BarcodeFormat.QR_CODE, QR_SIZE, QR_SIZE);
-
-        ByteArrayOutputStream pngOutputStream = new ByteArrayOutputStream();
-        MatrixToImageWriter.writeToStream(bitMatrix, "PNG", pngOutputStream);
-        return pngOutputStream.toByteArray();
+    /**
+     * Счётчик занятых мест появился позже билетов — заполняем его для старых турниров
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillSeatCounters() {
+        int updated = tournamentRepository.backfillBookedSeats();
+        if (updated > 0) {
+            log.info("Заполнен счётчик занятых мест для турниров: {}", updated);
+        }
     }
 }
@@ -0,0 +1,181 @@
+package com.mpi.aivango_backend.services.ticket;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.mpi.aivango_backend.models.ticket.Ticket;
+import com.mpi.aivango_backend.models.tournament.Tournament;
+import com.mpi.aivango_backend.models.user.UserAccount;
+import com.mpi.aivango_backend.services.email.EmailSendService;
+import com.mpi.aivango_backend.services.email.MailDispatcher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Отправка билетов с QR-кодом. Генерация QR и SMTP вынесены из транзакции бронирования:
+ * письма уходят через {@link MailDispatcher} после фиксации,
+ * так что и одиночная, и оптовая покупка не ждут почтовый сервер.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TicketMailPipeline {
+
+    private static final int QR_SIZE = 300;
+
+    private final EmailSendService emailSendService;
+    private final MailDispatcher mailDispatcher;
+
+    /**
+     * Данные письма, снятые с билета внутри транзакции — после неё сущности уже не нужны
+     */
+    public record TicketMail(String email, String name, String secondName, String tournamentName,
+                             String bookingCode, int seatsCount, LocalDateTime createdAt, String seats) {
+
+        public static TicketMail of(Ticket ticket, Tournament tournament, String seats) {
+            UserAccount user = ticket.getUser();
+            return new TicketMail(user.getEmail(), user.getName(), user.getSecondName(), tournament.getName(),
+                    ticket.getBookingCode(), ticket.getSeatsCount(), ticket.getCreatedAt(), seats);
+        }
+    }
+
+    /**
+     * Отправить билеты после фиксации текущей транзакции (или сразу, если транзакции нет).
+     * При откате письма не уходят
+     */
+    public void sendAfterCommit(List<TicketMail> tickets) {
+        mailDispatcher.sendAfterCommit(tickets, this::sendTicketWithQR);
+    }
+
+    private void sendTicketWithQR(TicketMail ticket) {
+        String qrContent = String.format(
+                "Tournament: %s%n" +
+                        "Booking Code: %s%n" +
+                        "Seats: %d%n" +
+                        "Spectator: %s %s%n" +
+                        "Booking Date: %s",
+                ticket.tournamentName(),
+                ticket.bookingCode(),
+                ticket.seatsCount(),
+                ticket.name(),
+                ticket.secondName(),
+                ticket.createdAt().toString()
+        );
+
+        try {
+            byte[] qrImageBytes = generateQRCodeImage(qrContent);
+
+            // Красивое тело письма без встроенного QR (только текст + информация)
+            String emailBody = """
+                <!DOCTYPE html>
+                <html lang="ru">
+                <head>
+                    <meta charset="UTF-8">
+                    <title>Билет на турнир Айвенго</title>
+                    <style>
+                        body { font-family: 'Palatino Linotype', serif; background: #f5f0e6; color: #3a3226; }
+                        .container { max-width: 600px; margin: 20px auto; background: #fff9e6; padding: 30px; 
+                                     border: 2px solid #d4af37; box-shadow: 0 0 15px rgba(0,0,0,0.1); }
+                        h1 { color: #8b0000; text-align: center; font-variant: small-caps; }
+                        .highlight { background: #f8f8f8; border: 1px solid #d4af37; padding: 10px; 
+                                     font-weight: bold; text-align: center; margin: 15px 0; }
+                        .footer { margin-top: 30px; font-size: 14px; color: #666; text-align: center; }
+                    </style>
+                </head>
+                <body>
+                    <div class="container">
+                        <h1>Билет на турнир</h1>
+                        <p>Благородный зритель!</p>
+                        <p>Ваше бронирование на турнир успешно подтверждено.</p>
+                        
+                        <div class="highlight">
+                            Турнир: %s<br>
+                            Количество мест: %d%s<br>
+                            Код бронирования: %s<br>
+                            Зритель: %s %s
+                        </div>
+                        
+                        <p>QR-код с вашим билетом прикреплён к этому письму в виде файла <strong>ticket_qr.png</strong>.</p>
+                        <p>Сохраните его на телефон и предъявите на входе.</p>
+                        
+                        <div class="footer">
+                            Да пребудет с вами удача на турнире!<br>
+                            Сенешаль Айвенго
+                        </div>
+                    </div>
+                </body>
+                </html>
+                """.formatted(
+                    ticket.tournamentName(),
+                    ticket.seatsCount(),
+                    ticket.seats() != null ? " (" + ticket.seats() + ")" : "",
+                    ticket.bookingCode(),
+                    ticket.name(),
+                    ticket.secondName()
+            );
+
+            // Отправляем письмо с вложением
+            boolean sent = emailSendService.sendHtmlEmailWithAttachment(
+                    ticket.email(),
+                    "Ваш билет на турнир «" + ticket.tournamentName() + "»",
+                    emailBody,
+                    qrImageBytes,                   // байты изображения
+                    "ticket_qr.png"                 // имя файла вложения
+            );
+
+            if (!sent) {
+                log.warn("Не удалось отправить письмо с билетом на {}", ticket.email());
+            }
+
+        } catch (Exception e) {
+            log.error("Ошибка при генерации или отправке билета с QR-кодом", e);
+        }
+    }
+
+//    private void sendTicketWithQR(Ticket ticket, Tournament tournament) {
+//        String qrContent = "Турнир: " + tournament.getName() +
+//                "\nКод бронирования: " + ticket.getBookingCode() +
+//                "\nМест: " + ticket.getSeatsCount() +
+//                "\nДата: " + ticket.getCreatedAt();
+//
+//        try {
+//            byte[] qrImageBytes = generateQRCodeImage(qrContent);
+//            String qrBase64 = Base64.getEncoder().encodeToString(qrImageBytes);
+//
+//            String emailBody = """
+//                    <h2>Ваше бронирование успешно создано!</h2>
+//                    <p><strong>Турнир:</strong> %s</p>
+//                    <p><strong>Количество мест:</strong> %d</p>
+//                    <p><strong>Код бронирования:</strong> %s</p>
+//                    <p>Сохраните этот QR-код — он будет нужен для входа на мероприятие.</p>
+//                    <img src="data:image/png;base64,%s" alt="QR-код бронирования" />
+//                    """.formatted(tournament.getName(), ticket.getSeatsCount(), ticket.getBookingCode(), qrBase64);
+//
+//            emailSendService.sendHtmlEmail(
+//                    ticket.getUser().getEmail(),
+//                    "Билет на турнир: " + tournament.getName(),
+//                    emailBody
+//            );
+//
+//        } catch (Exception e) {
+//            throw new RuntimeException("Ошибка при генерации или отправке QR-кода", e);
+//        }
+//    }
+
+    private byte[] generateQRCodeImage(String text) throws WriterException, IOException {
+        QRCodeWriter qrCodeWriter = new QRCodeWriter();
+        BitMatrix bitMatrix = qrCodeWriter.encode(text, BarcodeFormat.QR_CODE, QR_SIZE, QR_SIZE);
+
+        ByteArrayOutputStream pngOutputStream = new ByteArrayOutputStream();
+        MatrixToImageWriter.writeToStream(bitMatrix, "PNG", pngOutputStream);
+        return pngOutputStream.toByteArray();
+    }
+}
@@ -0,0 +1,7 @@
+package com.mpi.aivango_backend.services.ticket;
+
+/**
+ * Последнее место продано, турнир перешёл в ACTIVE — открывается голосование
+ */
+public record TournamentActivatedEvent(Long tournamentId) {
+}
@@ -0,0 +1,52 @@
+package com.mpi.aivango_backend.services.ticket;
+
+import com.mpi.aivango_backend.repository.WaitlistEntryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Продвижение листов ожидания. Каждое продвижение — отдельная транзакция;
+ * параллельные обработчики (события отмен и периодический обход) продвигают голову
+ * очереди по одному; письма с билетами уходят уже после фиксации.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class WaitlistPromotionWorker {
+
+    private final WaitlistService waitlistService;
+    private final WaitlistEntryRepository waitlistEntryRepository;
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onSeatsReleased(SeatsReleasedEvent event) {
+        promoteAll(event.tournamentId());
+    }
+
+    /**
+     * Страховочный обход: подбирает места, освобождённые без события (например, при падении узла)
+     */
+    @Scheduled(fixedDelay = 30000)
+    public void sweep() {
+        waitlistEntryRepository.findTournamentIdsWithWaiting().forEach(this::promoteAll);
+    }
+
+    void promoteAll(Long tournamentId) {
+        try {
+            int promoted = 0;
+            while (waitlistService.promoteNext(tournamentId).isPresent()) {
+                promoted++;
+            }
+            if (promoted > 0) {
+                log.info("Из листа ожидания турнира {} продвинуто записей: {}", tournamentId, promoted);
+            }
+        } catch (Exception e) {
+            log.error("Ошибка продвижения листа ожидания турнира {}", tournamentId, e);
+        }
+    }
+}
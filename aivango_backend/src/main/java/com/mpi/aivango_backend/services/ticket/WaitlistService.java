@@ -0,0 +1,155 @@
+package com.mpi.aivango_backend.services.ticket;
+
+import com.mpi.aivango_backend.dto.ticket.TicketBookingRequest;
+import com.mpi.aivango_backend.dto.ticket.WaitlistPositionDTO;
+import com.mpi.aivango_backend.models.ticket.Ticket;
+import com.mpi.aivango_backend.models.tournament.Tournament;
+import com.mpi.aivango_backend.models.tournament.TournamentStatus;
+import com.mpi.aivango_backend.models.user.UserAccount;
+import com.mpi.aivango_backend.models.waitlist.WaitlistEntry;
+import com.mpi.aivango_backend.models.waitlist.WaitlistStatus;
+import com.mpi.aivango_backend.repository.TicketRepository;
+import com.mpi.aivango_backend.repository.TournamentRepository;
+import com.mpi.aivango_backend.repository.WaitlistEntryRepository;
+import com.mpi.aivango_backend.services.tournament.TournamentRoleService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Лист ожидания на распроданные турниры. Очередь хранится в БД (FIFO по id),
+ * освободившиеся места достаются голове очереди. После распродажи турнир уже ACTIVE и прямое
+ * бронирование закрыто, поэтому встать в очередь можно и при свободных после отмен местах.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class WaitlistService {
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final TournamentRepository tournamentRepository;
+    private final TicketRepository ticketRepository;
+    private final TournamentRoleService tournamentRoleService;
+    private final TicketBookingService ticketBookingService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public WaitlistPositionDTO join(Long tournamentId, TicketBookingRequest request, UserAccount user) {
+        if (request.getSeatsCount() == null || request.getSeatsCount() < 1 || request.getSeatsCount() > 4) {
+            throw new IllegalArgumentException("Можно забронировать от 1 до 4 мест");
+        }
+        if (!request.isAgreeToRules()) {
+            throw new IllegalArgumentException("Необходимо согласие с правилами");
+        }
+
+        Tournament tournament = tournamentRepository.findById(tournamentId)
+                .orElseThrow(() -> new IllegalArgumentException("Турнир не найден"));
+        if (!isOpenForSpectators(tournament)) {
+            throw new IllegalArgumentException("Лист ожидания недоступен для этого турнира");
+        }
+        // В активном турнире прямое бронирование закрыто: места, освобождённые отменами,
+        // раздаются только через лист ожидания
+        boolean active = tournament.getTournamentStatus() == TournamentStatus.ACTIVE;
+        if (!active && tournament.getTotalSeats() - tournamentRepository.findBookedSeats(tournamentId) >= request.getSeatsCount()) {
+            throw new IllegalArgumentException("Места ещё есть — забронируйте билет напрямую");
+        }
+        if (!tournamentRoleService.getUserRolesInTournament(user.getId(), tournamentId).isEmpty()) {
+            throw new IllegalArgumentException("Вы уже участвуете в этом турнире");
+        }
+        if (waitlistEntryRepository.findFirstByUserIdAndTournamentIdAndStatus(
+                user.getId(), tournamentId, WaitlistStatus.WAITING).isPresent()) {
+            throw new IllegalArgumentException("Вы уже в листе ожидания этого турнира");
+        }
+
+        WaitlistEntry entry = waitlistEntryRepository.save(WaitlistEntry.builder()
+                .tournament(tournament)
+                .user(user)
+                .seatsCount(request.getSeatsCount())
+                .status(WaitlistStatus.WAITING)
+                .createdAt(LocalDateTime.now())
+                .build());
+        if (active) {
+            // Свободные места могли остаться после отмен — после фиксации очередь сразу продвигается
+            eventPublisher.publishEvent(new SeatsReleasedEvent(tournamentId, 0));
+        }
+        return toPosition(entry);
+    }
+
+    @Transactional(readOnly = true)
+    public WaitlistPositionDTO getPosition(Long tournamentId, Long userId) {
+        return waitlistEntryRepository.findFirstByUserIdAndTournamentIdAndStatus(userId, tournamentId, WaitlistStatus.WAITING)
+                .map(this::toPosition)
+                .orElseThrow(() -> new IllegalArgumentException("Вы не стоите в листе ожидания этого турнира"));
+    }
+
+    @Transactional
+    public void leave(Long tournamentId, Long userId) {
+        WaitlistEntry entry = waitlistEntryRepository
+                .findFirstByUserIdAndTournamentIdAndStatus(userId, tournamentId, WaitlistStatus.WAITING)
+                .orElseThrow(() -> new IllegalArgumentException("Вы не стоите в листе ожидания этого турнира"));
+        entry.setStatus(WaitlistStatus.CANCELLED);
+        waitlistEntryRepository.save(entry);
+    }
+
+    /**
+     * Продвинуть голову очереди, если ей хватает освободившихся мест.
+     * Голова очереди блокируется через FOR UPDATE, места занимаются так же, как при обычном
+     * бронировании: последнее проданное место переводит турнир в ACTIVE.
+     * @return выданный билет; пусто, если очередь пуста или мест не хватает
+     */
+    @Transactional
+    public Optional<Ticket> promoteNext(Long tournamentId) {
+        while (true) {
+            Optional<WaitlistEntry> claimed = waitlistEntryRepository.claimNext(tournamentId);
+            if (claimed.isEmpty()) {
+                return Optional.empty();
+            }
+            WaitlistEntry entry = claimed.get();
+            Tournament tournament = entry.getTournament();
+            if (!isOpenForSpectators(tournament)) {
+                return Optional.empty();
+            }
+
+            // Пока ждал, пользователь мог купить билет сам — место ему больше не нужно
+            if (ticketRepository.findByUserIdAndTournamentIdAndConfirmedTrue(entry.getUser().getId(), tournamentId).isPresent()) {
+                entry.setStatus(WaitlistStatus.CANCELLED);
+                waitlistEntryRepository.save(entry);
+                continue;
+            }
+
+            if (!ticketBookingService.tryReserveSeats(tournament, entry.getSeatsCount())) {
+                // Голове очереди не хватает мест — ждём следующего освобождения, очередь не обгоняем
+                return Optional.empty();
+            }
+
+            Ticket ticket = ticketBookingService.issueTicket(tournament, entry.getUser(), entry.getSeatsCount());
+            entry.setStatus(WaitlistStatus.PROMOTED);
+            entry.setPromotedAt(LocalDateTime.now());
+            entry.setTicket(ticket);
+            waitlistEntryRepository.save(entry);
+
+            log.info("Запись {} листа ожидания турнира {} продвинута, мест: {}",
+                    entry.getId(), tournamentId, entry.getSeatsCount());
+            return Optional.of(ticket);
+        }
+    }
+
+    private boolean isOpenForSpectators(Tournament tournament) {
+        return tournament.getTournamentStatus() == TournamentStatus.TICKET_SALES
+                || tournament.getTournamentStatus() == TournamentStatus.ACTIVE;
+    }
+
+    private WaitlistPositionDTO toPosition(WaitlistEntry entry) {
+        return WaitlistPositionDTO.builder()
+                .entryId(entry.getId())
+                .status(entry.getStatus())
+                .seatsCount(entry.getSeatsCount())
+                .position(waitlistEntryRepository.countAhead(entry.getTournament().getId(), entry.getId()) + 1)
+                .build();
+    }
+}
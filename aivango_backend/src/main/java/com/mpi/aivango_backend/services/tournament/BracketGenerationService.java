@@ -1,27 +1,47 @@
 package com.mpi.aivango_backend.services.tournament;
 
-import com.mpi.aivango_backend.dto.fight.FightMatchDTO;
-import com.mpi.aivango_backend.dto.fight.TournamentBracketDTO;
-import com.mpi.aivango_backend.models.application.Application;
+import com.mpi.aivango_backend.dto.application.ApprovedKnightView;
 import com.mpi.aivango_backend.models.application.ApplicationStatus;
+import com.mpi.aivango_backend.models.category.Category;
 import com.mpi.aivango_backend.models.fight.FightHistory;
 import com.mpi.aivango_backend.models.fight.FightRound;
+import com.mpi.aivango_backend.models.tournament.Location;
+import com.mpi.aivango_backend.models.tournament.LocationTournament;
 import com.mpi.aivango_backend.models.tournament.Tournament;
 import com.mpi.aivango_backend.models.tournament.TournamentStatus;
 import com.mpi.aivango_backend.models.user.UserAccount;
 import com.mpi.aivango_backend.repository.ApplicationRepository;
+import com.mpi.aivango_backend.repository.CategoryRepository;
 import com.mpi.aivango_backend.repository.FightHistoryRepository;
 import com.mpi.aivango_backend.repository.TournamentRepository;
 import com.mpi.aivango_backend.services.email.EmailSendService;
+import com.mpi.aivango_backend.services.fight.BracketChangedEvent;
+import com.mpi.aivango_backend.services.fight.FightScheduler;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -32,6 +52,17 @@ public class BracketGenerationService {
     private final ApplicationRepository applicationRepository;
     private final FightHistoryRepository fightHistoryRepository;
     private final EmailSendService emailSendService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FightScheduler fightScheduler;
+    private final CategoryRepository categoryRepository;
+
+    private static final int BUILD_THREADS = 4;
+
+    private final ExecutorService bracketBuilders = Executors.newFixedThreadPool(BUILD_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "bracket-build");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     @Transactional
     public void generateBracket(Long tournamentId) {
@@ -42,11 +73,10 @@ public class BracketGenerationService {
             throw new IllegalArgumentException("Сетка формируется только в статусе REGISTRATION");
         }
 
-        List<UserAccount> knights = applicationRepository
-                .findByTournamentIdAndStatus(tournamentId, ApplicationStatus.APPROVED)
-                .stream()
-                .map(Application::getKnight)
-                .toList();
+        // Рыцари с весом и категориями одним запросом, без отдельной загрузки на каждую заявку
+        Map<Category, List<UserAccount>> byCategory = partitionByCategory(
+                applicationRepository.findApprovedKnights(tournamentId, ApplicationStatus.APPROVED));
+        List<UserAccount> knights = byCategory.values().stream().flatMap(List::stream).toList();
 
         int count = knights.size();
 
@@ -54,146 +84,270 @@ public class BracketGenerationService {
             throw new IllegalArgumentException("Нет утверждённых участников");
         }
 
-        if (count > 16 || (count > 2 && !isPowerOfTwo(count))) {
-            throw new IllegalArgumentException("Количество участников должно быть 1, 2, 4, 8 или 16");
-        }
-
         fightHistoryRepository.deleteByTournamentId(tournamentId);
 
-        List<UserAccount> shuffled = new ArrayList<>(knights);
-        Collections.shuffle(shuffled);
-
-        List<FightHistory> allMatches = new ArrayList<>();
         LocalDateTime currentTime = LocalDateTime.now();
-        if (count == 1) {
-            // Единственный участник — автоматически чемпион
-            FightHistory finalMatch = FightHistory.builder()
-                    .tournament(tournament)
-                    .fighter1(shuffled.get(0))
-                    .fighter2(null)
-                    .winner(shuffled.get(0))
-                    .round(FightRound.FINAL)
-                    .fightDate(currentTime)
-                    .comment("Автоматическая победа — единственный участник")
-                    .build();
-            allMatches.add(finalMatch);
-
-        } else if (count == 2) {
-            FightHistory finalMatch = createSingleMatch(shuffled.get(0), shuffled.get(1), FightRound.FINAL, tournament);
-            allMatches.add(finalMatch);
+        List<BracketPlan> plans = buildBrackets(byCategory, tournament, currentTime);
+
+        // Арены у категорий общие, поэтому расписание составляется сразу для всех сеток
+        List<FightHistory> toSchedule = new ArrayList<>();
+        Map<FightHistory, FightHistory> nextMatch = new IdentityHashMap<>();
+        for (BracketPlan plan : plans) {
+            plan.matches().stream().filter(match -> match.getWinner() == null).forEach(toSchedule::add);
+            nextMatch.putAll(plan.nextMatch());
+        }
+        if (!toSchedule.isEmpty()) {
+            fightScheduler.plan(toSchedule, nextMatch, arenasOf(tournament), tournament.getFinalLocation(),
+                    firstFightTime(tournament, currentTime));
+        }
+        plans.forEach(this::persistBracket);
 
-        } else {
-            FightRound firstRound = switch (count) {
-                case 4 -> FightRound.SEMIFINAL;
-                case 8 -> FightRound.QUARTERFINAL;
-                case 16 -> FightRound.ROUND_OF_8;
-                default -> throw new IllegalStateException("Неподдерживаемое количество");
-            };
-
-            List<FightHistory> currentRound = createRoundMatches(shuffled, firstRound, tournament);
-            allMatches.addAll(currentRound);
-            LocalDateTime roundStartTime = currentTime;
-            // Сохраняем первый раунд, чтобы получить ID
-            currentRound = fightHistoryRepository.saveAll(currentRound);
-
-            while (currentRound.size() > 1) {
-                // Получили вид текущего раунда
-                FightRound nextRound = getNextRound(currentRound.get(0).getRound());
-                roundStartTime = roundStartTime.plusDays(1);
-                // Создаём матчи следующего раунда (без ID пока)
-                List<FightHistory> nextRoundMatches = new ArrayList<>();
-                for (int i = 0; i < currentRound.size(); i += 2) {
-                    FightHistory nextMatch = FightHistory.builder()
-                            .tournament(tournament)
-                            .fighter1(null)
-                            .fighter2(null)
-                            .round(nextRound)
-                            .fightDate(roundStartTime)
-                            .build();
-                    nextRoundMatches.add(nextMatch);
-                }
+        tournament.setTournamentStatus(TournamentStatus.TICKET_SALES);
+        tournamentRepository.save(tournament);
 
-                // Сохраняем следующий раунд — теперь у них есть ID
-                nextRoundMatches = fightHistoryRepository.saveAll(nextRoundMatches);
-                allMatches.addAll(nextRoundMatches);
+        eventPublisher.publishEvent(new BracketChangedEvent(tournamentId));
 
-                // Устанавливаем связи: победители из currentRound идут в nextRoundMatches
-                for (int i = 0; i < currentRound.size(); i += 2) {
-                    FightHistory match1 = currentRound.get(i);
-                    FightHistory match2 = (i + 1 < currentRound.size()) ? currentRound.get(i + 1) : null;
+        log.info("Турнирная сетка сформирована для турнира {} (участников: {}, сеток: {})",
+                tournament.getName(), count, plans.size());
+        sendBracketGeneratedNotifications(tournament, knights);
+    }
 
-                    FightHistory targetMatch = nextRoundMatches.get(i / 2);
+    @PreDestroy
+    public void shutdown() {
+        bracketBuilders.shutdown();
+    }
 
-                    match1.setNextMatchId(targetMatch.getId());
-                    if (match2 != null) {
-                        match2.setNextMatchId(targetMatch.getId());
-                    }
-                }
+    /**
+     * Рыцари по сеткам. Категория рыцаря — выбранная в заявке, иначе весовая категория по весу из профиля,
+     * иначе общая сетка турнира (ключ null). Рыцарь выступает в одной сетке, поэтому заявка в несколько
+     * категорий отклоняет формирование. Весовые категории читаются из БД, только если есть кого по ним распределять
+     */
+    private Map<Category, List<UserAccount>> partitionByCategory(List<ApprovedKnightView> approved) {
+        Map<Long, UserAccount> knights = new LinkedHashMap<>();
+        Map<Long, Long> chosen = new HashMap<>();
+        Map<Long, Integer> weights = new HashMap<>();
+        for (ApprovedKnightView row : approved) {
+            Long knightId = row.getKnight().getId();
+            knights.putIfAbsent(knightId, row.getKnight());
+            Long categoryId = row.getCategoryId();
+            Long previous = categoryId == null ? null : chosen.putIfAbsent(knightId, categoryId);
+            if (previous != null && !previous.equals(categoryId)) {
+                throw new IllegalArgumentException("Рыцарь " + row.getKnight().getEmail()
+                        + " подал заявку в несколько категорий; оставьте в заявке одну категорию");
+            }
+            if (row.getWeight() != null) {
+                weights.put(knightId, row.getWeight());
+            }
+        }
 
-                // Обновляем связи в БД
-                fightHistoryRepository.saveAll(currentRound);
+        boolean byWeight = knights.keySet().stream().anyMatch(id -> !chosen.containsKey(id) && weights.containsKey(id));
+        List<Category> weightClasses = byWeight ? categoryRepository.findWeightClasses() : List.of();
+
+        Map<Long, Category> categories = new HashMap<>();
+        weightClasses.forEach(category -> categories.put(category.getId(), category));
+        Map<Category, List<UserAccount>> byCategory = new TreeMap<>(
+                Comparator.nullsFirst(Comparator.comparing(Category::getId)));
+        for (UserAccount knight : knights.values()) {
+            Long categoryId = chosen.get(knight.getId());
+            Integer weight = weights.get(knight.getId());
+            if (categoryId == null && weight != null) {
+                categoryId = weightClasses.stream()
+                        .filter(category -> category.fitsWeight(weight))
+                        .map(Category::getId)
+                        .findFirst()
+                        .orElse(null);
+            }
+            Category category = categoryId == null ? null
+                    : categories.computeIfAbsent(categoryId, categoryRepository::getReferenceById);
+            byCategory.computeIfAbsent(category, c -> new ArrayList<>()).add(knight);
+        }
+        return byCategory;
+    }
 
-                currentRound = nextRoundMatches;
+    /**
+     * Сетки категорий независимы и строятся в памяти параллельно; сохраняются потом в транзакции турнира
+     */
+    private List<BracketPlan> buildBrackets(Map<Category, List<UserAccount>> byCategory, Tournament tournament,
+                                            LocalDateTime startTime) {
+        if (byCategory.size() == 1) {
+            Map.Entry<Category, List<UserAccount>> only = byCategory.entrySet().iterator().next();
+            return List.of(buildCategoryBracket(only.getValue(), tournament, only.getKey(), startTime));
+        }
+        List<Future<BracketPlan>> futures = new ArrayList<>(byCategory.size());
+        byCategory.forEach((category, knights) -> futures.add(bracketBuilders.submit(
+                () -> buildCategoryBracket(knights, tournament, category, startTime))));
+
+        List<BracketPlan> plans = new ArrayList<>(futures.size());
+        try {
+            for (Future<BracketPlan> future : futures) {
+                plans.add(future.get());
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Формирование сеток прервано", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause
+                    : new IllegalStateException("Не удалось сформировать сетку", e.getCause());
+        }
+        return plans;
+    }
+
+    private BracketPlan buildCategoryBracket(List<UserAccount> knights, Tournament tournament, Category category,
+                                             LocalDateTime startTime) {
+        List<UserAccount> shuffled = new ArrayList<>(knights);
+        Collections.shuffle(shuffled, ThreadLocalRandom.current());
+
+        if (shuffled.size() > 1) {
+            return buildBracket(shuffled, tournament, category, startTime);
+        }
+        // Единственный участник — автоматически чемпион
+        FightHistory finalMatch = newMatch(tournament, category, FightRound.FINAL, 1, 0, startTime);
+        finalMatch.setFighter1(shuffled.get(0));
+        finalMatch.setWinner(shuffled.get(0));
+        finalMatch.setComment("Автоматическая победа — единственный участник");
+        return new BracketPlan(List.of(finalMatch), Map.of());
+    }
+
+    /**
+     * Арены турнира — выбранные площадки; без них бои идут на площадке финала или на одной арене без названия
+     */
+    private static List<Location> arenasOf(Tournament tournament) {
+        List<LocationTournament> selected = tournament.getSelectedLocations();
+        if (selected == null || selected.isEmpty()) {
+            return Collections.singletonList(tournament.getFinalLocation());
+        }
+        return selected.stream().map(LocationTournament::getLocation).toList();
+    }
+
+    // Турнир с назначенной датой начинается в этот день, иначе — как можно раньше
+    private static LocalDateTime firstFightTime(Tournament tournament, LocalDateTime now) {
+        LocalDate eventDate = tournament.getEventDate();
+        return eventDate != null && eventDate.isAfter(now.toLocalDate()) ? eventDate.atStartOfDay() : now;
+    }
 
-            // Бой за 3-е место (если ≥ 4 участников)
-            if (count >= 4) {
-                LocalDateTime bronzeTime = roundStartTime.plusDays(1);
-                FightHistory bronzeMatch = FightHistory.builder()
-                        .tournament(tournament)
-                        .fighter1(null)
-                        .fighter2(null)
-                        .round(FightRound.BRONZE)
-                        .fightDate(bronzeTime)
-                        .comment("Бой за 3-е место")
-                        .build();
-
-                bronzeMatch = fightHistoryRepository.save(bronzeMatch);
-                allMatches.add(bronzeMatch);
+    /**
+     * Сетка на выбывание для любого числа участников (от двух). Размер дополняется до степени двойки,
+     * недостающие соперники — «проходы без боя»: такой рыцарь сразу стоит во втором раунде.
+     * Проходы разнесены по сетке, поэтому в первом раунде каждый бой настоящий.
+     * Всё дерево строится в памяти; матчи перечислены по раундам, бой за бронзу — последним.
+     * Все бои получают {@code startTime}, настоящее время и арену затем назначает {@link FightScheduler}
+     */
+    BracketPlan buildBracket(List<UserAccount> participants, Tournament tournament, Category category,
+                             LocalDateTime startTime) {
+        int count = participants.size();
+        int size = Integer.highestOneBit(count - 1) << 1;
+        int rounds = Integer.numberOfTrailingZeros(size);
+        int firstRoundMatches = size / 2;
+        boolean[] byes = byePositions(firstRoundMatches, size - count);
+
+        // Пустые матчи всех раундов со второго
+        List<FightHistory[]> tree = new ArrayList<>(rounds);
+        tree.add(new FightHistory[firstRoundMatches]);
+        for (int round = 2; round <= rounds; round++) {
+            int matches = size >> round;
+            FightHistory[] roundMatches = new FightHistory[matches];
+            for (int position = 0; position < matches; position++) {
+                roundMatches[position] = newMatch(tournament, category, FightRound.forMatchesInRound(matches), round, position,
+                        startTime);
             }
+            tree.add(roundMatches);
         }
 
-        // Финальный save всех (на всякий случай)
-        fightHistoryRepository.saveAll(allMatches);
+        // Первый раунд: пары или проход без боя сразу в следующий раунд
+        Iterator<UserAccount> seeds = participants.iterator();
+        for (int position = 0; position < firstRoundMatches; position++) {
+            if (byes[position]) {
+                placeInSlot(tree.get(1)[position / 2], position % 2, seeds.next());
+                continue;
+            }
+            FightHistory match = newMatch(tournament, category, FightRound.forMatchesInRound(firstRoundMatches), 1, position,
+                    startTime);
+            match.setFighter1(seeds.next());
+            match.setFighter2(seeds.next());
+            tree.get(0)[position] = match;
+        }
 
-        tournament.setTournamentStatus(TournamentStatus.TICKET_SALES);
-        tournamentRepository.save(tournament);
+        List<FightHistory> matches = new ArrayList<>(count);
+        Map<FightHistory, FightHistory> nextMatch = new IdentityHashMap<>();
+        for (int round = 1; round <= rounds; round++) {
+            FightHistory[] roundMatches = tree.get(round - 1);
+            for (int position = 0; position < roundMatches.length; position++) {
+                FightHistory match = roundMatches[position];
+                if (match == null) {
+                    continue;
+                }
+                matches.add(match);
+                if (round < rounds) {
+                    nextMatch.put(match, tree.get(round)[position / 2]);
+                }
+            }
+        }
 
-        log.info("Турнирная сетка сформирована для турнира {} (участников: {})", tournament.getName(), count);
-        sendBracketGeneratedNotifications(tournament, knights);
+        // Бой за 3-е место — только если оба полуфинала настоящие (от 4 участников)
+        if (count >= 4) {
+            FightHistory bronzeMatch = newMatch(tournament, category, FightRound.BRONZE, rounds, 1, startTime);
+            bronzeMatch.setComment("Бой за 3-е место");
+            matches.add(bronzeMatch);
+        }
+        return new BracketPlan(matches, nextMatch);
     }
 
-    private List<FightHistory> createRoundMatches(List<UserAccount> participants, FightRound round, Tournament tournament) {
-        List<FightHistory> matches = new ArrayList<>();
-        for (int i = 0; i < participants.size(); i += 2) {
-            if (i + 1 < participants.size()) {
-                matches.add(createSingleMatch(participants.get(i), participants.get(i + 1), round, tournament));
+    /**
+     * Сохранить сетку от финала к первому раунду. ID выдаёт последовательность при сохранении,
+     * поэтому к моменту сохранения боя ID следующего матча уже известен и связь уходит в той же вставке.
+     * Вставки копятся до фиксации и уходят пачками — без построчных INSERT и второго прохода UPDATE
+     */
+    private void persistBracket(BracketPlan plan) {
+        TreeMap<Integer, List<FightHistory>> byRound = plan.matches().stream()
+                .collect(Collectors.groupingBy(FightHistory::getRoundNumber, TreeMap::new, Collectors.toList()));
+        for (List<FightHistory> roundMatches : byRound.descendingMap().values()) {
+            for (FightHistory match : roundMatches) {
+                FightHistory next = plan.nextMatch().get(match);
+                if (next != null) {
+                    match.setNextMatchId(next.getId());
+                }
             }
+            fightHistoryRepository.saveAll(roundMatches);
         }
-        return matches;
     }
 
-    private FightHistory createSingleMatch(UserAccount f1, UserAccount f2, FightRound round, Tournament tournament) {
-        return FightHistory.builder()
-                .tournament(tournament)
-                .fighter1(f1)
-                .fighter2(f2)
-                .round(round)
-                .fightDate(LocalDateTime.now())
-                .build();
+    /**
+     * Матчи сетки в порядке раундов и связи «матч → следующий матч» по ссылкам, до появления ID
+     */
+    record BracketPlan(List<FightHistory> matches, Map<FightHistory, FightHistory> nextMatch) {
     }
 
-    private FightRound getNextRound(FightRound current) {
-        return switch (current) {
-            case ROUND_OF_8 -> FightRound.QUARTERFINAL;
-            case QUARTERFINAL -> FightRound.SEMIFINAL;
-            case SEMIFINAL -> FightRound.FINAL;
-            default -> throw new IllegalArgumentException("Нет следующего раунда после " + current);
-        };
+    /**
+     * Позиции первого раунда с проходом без боя. Позиции берутся в порядке обращения битов номера,
+     * так проходы равномерно распределяются по половинам и четвертям сетки
+     */
+    static boolean[] byePositions(int firstRoundMatches, int byes) {
+        boolean[] result = new boolean[firstRoundMatches];
+        int bits = Integer.numberOfTrailingZeros(firstRoundMatches);
+        for (int i = 0; i < byes; i++) {
+            result[bits == 0 ? 0 : Integer.reverse(i) >>> (Integer.SIZE - bits)] = true;
+        }
+        return result;
     }
 
-    private boolean isPowerOfTwo(int n) {
-        return n > 0 && (n & (n - 1)) == 0;
+    private static void placeInSlot(FightHistory match, int slot, UserAccount knight) {
+        if (slot == 0) {
+            match.setFighter1(knight);
+        } else {
+            match.setFighter2(knight);
+        }
+    }
+
+    private static FightHistory newMatch(Tournament tournament, Category category, FightRound round, int roundNumber,
+                                         int position, LocalDateTime fightDate) {
+        return FightHistory.builder()
+                .tournament(tournament)
+                .category(category)
+                .round(round)
+                .roundNumber(roundNumber)
+                .bracketPosition(position)
+                .fightDate(fightDate)
+                .build();
     }
 
     private void sendBracketGeneratedNotifications(Tournament tournament, List<UserAccount> knights) {
@@ -214,68 +368,4 @@ public class BracketGenerationService {
                 emailSendService.sendHtmlEmail(knight.getEmail(), "Вы в турнирной сетке!", knightBody)
         );
     }
-
-    @Transactional(readOnly = true)
-    public TournamentBracketDTO getTournamentBracket(Long tournamentId) {
-        Tournament tournament = tournamentRepository.findById(tournamentId)
-                .orElseThrow(() -> new IllegalArgumentException("Турнир не найден"));
-
-        List<FightHistory> fights = fightHistoryRepository.findByTournamentId(tournamentId);
-
-        List<FightMatchDTO> matchDTOs = fights.stream()
-                .map(this::mapToFightMatchDTO)
-                .sorted((a, b) -> {
-                    // Сортировка по раундам: от ранних к поздним
-                    int roundOrderA = getRoundOrder(a.getRound());
-                    int roundOrderB = getRoundOrder(b.getRound());
-                    return Integer.compare(roundOrderA, roundOrderB);
-                })
-                .toList();
-
-        return TournamentBracketDTO.builder()
-                .tournamentId(tournament.getId())
-                .tournamentName(tournament.getName())
-                .generatedAt(LocalDateTime.now())
-                .matches(matchDTOs)
-                .build();
-    }
-
-    private FightMatchDTO mapToFightMatchDTO(FightHistory fight) {
-        String fighter1Name = fight.getFighter1() != null
-                ? fight.getFighter1().getName() + " " + fight.getFighter1().getSecondName()
-                : null;
-
-        String fighter2Name = fight.getFighter2() != null
-                ? fight.getFighter2().getName() + " " + fight.getFighter2().getSecondName()
-                : null;
-
-        String winnerName = fight.getWinner() != null
-                ? fight.getWinner().getName() + " " + fight.getWinner().getSecondName()
-                : null;
-
-        return FightMatchDTO.builder()
-                .matchId(fight.getId())
-                .round(fight.getRound())
-                .roundDisplayName(fight.getRound().getDisplayName())
-                .fighter1Id(fight.getFighter1() != null ? fight.getFighter1().getId() : null)
-                .fighter1Name(fighter1Name)
-                .fighter2Id(fight.getFighter2() != null ? fight.getFighter2().getId() : null)
-                .fighter2Name(fighter2Name)
-                .winnerId(fight.getWinner() != null ? fight.getWinner().getId() : null)
-                .winnerName(winnerName)
-                .fightDate(fight.getFightDate())
-                .comment(fight.getComment())
-                .nextMatchId(fight.getNextMatchId())
-                .build();
-    }
-
-    private int getRoundOrder(FightRound round) {
-        return switch (round) {
-            case ROUND_OF_8 -> 1;
-            case QUARTERFINAL -> 2;
-            case SEMIFINAL -> 3;
-            case BRONZE -> 4;
-            case FINAL -> 5;
-        };
-    }
 }
@@ -79,12 +79,13 @@ public class TournamentRoleService {
             }
             case SPONSOR -> {
                 Sponsorship sponsorship = sponsorshipRepository
-                        .findBySponsorIdAndTournamentId(user.getId(), tournament.getId())
+                        .findFirstBySponsorIdAndTournamentIdOrderByIdDesc(user.getId(), tournament.getId())
                         .orElse(null);
                 if (sponsorship != null) {
                     dto.setPackageType(sponsorship.getPackageType());
                     dto.setSponsorshipAmount(sponsorship.getAmount());
                     dto.setCompanyName(sponsorship.getCompanyName());
+                    dto.setLogoUrl(sponsorship.getLogoPath());
                 }
             }
             case ORGANIZER -> {
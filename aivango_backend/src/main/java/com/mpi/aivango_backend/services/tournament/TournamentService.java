@@ -3,7 +3,6 @@ package com.mpi.aivango_backend.services.tournament;
 import com.mpi.aivango_backend.dto.tournament.TournamentCreateRequest;
 import com.mpi.aivango_backend.dto.tournament.TournamentDTO;
 import com.mpi.aivango_backend.helper.UserTokenHelper;
-import com.mpi.aivango_backend.models.sponsorship.SponsorshipStatus;
 import com.mpi.aivango_backend.models.tournament.Location;
 import com.mpi.aivango_backend.models.tournament.LocationTournament;
 import com.mpi.aivango_backend.models.tournament.Tournament;
@@ -12,7 +11,6 @@ import com.mpi.aivango_backend.models.user.TournamentRolesEnum;
 import com.mpi.aivango_backend.models.user.UserAccount;
 import com.mpi.aivango_backend.models.user.UserTournamentRole;
 import com.mpi.aivango_backend.repository.LocationRepository;
-import com.mpi.aivango_backend.repository.SponsorshipRepository;
 import com.mpi.aivango_backend.repository.TicketRepository;
 import com.mpi.aivango_backend.repository.TournamentRepository;
 import com.mpi.aivango_backend.repository.UserTournamentRoleRepository;
@@ -35,7 +33,6 @@ public class TournamentService {
     private final TournamentRepository tournamentRepository;
     private final LocationRepository locationRepository;
     private final EmailSendService emailSendService;
-    private final SponsorshipRepository sponsorshipRepository;
     private final UserTokenHelper userTokenHelper;
     private final UserService userService;
     private final UserTournamentRoleRepository userTournamentRoleRepository;
@@ -116,8 +113,7 @@ public class TournamentService {
 
     public TournamentDTO mapToTournamentDTO(Tournament tournament) {
         var currentUserId = userTokenHelper.getCurrentUserId();
-        Double collectedAmount = sponsorshipRepository
-                .sumAmountByTournamentIdAndStatus(tournament.getId(), SponsorshipStatus.CONFIRMED);
+        BigDecimal collectedAmount = tournament.getCollectedAmount();
 
         // Свободные места для зрителей
         int bookedSeats = ticketRepository.sumSeatsCountByTournamentIdAndConfirmedTrue(tournament.getId());
@@ -151,8 +147,8 @@ public class TournamentService {
         return TournamentDTO.builder()
                 .id(tournament.getId())
                 .name(tournament.getName())
-                .collectedAmount(collectedAmount != null ? collectedAmount : BigDecimal.ZERO.doubleValue())
-                .requiredAmount(tournament.getRequiredAmount().doubleValue())
+                .collectedAmount(collectedAmount != null ? collectedAmount : BigDecimal.ZERO)
+                .requiredAmount(tournament.getRequiredAmount())
                 .description(tournament.getDescription())
                 .prizePercentNum(tournament.getPrizePercentNum())
                 .tournamentStatus(tournament.getTournamentStatus())
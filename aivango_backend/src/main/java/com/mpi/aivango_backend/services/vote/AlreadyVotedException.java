@@ -0,0 +1,11 @@
+package com.mpi.aivango_backend.services.vote;
+
+/**
+ * Зритель уже отдал голос в этом турнире
+ */
+public class AlreadyVotedException extends IllegalStateException {
+
+    public AlreadyVotedException() {
+        super("Вы уже проголосовали в этом турнире");
+    }
+}
@@ -0,0 +1,73 @@
+package com.mpi.aivango_backend.services.vote;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Потокобезопасное множество неотрицательных id в виде битовой карты.
+ * Карта разбита на страницы по 4096 id: страница заводится при первом id из её диапазона,
+ * поэтому разреженные id не раздувают память, а плотные занимают бит на пользователя.
+ * Установка и снятие бита — CAS по слову, без блокировок.
+ */
+class ConcurrentIdBitmap {
+
+    private static final int PAGE_SHIFT = 12;
+    private static final int WORDS_PER_PAGE = (1 << PAGE_SHIFT) / Long.SIZE;
+
+    private final Map<Long, AtomicLongArray> pages = new ConcurrentHashMap<>();
+
+    ConcurrentIdBitmap() {
+    }
+
+    ConcurrentIdBitmap(Collection<Long> ids) {
+        ids.forEach(this::add);
+    }
+
+    boolean contains(long id) {
+        AtomicLongArray page = pages.get(id >>> PAGE_SHIFT);
+        return page != null && (page.get(word(id)) & mask(id)) != 0;
+    }
+
+    /** @return true, если id добавлен впервые */
+    boolean add(long id) {
+        AtomicLongArray page = pages.computeIfAbsent(id >>> PAGE_SHIFT, key -> new AtomicLongArray(WORDS_PER_PAGE));
+        int word = word(id);
+        long mask = mask(id);
+        long current;
+        do {
+            current = page.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+        } while (!page.compareAndSet(word, current, current | mask));
+        return true;
+    }
+
+    /** @return true, если id был в множестве */
+    boolean remove(long id) {
+        AtomicLongArray page = pages.get(id >>> PAGE_SHIFT);
+        if (page == null) {
+            return false;
+        }
+        int word = word(id);
+        long mask = mask(id);
+        long current;
+        do {
+            current = page.get(word);
+            if ((current & mask) == 0) {
+                return false;
+            }
+        } while (!page.compareAndSet(word, current, current & ~mask));
+        return true;
+    }
+
+    private static int word(long id) {
+        return (int) (id & ((1 << PAGE_SHIFT) - 1)) >>> 6;
+    }
+
+    private static long mask(long id) {
+        return 1L << (id & 63);
+    }
+}
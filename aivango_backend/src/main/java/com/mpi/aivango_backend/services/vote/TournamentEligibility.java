@@ -0,0 +1,116 @@
+package com.mpi.aivango_backend.services.vote;
+
+import com.mpi.aivango_backend.dto.vote.KnightForVotingDTO;
+import com.mpi.aivango_backend.models.user.UserAccount;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Кто может голосовать в активном турнире и кто уже проголосовал.
+ * Зрители и проголосовавшие хранятся битовыми картами, состав рыцарей на активном турнире не меняется,
+ * поэтому список для голосования собирается один раз.
+ * Отметка голоса атомарна: из двух одновременных голосов одного зрителя принимается ровно один.
+ * Голоса принимаются под общей блокировкой приёма; закрытие приёма берёт её исключительно и ждёт
+ * голоса, принимаемые в этот момент, — после него ни один голос не попадает в очередь записи.
+ * Так же, не закрывая приём, его останавливает загрузка таблицы симпатий
+ */
+class TournamentEligibility {
+
+    private final ConcurrentIdBitmap spectators;
+    private final ConcurrentIdBitmap voters;
+    private final Map<Long, UserAccount> knights;
+    private final List<KnightForVotingDTO> knightsForVoting;
+    private final ReadWriteLock intake = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    TournamentEligibility(Collection<Long> spectatorIds, Collection<UserAccount> knightAccounts, Collection<Long> voterIds) {
+        spectators = new ConcurrentIdBitmap(spectatorIds);
+        voters = new ConcurrentIdBitmap(voterIds);
+        knights = new LinkedHashMap<>();
+        knightAccounts.forEach(knight -> knights.putIfAbsent(knight.getId(), knight));
+        knightsForVoting = knights.values().stream()
+                .map(knight -> KnightForVotingDTO.builder()
+                        .id(knight.getId())
+                        .name(knight.getName())
+                        .secondName(knight.getSecondName())
+                        .build())
+                .toList();
+    }
+
+    boolean isSpectator(Long userId) {
+        return spectators.contains(userId);
+    }
+
+    void addSpectator(Long userId) {
+        spectators.add(userId);
+    }
+
+    void removeSpectator(Long userId) {
+        spectators.remove(userId);
+    }
+
+    UserAccount knight(Long knightId) {
+        return knights.get(knightId);
+    }
+
+    List<KnightForVotingDTO> knightsForVoting() {
+        return knightsForVoting;
+    }
+
+    /**
+     * Начать приём голоса; при true обязателен {@link #endVote()}
+     * @return false — приём голосов закрыт
+     */
+    boolean beginVote() {
+        intake.readLock().lock();
+        if (closed) {
+            intake.readLock().unlock();
+            return false;
+        }
+        return true;
+    }
+
+    void endVote() {
+        intake.readLock().unlock();
+    }
+
+    /** Выполнить при остановленном приёме: принимаемые голоса дописываются, новые ждут окончания */
+    <T> T withIntakePaused(Supplier<T> action) {
+        intake.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            intake.writeLock().unlock();
+        }
+    }
+
+    /** Закрыть приём голосов, дождавшись уже принимаемых */
+    void closeIntake() {
+        intake.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            intake.writeLock().unlock();
+        }
+    }
+
+    boolean hasVoted(Long userId) {
+        return voters.contains(userId);
+    }
+
+    /** @return true, если голос зрителя отмечен впервые */
+    boolean markVoted(Long userId) {
+        return voters.add(userId);
+    }
+
+    /** Голос не удалось сохранить — зритель может проголосовать снова */
+    void unmarkVoted(Long userId) {
+        voters.remove(userId);
+    }
+}
@@ -0,0 +1,191 @@
+package com.mpi.aivango_backend.services.vote;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Приём голосов с отложенной записью. Принятый голос кладётся в ограниченную очередь
+ * и пишется в таблицу votes пачками JDBC в отдельной транзакции.
+ * Если пачка не записалась, её голоса пишутся по одному: голос, который БД отвергает
+ * (нарушение ограничений или {@value #MAX_ROW_ATTEMPTS} неудачных попыток подряд), отбрасывается
+ * с записью в журнал ошибок и не задерживает остальные. При недоступности БД пачка возвращается
+ * и пишется повторно (at-least-once), а повторная запись уже сохранённого голоса гасится
+ * уникальным индексом; при остановке очередь дописывается.
+ * Если очередь переполнена, голос пишется сразу — принятый голос не теряется.
+ */
+@Component
+@Slf4j
+public class VoteIngestion {
+
+    static final int QUEUE_CAPACITY = 100_000;
+    static final int BATCH_SIZE = 1000;
+    public static final int MAX_ROW_ATTEMPTS = 5;
+    /** Повтор голоса отсекает уникальный индекс (voter_id, tournament_id), без предварительного SELECT */
+    private static final String INSERT_VOTE_SQL =
+            "INSERT INTO votes (voter_id, voted_for_id, tournament_id, vote_date) VALUES (?, ?, ?, ?) " +
+                    "ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<PendingVote> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    /** Пачки, которые не удалось записать, — пишутся первыми на следующем цикле */
+    private final Deque<PendingVote> retry = new ConcurrentLinkedDeque<>();
+    /** Сколько раз подряд не удалось записать голос, стоящий первым в очереди повтора */
+    private int headFailures;
+
+    public VoteIngestion(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public record PendingVote(long voterId, long votedForId, long tournamentId, LocalDateTime voteDate) {
+    }
+
+    /**
+     * Принять голос. Если очередь заполнена, голос записывается синхронно в вызывающем потоке
+     *
+     * @throws AlreadyVotedException при синхронной записи, если голос зрителя уже есть в БД
+     */
+    public void accept(PendingVote vote) {
+        if (!queue.offer(vote)) {
+            log.warn("Очередь голосов заполнена, голос зрителя {} пишется напрямую", vote.voterId());
+            if (write(List.of(vote)) == 0) {
+                throw new AlreadyVotedException();
+            }
+        }
+    }
+
+    public int pendingCount() {
+        return queue.size() + retry.size();
+    }
+
+    @Scheduled(fixedDelay = 200)
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Не удалось записать голоса, повторим на следующем цикле", e);
+        }
+    }
+
+    /**
+     * Записать всё, что накоплено к этому моменту. Вызывается и перед подсчётом итогов,
+     * чтобы агрегат в БД видел все принятые голоса
+     */
+    public synchronized void flush() {
+        List<PendingVote> batch = new ArrayList<>(BATCH_SIZE);
+        while (true) {
+            PendingVote next;
+            while (batch.size() < BATCH_SIZE && (next = retry.pollFirst()) != null) {
+                batch.add(next);
+            }
+            queue.drainTo(batch, BATCH_SIZE - batch.size());
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                write(batch);
+                headFailures = 0;
+            } catch (RuntimeException e) {
+                if (isUnavailable(e)) {
+                    requeue(batch, 0);
+                    throw e;
+                }
+                writeOneByOne(batch);
+            }
+            batch = new ArrayList<>(BATCH_SIZE);
+        }
+    }
+
+    /**
+     * Записать пачку по одному голосу, чтобы один негодный голос не держал остальные
+     */
+    private void writeOneByOne(List<PendingVote> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            PendingVote vote = batch.get(i);
+            try {
+                write(List.of(vote));
+                headFailures = 0;
+            } catch (DataIntegrityViolationException e) {
+                drop(vote, e);
+            } catch (RuntimeException e) {
+                if (!isUnavailable(e) && ++headFailures >= MAX_ROW_ATTEMPTS) {
+                    drop(vote, e);
+                    continue;
+                }
+                // Возвращаем остаток пачки в начало в исходном порядке
+                requeue(batch, i);
+                throw e;
+            }
+        }
+    }
+
+    private void requeue(List<PendingVote> batch, int from) {
+        for (int i = batch.size() - 1; i >= from; i--) {
+            retry.addFirst(batch.get(i));
+        }
+    }
+
+    private void drop(PendingVote vote, RuntimeException cause) {
+        headFailures = 0;
+        log.error("Голос отброшен: зритель {}, за {}, турнир {}, время {}",
+                vote.voterId(), vote.votedForId(), vote.tournamentId(), vote.voteDate(), cause);
+    }
+
+    /** БД недоступна — голоса тут ни при чём, пачку нужно повторить целиком */
+    private static boolean isUnavailable(RuntimeException e) {
+        return e instanceof DataAccessResourceFailureException
+                || e instanceof TransientDataAccessException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("При остановке не записано голосов: {}", pendingCount(), e);
+        }
+    }
+
+    /**
+     * @return сколько голосов пачки записано; повторные отбрасываются индексом
+     */
+    private int write(List<PendingVote> batch) {
+        int[] counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INSERT_VOTE_SQL, batch.stream()
+                .map(vote -> new Object[]{vote.voterId(), vote.votedForId(), vote.tournamentId(), vote.voteDate()})
+                .toList()));
+        int skipped = 0;
+        if (counts != null) {
+            for (int count : counts) {
+                if (count == 0) {
+                    skipped++;
+                }
+            }
+        }
+        if (skipped > 0 && batch.size() > 1) {
+            log.info("Повторные голоса отброшены при записи: {} из {}", skipped, batch.size());
+        }
+        return batch.size() - skipped;
+    }
+}
@@ -0,0 +1,221 @@
+package com.mpi.aivango_backend.services.vote;
+
+import com.mpi.aivango_backend.dto.vote.LeaderboardDTO;
+import com.mpi.aivango_backend.dto.vote.VoteTallyDTO;
+import com.mpi.aivango_backend.dto.vote.VoteTallyView;
+import com.mpi.aivango_backend.models.tournament.TournamentStatus;
+import com.mpi.aivango_backend.models.user.UserAccount;
+import com.mpi.aivango_backend.repository.TournamentRepository;
+import com.mpi.aivango_backend.repository.UserRepository;
+import com.mpi.aivango_backend.repository.VoteRepository;
+import com.mpi.aivango_backend.services.stream.SseHub;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Живая таблица приза зрительских симпатий. Голоса считаются в памяти счётчиками LongAdder,
+ * счётчики строятся из БД один раз на турнир и держатся, только пока по турниру идёт голосование;
+ * запросы по другим турнирам отклоняются и в память не попадают. Зрители получают снимки таблицы через SSE
+ * не чаще {@link #PUBLISH_INTERVAL_MS} мс и никогда не вызывают COUNT в БД.
+ * Итог турнира по-прежнему считается агрегатом в БД — таблица служит только для показа.
+ * Таблица строится при остановленном приёме голосов турнира: очередь записи сбрасывается в БД,
+ * и таблица публикуется раньше, чем приём возобновится, — каждый голос попадает либо в агрегат, либо в счётчик.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class VoteLeaderboard {
+
+    static final long PUBLISH_INTERVAL_MS = 250;
+    private static final String EVENT_NAME = "leaderboard";
+
+    private final VoteRepository voteRepository;
+    private final UserRepository userRepository;
+    private final TournamentRepository tournamentRepository;
+    private final SseHub sseHub;
+    private final VotingEligibilityCache votingEligibilityCache;
+    private final VoteIngestion voteIngestion;
+
+    private final Map<Long, Board> boards = new ConcurrentHashMap<>();
+
+    /**
+     * Поднять таблицу турнира до приёма голоса: загрузка останавливает приём и не может идти изнутри него
+     */
+    public void prepare(Long tournamentId) {
+        boardFor(tournamentId);
+    }
+
+    /**
+     * Учесть принятый голос; вызывается под приёмом голосов турнира. Если таблицы нет (турнир выгружен
+     * или таблицу ещё не подняли), голос уже стоит в очереди записи и попадёт в агрегат при загрузке
+     */
+    public void record(Long tournamentId, UserAccount knight) {
+        Board board = boards.get(tournamentId);
+        if (board != null) {
+            board.increment(knight);
+        }
+    }
+
+    public LeaderboardDTO snapshot(Long tournamentId) {
+        return boardFor(tournamentId).snapshot(tournamentId);
+    }
+
+    public SseEmitter subscribe(Long tournamentId) {
+        return sseHub.subscribe(topic(tournamentId), EVENT_NAME, snapshot(tournamentId));
+    }
+
+    /** Турнир завершён — счётчики больше не нужны */
+    public void evict(Long tournamentId) {
+        boards.remove(tournamentId);
+    }
+
+    /**
+     * После старта заранее поднимаем счётчики активных турниров, чтобы первый зритель не ждал загрузки
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildActiveBoards() {
+        tournamentRepository.findByTournamentStatus(TournamentStatus.ACTIVE)
+                .forEach(tournament -> boardFor(tournament.getId()));
+    }
+
+    /**
+     * Рассылка изменившихся таблиц. Сколько бы голосов ни пришло за интервал — одно событие на турнир
+     */
+    @Scheduled(fixedRate = PUBLISH_INTERVAL_MS)
+    public void publishChanges() {
+        boards.forEach((tournamentId, board) -> {
+            if (board.dirty.compareAndSet(true, false) && sseHub.hasSubscribers(topic(tournamentId))) {
+                sseHub.publish(topic(tournamentId), EVENT_NAME, board.snapshot(tournamentId));
+            }
+        });
+    }
+
+    private Board boardFor(Long tournamentId) {
+        Board board = boards.get(tournamentId);
+        if (board != null) {
+            return board;
+        }
+        TournamentStatus status = tournamentRepository.findStatusById(tournamentId)
+                .orElseThrow(() -> new IllegalArgumentException("Турнир не найден"));
+        if (status != TournamentStatus.ACTIVE) {
+            throw new IllegalArgumentException("Голосование по турниру не идёт");
+        }
+        return votingEligibilityCache.forTournament(tournamentId).withIntakePaused(() -> {
+            // Пока ждали остановки приёма, таблицу мог поднять другой поток
+            Board loaded = boards.get(tournamentId);
+            if (loaded == null) {
+                loaded = load(tournamentId);
+                boards.put(tournamentId, loaded);
+            }
+            return loaded;
+        });
+    }
+
+    private Board load(Long tournamentId) {
+        // Принятые, но ещё не записанные голоса должны попасть в агрегат
+        voteIngestion.flush();
+        List<VoteTallyView> tally = voteRepository.tallyByTournamentId(tournamentId);
+        Map<Long, UserAccount> knights = userRepository.findAllById(
+                        tally.stream().map(VoteTallyView::getKnightId).toList()).stream()
+                .collect(Collectors.toMap(UserAccount::getId, Function.identity()));
+
+        Board board = new Board();
+        // Агрегат уже упорядочен по правилу ничьей — сохраняем этот порядок первых голосов
+        for (VoteTallyView row : tally) {
+            UserAccount knight = knights.get(row.getKnightId());
+            board.counterFor(row.getKnightId(), knight).votes.add(row.getVotes());
+        }
+        log.info("Таблица симпатий турнира {} загружена: рыцарей {}", tournamentId, tally.size());
+        return board;
+    }
+
+    private static String topic(Long tournamentId) {
+        return "leaderboard:" + tournamentId;
+    }
+
+    private static final class Board {
+        private final Map<Long, KnightCounter> counters = new ConcurrentHashMap<>();
+        private final AtomicLong firstVoteOrder = new AtomicLong();
+        private final AtomicBoolean dirty = new AtomicBoolean();
+        private volatile LocalDateTime updatedAt = LocalDateTime.now();
+
+        void increment(UserAccount knight) {
+            counterFor(knight.getId(), knight).votes.increment();
+            updatedAt = LocalDateTime.now();
+            dirty.set(true);
+        }
+
+        KnightCounter counterFor(Long knightId, UserAccount knight) {
+            return counters.computeIfAbsent(knightId, id -> new KnightCounter(id,
+                    knight != null ? knight.getName() : null,
+                    knight != null ? knight.getSecondName() : null,
+                    firstVoteOrder.incrementAndGet()));
+        }
+
+        LeaderboardDTO snapshot(Long tournamentId) {
+            // Суммы снимаем один раз: счётчики продолжают расти во время сортировки
+            List<KnightCounter> ranked = new ArrayList<>(counters.values());
+            Map<KnightCounter, Long> sums = new IdentityHashMap<>();
+            for (KnightCounter counter : ranked) {
+                sums.put(counter, counter.votes.sum());
+            }
+            ranked.sort(Comparator.<KnightCounter>comparingLong(sums::get).reversed()
+                    .thenComparingLong(counter -> counter.order)
+                    .thenComparingLong(counter -> counter.knightId));
+
+            List<VoteTallyDTO> entries = new ArrayList<>(ranked.size());
+            long total = 0;
+            for (int i = 0; i < ranked.size(); i++) {
+                KnightCounter counter = ranked.get(i);
+                long count = sums.get(counter);
+                total += count;
+                entries.add(VoteTallyDTO.builder()
+                        .rank(i + 1)
+                        .knightId(counter.knightId)
+                        .name(counter.name)
+                        .secondName(counter.secondName)
+                        .votes(count)
+                        .build());
+            }
+            return LeaderboardDTO.builder()
+                    .tournamentId(tournamentId)
+                    .totalVotes(total)
+                    .updatedAt(updatedAt)
+                    .entries(entries)
+                    .build();
+        }
+    }
+
+    private static final class KnightCounter {
+        private final long knightId;
+        private final String name;
+        private final String secondName;
+        private final long order;
+        private final LongAdder votes = new LongAdder();
+
+        KnightCounter(long knightId, String name, String secondName, long order) {
+            this.knightId = knightId;
+            this.name = name;
+            this.secondName = secondName;
+            this.order = order;
+        }
+    }
+}
@@ -2,114 +2,127 @@ package com.mpi.aivango_backend.services.vote;
 
 import com.mpi.aivango_backend.dto.vote.KnightForVotingDTO;
 import com.mpi.aivango_backend.dto.vote.VoteRequest;
-import com.mpi.aivango_backend.models.ticket.Ticket;
-import com.mpi.aivango_backend.models.tournament.Tournament;
-import com.mpi.aivango_backend.models.tournament.TournamentStatus;
-import com.mpi.aivango_backend.models.user.TournamentRolesEnum;
+import com.mpi.aivango_backend.dto.vote.VoteTallyDTO;
+import com.mpi.aivango_backend.dto.vote.VoteTallyView;
 import com.mpi.aivango_backend.models.user.UserAccount;
-import com.mpi.aivango_backend.models.user.UserTournamentRole;
-import com.mpi.aivango_backend.models.vote.Vote;
 import com.mpi.aivango_backend.repository.ApplicationRepository;
-import com.mpi.aivango_backend.repository.TicketRepository;
-import com.mpi.aivango_backend.repository.TournamentRepository;
 import com.mpi.aivango_backend.repository.UserRepository;
-import com.mpi.aivango_backend.repository.UserTournamentRoleRepository;
 import com.mpi.aivango_backend.repository.VoteRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class VoteService {
 
     private final VoteRepository voteRepository;
-    private final TournamentRepository tournamentRepository;
-    private final UserTournamentRoleRepository userTournamentRoleRepository;
     private final ApplicationRepository applicationRepository;
-    private final TicketRepository ticketRepository;
     private final UserRepository userRepository;
+    private final VoteLeaderboard voteLeaderboard;
+    private final VotingEligibilityCache votingEligibilityCache;
+    private final VoteIngestion voteIngestion;
 
     /**
      * Получить список рыцарей для голосования в конкретном турнире
      */
-    @Transactional(readOnly = true)
     public List<KnightForVotingDTO> getKnightsForVoting(Long tournamentId, Long viewerId) {
-        Tournament tournament = tournamentRepository.findById(tournamentId)
-                .orElseThrow(() -> new IllegalArgumentException("Турнир не найден"));
+        TournamentEligibility eligibility = votingEligibilityCache.forTournament(tournamentId);
 
-        if (tournament.getTournamentStatus() != TournamentStatus.ACTIVE) {
-            throw new RuntimeException("Голосование доступно только для активного турнира");
+        // Роль зрителя выдаётся вместе с подтверждённым билетом и снимается при отмене
+        if (!eligibility.isSpectator(viewerId)) {
+            throw new RuntimeException("Требуется подтверждённый билет для голосования");
         }
 
-        // Проверяем наличие подтверждённого билета у зрителя
-        ticketRepository.findByUserIdAndTournamentId(viewerId, tournamentId)
-                .filter(Ticket::isConfirmed)
-                .orElseThrow(() -> new RuntimeException("Требуется подтверждённый билет для голосования"));
-
         // Проверяем, не голосовал ли уже зритель
-        if (voteRepository.existsByVoterIdAndTournamentId(viewerId, tournamentId)) {
-            throw new RuntimeException("Вы уже проголосовали в этом турнире");
+        if (eligibility.hasVoted(viewerId)) {
+            throw new AlreadyVotedException();
         }
 
-        List<UserTournamentRole> knightRoles = userTournamentRoleRepository
-                .findByTournamentIdAndRole(tournamentId, TournamentRolesEnum.KNIGHT);
-
-        return knightRoles.stream()
-                .map(UserTournamentRole::getUser)
-                .map(this::toKnightDTO)
-                .toList();
+        return eligibility.knightsForVoting();
     }
 
     /**
-     * Принять и сохранить голос зрителя
+     * Принять голос зрителя. Проверки идут по кэшу состава голосующих,
+     * сам голос пишется в БД пачкой в фоне
      */
-    @Transactional
     public void submitVote(VoteRequest request, Long viewerId) {
         Long tournamentId = request.getTournamentId();
         Long votedForId = request.getVotedForId();
 
-        // Повторное голосование запрещено
-        if (voteRepository.existsByVoterIdAndTournamentId(viewerId, tournamentId)) {
-            throw new RuntimeException("Вы уже проголосовали в этом турнире");
-        }
-
-        Tournament tournament = tournamentRepository.findById(tournamentId)
-                .orElseThrow(() -> new RuntimeException("Турнир не найден"));
-
-        if (tournament.getTournamentStatus() != TournamentStatus.ACTIVE) {
-            throw new RuntimeException("Голосование доступно только для активного турнира");
-        }
+        TournamentEligibility eligibility = votingEligibilityCache.forTournament(tournamentId);
 
         // Проверяем, что зритель имеет роль SPECTATOR в этом турнире
-        boolean isSpectator = userTournamentRoleRepository
-                .existsByUserIdAndTournamentIdAndRole(viewerId, tournamentId, TournamentRolesEnum.SPECTATOR);
-
-        if (!isSpectator) {
+        if (!eligibility.isSpectator(viewerId)) {
             throw new RuntimeException("Только зрители с билетом могут голосовать в этом турнире");
         }
 
-        boolean isKnight = userTournamentRoleRepository
-                .existsByUserIdAndTournamentIdAndRole(votedForId, tournamentId, TournamentRolesEnum.KNIGHT);
-
-        if (!isKnight) {
+        UserAccount votedFor = eligibility.knight(votedForId);
+        if (votedFor == null) {
             throw new RuntimeException("Можно голосовать только за рыцаря, участвующего в этом турнире");
         }
 
-        UserAccount votedFor = userRepository.findById(votedForId)
-                .orElseThrow(() -> new RuntimeException("Выбранный рыцарь не найден"));
+        voteLeaderboard.prepare(tournamentId);
+        if (!eligibility.beginVote()) {
+            throw new IllegalArgumentException("Голосование по турниру завершено");
+        }
+        try {
+            // Повторное голосование запрещено; отметка атомарна, поэтому из параллельных голосов проходит один
+            if (!eligibility.markVoted(viewerId)) {
+                throw new AlreadyVotedException();
+            }
+
+            try {
+                voteIngestion.accept(new VoteIngestion.PendingVote(viewerId, votedForId, tournamentId, LocalDateTime.now()));
+            } catch (AlreadyVotedException e) {
+                // Голос уже есть в БД (принят другим экземпляром приложения) — отметка верна
+                throw e;
+            } catch (RuntimeException e) {
+                eligibility.unmarkVoted(viewerId);
+                throw e;
+            }
+
+            voteLeaderboard.record(tournamentId, votedFor);
+        } finally {
+            eligibility.endVote();
+        }
+    }
 
-        Vote vote = Vote.builder()
-                .voter(UserAccount.builder().id(viewerId).build())
-                .votedFor(votedFor)
-                .tournament(tournament)
-                .voteDate(LocalDateTime.now())
-                .build();
+    /**
+     * Закрыть голосование перед подсчётом итогов: приём голосов закрывается (принимаемые в этот момент
+     * дописываются), затем очередь записывается в БД — итог видит каждый принятый голос.
+     * Кэши освобождаются после завершения текущей транзакции: до фиксации турнир ещё ACTIVE,
+     * и выгруженный раньше кэш поднялся бы заново с открытым приёмом. При откате кэш загрузится
+     * из БД заново и голосование продолжится
+     */
+    public void closeVoting(Long tournamentId) {
+        votingEligibilityCache.forTournament(tournamentId).closeIntake();
+        voteIngestion.flush();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictCaches(tournamentId);
+                }
+            });
+        } else {
+            evictCaches(tournamentId);
+        }
+    }
 
-        voteRepository.save(vote);
+    private void evictCaches(Long tournamentId) {
+        votingEligibilityCache.evict(tournamentId);
+        voteLeaderboard.evict(tournamentId);
     }
 
     /**
@@ -117,26 +130,34 @@ public class VoteService {
      */
     @Transactional(readOnly = true)
     public Long getWinnerKnightId(Long tournamentId) {
-        List<Vote> votes = voteRepository.findByTournamentId(tournamentId);
-        if (votes.isEmpty()) {
-            return null;
-        }
-
-        return votes.stream()
-                .map(vote -> vote.getVotedFor().getId())
-                .reduce((a, b) -> {
-                    long countA = votes.stream().filter(v -> v.getVotedFor().getId().equals(a)).count();
-                    long countB = votes.stream().filter(v -> v.getVotedFor().getId().equals(b)).count();
-                    return countA >= countB ? a : b;
-                })
-                .orElse(null);
+        voteIngestion.flush();
+        List<VoteTallyView> tally = voteRepository.tallyByTournamentId(tournamentId);
+        return tally.isEmpty() ? null : tally.get(0).getKnightId();
     }
 
-    private KnightForVotingDTO toKnightDTO(UserAccount user) {
-        return KnightForVotingDTO.builder()
-                .id(user.getId())
-                .name(user.getName())
-                .secondName(user.getSecondName())
-                .build();
+    /**
+     * Полный рейтинг рыцарей турнира по голосам зрителей
+     */
+    @Transactional(readOnly = true)
+    public List<VoteTallyDTO> getVoteTally(Long tournamentId) {
+        voteIngestion.flush();
+        List<VoteTallyView> tally = voteRepository.tallyByTournamentId(tournamentId);
+        Map<Long, UserAccount> knights = userRepository.findAllById(
+                        tally.stream().map(VoteTallyView::getKnightId).toList()).stream()
+                .collect(Collectors.toMap(UserAccount::getId, Function.identity()));
+
+        List<VoteTallyDTO> result = new ArrayList<>(tally.size());
+        for (int i = 0; i < tally.size(); i++) {
+            VoteTallyView row = tally.get(i);
+            UserAccount knight = knights.get(row.getKnightId());
+            result.add(VoteTallyDTO.builder()
+                    .rank(i + 1)
+                    .knightId(row.getKnightId())
+                    .name(knight != null ? knight.getName() : null)
+                    .secondName(knight != null ? knight.getSecondName() : null)
+                    .votes(row.getVotes())
+                    .build());
+        }
+        return result;
     }
 }
@@ -0,0 +1,86 @@
+package com.mpi.aivango_backend.services.vote;
+
+import com.mpi.aivango_backend.models.tournament.Tournament;
+import com.mpi.aivango_backend.models.tournament.TournamentStatus;
+import com.mpi.aivango_backend.models.user.TournamentRolesEnum;
+import com.mpi.aivango_backend.models.user.UserAccount;
+import com.mpi.aivango_backend.repository.TournamentRepository;
+import com.mpi.aivango_backend.repository.UserTournamentRoleRepository;
+import com.mpi.aivango_backend.repository.VoteRepository;
+import com.mpi.aivango_backend.services.ticket.SpectatorsChangedEvent;
+import com.mpi.aivango_backend.services.ticket.TournamentActivatedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Состав голосующих по активным турнирам: зрители, рыцари и уже проголосовавшие.
+ * Загружается при переходе турнира в ACTIVE (или при первом голосе после перезапуска),
+ * дальше поддерживается событиями о билетах, и голос проверяется без обращения к БД.
+ * Событие, пришедшее во время загрузки, дожидается её и применяется к загруженному составу.
+ * Голоса пишутся в БД с задержкой, поэтому «уже голосовал» знает только этот кэш.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class VotingEligibilityCache {
+
+    private final TournamentRepository tournamentRepository;
+    private final UserTournamentRoleRepository userTournamentRoleRepository;
+    private final VoteRepository voteRepository;
+
+    private final Map<Long, TournamentEligibility> byTournament = new ConcurrentHashMap<>();
+
+    /**
+     * Состав голосующих турнира; турнир должен быть активен
+     */
+    TournamentEligibility forTournament(Long tournamentId) {
+        return byTournament.computeIfAbsent(tournamentId, this::load);
+    }
+
+    @TransactionalEventListener
+    public void onTournamentActivated(TournamentActivatedEvent event) {
+        try {
+            forTournament(event.tournamentId());
+        } catch (Exception e) {
+            log.warn("Не удалось заранее загрузить состав голосующих турнира {}", event.tournamentId(), e);
+        }
+    }
+
+    /**
+     * computeIfPresent ждёт идущую загрузку состава: изменение, зафиксированное после её запроса, не теряется
+     */
+    @TransactionalEventListener
+    public void onSpectatorsChanged(SpectatorsChangedEvent event) {
+        byTournament.computeIfPresent(event.tournamentId(), (id, eligibility) -> {
+            event.admittedUserIds().forEach(eligibility::addSpectator);
+            event.cancelledUserIds().forEach(eligibility::removeSpectator);
+            return eligibility;
+        });
+    }
+
+    void evict(Long tournamentId) {
+        byTournament.remove(tournamentId);
+    }
+
+    private TournamentEligibility load(Long tournamentId) {
+        Tournament tournament = tournamentRepository.findById(tournamentId)
+                .orElseThrow(() -> new IllegalArgumentException("Турнир не найден"));
+        if (tournament.getTournamentStatus() != TournamentStatus.ACTIVE) {
+            throw new IllegalArgumentException("Голосование доступно только для активного турнира");
+        }
+
+        List<Long> spectators = userTournamentRoleRepository.findUserIdsByTournamentIdAndRole(tournamentId, TournamentRolesEnum.SPECTATOR);
+        List<UserAccount> knights = userTournamentRoleRepository.findUsersByTournamentIdAndRole(tournamentId, TournamentRolesEnum.KNIGHT);
+        List<Long> voters = voteRepository.findVoterIdsByTournamentId(tournamentId);
+        log.info("Состав голосующих турнира {} загружен: зрителей {}, рыцарей {}, голосов {}",
+                tournamentId, spectators.size(), knights.size(), voters.size());
+
+        return new TournamentEligibility(spectators, knights, voters);
+    }
+}
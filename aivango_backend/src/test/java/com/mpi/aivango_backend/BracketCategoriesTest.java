@@ -0,0 +1,170 @@
+package com.mpi.aivango_backend;
+
+import com.mpi.aivango_backend.dto.fight.TournamentBracketDTO;
+import com.mpi.aivango_backend.models.category.Category;
+import com.mpi.aivango_backend.models.fight.FightHistory;
+import com.mpi.aivango_backend.models.fight.FightRound;
+import com.mpi.aivango_backend.models.tournament.TournamentStatus;
+import com.mpi.aivango_backend.models.user.UserAccount;
+import com.mpi.aivango_backend.services.fight.BracketReadModel;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Отдельная сетка на каждую категорию: выбранную в заявке или весовую по профилю рыцаря
+ */
+@Slf4j
+@Import(BracketReadModel.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+public class BracketCategoriesTest extends BracketTestSupport {
+
+    @Autowired
+    private BracketReadModel bracketReadModel;
+
+    @Override
+    protected ApplicationEventPublisher eventPublisher() {
+        return applicationEvents;
+    }
+
+    @Test
+    void generateBracket_ChosenAndWeightCategories_SeparateBracketsSharedArena() {
+        Category light = categoryRepository.save(new Category(null, "60-80 кг", null, 60, 80, null));
+        Category heavy = categoryRepository.save(new Category(null, "80-120 кг", null, 80, 120, null));
+        Category mounted = categoryRepository.save(new Category(null, "Конный бой", null, null, null, null));
+
+        // Рыцари 1-4 выбрали конный бой, у чётных из остальных вес 60, у нечётных — 100,
+        // у рыцаря 21 профиля нет — он один в общей сетке
+        Long tournamentId = seedTournament(21);
+        String prefix = knightPrefix(tournamentId);
+        jdbcTemplate.update("INSERT INTO user_profiles (user_id, first_name, last_name, weight) " +
+                "SELECT id, 'Knight', second_name, CASE WHEN MOD(CAST(second_name AS INT), 2) = 0 THEN 60 ELSE 100 END " +
+                "FROM user_account WHERE email LIKE ? AND email NOT LIKE ?", prefix + "%", prefix + "21@%");
+        jdbcTemplate.update("INSERT INTO category_application (application_id, category_id) " +
+                "SELECT a.id, ? FROM application a JOIN user_account u ON u.id = a.knight_id " +
+                "WHERE u.email IN (?, ?, ?, ?)", mounted.getId(),
+                prefix + "1@example.com", prefix + "2@example.com", prefix + "3@example.com", prefix + "4@example.com");
+
+        generateBracket(tournamentId);
+
+        List<FightHistory> fights = fightHistoryRepository.findBracketByTournamentId(tournamentId);
+        Map<Long, List<FightHistory>> byCategory = fights.stream().collect(Collectors.groupingBy(
+                fight -> fight.getCategory() != null ? fight.getCategory().getId() : 0L));
+        assertEquals(4, byCategory.get(mounted.getId()).size());
+        assertEquals(8, byCategory.get(light.getId()).size());
+        assertEquals(8, byCategory.get(heavy.getId()).size());
+        assertEquals(1, byCategory.get(0L).size());
+
+        for (Category category : List.of(light, heavy, mounted)) {
+            List<FightHistory> bracket = byCategory.get(category.getId());
+            assertEquals(1, bracket.stream().filter(fight -> fight.getRound() == FightRound.FINAL).count());
+            assertEquals(1, bracket.stream().filter(fight -> fight.getRound() == FightRound.BRONZE).count());
+        }
+        for (FightHistory fight : fights) {
+            for (UserAccount knight : new UserAccount[]{fight.getFighter1(), fight.getFighter2()}) {
+                if (knight != null) {
+                    assertEquals(categoryOf(Integer.parseInt(knight.getSecondName()), light, heavy, mounted),
+                            fight.getCategory() != null ? fight.getCategory().getId() : null);
+                }
+            }
+        }
+        FightHistory champion = byCategory.get(0L).get(0);
+        assertEquals("21", champion.getWinner().getSecondName());
+
+        // Арена у всех категорий одна — бои разных сеток не пересекаются
+        List<FightHistory> scheduled = fights.stream()
+                .filter(fight -> fight.getWinner() == null)
+                .sorted(Comparator.comparing(FightHistory::getFightDate))
+                .toList();
+        for (int i = 1; i < scheduled.size(); i++) {
+            assertFalse(scheduled.get(i).getFightDate()
+                    .isBefore(scheduled.get(i - 1).getFightDate().plusMinutes(FIGHT_MINUTES)));
+        }
+
+        TournamentBracketDTO lightBracket = bracketReadModel.get(tournamentId, light.getId());
+        assertEquals(8, lightBracket.getMatches().size());
+        assertTrue(lightBracket.getMatches().stream()
+                .allMatch(match -> Objects.equals(light.getId(), match.getCategoryId())
+                        && "60-80 кг".equals(match.getCategoryName())));
+        assertEquals("Четвертьфинал", lightBracket.getMatches().get(0).getRoundDisplayName());
+        TournamentBracketDTO general = bracketReadModel.get(tournamentId, null);
+        assertEquals(1, general.getMatches().size());
+        assertEquals(21, bracketReadModel.get(tournamentId).getMatches().size());
+    }
+
+    @Test
+    void generateBracket_EightWeightClasses_OneCallBatchedStatements() {
+        List<Category> classes = IntStream.range(0, 8)
+                .mapToObj(i -> categoryRepository.save(
+                        new Category(null, "Класс " + i, null, 200 + 10 * i, 210 + 10 * i, null)))
+                .toList();
+        Long tournamentId = seedTournament(1024);
+        jdbcTemplate.update("INSERT INTO user_profiles (user_id, first_name, last_name, weight) " +
+                "SELECT id, 'Knight', second_name, 205 + 10 * MOD(CAST(second_name AS INT), 8) " +
+                "FROM user_account WHERE email LIKE ?", knightPrefix(tournamentId) + "%");
+
+        statistics.clear();
+        long started = System.nanoTime();
+        generateBracket(tournamentId);
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        long statements = statistics.getPrepareStatementCount();
+
+        log.info("Сетки 8 категорий на 1024 рыцарей: {} мс, SQL-запросов: {}", millis, statements);
+
+        List<FightHistory> fights = fightHistoryRepository.findByTournamentId(tournamentId);
+        assertEquals(1024, fights.size()); // в каждой категории 128 рыцарей: 127 боёв и бронза
+        for (Category category : classes) {
+            assertEquals(128, fights.stream()
+                    .filter(fight -> category.getId().equals(fight.getCategory().getId()))
+                    .count());
+        }
+        // Пачки вставок и выборки ID последовательности плюс постоянные запросы
+        // (турнир, рыцари, весовые категории, арены, удаление старой сетки, смена статуса)
+        long batches = (fights.size() + BATCH_SIZE - 1) / BATCH_SIZE + classes.size();
+        assertTrue(statements <= 2 * batches + 7, "Слишком много запросов: " + statements);
+    }
+
+    @Test
+    void generateBracket_KnightInSeveralCategories_RejectedWithoutBracket() {
+        Category mounted = categoryRepository.save(new Category(null, "Конный бой", null, null, null, null));
+        Category foot = categoryRepository.save(new Category(null, "Пеший бой", null, null, null, null));
+        Long tournamentId = seedTournament(4);
+        String prefix = knightPrefix(tournamentId);
+        for (Category category : List.of(mounted, foot)) {
+            jdbcTemplate.update("INSERT INTO category_application (application_id, category_id) " +
+                    "SELECT a.id, ? FROM application a JOIN user_account u ON u.id = a.knight_id WHERE u.email = ?",
+                    category.getId(), prefix + "1@example.com");
+        }
+
+        // Рыцарь не попадает молча в одну из категорий: формирование отклоняется, сетки нет
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> generateBracket(tournamentId));
+        assertTrue(error.getMessage().contains(prefix + "1@example.com"));
+        assertTrue(fightHistoryRepository.findByTournamentId(tournamentId).isEmpty());
+        assertEquals(TournamentStatus.KNIGHT_REGISTRATION,
+                tournamentRepository.findById(tournamentId).orElseThrow().getTournamentStatus());
+    }
+
+    private static Long categoryOf(int knight, Category light, Category heavy, Category mounted) {
+        if (knight <= 4) {
+            return mounted.getId();
+        }
+        if (knight > 20) {
+            return null;
+        }
+        return knight % 2 == 0 ? light.getId() : heavy.getId();
+    }
+}
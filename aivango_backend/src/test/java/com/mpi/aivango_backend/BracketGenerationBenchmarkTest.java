@@ -0,0 +1,49 @@
+package com.mpi.aivango_backend;
+
+import com.mpi.aivango_backend.models.fight.FightHistory;
+import com.mpi.aivango_backend.models.fight.FightRound;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Время генерации сетки и число SQL-запросов для 16, 256 и 1024 рыцарей.
+ * Бои вставляются пачками по {@link #BATCH_SIZE}, ID приходят из последовательности тем же шагом
+ */
+@Slf4j
+public class BracketGenerationBenchmarkTest extends BracketTestSupport {
+
+    @Test
+    void generateBracket_16_256_1024Knights_BatchedStatementsAndTime() {
+        tournamentWithBracket(16); // прогрев
+
+        for (int knights : new int[]{16, 256, 1024}) {
+            Long tournamentId = seedTournament(knights);
+
+            statistics.clear();
+            long started = System.nanoTime();
+            new TransactionTemplate(transactionManager).executeWithoutResult(
+                    status -> bracketGenerationService.generateBracket(tournamentId));
+            long millis = (System.nanoTime() - started) / 1_000_000;
+            long statements = statistics.getPrepareStatementCount();
+
+            log.info("Сетка на {} рыцарей: {} мс, SQL-запросов: {}", knights, millis, statements);
+
+            List<FightHistory> fights = fightHistoryRepository.findByTournamentId(tournamentId);
+            assertEquals(knights, fights.size()); // N - 1 боёв на выбывание и бронза
+            assertEquals(1, fights.stream().filter(f -> f.getRound() == FightRound.FINAL).count());
+            assertTrue(fights.stream()
+                    .filter(f -> f.getRound() != FightRound.FINAL && f.getRound() != FightRound.BRONZE)
+                    .allMatch(f -> f.getNextMatchId() != null));
+            // Пачки вставок и выборки ID последовательности плюс постоянные запросы
+            // (турнир, рыцари, удаление старой сетки, смена статуса); отдельных UPDATE связей нет
+            long batches = (knights + BATCH_SIZE - 1) / BATCH_SIZE;
+            assertTrue(statements <= 2 * batches + 6, "Слишком много запросов: " + statements);
+            assertEquals(1, statistics.getEntityUpdateCount(), "Обновляться должен только турнир");
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.mpi.aivango_backend;
 
-import com.mpi.aivango_backend.dto.fight.TournamentBracketDTO;
-import com.mpi.aivango_backend.models.application.Application;
+import com.mpi.aivango_backend.dto.application.ApprovedKnightView;
 import com.mpi.aivango_backend.models.application.ApplicationStatus;
 import com.mpi.aivango_backend.models.fight.FightHistory;
 import com.mpi.aivango_backend.models.fight.FightRound;
@@ -9,9 +8,12 @@ import com.mpi.aivango_backend.models.tournament.Tournament;
 import com.mpi.aivango_backend.models.tournament.TournamentStatus;
 import com.mpi.aivango_backend.models.user.UserAccount;
 import com.mpi.aivango_backend.repository.ApplicationRepository;
+import com.mpi.aivango_backend.repository.CategoryRepository;
 import com.mpi.aivango_backend.repository.FightHistoryRepository;
 import com.mpi.aivango_backend.repository.TournamentRepository;
 import com.mpi.aivango_backend.services.email.EmailSendService;
+import com.mpi.aivango_backend.services.fight.BracketChangedEvent;
+import com.mpi.aivango_backend.services.fight.FightScheduler;
 import com.mpi.aivango_backend.services.tournament.BracketGenerationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,11 +21,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -42,12 +50,21 @@ public class BracketGenerationServiceTest {
     @Mock
     private EmailSendService emailSendService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Spy
+    private FightScheduler fightScheduler = new FightScheduler(30, 60, "10:00", "20:00");
+
     @InjectMocks
     private BracketGenerationService bracketGenerationService;
 
     private Tournament tournament;
     private List<UserAccount> knights;
-    private List<Application> applications;
+    private final AtomicLong nextId = new AtomicLong();
 
     @BeforeEach
     void setUp() {
@@ -59,7 +76,6 @@ public class BracketGenerationServiceTest {
                 .build();
 
         knights = new ArrayList<>();
-        applications = new ArrayList<>();
     }
 
     @Test
@@ -73,6 +89,7 @@ public class BracketGenerationServiceTest {
         verifyBracketGenerated(1, FightRound.FINAL, 1); // 1 match
         verifyStatusUpdated(TournamentStatus.TICKET_SALES);
         verifyNotificationsSent(1);
+        verify(eventPublisher).publishEvent(new BracketChangedEvent(1L));
     }
 
     @Test
@@ -93,7 +110,6 @@ public class BracketGenerationServiceTest {
         addKnights(4);
         mockCommonRepositories();
         mockDeleteAndSaveAll();
-        mockSaveForBronze();
 
         bracketGenerationService.generateBracket(1L);
 
@@ -107,7 +123,6 @@ public class BracketGenerationServiceTest {
         addKnights(8);
         mockCommonRepositories();
         mockDeleteAndSaveAll();
-        mockSaveForBronze();
 
         bracketGenerationService.generateBracket(1L);
 
@@ -120,7 +135,6 @@ public class BracketGenerationServiceTest {
         addKnights(16);
         mockCommonRepositories();
         mockDeleteAndSaveAll();
-        mockSaveForBronze();
 
         bracketGenerationService.generateBracket(1L);
 
@@ -145,33 +159,67 @@ public class BracketGenerationServiceTest {
     }
 
     @Test
-    void generateBracket_InvalidCount_ThrowsException() {
+    void generateBracket_ThreeParticipants_OneByeAndNoBronze() {
         addKnights(3);
         mockCommonRepositories();
+        mockDeleteAndSaveAll();
 
-        assertThrows(IllegalArgumentException.class, () -> bracketGenerationService.generateBracket(1L));
+        bracketGenerationService.generateBracket(1L);
+
+        List<FightHistory> matches = verifyBracketGenerated(3, FightRound.SEMIFINAL, 2); // 1 semi + final
+        FightHistory semi = matches.get(0);
+        FightHistory finalMatch = matches.get(1);
+        assertNotNull(semi.getFighter1());
+        assertNotNull(semi.getFighter2());
+        assertEquals(FightRound.FINAL, finalMatch.getRound());
+        // Рыцарь с проходом без боя уже стоит в финале и ждёт победителя полуфинала
+        assertEquals(1, countFighters(finalMatch));
+        assertEquals(finalMatch.getId(), semi.getNextMatchId());
+        verifyNotificationsSent(3);
     }
 
     @Test
-    void getTournamentBracket_Success() {
-        List<FightHistory> fights = createSampleFights();
-        when(tournamentRepository.findById(1L)).thenReturn(Optional.of(tournament));
-        when(fightHistoryRepository.findByTournamentId(1L)).thenReturn(fights);
+    void generateBracket_FiveParticipants_ByesSpreadAcrossBracket() {
+        addKnights(5);
+        mockCommonRepositories();
+        mockDeleteAndSaveAll();
 
-        TournamentBracketDTO bracket = bracketGenerationService.getTournamentBracket(1L);
+        bracketGenerationService.generateBracket(1L);
 
-        assertNotNull(bracket);
-        assertEquals(1L, bracket.getTournamentId());
-        assertEquals("Test Tournament", bracket.getTournamentName());
-        assertEquals(2, bracket.getMatches().size()); // Based on sample
-        assertTrue(bracket.getMatches().get(0).getRound().name().contains("SEMI")); // Example check
+        // 1 бой первого раунда + 2 полуфинала + финал + бронза
+        List<FightHistory> matches = verifyBracketGenerated(5, FightRound.QUARTERFINAL, 5);
+        List<FightHistory> semis = matches.stream().filter(m -> m.getRound() == FightRound.SEMIFINAL).toList();
+        assertEquals(2, semis.size());
+        // Три прохода без боя: один полуфинал заполнен целиком, во втором ждут победителя четвертьфинала
+        assertEquals(3, semis.stream().mapToInt(this::countFighters).sum());
+        assertTrue(semis.stream().allMatch(m -> countFighters(m) >= 1));
+
+        Set<Long> seeded = new HashSet<>();
+        matches.stream().filter(m -> m.getRoundNumber() <= 2 && m.getRound() != FightRound.BRONZE)
+                .forEach(m -> {
+                    if (m.getFighter1() != null) seeded.add(m.getFighter1().getId());
+                    if (m.getFighter2() != null) seeded.add(m.getFighter2().getId());
+                });
+        assertEquals(5, seeded.size(), "Каждый рыцарь должен попасть в сетку ровно один раз");
     }
 
     @Test
-    void getTournamentBracket_TournamentNotFound_ThrowsException() {
-        when(tournamentRepository.findById(1L)).thenReturn(Optional.empty());
+    void generateBracket_1024Participants_FullTreeLinked() {
+        addKnights(1024);
+        mockCommonRepositories();
+        mockDeleteAndSaveAll();
+
+        bracketGenerationService.generateBracket(1L);
 
-        assertThrows(IllegalArgumentException.class, () -> bracketGenerationService.getTournamentBracket(1L));
+        // 512 + 256 + ... + 1 = 1023 боя и бронза
+        List<FightHistory> matches = verifyBracketGenerated(1024, FightRound.EARLY_ROUND, 1024);
+        assertEquals(512, matches.stream().filter(m -> m.getRoundNumber() == 1).count());
+        assertEquals(10, matches.stream().mapToInt(FightHistory::getRoundNumber).max().orElseThrow());
+        assertTrue(matches.stream()
+                .filter(m -> m.getRound() != FightRound.FINAL && m.getRound() != FightRound.BRONZE)
+                .allMatch(m -> m.getNextMatchId() != null));
+        // По одному saveAll на раунд, от финала к первому раунду
+        verify(fightHistoryRepository, times(10)).saveAll(any());
     }
 
     // Helper methods
@@ -179,53 +227,63 @@ public class BracketGenerationServiceTest {
         for (int i = 1; i <= count; i++) {
             UserAccount knight = new UserAccount((long) i + 1, "knight" + i + "@example.com", "Knight" + i, "Last" + i, false);
             knights.add(knight);
-            applications.add(Application.builder().knight(knight).status(ApplicationStatus.APPROVED).build());
         }
     }
 
     private void mockCommonRepositories() {
         when(tournamentRepository.findById(1L)).thenReturn(Optional.of(tournament));
-        when(applicationRepository.findByTournamentIdAndStatus(1L, ApplicationStatus.APPROVED)).thenReturn(applications);
+        List<ApprovedKnightView> approved = knights.stream().map(BracketGenerationServiceTest::approved).toList();
+        when(applicationRepository.findApprovedKnights(1L, ApplicationStatus.APPROVED)).thenReturn(approved);
+    }
+
+    private static ApprovedKnightView approved(UserAccount knight) {
+        ApprovedKnightView view = mock(ApprovedKnightView.class);
+        when(view.getKnight()).thenReturn(knight);
+        return view;
     }
 
     private void mockDeleteAndSaveAll() {
         doNothing().when(fightHistoryRepository).deleteByTournamentId(1L);
         when(fightHistoryRepository.saveAll(any())).thenAnswer(invocation -> {
             List<FightHistory> args = invocation.getArgument(0);
-            for (int i = 0; i < args.size(); i++) {
-                if (args.get(i).getId() == null) {
-                    args.get(i).setId((long) (i + 1)); // Simulate ID assignment
+            for (FightHistory match : args) {
+                // Связь со следующим матчем должна быть известна уже при сохранении
+                if (match.getRound() != FightRound.FINAL && match.getRound() != FightRound.BRONZE) {
+                    assertNotNull(match.getNextMatchId(), "Бой сохранён раньше следующего матча");
+                }
+                if (match.getId() == null) {
+                    match.setId(nextId.incrementAndGet()); // Simulate ID assignment
                 }
             }
             return args;
         });
     }
 
-    private void mockSaveForBronze() {
-        when(fightHistoryRepository.save(any())).thenAnswer(invocation -> {
-            FightHistory arg = invocation.getArgument(0);
-            if (arg.getId() == null) {
-                arg.setId(999L); // For bronze
-            }
-            return arg;
-        });
-    }
-
-    private void verifyBracketGenerated(int participantCount, FightRound firstRound, int expectedMatchCount) {
+    private List<FightHistory> verifyBracketGenerated(int participantCount, FightRound firstRound, int expectedMatchCount) {
         ArgumentCaptor<List<FightHistory>> saveAllCaptor = ArgumentCaptor.forClass(List.class);
         verify(fightHistoryRepository, atLeastOnce()).saveAll(saveAllCaptor.capture());
 
         List<List<FightHistory>> allSaveCalls = saveAllCaptor.getAllValues();
         assertFalse(allSaveCalls.isEmpty(), "No saveAll calls captured");
 
-        // The last saveAll is the final one with all unique matches
-        List<FightHistory> finalMatches = allSaveCalls.get(allSaveCalls.size() - 1);
+        // Матчи сохраняются по раундам от финала; собираем их обратно в порядке сетки
+        List<FightHistory> finalMatches = allSaveCalls.stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(FightHistory::getRoundNumber)
+                        .thenComparing(match -> match.getRound() == FightRound.BRONZE)
+                        .thenComparing(FightHistory::getBracketPosition))
+                .toList();
         assertEquals(expectedMatchCount, finalMatches.size(), "Unexpected number of unique matches");
 
         // Optional: Assert first round (if applicable)
         if (participantCount > 2 && !finalMatches.isEmpty()) {
             assertEquals(firstRound, finalMatches.get(0).getRound(), "Incorrect first round");
         }
+        return finalMatches;
+    }
+
+    private int countFighters(FightHistory match) {
+        return (match.getFighter1() != null ? 1 : 0) + (match.getFighter2() != null ? 1 : 0);
     }
 
     private void verifyStatusUpdated(TournamentStatus expected) {
@@ -237,13 +295,4 @@ public class BracketGenerationServiceTest {
     private void verifyNotificationsSent(int knightCount) {
         verify(emailSendService, times(1 + knightCount)).sendHtmlEmail(anyString(), anyString(), anyString());
     }
-
-    private List<FightHistory> createSampleFights() {
-        List<FightHistory> fights = new ArrayList<>();
-        UserAccount u1 = new UserAccount(2L, "u1@example.com", "U1", "Last", false);
-        UserAccount u2 = new UserAccount(3L, "u2@example.com", "U2", "Last", false);
-        fights.add(FightHistory.builder().id(1L).round(FightRound.SEMIFINAL).fighter1(u1).fighter2(u2).build());
-        fights.add(FightHistory.builder().id(2L).round(FightRound.FINAL).build());
-        return fights;
-    }
 }
@@ -0,0 +1,87 @@
+package com.mpi.aivango_backend;
+
+import com.mpi.aivango_backend.dto.fight.BracketEventDTO;
+import com.mpi.aivango_backend.dto.fight.FightMatchDTO;
+import com.mpi.aivango_backend.dto.fight.TournamentBracketDTO;
+import com.mpi.aivango_backend.services.fight.BracketChangedEvent;
+import com.mpi.aivango_backend.services.fight.BracketLiveFeed;
+import com.mpi.aivango_backend.services.fight.BracketReadModel;
+import com.mpi.aivango_backend.services.fight.BracketUpdate;
+import com.mpi.aivango_backend.services.stream.SseHub;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BracketLiveFeedTest {
+
+    @Mock
+    private BracketReadModel bracketReadModel;
+
+    @Mock
+    private SseHub sseHub;
+
+    @InjectMocks
+    private BracketLiveFeed bracketLiveFeed;
+
+    private TournamentBracketDTO bracket;
+
+    @BeforeEach
+    void setUp() {
+        bracket = TournamentBracketDTO.builder()
+                .tournamentId(1L)
+                .version(7L)
+                .matches(List.of(
+                        FightMatchDTO.builder().matchId(10L).winnerName("Knight 1").build(),
+                        FightMatchDTO.builder().matchId(11L).fighter1Name("Knight 1").fighter2Name("Knight 4").build()))
+                .build();
+    }
+
+    @Test
+    void onBracketChanged_ResultAndReadyMatch_OneEventEachFromSnapshot() {
+        when(sseHub.hasSubscribers("bracket:1")).thenReturn(true);
+        when(bracketReadModel.get(1L)).thenReturn(bracket);
+
+        bracketLiveFeed.onBracketChanged(new BracketChangedEvent(1L, List.of(
+                new BracketUpdate(BracketUpdate.Type.RESULT_RECORDED, 10L),
+                new BracketUpdate(BracketUpdate.Type.MATCH_READY, 11L))));
+
+        ArgumentCaptor<Object> payloads = ArgumentCaptor.forClass(Object.class);
+        verify(sseHub).publish(eq("bracket:1"), eq("result-recorded"), payloads.capture());
+        verify(sseHub).publish(eq("bracket:1"), eq("match-ready"), payloads.capture());
+        BracketEventDTO result = (BracketEventDTO) payloads.getAllValues().get(0);
+        assertEquals(7L, result.getVersion());
+        assertEquals("Knight 1", result.getMatch().getWinnerName());
+        assertEquals("Knight 4", ((BracketEventDTO) payloads.getAllValues().get(1)).getMatch().getFighter2Name());
+    }
+
+    @Test
+    void onBracketChanged_NewBracket_WholeSnapshotSent() {
+        when(sseHub.hasSubscribers("bracket:1")).thenReturn(true);
+        when(bracketReadModel.get(1L)).thenReturn(bracket);
+
+        bracketLiveFeed.onBracketChanged(new BracketChangedEvent(1L));
+
+        verify(sseHub).publish("bracket:1", "bracket", bracket);
+    }
+
+    @Test
+    void onBracketChanged_NoViewers_NothingLoaded() {
+        bracketLiveFeed.onBracketChanged(new BracketChangedEvent(1L,
+                List.of(new BracketUpdate(BracketUpdate.Type.DATE_CHANGED, 10L))));
+
+        verifyNoInteractions(bracketReadModel);
+        verify(sseHub, never()).publish(anyString(), anyString(), any());
+    }
+}
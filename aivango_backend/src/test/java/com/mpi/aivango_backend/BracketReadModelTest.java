@@ -0,0 +1,145 @@
+package com.mpi.aivango_backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mpi.aivango_backend.dto.fight.FightDateUpdateRequest;
+import com.mpi.aivango_backend.dto.fight.FightMatchDTO;
+import com.mpi.aivango_backend.dto.fight.FightResultRequest;
+import com.mpi.aivango_backend.dto.fight.TournamentBracketDTO;
+import com.mpi.aivango_backend.models.fight.FightRound;
+import com.mpi.aivango_backend.models.tournament.Tournament;
+import com.mpi.aivango_backend.models.tournament.TournamentStatus;
+import com.mpi.aivango_backend.repository.BracketSnapshotRepository;
+import com.mpi.aivango_backend.services.fight.BracketReadModel;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Снимок сетки перестраивается по событию после фиксации и читается из памяти без запросов к БД
+ */
+@Import(BracketReadModel.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+public class BracketReadModelTest extends BracketTestSupport {
+
+    @Autowired
+    private BracketSnapshotRepository bracketSnapshotRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BracketReadModel bracketReadModel;
+
+    @Override
+    protected ApplicationEventPublisher eventPublisher() {
+        return applicationEvents;
+    }
+
+    @Test
+    void get_AfterGeneration_OrderedNamesFromMemory() {
+        Long tournamentId = tournamentWithBracket(16);
+
+        statistics.clear();
+        TournamentBracketDTO bracket = bracketReadModel.get(tournamentId);
+        for (int i = 0; i < 100; i++) {
+            assertSame(bracket, bracketReadModel.get(tournamentId));
+        }
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        assertEquals(1L, bracket.getVersion());
+        assertEquals(16, bracket.getMatches().size());
+        List<FightMatchDTO> matches = bracket.getMatches();
+        for (int i = 1; i < matches.size(); i++) {
+            assertTrue(matches.get(i - 1).getRoundNumber() <= matches.get(i).getRoundNumber());
+        }
+        assertEquals(FightRound.FINAL, matches.get(matches.size() - 1).getRound());
+        assertTrue(matches.stream().filter(m -> m.getRoundNumber() == 1)
+                .allMatch(m -> m.getFighter1Name().startsWith("Knight ") && m.getFighter2Name() != null));
+    }
+
+    @Test
+    void recordResultAndMoveFight_SnapshotRebuiltWithNextVersion() {
+        Long tournamentId = tournamentWithBracket(4);
+        FightMatchDTO semifinal = bracketReadModel.get(tournamentId).getMatches().get(0);
+
+        fightResultService.recordFightResult(semifinal.getMatchId(),
+                new FightResultRequest(semifinal.getFighter1Id(), "Чистая победа"));
+
+        TournamentBracketDTO bracket = bracketReadModel.get(tournamentId);
+        assertEquals(2L, bracket.getVersion());
+        FightMatchDTO played = bracket.getMatches().get(0);
+        assertEquals(semifinal.getFighter1Name(), played.getWinnerName());
+        FightMatchDTO bronze = bracket.getMatches().stream()
+                .filter(m -> m.getRound() == FightRound.BRONZE).findFirst().orElseThrow();
+        assertEquals(semifinal.getFighter2Name(), bronze.getFighter1Name());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                fightResultService.updateFightDate(semifinal.getMatchId(),
+                        new FightDateUpdateRequest(semifinal.getFightDate().plusHours(3)), organizer.getId()));
+        bracket = bracketReadModel.get(tournamentId);
+        assertEquals(3L, bracket.getVersion());
+        assertEquals(semifinal.getFightDate().plusHours(3), bracket.getMatches().get(0).getFightDate());
+        assertEquals(3L, bracketSnapshotRepository.findById(tournamentId).orElseThrow().getVersion());
+    }
+
+    @Test
+    void get_ColdMemory_SingleKeyLookup() {
+        Long tournamentId = tournamentWithBracket(16);
+        TournamentBracketDTO bracket = bracketReadModel.get(tournamentId);
+
+        // Как после перезапуска: память пуста, снимок лежит в БД
+        BracketReadModel restarted = new BracketReadModel(fightHistoryRepository, tournamentRepository,
+                bracketSnapshotRepository, objectMapper, transactionManager);
+        statistics.clear();
+        TournamentBracketDTO loaded = restarted.get(tournamentId);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(bracket, loaded);
+    }
+
+    @Test
+    void get_TournamentWithoutFights_NotStoredNotCached() {
+        Long tournamentId = tournamentRepository.save(Tournament.builder()
+                .name("Без сетки")
+                .userAccount(organizer)
+                .tournamentStatus(TournamentStatus.KNIGHT_REGISTRATION)
+                .build()).getId();
+        BracketReadModel readModel = new BracketReadModel(fightHistoryRepository, tournamentRepository,
+                bracketSnapshotRepository, objectMapper, transactionManager);
+
+        TournamentBracketDTO bracket = readModel.get(tournamentId);
+
+        assertTrue(bracket.getMatches().isEmpty());
+        assertTrue(bracketSnapshotRepository.findById(tournamentId).isEmpty());
+        assertEquals(0, readModel.cachedCount());
+    }
+
+    @Test
+    void evictIdleSnapshots_IdleSnapshotReloadedFromDatabase() {
+        Long tournamentId = tournamentWithBracket(4);
+        BracketReadModel readModel = new BracketReadModel(fightHistoryRepository, tournamentRepository,
+                bracketSnapshotRepository, objectMapper, transactionManager, 0);
+        TournamentBracketDTO bracket = readModel.get(tournamentId);
+        assertEquals(1, readModel.cachedCount());
+
+        readModel.evictIdleSnapshots();
+
+        assertEquals(0, readModel.cachedCount());
+        statistics.clear();
+        assertEquals(bracket, readModel.get(tournamentId));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void get_UnknownTournament_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> bracketReadModel.get(-1L));
+    }
+}
@@ -0,0 +1,154 @@
+package com.mpi.aivango_backend;
+
+import com.mpi.aivango_backend.models.application.ApplicationStatus;
+import com.mpi.aivango_backend.models.tournament.Tournament;
+import com.mpi.aivango_backend.models.tournament.TournamentStatus;
+import com.mpi.aivango_backend.models.user.UserAccount;
+import com.mpi.aivango_backend.repository.ApplicationRepository;
+import com.mpi.aivango_backend.repository.CategoryRepository;
+import com.mpi.aivango_backend.repository.FightHistoryRepository;
+import com.mpi.aivango_backend.repository.TournamentRepository;
+import com.mpi.aivango_backend.repository.UserRepository;
+import com.mpi.aivango_backend.services.email.EmailSendService;
+import com.mpi.aivango_backend.services.email.MailDispatcher;
+import com.mpi.aivango_backend.services.fight.FightMailPipeline;
+import com.mpi.aivango_backend.services.fight.FightResultService;
+import com.mpi.aivango_backend.services.fight.FightScheduler;
+import com.mpi.aivango_backend.services.tournament.BracketGenerationService;
+import com.mpi.aivango_backend.services.tournament.TournamentService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Общая обвязка тестов сетки на H2: сервисы генерации сетки и записи результатов собираются вручную
+ * с заглушкой почты, турнир засевается рыцарями с одобренными заявками двумя INSERT.
+ * Рыцари каждого турнира получают свой префикс email, так что тесты не видят чужих рыцарей
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bracket;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database=H2",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=" + BracketTestSupport.BATCH_SIZE})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+abstract class BracketTestSupport {
+
+    static final int BATCH_SIZE = 50;
+    static final int FIGHT_MINUTES = 30;
+
+    @Autowired
+    protected TournamentRepository tournamentRepository;
+
+    @Autowired
+    protected ApplicationRepository applicationRepository;
+
+    @Autowired
+    protected FightHistoryRepository fightHistoryRepository;
+
+    @Autowired
+    protected CategoryRepository categoryRepository;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    protected PlatformTransactionManager transactionManager;
+
+    @Autowired
+    protected EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    protected ApplicationEventPublisher applicationEvents;
+
+    protected EmailSendService emailSendService;
+    protected ApplicationEventPublisher eventPublisher;
+    protected BracketGenerationService bracketGenerationService;
+    protected FightResultService fightResultService;
+    protected Statistics statistics;
+    protected UserAccount organizer;
+
+    @BeforeEach
+    void setUpBracketServices() {
+        emailSendService = mock(EmailSendService.class);
+        eventPublisher = eventPublisher();
+        FightScheduler fightScheduler = new FightScheduler(FIGHT_MINUTES, 60, "10:00", "20:00");
+        bracketGenerationService = new BracketGenerationService(tournamentRepository, applicationRepository,
+                fightHistoryRepository, emailSendService, eventPublisher, fightScheduler, categoryRepository);
+        fightResultService = new FightResultService(fightHistoryRepository,
+                mock(TournamentService.class), new TransactionTemplate(transactionManager),
+                new FightMailPipeline(emailSendService, new MailDispatcher()), eventPublisher, fightScheduler);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        organizer = userRepository.save(new UserAccount(null, "org-" + System.nanoTime() + "@example.com",
+                "Org", "Org", true));
+    }
+
+    /**
+     * Куда сервисы публикуют события. По умолчанию — заглушка; тесты снимка сетки отдают
+     * события контексту, чтобы {@code BracketReadModel} перестраивался после фиксации
+     */
+    protected ApplicationEventPublisher eventPublisher() {
+        return mock(ApplicationEventPublisher.class);
+    }
+
+    /**
+     * Турнир в регистрации рыцарей с {@code knights} одобренными заявками, без сетки
+     */
+    protected Long seedTournament(int knights) {
+        Long tournamentId = tournamentRepository.save(Tournament.builder()
+                .name("Open " + knights)
+                .userAccount(organizer)
+                .tournamentStatus(TournamentStatus.KNIGHT_REGISTRATION)
+                .build()).getId();
+        String prefix = knightPrefix(tournamentId);
+        jdbcTemplate.update("INSERT INTO user_account (email, name, second_name, is_organizer) " +
+                        "SELECT CONCAT(?, X, '@example.com'), 'Knight', CAST(X AS VARCHAR), FALSE FROM SYSTEM_RANGE(1, ?)",
+                prefix, knights);
+        jdbcTemplate.update("INSERT INTO application (knight_id, tournament_id, status) " +
+                        "SELECT id, ?, ? FROM user_account WHERE email LIKE ?",
+                tournamentId, ApplicationStatus.APPROVED.ordinal(), prefix + "%");
+        return tournamentId;
+    }
+
+    /**
+     * Начало email рыцарей турнира: рыцарь N — {@code <префикс>N@example.com}, его second_name — N
+     */
+    protected String knightPrefix(Long tournamentId) {
+        return "t" + tournamentId + "-knight";
+    }
+
+    /**
+     * Сгенерировать сетку в отдельной транзакции; письма о публикации сетки в проверки тестов не попадают
+     */
+    protected void generateBracket(Long tournamentId) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> bracketGenerationService.generateBracket(tournamentId));
+        clearInvocations(emailSendService);
+    }
+
+    protected Long tournamentWithBracket(int knights) {
+        Long tournamentId = seedTournament(knights);
+        generateBracket(tournamentId);
+        return tournamentId;
+    }
+}
@@ -0,0 +1,91 @@
+package com.mpi.aivango_backend;
+
+import com.mpi.aivango_backend.dto.fight.FightResultRequest;
+import com.mpi.aivango_backend.models.fight.FightHistory;
+import com.mpi.aivango_backend.models.fight.FightRound;
+import com.mpi.aivango_backend.models.user.UserAccount;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Судьи вводят результаты всех боёв раунда одновременно: ни одно продвижение в следующий матч
+ * и ни одно место в бою за бронзу не теряется
+ */
+public class FightResultConcurrencyTest extends BracketTestSupport {
+
+    private static final int KNIGHTS = 32;
+    private static final int JUDGES = 8;
+
+    @Test
+    void recordFightResult_WholeRoundInParallel_NoPromotionLost() throws Exception {
+        Long tournamentId = tournamentWithBracket(KNIGHTS);
+        Long anyFightId = fightHistoryRepository.findByTournamentId(tournamentId).get(0).getId();
+
+        int rounds = Integer.numberOfTrailingZeros(KNIGHTS);
+        ExecutorService judges = Executors.newFixedThreadPool(JUDGES);
+        try {
+            for (int round = 1; round <= rounds; round++) {
+                // Последний раунд — финал и бой за бронзу одновременно
+                List<FightHistory> fights = roundFights(anyFightId, round);
+                Map<Long, Long> expectedWinners = new HashMap<>();
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> results = new ArrayList<>();
+                for (FightHistory fight : fights) {
+                    UserAccount winner = fight.getBracketPosition() % 2 == 0 ? fight.getFighter1() : fight.getFighter2();
+                    assertNotNull(winner, "Бой " + fight.getId() + " раунда " + round + " без участника");
+                    expectedWinners.put(fight.getId(), winner.getId());
+                    results.add(judges.submit(() -> {
+                        start.await();
+                        fightResultService.recordFightResult(fight.getId(), new FightResultRequest(winner.getId(), null));
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> result : results) {
+                    result.get();
+                }
+
+                for (FightHistory fight : fightHistoryRepository.findBracketByFightId(anyFightId)) {
+                    if (expectedWinners.containsKey(fight.getId())) {
+                        assertEquals(expectedWinners.get(fight.getId()), fight.getWinner().getId());
+                    }
+                    if (fight.getRoundNumber() == round + 1 || (round == rounds - 1 && fight.getRound() == FightRound.BRONZE)) {
+                        assertNotNull(fight.getFighter1(), "Потеряно продвижение в бой " + fight.getId());
+                        assertNotNull(fight.getFighter2(), "Потеряно продвижение в бой " + fight.getId());
+                    }
+                }
+            }
+        } finally {
+            judges.shutdownNow();
+        }
+
+        // Все победители дошли до своих мест: каждый бой следующего раунда собран из двух соседних
+        List<FightHistory> bracket = fightHistoryRepository.findBracketByFightId(anyFightId);
+        Map<Long, FightHistory> byId = new HashMap<>();
+        bracket.forEach(fight -> byId.put(fight.getId(), fight));
+        for (FightHistory fight : bracket) {
+            if (fight.getNextMatchId() == null) {
+                continue;
+            }
+            FightHistory next = byId.get(fight.getNextMatchId());
+            UserAccount slot = fight.getBracketPosition() % 2 == 0 ? next.getFighter1() : next.getFighter2();
+            assertEquals(fight.getWinner().getId(), slot.getId());
+        }
+    }
+
+    private List<FightHistory> roundFights(Long anyFightId, int round) {
+        return fightHistoryRepository.findBracketByFightId(anyFightId).stream()
+                .filter(fight -> fight.getRoundNumber() == round)
+                .toList();
+    }
+}
@@ -0,0 +1,217 @@
+package com.mpi.aivango_backend;
+
+import com.mpi.aivango_backend.dto.fight.FightResultRequest;
+import com.mpi.aivango_backend.dto.fight.RoundResultsRequest;
+import com.mpi.aivango_backend.dto.fight.ScheduleShiftRequest;
+import com.mpi.aivango_backend.models.fight.FightHistory;
+import com.mpi.aivango_backend.models.fight.FightRound;
+import com.mpi.aivango_backend.models.user.UserAccount;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Запись результата боя — как одного, так и целого раунда — не зависит от размера сетки:
+ * одна выборка сетки и одна пачка UPDATE. Перенос расписания — одна выборка и один UPDATE
+ */
+public class FightResultQueryCountTest extends BracketTestSupport {
+
+    private static final long MAX_STATEMENTS = 2;
+
+    @Test
+    void recordFightResult_16And1024Knights_SameConstantQueryCount() {
+        for (int knights : new int[]{16, 1024}) {
+            Long tournamentId = tournamentWithBracket(knights);
+            List<FightHistory> firstRound = round(tournamentId, 1);
+
+            // Два соседних боя первого раунда выводят победителей в один матч второго
+            FightHistory left = firstRound.get(0);
+            FightHistory right = firstRound.get(1);
+            long statements = record(left, left.getFighter2().getId());
+            assertTrue(statements <= MAX_STATEMENTS, knights + " рыцарей: " + statements + " запросов");
+            statements = record(right, right.getFighter1().getId());
+            assertTrue(statements <= MAX_STATEMENTS, knights + " рыцарей: " + statements + " запросов");
+
+            FightHistory next = fightHistoryRepository.findById(left.getNextMatchId()).orElseThrow();
+            assertEquals(left.getFighter2().getId(), next.getFighter1().getId());
+            assertEquals(right.getFighter1().getId(), next.getFighter2().getId());
+        }
+    }
+
+    @Test
+    void recordFightResult_Semifinals_LosersMeetInBronzeFight() {
+        Long tournamentId = tournamentWithBracket(4);
+        List<FightHistory> semifinals = round(tournamentId, 1);
+        assertTrue(semifinals.stream().allMatch(f -> f.getRound() == FightRound.SEMIFINAL));
+
+        FightHistory first = semifinals.get(0);
+        FightHistory second = semifinals.get(1);
+        assertTrue(record(first, first.getFighter1().getId()) <= MAX_STATEMENTS);
+        assertTrue(record(second, second.getFighter2().getId()) <= MAX_STATEMENTS);
+
+        List<FightHistory> fights = fightHistoryRepository.findByTournamentId(tournamentId);
+        FightHistory bronze = fights.stream().filter(f -> f.getRound() == FightRound.BRONZE).findFirst().orElseThrow();
+        FightHistory fin = fights.stream().filter(f -> f.getRound() == FightRound.FINAL).findFirst().orElseThrow();
+        assertEquals(first.getFighter2().getId(), bronze.getFighter1().getId());
+        assertEquals(second.getFighter1().getId(), bronze.getFighter2().getId());
+        assertEquals(first.getFighter1().getId(), fin.getFighter1().getId());
+        assertEquals(second.getFighter2().getId(), fin.getFighter2().getId());
+
+        // Повторный ввод результата заменяет победителя на его месте, а не занимает соседнее
+        record(first, first.getFighter2().getId());
+        fin = fightHistoryRepository.findById(fin.getId()).orElseThrow();
+        bronze = fightHistoryRepository.findById(bronze.getId()).orElseThrow();
+        assertEquals(first.getFighter2().getId(), fin.getFighter1().getId());
+        assertEquals(second.getFighter2().getId(), fin.getFighter2().getId());
+        assertEquals(first.getFighter1().getId(), bronze.getFighter1().getId());
+    }
+
+    @Test
+    void recordRoundResults_WholeFirstRound_OneSelectOneBatchAndMailsAfterCommit() {
+        Long tournamentId = tournamentWithBracket(16);
+        List<FightHistory> firstRound = round(tournamentId, 1);
+        List<RoundResultsRequest.Result> results = firstRound.stream()
+                .map(fight -> new RoundResultsRequest.Result(fight.getId(), fight.getFighter1().getId(), null))
+                .toList();
+
+        statistics.clear();
+        fightResultService.recordRoundResults(tournamentId, new RoundResultsRequest(results));
+        assertTrue(statistics.getPrepareStatementCount() <= MAX_STATEMENTS,
+                "Раунд из 8 боёв: " + statistics.getPrepareStatementCount() + " запросов");
+
+        List<FightHistory> secondRound = round(tournamentId, 2);
+        assertEquals(4, secondRound.size());
+        assertTrue(secondRound.stream().allMatch(f -> f.getFighter1() != null && f.getFighter2() != null));
+        // Победителю и проигравшему каждого боя
+        verify(emailSendService, timeout(5000).times(16)).sendHtmlEmail(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void recordRoundResults_OneInvalid_NothingRecorded() {
+        Long tournamentId = tournamentWithBracket(16);
+        Long otherTournamentId = tournamentWithBracket(4);
+        List<FightHistory> firstRound = round(tournamentId, 1);
+        FightHistory foreign = round(otherTournamentId, 1).get(0);
+
+        List<RoundResultsRequest.Result> results = new ArrayList<>(firstRound.stream()
+                .map(fight -> new RoundResultsRequest.Result(fight.getId(), fight.getFighter1().getId(), null))
+                .toList());
+        results.add(new RoundResultsRequest.Result(foreign.getId(), foreign.getFighter1().getId(), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> fightResultService.recordRoundResults(tournamentId, new RoundResultsRequest(results)));
+
+        RoundResultsRequest duplicate = new RoundResultsRequest(List.of(results.get(0), results.get(0)));
+        assertThrows(IllegalArgumentException.class,
+                () -> fightResultService.recordRoundResults(tournamentId, duplicate));
+
+        assertTrue(fightHistoryRepository.findByTournamentId(tournamentId).stream().allMatch(f -> f.getWinner() == null));
+        verifyNoInteractions(emailSendService);
+    }
+
+    @Test
+    void recordFightResult_WinnerNotInFight_Rejected() {
+        Long tournamentId = tournamentWithBracket(4);
+        FightHistory semifinal = round(tournamentId, 1).get(0);
+
+        assertThrows(IllegalArgumentException.class, () -> fightResultService.recordFightResult(semifinal.getId(),
+                new FightResultRequest(organizer.getId(), null)));
+        assertThrows(IllegalArgumentException.class, () -> fightResultService.recordFightResult(-1L,
+                new FightResultRequest(organizer.getId(), null)));
+    }
+
+    @Test
+    void recordFightResult_OpponentNotYetKnown_RejectedExceptSingleKnightFinal() {
+        // Из трёх рыцарей один проходит в финал без боя и ждёт победителя полуфинала
+        Long tournamentId = tournamentWithBracket(3);
+        FightHistory pendingFinal = round(tournamentId, 2).get(0);
+        UserAccount waiting = pendingFinal.getFighter1() != null ? pendingFinal.getFighter1() : pendingFinal.getFighter2();
+        assertThrows(IllegalArgumentException.class, () -> fightResultService.recordFightResult(pendingFinal.getId(),
+                new FightResultRequest(waiting.getId(), null)));
+        assertNull(fightHistoryRepository.findById(pendingFinal.getId()).orElseThrow().getWinner());
+
+        FightHistory soloFinal = round(tournamentWithBracket(1), 1).get(0);
+        record(soloFinal, soloFinal.getFighter1().getId());
+        assertEquals(soloFinal.getFighter1().getId(),
+                fightHistoryRepository.findBracketByFightId(soloFinal.getId()).get(0).getWinner().getId());
+    }
+
+    @Test
+    void shiftSchedule_RainDelayFromSecondRound_OneSelectOneUpdateOneDigestPerKnight() {
+        Long tournamentId = tournamentWithBracket(16);
+        List<FightHistory> firstRound = round(tournamentId, 1);
+        fightResultService.recordRoundResults(tournamentId, new RoundResultsRequest(firstRound.stream()
+                .map(fight -> new RoundResultsRequest.Result(fight.getId(), fight.getFighter1().getId(), null))
+                .toList()));
+        Map<Long, LocalDateTime> before = dates(tournamentId);
+        LocalDateTime secondRoundStart = round(tournamentId, 2).stream()
+                .map(FightHistory::getFightDate).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime newStart = secondRoundStart.plusDays(1);
+        clearInvocations(emailSendService, eventPublisher);
+
+        statistics.clear();
+        int shifted = new TransactionTemplate(transactionManager).execute(status -> fightResultService.shiftSchedule(
+                tournamentId, ScheduleShiftRequest.builder().from(secondRoundStart).newStart(newStart).build(),
+                organizer.getId()));
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        // Бои второго раунда и дальше, включая бронзу; сыгранный первый раунд на месте
+        assertEquals(8, shifted);
+        dates(tournamentId).forEach((id, date) -> assertEquals(
+                firstRound.stream().anyMatch(f -> f.getId().equals(id)) ? before.get(id) : before.get(id).plusDays(1),
+                date));
+        verify(eventPublisher, times(1)).publishEvent(any(Object.class));
+        // Во втором раунде известны 8 победителей первого — по письму каждому
+        verify(emailSendService, timeout(5000).times(8)).sendHtmlEmail(anyString(), eq("Изменение расписания турнира"), anyString());
+    }
+
+    @Test
+    void shiftSchedule_RoundWithoutDependents_Rejected() {
+        Long tournamentId = tournamentWithBracket(16);
+        Map<Long, LocalDateTime> before = dates(tournamentId);
+
+        // Первый раунд на час позже — участникам второго раунда не хватит отдыха
+        ScheduleShiftRequest request = ScheduleShiftRequest.builder().roundNumber(1).offsetMinutes(60L).build();
+        assertThrows(IllegalArgumentException.class, () -> new TransactionTemplate(transactionManager).execute(
+                status -> fightResultService.shiftSchedule(tournamentId, request, organizer.getId())));
+        ScheduleShiftRequest both = ScheduleShiftRequest.builder().roundNumber(1).offsetMinutes(60L)
+                .newStart(LocalDateTime.now()).build();
+        assertThrows(IllegalArgumentException.class, () -> new TransactionTemplate(transactionManager).execute(
+                status -> fightResultService.shiftSchedule(tournamentId, both, organizer.getId())));
+
+        assertEquals(before, dates(tournamentId));
+        verifyNoInteractions(emailSendService);
+    }
+
+    private Map<Long, LocalDateTime> dates(Long tournamentId) {
+        return fightHistoryRepository.findByTournamentId(tournamentId).stream()
+                .collect(Collectors.toMap(FightHistory::getId, FightHistory::getFightDate));
+    }
+
+    private long record(FightHistory fight, Long winnerId) {
+        statistics.clear();
+        fightResultService.recordFightResult(fight.getId(), new FightResultRequest(winnerId, "Чистая победа"));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<FightHistory> round(Long tournamentId, int roundNumber) {
+        // Выборка сетки подтягивает участников, которые иначе грузятся лениво
+        Long anyFightId = fightHistoryRepository.findByTournamentId(tournamentId).get(0).getId();
+        return fightHistoryRepository.findBracketByFightId(anyFightId).stream()
+                .filter(f -> f.getRoundNumber() != null && f.getRoundNumber() == roundNumber)
+                .filter(f -> f.getRound() != FightRound.BRONZE)
+                .sorted(Comparator.comparing(FightHistory::getBracketPosition))
+                .toList();
+    }
+}
@@ -0,0 +1,271 @@
+package com.mpi.aivango_backend;
+
+import com.mpi.aivango_backend.models.fight.FightHistory;
+import com.mpi.aivango_backend.models.fight.FightRound;
+import com.mpi.aivango_backend.models.tournament.Location;
+import com.mpi.aivango_backend.services.fight.BracketGraph;
+import com.mpi.aivango_backend.services.fight.FightScheduler;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FightSchedulerTest {
+
+    private static final int FIGHT_MINUTES = 30;
+    private static final int REST_MINUTES = 60;
+    private static final LocalDateTime START = LocalDateTime.of(2026, 6, 1, 9, 0);
+
+    private final FightScheduler scheduler = new FightScheduler(FIGHT_MINUTES, REST_MINUTES, "10:00", "20:00");
+
+    private record Bracket(List<FightHistory> matches, Map<FightHistory, FightHistory> nextMatch) {
+    }
+
+    @Test
+    void plan_ThousandFights_UnderSecondWithoutConflicts() {
+        Bracket bracket = bracket(10); // 1024 участника: 1023 боя и бой за бронзу
+        List<Location> arenas = arenas(8);
+
+        long started = System.nanoTime();
+        scheduler.plan(bracket.matches(), bracket.nextMatch(), arenas, null, START);
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        assertEquals(1024, bracket.matches().size());
+        assertTrue(elapsedMs < 1000, "Расписание 1024 боёв заняло " + elapsedMs + " мс");
+        assertValid(bracket.matches());
+        // Первый раунд сразу занимает все арены
+        List<FightHistory> opening = bracket.matches().stream()
+                .filter(match -> match.getFightDate().equals(START.toLocalDate().atTime(10, 0)))
+                .toList();
+        assertEquals(arenas.size(), opening.size());
+        assertEquals(arenas.size(), opening.stream().map(match -> match.getLocation().getId()).distinct().count());
+    }
+
+    @Test
+    void plan_FinalArenaSet_FinalHeldThereAfterBronze() {
+        Bracket bracket = bracket(3);
+        Location finalArena = Location.builder().id(99L).name("Главная арена").build();
+
+        scheduler.plan(bracket.matches(), bracket.nextMatch(), arenas(2), finalArena, START);
+
+        assertValid(bracket.matches());
+        FightHistory finalMatch = find(bracket.matches(), FightRound.FINAL);
+        FightHistory bronze = find(bracket.matches(), FightRound.BRONZE);
+        assertEquals(99L, finalMatch.getLocation().getId());
+        assertNotEquals(99L, bronze.getLocation().getId());
+        assertFalse(finalMatch.getFightDate().isBefore(bronze.getFightDate()));
+    }
+
+    @Test
+    void plan_NoArenasSelected_SequentialOnSingleArena() {
+        Bracket bracket = bracket(2);
+
+        scheduler.plan(bracket.matches(), bracket.nextMatch(), Collections.singletonList(null), null, START);
+
+        assertValid(bracket.matches());
+        assertEquals(4, bracket.matches().stream().map(FightHistory::getFightDate).distinct().count());
+        assertTrue(bracket.matches().stream().allMatch(match -> match.getLocation() == null));
+    }
+
+    @Test
+    void replan_FightMovedLater_OnlyDependentsShifted() {
+        Bracket bracket = bracket(4);
+        scheduler.plan(bracket.matches(), bracket.nextMatch(), arenas(4), null, START);
+        Map<Long, LocalDateTime> before = dates(bracket.matches());
+        FightHistory moved = bracket.matches().get(0);
+        FightHistory next = bracket.nextMatch().get(moved);
+
+        moved.setFightDate(next.getFightDate().plusDays(1));
+        List<FightHistory> shifted = scheduler.replan(BracketGraph.of(bracket.matches()), moved);
+
+        assertValid(bracket.matches());
+        assertTrue(shifted.contains(next));
+        assertFalse(shifted.contains(moved));
+        // Сдвинуты только бои на пути перенесённого к финалу и бой за бронзу
+        for (FightHistory fight : shifted) {
+            assertTrue(isOnPathFrom(moved, fight, bracket) || fight.getRound() == FightRound.BRONZE,
+                    "Бой " + fight.getId() + " сдвинут без причины");
+            assertTrue(fight.getFightDate().isAfter(before.get(fight.getId())));
+        }
+        bracket.matches().stream()
+                .filter(fight -> fight != moved && !shifted.contains(fight))
+                .forEach(fight -> assertEquals(before.get(fight.getId()), fight.getFightDate()));
+    }
+
+    @Test
+    void replan_MovedOntoBusyArena_OtherFightGivesWay() {
+        Bracket bracket = bracket(3);
+        scheduler.plan(bracket.matches(), bracket.nextMatch(), arenas(1), null, START);
+        FightHistory first = bracket.matches().get(0);
+        FightHistory second = bracket.matches().get(1);
+        LocalDateTime secondStart = second.getFightDate();
+
+        first.setFightDate(secondStart);
+        List<FightHistory> shifted = scheduler.replan(BracketGraph.of(bracket.matches()), first);
+
+        assertTrue(shifted.contains(second));
+        assertFalse(second.getFightDate().isBefore(secondStart.plusMinutes(FIGHT_MINUTES)));
+        assertValid(bracket.matches());
+    }
+
+    @Test
+    void replan_BeforeParticipantsRested_Rejected() {
+        Bracket bracket = bracket(3);
+        scheduler.plan(bracket.matches(), bracket.nextMatch(), arenas(2), null, START);
+        FightHistory feeder = bracket.matches().get(0);
+        FightHistory next = bracket.nextMatch().get(feeder);
+
+        next.setFightDate(feeder.getFightDate().plusMinutes(FIGHT_MINUTES));
+
+        assertThrows(IllegalArgumentException.class, () -> scheduler.replan(BracketGraph.of(bracket.matches()), next));
+    }
+
+    @Test
+    void checkMoves_OutsideTournamentHoursOrInPast_Rejected() {
+        Bracket bracket = bracket(2);
+        scheduler.plan(bracket.matches(), bracket.nextMatch(), arenas(1), null, START);
+        BracketGraph graph = BracketGraph.of(bracket.matches());
+        FightHistory finalMatch = find(bracket.matches(), FightRound.FINAL);
+        LocalDateTime now = START.minusDays(1);
+
+        // Финал последний в расписании: на сутки позже можно, за конец дня или в прошлое — нет
+        scheduler.checkMoves(graph, Map.of(finalMatch.getId(), finalMatch.getFightDate().plusDays(1)), now);
+        LocalDateTime evening = finalMatch.getFightDate().toLocalDate().atTime(19, 45);
+        assertThrows(IllegalArgumentException.class,
+                () -> scheduler.checkMoves(graph, Map.of(finalMatch.getId(), evening), now));
+        LocalDateTime night = finalMatch.getFightDate().toLocalDate().plusDays(1).atTime(3, 0);
+        assertThrows(IllegalArgumentException.class,
+                () -> scheduler.checkMoves(graph, Map.of(finalMatch.getId(), night), now));
+        assertThrows(IllegalArgumentException.class, () -> scheduler.checkMoves(graph,
+                Map.of(finalMatch.getId(), finalMatch.getFightDate().plusDays(1)), finalMatch.getFightDate().plusDays(2)));
+    }
+
+    @Test
+    void replan_LargeBracket_Fast() {
+        Bracket bracket = bracket(10);
+        scheduler.plan(bracket.matches(), bracket.nextMatch(), arenas(8), null, START);
+        FightHistory moved = bracket.matches().get(0);
+        moved.setFightDate(moved.getFightDate().plusDays(1));
+
+        long started = System.nanoTime();
+        scheduler.replan(BracketGraph.of(bracket.matches()), moved);
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        assertTrue(elapsedMs < 1000, "Перепланирование заняло " + elapsedMs + " мс");
+        assertValid(bracket.matches());
+    }
+
+    /**
+     * Бои на одной арене не пересекаются, идут в турнирные часы, участники успевают отдохнуть
+     */
+    private static void assertValid(List<FightHistory> matches) {
+        Map<Long, List<FightHistory>> byArena = matches.stream().collect(Collectors.groupingBy(
+                match -> match.getLocation() != null ? match.getLocation().getId() : 0L));
+        for (List<FightHistory> arenaFights : byArena.values()) {
+            arenaFights.sort(Comparator.comparing(FightHistory::getFightDate));
+            for (int i = 1; i < arenaFights.size(); i++) {
+                assertFalse(arenaFights.get(i).getFightDate()
+                                .isBefore(arenaFights.get(i - 1).getFightDate().plusMinutes(FIGHT_MINUTES)),
+                        "Бои " + arenaFights.get(i - 1).getId() + " и " + arenaFights.get(i).getId() + " пересекаются на арене");
+            }
+        }
+
+        Map<Long, FightHistory> byId = new HashMap<>();
+        matches.forEach(match -> byId.put(match.getId(), match));
+        FightHistory bronze = matches.stream().filter(m -> m.getRound() == FightRound.BRONZE).findFirst().orElse(null);
+        for (FightHistory match : matches) {
+            LocalTime time = match.getFightDate().toLocalTime();
+            assertFalse(time.isBefore(LocalTime.of(10, 0)));
+            assertFalse(time.plusMinutes(FIGHT_MINUTES).isAfter(LocalTime.of(20, 0)));
+
+            List<FightHistory> dependents = new ArrayList<>();
+            if (match.getNextMatchId() != null) {
+                dependents.add(byId.get(match.getNextMatchId()));
+            }
+            if (match.getRound() == FightRound.SEMIFINAL && bronze != null) {
+                dependents.add(bronze);
+            }
+            LocalDateTime rested = match.getFightDate().plusMinutes(FIGHT_MINUTES + REST_MINUTES);
+            for (FightHistory dependent : dependents) {
+                assertFalse(dependent.getFightDate().isBefore(rested),
+                        "Бой " + dependent.getId() + " начинается до отдыха после боя " + match.getId());
+            }
+        }
+    }
+
+    private static boolean isOnPathFrom(FightHistory from, FightHistory fight, Bracket bracket) {
+        for (FightHistory current = bracket.nextMatch().get(from); current != null; current = bracket.nextMatch().get(current)) {
+            if (current == fight) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Полная сетка на 2^rounds участников с боем за бронзу, связи — как при сохранении
+     */
+    private static Bracket bracket(int rounds) {
+        List<FightHistory> matches = new ArrayList<>();
+        Map<FightHistory, FightHistory> nextMatch = new IdentityHashMap<>();
+        List<List<FightHistory>> tree = new ArrayList<>();
+        long id = 1;
+        for (int round = 1; round <= rounds; round++) {
+            int count = 1 << (rounds - round);
+            List<FightHistory> roundMatches = new ArrayList<>(count);
+            for (int position = 0; position < count; position++) {
+                roundMatches.add(FightHistory.builder()
+                        .id(id++)
+                        .round(FightRound.forMatchesInRound(count))
+                        .roundNumber(round)
+                        .bracketPosition(position)
+                        .fightDate(START)
+                        .build());
+            }
+            tree.add(roundMatches);
+            matches.addAll(roundMatches);
+        }
+        for (int round = 0; round < rounds - 1; round++) {
+            for (FightHistory match : tree.get(round)) {
+                FightHistory next = tree.get(round + 1).get(match.getBracketPosition() / 2);
+                match.setNextMatchId(next.getId());
+                nextMatch.put(match, next);
+            }
+        }
+        if (rounds >= 2) {
+            matches.add(FightHistory.builder()
+                    .id(id)
+                    .round(FightRound.BRONZE)
+                    .roundNumber(rounds)
+                    .bracketPosition(1)
+                    .fightDate(START)
+                    .build());
+        }
+        return new Bracket(matches, nextMatch);
+    }
+
+    private static List<Location> arenas(int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(i -> Location.builder().id((long) i).name("Арена " + i).build())
+                .toList();
+    }
+
+    private static FightHistory find(List<FightHistory> matches, FightRound round) {
+        return matches.stream().filter(match -> match.getRound() == round).findFirst().orElseThrow();
+    }
+
+    private static Map<Long, LocalDateTime> dates(List<FightHistory> matches) {
+        return matches.stream().collect(Collectors.toMap(FightHistory::getId, FightHistory::getFightDate));
+    }
+}
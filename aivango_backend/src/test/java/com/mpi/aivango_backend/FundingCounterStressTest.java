@@ -0,0 +1,190 @@
+package com.mpi.aivango_backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mpi.aivango_backend.dto.sponsorship.FundingProgressDTO;
+import com.mpi.aivango_backend.models.sponsorship.Sponsorship;
+import com.mpi.aivango_backend.models.sponsorship.SponsorshipPackage;
+import com.mpi.aivango_backend.models.sponsorship.SponsorshipStatus;
+import com.mpi.aivango_backend.models.tournament.Tournament;
+import com.mpi.aivango_backend.models.tournament.TournamentStatus;
+import com.mpi.aivango_backend.models.user.UserAccount;
+import com.mpi.aivango_backend.repository.SponsorshipRepository;
+import com.mpi.aivango_backend.repository.TournamentRepository;
+import com.mpi.aivango_backend.repository.UserRepository;
+import com.mpi.aivango_backend.services.sponsorship.FundingProgressTracker;
+import com.mpi.aivango_backend.services.sponsorship.SponsorshipConfirmedEvent;
+import com.mpi.aivango_backend.services.stream.SseHub;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Параллельные спонсоры одного турнира: сбор не превышает цель больше чем на один взнос,
+ * каждый зачтённый взнос учтён, статус переходит в KNIGHT_REGISTRATION ровно один раз
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:funding;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database=H2",
+        "spring.jpa.show-sql=false"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class FundingCounterStressTest {
+
+    private static final int SPONSORS = 200;
+    private static final BigDecimal REQUIRED = new BigDecimal("10000.00");
+
+    @Autowired
+    private TournamentRepository tournamentRepository;
+
+    @Autowired
+    private SponsorshipRepository sponsorshipRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        sponsorshipRepository.deleteAll();
+        tournamentRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void addFunding_ConcurrentSponsors_NoOvershootAndSingleTransition() throws Exception {
+        Long tournamentId = tournamentRepository.save(Tournament.builder()
+                .name("Funding")
+                .requiredAmount(REQUIRED)
+                .tournamentStatus(TournamentStatus.WAITING_DONATION)
+                .build()).getId();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger acceptedCount = new AtomicInteger();
+        List<Future<BigDecimal>> results = new ArrayList<>();
+        for (int i = 0; i < SPONSORS; i++) {
+            // Взносы 100, 250.50, 500 и 999.99 вперемешку
+            BigDecimal amount = new BigDecimal(new String[]{"100.00", "250.50", "500.00", "999.99"}[i % 4]);
+            results.add(pool.submit(() -> {
+                start.await();
+                Integer updated = tx.execute(status -> tournamentRepository.addFunding(tournamentId, amount));
+                if (updated != null && updated == 1) {
+                    acceptedCount.incrementAndGet();
+                    return amount;
+                }
+                return BigDecimal.ZERO;
+            }));
+        }
+        start.countDown();
+        BigDecimal accepted = BigDecimal.ZERO;
+        for (Future<BigDecimal> result : results) {
+            accepted = accepted.add(result.get());
+        }
+        pool.shutdown();
+
+        Tournament tournament = tournamentRepository.findById(tournamentId).orElseThrow();
+        assertEquals(TournamentStatus.KNIGHT_REGISTRATION, tournament.getTournamentStatus());
+        // Сумма в копейках совпадает точно, без допуска на погрешность
+        assertEquals(0, accepted.compareTo(tournament.getCollectedAmount()));
+        assertTrue(tournament.getCollectedAmount().compareTo(REQUIRED) >= 0);
+        // Последний зачтённый взнос мог перекрыть цель, но не больше, чем на один взнос
+        assertTrue(tournament.getCollectedAmount().compareTo(REQUIRED.add(new BigDecimal("1000"))) < 0);
+        assertTrue(acceptedCount.get() < SPONSORS);
+
+        // Сбор закрыт — новые взносы не принимаются
+        Integer closed = tx.execute(status -> tournamentRepository.addFunding(tournamentId, new BigDecimal("100.00")));
+        assertEquals(0, closed);
+    }
+
+    @Test
+    void snapshot_SeededWhileConfirmationInFlight_ContributionCountedOnce() throws Exception {
+        Tournament tournament = tournamentRepository.save(Tournament.builder()
+                .name("Live funding")
+                .requiredAmount(REQUIRED)
+                .tournamentStatus(TournamentStatus.WAITING_DONATION)
+                .build());
+        UserAccount sponsor = userRepository.save(new UserAccount(null, "sponsor@example.com", "Sponsor", "Sponsor", false));
+        FundingProgressTracker tracker = new FundingProgressTracker(sponsorshipRepository, tournamentRepository,
+                new SseHub(new ObjectMapper()), transactionManager);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        CountDownLatch funded = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        // Взнос зачтён, событие уже отработало, но транзакция ещё не зафиксирована
+        Future<?> confirmation = pool.submit(() -> tx.executeWithoutResult(status -> {
+            confirm(tracker, tournament, sponsor, new BigDecimal("500.00"));
+            funded.countDown();
+            try {
+                commit.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(funded.await(10, TimeUnit.SECONDS));
+
+        // Первое обращение к прогрессу ждёт строку турнира, занятую зачитывающей транзакцией
+        Future<FundingProgressDTO> seeded = pool.submit(() -> tracker.snapshot(tournament.getId()));
+        Thread.sleep(300);
+        assertFalse(seeded.isDone());
+        commit.countDown();
+        confirmation.get(10, TimeUnit.SECONDS);
+        assertEquals(new BigDecimal("500.00"), seeded.get(10, TimeUnit.SECONDS).getCollectedAmount());
+        pool.shutdown();
+
+        // Следующий взнос приходит уже в загруженный счётчик
+        tx.executeWithoutResult(status -> confirm(tracker, tournament, sponsor, new BigDecimal("250.50")));
+
+        FundingProgressDTO progress = tracker.snapshot(tournament.getId());
+        Tournament stored = tournamentRepository.findById(tournament.getId()).orElseThrow();
+        assertEquals(0, stored.getCollectedAmount().compareTo(progress.getCollectedAmount()));
+        assertEquals(new BigDecimal("750.50"), progress.getCollectedAmount());
+        assertEquals(2, progress.getSponsorsCount());
+    }
+
+    /** Зачесть взнос так же, как подтверждение платежа: событие обрабатывается перед фиксацией */
+    private void confirm(FundingProgressTracker tracker, Tournament tournament, UserAccount sponsor, BigDecimal amount) {
+        assertEquals(1, tournamentRepository.addFunding(tournament.getId(), amount));
+        sponsorshipRepository.save(Sponsorship.builder()
+                .sponsor(sponsor)
+                .tournament(tournament)
+                .packageType(SponsorshipPackage.values()[0])
+                .amount(amount)
+                .createdAt(LocalDateTime.now())
+                .status(SponsorshipStatus.CONFIRMED)
+                .build());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                tracker.onSponsorshipConfirmed(new SponsorshipConfirmedEvent(tournament.getId(), amount));
+            }
+        });
+    }
+}
@@ -0,0 +1,127 @@
+package com.mpi.aivango_backend;
+
+import com.mpi.aivango_backend.dto.sponsorship.FundingProgressDTO;
+import com.mpi.aivango_backend.dto.sponsorship.FundingTotalView;
+import com.mpi.aivango_backend.models.tournament.Tournament;
+import com.mpi.aivango_backend.models.tournament.TournamentStatus;
+import com.mpi.aivango_backend.repository.SponsorshipRepository;
+import com.mpi.aivango_backend.repository.TournamentRepository;
+import com.mpi.aivango_backend.services.sponsorship.FundingProgressTracker;
+import com.mpi.aivango_backend.services.sponsorship.SponsorshipConfirmedEvent;
+import com.mpi.aivango_backend.services.stream.SseHub;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FundingProgressTrackerTest {
+
+    @Mock
+    private SponsorshipRepository sponsorshipRepository;
+
+    @Mock
+    private TournamentRepository tournamentRepository;
+
+    @Mock
+    private SseHub sseHub;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private FundingProgressTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        Tournament tournament = Tournament.builder()
+                .id(1L)
+                .requiredAmount(new BigDecimal("50000.00"))
+                .tournamentStatus(TournamentStatus.WAITING_DONATION)
+                .build();
+        when(tournamentRepository.findByTournamentStatusForUpdate(TournamentStatus.WAITING_DONATION)).thenReturn(List.of(tournament));
+        when(sponsorshipRepository.sumConfirmedByTournamentIds(List.of(1L))).thenReturn(List.of(total(1L, "20000.00", 2L)));
+        tracker.loadCollectingTournaments();
+    }
+
+    @Test
+    void confirmedSponsorships_CoalescedIntoOneUpdateWithoutQueries() {
+        clearInvocations(sponsorshipRepository, tournamentRepository);
+        when(sseHub.hasSubscribers("funding:1")).thenReturn(true);
+
+        for (int i = 0; i < 10; i++) {
+            tracker.onSponsorshipConfirmed(new SponsorshipConfirmedEvent(1L, new BigDecimal("1000.10")));
+        }
+        tracker.publishChanges();
+        tracker.publishChanges();
+
+        ArgumentCaptor<Object> published = ArgumentCaptor.forClass(Object.class);
+        verify(sseHub, times(1)).publish(eq("funding:1"), eq("funding"), published.capture());
+        FundingProgressDTO progress = (FundingProgressDTO) published.getValue();
+        assertEquals(new BigDecimal("30001.00"), progress.getCollectedAmount());
+        assertEquals(12, progress.getSponsorsCount());
+        assertEquals(60, progress.getPercent());
+        assertFalse(progress.isGoalReached());
+
+        assertEquals(progress.getCollectedAmount(), tracker.snapshot(1L).getCollectedAmount());
+        verifyNoInteractions(sponsorshipRepository, tournamentRepository);
+    }
+
+    @Test
+    void goalReached_FinalSnapshotPublishedAndTournamentUnloaded() {
+        tracker.onSponsorshipConfirmed(new SponsorshipConfirmedEvent(1L, new BigDecimal("30000.00")));
+        tracker.publishChanges();
+        verify(sseHub, never()).publish(anyString(), anyString(), any());
+
+        // Следующее обращение поднимает итог из БД заново
+        Tournament funded = Tournament.builder().id(1L).requiredAmount(new BigDecimal("50000.00"))
+                .tournamentStatus(TournamentStatus.KNIGHT_REGISTRATION).build();
+        when(tournamentRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(funded));
+        when(sponsorshipRepository.sumConfirmedByTournamentIds(List.of(1L))).thenReturn(List.of(total(1L, "50000.00", 3L)));
+
+        FundingProgressDTO progress = tracker.snapshot(1L);
+        assertTrue(progress.isGoalReached());
+        assertEquals(100, progress.getPercent());
+        verify(tournamentRepository).findByIdForUpdate(1L);
+
+        // Сбор окончен — каждый запрос читает итог из БД, турнир в памяти не остаётся
+        tracker.snapshot(1L);
+        verify(tournamentRepository, times(2)).findByIdForUpdate(1L);
+        tracker.onSponsorshipConfirmed(new SponsorshipConfirmedEvent(1L, new BigDecimal("100.00")));
+        tracker.publishChanges();
+        verify(sseHub, never()).publish(anyString(), anyString(), any());
+    }
+
+    @Test
+    void snapshot_UnknownTournament_RejectedAndNotCached() {
+        when(tournamentRepository.findByIdForUpdate(2L)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> tracker.snapshot(2L));
+        assertThrows(IllegalArgumentException.class, () -> tracker.snapshot(2L));
+        verify(tournamentRepository, times(2)).findByIdForUpdate(2L);
+    }
+
+    private FundingTotalView total(Long tournamentId, String collected, long sponsors) {
+        return new FundingTotalView() {
+            public Long getTournamentId() { return tournamentId; }
+            public BigDecimal getCollected() { return new BigDecimal(collected); }
+            public Long getSponsors() { return sponsors; }
+        };
+    }
+}
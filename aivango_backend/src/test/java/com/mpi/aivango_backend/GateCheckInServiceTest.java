@@ -0,0 +1,256 @@
+package com.mpi.aivango_backend;
+
+import com.mpi.aivango_backend.dto.ticket.CheckInResultDTO;
+import com.mpi.aivango_backend.dto.ticket.GateStatsDTO;
+import com.mpi.aivango_backend.dto.ticket.ScanLogResultDTO;
+import com.mpi.aivango_backend.dto.ticket.ScanLogUploadRequest;
+import com.mpi.aivango_backend.dto.ticket.TicketCodeView;
+import com.mpi.aivango_backend.models.ticket.CheckInStatus;
+import com.mpi.aivango_backend.models.tournament.Tournament;
+import com.mpi.aivango_backend.models.tournament.TournamentStatus;
+import com.mpi.aivango_backend.models.user.UserAccount;
+import com.mpi.aivango_backend.repository.TicketRepository;
+import com.mpi.aivango_backend.repository.TournamentRepository;
+import com.mpi.aivango_backend.services.checkin.GateCheckInService;
+import com.mpi.aivango_backend.services.ticket.SpectatorsChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class GateCheckInServiceTest {
+
+    private static final String ORGANIZER_EMAIL = "organizer@example.com";
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private TournamentRepository tournamentRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private GateCheckInService gateCheckInService;
+
+    @BeforeEach
+    void setUp() {
+        Tournament tournament = Tournament.builder()
+                .id(1L)
+                .name("Test Tournament")
+                .tournamentStatus(TournamentStatus.ACTIVE)
+                .userAccount(new UserAccount(1L, ORGANIZER_EMAIL, "Organizer", "Org", true))
+                .build();
+        when(tournamentRepository.findById(1L)).thenReturn(Optional.of(tournament));
+    }
+
+    @Test
+    void checkIn_SameCodeTwice_SecondScanReportsFirstEntry() {
+        when(ticketRepository.findCodesByTournamentId(1L)).thenReturn(List.of(ticket(10L, "code-10", 3)));
+        gateCheckInService.openGate(1L, 1L);
+
+        CheckInResultDTO first = gateCheckInService.checkIn(1L, "code-10", ORGANIZER_EMAIL);
+        CheckInResultDTO second = gateCheckInService.checkIn(1L, "code-10", ORGANIZER_EMAIL);
+
+        assertEquals(CheckInStatus.ADMITTED, first.getStatus());
+        assertEquals(3, first.getSeatsCount());
+        assertEquals(CheckInStatus.ALREADY_CHECKED_IN, second.getStatus());
+        assertEquals(first.getCheckedInAt(), second.getCheckedInAt());
+    }
+
+    @Test
+    void checkIn_UnknownCodeAndClosedGate() {
+        assertEquals(CheckInStatus.GATE_CLOSED,
+                gateCheckInService.checkIn(1L, "code-10", ORGANIZER_EMAIL).getStatus());
+
+        when(ticketRepository.findCodesByTournamentId(1L)).thenReturn(List.of(ticket(10L, "code-10", 1)));
+        gateCheckInService.openGate(1L, 1L);
+
+        assertEquals(CheckInStatus.UNKNOWN_CODE,
+                gateCheckInService.checkIn(1L, "forged", ORGANIZER_EMAIL).getStatus());
+        assertThrows(IllegalArgumentException.class,
+                () -> gateCheckInService.checkIn(1L, "code-10", "stranger@example.com"));
+    }
+
+    @Test
+    void checkIn_ParallelScanners_EachTicketAdmittedOnceAndFlushedInBatches() throws Exception {
+        int ticketCount = 2000;
+        List<TicketCodeView> tickets = new ArrayList<>();
+        for (long i = 1; i <= ticketCount; i++) {
+            tickets.add(ticket(i, "code-" + i, 1));
+        }
+        when(ticketRepository.findCodesByTournamentId(1L)).thenReturn(tickets);
+        gateCheckInService.openGate(1L, 1L);
+
+        // Восемь сканеров одновременно прогоняют все коды — каждый код сканируется 8 раз
+        int scanners = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(scanners);
+        CountDownLatch start = new CountDownLatch(1);
+        ConcurrentLinkedQueue<CheckInResultDTO> results = new ConcurrentLinkedQueue<>();
+        for (int s = 0; s < scanners; s++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 1; i <= ticketCount; i++) {
+                    results.add(gateCheckInService.checkIn(1L, "code-" + i, ORGANIZER_EMAIL));
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        long admitted = results.stream().filter(r -> r.getStatus() == CheckInStatus.ADMITTED).count();
+        assertEquals(ticketCount, admitted);
+
+        GateStatsDTO stats = gateCheckInService.getStats(1L, ORGANIZER_EMAIL);
+        assertEquals(ticketCount, stats.getAdmitted());
+        assertEquals((long) ticketCount * (scanners - 1), stats.getDuplicateScans());
+        assertEquals(ticketCount, stats.getPendingFlush());
+
+        gateCheckInService.flushPendingCheckIns();
+
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(4)).batchUpdate(anyString(), batches.capture());
+        assertEquals(ticketCount, batches.getAllValues().stream().mapToInt(List::size).sum());
+        assertEquals(0, gateCheckInService.getStats(1L, ORGANIZER_EMAIL).getPendingFlush());
+    }
+
+    @Test
+    void flush_DatabaseFailure_CheckInsAreRetried() {
+        when(ticketRepository.findCodesByTournamentId(1L)).thenReturn(List.of(ticket(10L, "code-10", 1)));
+        gateCheckInService.openGate(1L, 1L);
+        gateCheckInService.checkIn(1L, "code-10", ORGANIZER_EMAIL);
+
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new RuntimeException("db down"));
+        gateCheckInService.flushPendingCheckIns();
+        assertEquals(1, gateCheckInService.getStats(1L, ORGANIZER_EMAIL).getPendingFlush());
+
+        reset(jdbcTemplate);
+        gateCheckInService.flushPendingCheckIns();
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+        assertEquals(0, gateCheckInService.getStats(1L, ORGANIZER_EMAIL).getPendingFlush());
+    }
+
+    @Test
+    void applyScanLog_GateClosed_EarliestScanWinsAndIsWrittenImmediately() {
+        when(ticketRepository.findCodesByTournamentId(1L)).thenReturn(List.of(ticket(10L, "code-10", 2)));
+        LocalDateTime early = LocalDateTime.of(2026, 5, 1, 10, 0);
+
+        ScanLogResultDTO result = gateCheckInService.applyScanLog(1L, List.of(
+                new ScanLogUploadRequest.ScanEntry("code-10", early.plusMinutes(5)),
+                new ScanLogUploadRequest.ScanEntry("code-10", early),
+                new ScanLogUploadRequest.ScanEntry("bogus", early)), ORGANIZER_EMAIL);
+
+        assertEquals(1, result.getAccepted());
+        assertEquals(1, result.getDuplicates());
+        assertEquals(1, result.getUnknown());
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture());
+        assertEquals(early, batch.getValue().get(0)[0]);
+    }
+
+    @Test
+    void applyScanLog_GateClosedAndDatabaseFailure_LogIsRejected() {
+        when(ticketRepository.findCodesByTournamentId(1L)).thenReturn(List.of(ticket(10L, "code-10", 1)));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new RuntimeException("db down"));
+
+        // Отметки не записаны — журнал не считается принятым, сканер выгрузит его снова
+        assertThrows(IllegalStateException.class, () -> gateCheckInService.applyScanLog(1L, List.of(
+                new ScanLogUploadRequest.ScanEntry("code-10", LocalDateTime.now())), ORGANIZER_EMAIL));
+    }
+
+    @Test
+    void closeGate_DatabaseFailure_GateStaysOpenUntilFlushed() {
+        when(ticketRepository.findCodesByTournamentId(1L)).thenReturn(List.of(ticket(10L, "code-10", 1)));
+        gateCheckInService.openGate(1L, 1L);
+        gateCheckInService.checkIn(1L, "code-10", ORGANIZER_EMAIL);
+
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new RuntimeException("db down"));
+        assertThrows(IllegalStateException.class, () -> gateCheckInService.closeGate(1L, ORGANIZER_EMAIL));
+        assertEquals(1, gateCheckInService.getStats(1L, ORGANIZER_EMAIL).getPendingFlush());
+
+        reset(jdbcTemplate);
+        GateStatsDTO stats = gateCheckInService.closeGate(1L, ORGANIZER_EMAIL);
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+        assertEquals(0, stats.getPendingFlush());
+        assertEquals(CheckInStatus.GATE_CLOSED,
+                gateCheckInService.checkIn(1L, "code-10", ORGANIZER_EMAIL).getStatus());
+    }
+
+    @Test
+    void onSpectatorsChanged_GateOpenDuringSales_NewTicketAdmittedCancelledRejected() {
+        when(ticketRepository.findCodesByTournamentId(1L)).thenReturn(List.of(ticket(10L, "code-10", 1)));
+        gateCheckInService.openGate(1L, 1L);
+
+        when(ticketRepository.findCodesByTournamentIdAndUserIds(1L, List.of(7L, 8L)))
+                .thenReturn(List.of(ticket(11L, "code-11", 2), ticket(10L, "code-10", 1, false)));
+        gateCheckInService.onSpectatorsChanged(new SpectatorsChangedEvent(1L, List.of(7L), List.of(8L)));
+
+        assertEquals(CheckInStatus.ADMITTED,
+                gateCheckInService.checkIn(1L, "code-11", ORGANIZER_EMAIL).getStatus());
+        assertEquals(CheckInStatus.UNKNOWN_CODE,
+                gateCheckInService.checkIn(1L, "code-10", ORGANIZER_EMAIL).getStatus());
+    }
+
+    @Test
+    void openGate_TicketsChangedDuringLoad_ChangesReplayedAfterLoad() {
+        // Событие приходит, пока запрос кодов ещё выполняется и видит отменённый билет действующим
+        when(ticketRepository.findCodesByTournamentId(1L)).thenAnswer(invocation -> {
+            gateCheckInService.onSpectatorsChanged(new SpectatorsChangedEvent(1L, List.of(7L), List.of(8L)));
+            assertEquals(CheckInStatus.GATE_CLOSED,
+                    gateCheckInService.checkIn(1L, "code-10", ORGANIZER_EMAIL).getStatus());
+            return List.of(ticket(10L, "code-10", 1));
+        });
+        when(ticketRepository.findCodesByTournamentIdAndUserIds(eq(1L), anyCollection()))
+                .thenReturn(List.of(ticket(11L, "code-11", 2), ticket(10L, "code-10", 1, false)));
+
+        GateStatsDTO stats = gateCheckInService.openGate(1L, 1L);
+
+        assertEquals(1, stats.getLoadedTickets());
+        verify(ticketRepository, times(1)).findCodesByTournamentIdAndUserIds(eq(1L), anyCollection());
+        assertEquals(CheckInStatus.ADMITTED,
+                gateCheckInService.checkIn(1L, "code-11", ORGANIZER_EMAIL).getStatus());
+        assertEquals(CheckInStatus.UNKNOWN_CODE,
+                gateCheckInService.checkIn(1L, "code-10", ORGANIZER_EMAIL).getStatus());
+    }
+
+    private TicketCodeView ticket(Long id, String code, int seats) {
+        return ticket(id, code, seats, true);
+    }
+
+    private TicketCodeView ticket(Long id, String code, int seats, boolean confirmed) {
+        return new TicketCodeView() {
+            public Long getId() { return id; }
+            public String getBookingCode() { return code; }
+            public Integer getSeatsCount() { return seats; }
+            public LocalDateTime getCheckedInAt() { return null; }
+            public boolean isConfirmed() { return confirmed; }
+            public LocalDateTime getUpdatedAt() { return null; }
+        };
+    }
+}
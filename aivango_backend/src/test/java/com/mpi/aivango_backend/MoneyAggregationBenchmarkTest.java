@@ -0,0 +1,108 @@
+package com.mpi.aivango_backend;
+
+import com.mpi.aivango_backend.models.sponsorship.Sponsorship;
+import com.mpi.aivango_backend.models.sponsorship.SponsorshipStatus;
+import com.mpi.aivango_backend.models.tournament.Tournament;
+import com.mpi.aivango_backend.models.tournament.TournamentStatus;
+import com.mpi.aivango_backend.models.user.UserAccount;
+import com.mpi.aivango_backend.repository.SponsorshipRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сравнение суммы взносов в БД (NUMERIC, BigDecimal) с прежним способом:
+ * загрузить спонсорства, сложить суммы как Double и обернуть результат в BigDecimal.
+ * Проверяются точность и число запросов; время обоих способов только пишется в лог
+ */
+@Slf4j
+@DataJpaTest(properties = {"spring.jpa.database=H2", "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+public class MoneyAggregationBenchmarkTest {
+
+    private static final int SPONSORSHIPS = 100_000;
+    // Каждое десятое спонсорство не оплачено и в сумму не входит
+    private static final int PENDING_EVERY = 10;
+    private static final long AMOUNT_MODULUS = 9_999_999;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SponsorshipRepository sponsorshipRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long tournamentId;
+
+    @BeforeEach
+    void setUp() {
+        UserAccount sponsor = entityManager.persist(UserAccount.builder().email("sponsor@example.com").name("Sponsor").build());
+        Tournament tournament = entityManager.persist(Tournament.builder()
+                .name("Benchmark")
+                .tournamentStatus(TournamentStatus.WAITING_DONATION)
+                .build());
+        tournamentId = tournament.getId();
+        entityManager.flush();
+
+        // Суммы с копейками от 0.01 до 99 999.99 — на таких значениях double теряет точность
+        jdbcTemplate.update("INSERT INTO sponsorships (sponsor_id, tournament_id, package_type, amount, created_at, status) " +
+                "SELECT ?, ?, 'BRONZE', CAST(MOD(X * 7919, ?) + 1 AS DECIMAL(19, 2)) / 100, CURRENT_TIMESTAMP, " +
+                "CASE WHEN MOD(X, ?) = 0 THEN 'PENDING' ELSE 'CONFIRMED' END FROM SYSTEM_RANGE(1, ?)",
+                sponsor.getId(), tournamentId, AMOUNT_MODULUS, PENDING_EVERY, SPONSORSHIPS);
+    }
+
+    @Test
+    void sumConfirmed_100kSponsorships_ExactInOneQuery() {
+        BigDecimal expected = BigDecimal.valueOf(expectedCents(), 2);
+        sponsorshipRepository.sumAmountByTournamentIdAndStatus(tournamentId, SponsorshipStatus.CONFIRMED); // прогрев
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        long started = System.nanoTime();
+        BigDecimal aggregated = sponsorshipRepository.sumAmountByTournamentIdAndStatus(tournamentId, SponsorshipStatus.CONFIRMED);
+        long aggregateMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertEquals(0, expected.compareTo(aggregated), "Сумма в БД должна совпадать до копейки");
+        assertEquals(1, statistics.getPrepareStatementCount(), "Сумма взносов — один запрос");
+
+        // Прежний путь: сущности в память, каждая сумма распаковывается в Double, итог — в BigDecimal
+        started = System.nanoTime();
+        List<Sponsorship> confirmed = sponsorshipRepository.findByTournamentIdAndStatus(tournamentId, SponsorshipStatus.CONFIRMED);
+        Double legacySum = confirmed.stream()
+                .map(sponsorship -> sponsorship.getAmount().doubleValue())
+                .reduce(0.0, Double::sum);
+        BigDecimal legacy = BigDecimal.valueOf(legacySum);
+        long legacyMillis = (System.nanoTime() - started) / 1_000_000;
+
+        log.info("Сумма в БД, {} спонсорств: {} мс ({}); прежний путь через Double: {} мс ({})",
+                SPONSORSHIPS, aggregateMillis, aggregated.toPlainString(), legacyMillis, legacy.toPlainString());
+        assertEquals(SPONSORSHIPS - SPONSORSHIPS / PENDING_EVERY, confirmed.size());
+    }
+
+    private long expectedCents() {
+        long cents = 0;
+        for (long x = 1; x <= SPONSORSHIPS; x++) {
+            if (x % PENDING_EVERY != 0) {
+                cents += (x * 7919) % AMOUNT_MODULUS + 1;
+            }
+        }
+        return cents;
+    }
+}
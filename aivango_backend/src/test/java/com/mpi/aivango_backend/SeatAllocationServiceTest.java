@@ -0,0 +1,161 @@
+package com.mpi.aivango_backend;
+
+import com.mpi.aivango_backend.dto.ticket.SeatAvailabilityDTO;
+import com.mpi.aivango_backend.dto.ticket.SeatRefView;
+import com.mpi.aivango_backend.models.ticket.Ticket;
+import com.mpi.aivango_backend.models.tournament.Location;
+import com.mpi.aivango_backend.models.tournament.SeatRow;
+import com.mpi.aivango_backend.models.tournament.Tournament;
+import com.mpi.aivango_backend.repository.SeatRowRepository;
+import com.mpi.aivango_backend.repository.TicketSeatRepository;
+import com.mpi.aivango_backend.repository.TournamentRepository;
+import com.mpi.aivango_backend.services.ticket.SeatAllocationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SeatAllocationServiceTest {
+
+    private static final int ROWS = 100;
+    private static final int SEATS_PER_ROW = 200;
+
+    @Mock
+    private SeatRowRepository seatRowRepository;
+
+    @Mock
+    private TicketSeatRepository ticketSeatRepository;
+
+    @Mock
+    private TournamentRepository tournamentRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private SeatAllocationService seatAllocationService;
+
+    private Tournament tournament;
+
+    @BeforeEach
+    void setUp() {
+        Location arena = Location.builder().id(1L).name("Arena").build();
+        tournament = Tournament.builder().id(1L).name("Test Tournament").finalLocation(arena).build();
+    }
+
+    @Test
+    void assignSeats_GroupsGetAdjacentSeatsInBestRow() {
+        givenArena(2, 6);
+
+        List<SeatRefView> first = seatAllocationService.assignSeats(tournament, ticket(1L, 4));
+        List<SeatRefView> second = seatAllocationService.assignSeats(tournament, ticket(2L, 3));
+
+        assertSeats(first, 1L, 1, 2, 3, 4);
+        // В первом ряду осталось только 2 соседних места — группа из трёх уходит во второй ряд
+        assertSeats(second, 2L, 1, 2, 3);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void assignSeats_FragmentedHall_FallsBackToSeparateSeats() {
+        givenArena(2, 3);
+        seatAllocationService.assignSeats(tournament, ticket(1L, 2));
+        seatAllocationService.assignSeats(tournament, ticket(2L, 2));
+
+        List<SeatRefView> seats = seatAllocationService.assignSeats(tournament, ticket(3L, 2));
+
+        assertEquals(1L, seats.get(0).getRowId());
+        assertEquals(3, seats.get(0).getSeatNumber());
+        assertEquals(2L, seats.get(1).getRowId());
+        assertEquals(3, seats.get(1).getSeatNumber());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> seatAllocationService.assignSeats(tournament, ticket(4L, 1)));
+    }
+
+    @Test
+    void assignSeats_LargeArena_ContiguousSearchStaysUnderMillisecond() {
+        givenArena(ROWS, SEATS_PER_ROW);
+
+        // Три места из каждых четырёх заняты одиночками — группе из четырёх не найти места до последнего ряда
+        long ticketId = 1;
+        for (int i = 0; i < ROWS * SEATS_PER_ROW / 4; i++) {
+            seatAllocationService.assignSeats(tournament, ticket(ticketId++, 3));
+            seatAllocationService.assignSeats(tournament, ticket(ticketId++, 1));
+        }
+        when(tournamentRepository.findById(1L)).thenReturn(Optional.of(tournament));
+        assertEquals(0, seatAllocationService.getAvailability(1L).getFreeSeats());
+
+        // Освобождаем одно окно из четырёх мест в самом конце зала
+        givenArena(ROWS, SEATS_PER_ROW);
+        List<SeatRefView> taken = new ArrayList<>();
+        for (int seat = 1; seat <= SEATS_PER_ROW - 4; seat++) {
+            taken.add(seatRef(ROWS, seat));
+        }
+        for (long row = 1; row < ROWS; row++) {
+            for (int seat = 1; seat <= SEATS_PER_ROW; seat += 4) {
+                for (int k = 0; k < 3; k++) {
+                    taken.add(seatRef(row, seat + k));
+                }
+            }
+        }
+        when(ticketSeatRepository.findOccupiedByTournamentId(1L)).thenReturn(taken);
+
+        int rounds = 200;
+        long[] nanos = new long[rounds];
+        for (int i = 0; i < rounds; i++) {
+            seatAllocationService.invalidate();
+            SeatAvailabilityDTO availability = seatAllocationService.getAvailability(1L);
+            assertEquals(ROWS * SEATS_PER_ROW - taken.size(), availability.getFreeSeats());
+
+            long started = System.nanoTime();
+            List<SeatRefView> group = seatAllocationService.assignSeats(tournament, ticket(ticketId++, 4));
+            nanos[i] = System.nanoTime() - started;
+            assertSeats(group, ROWS, SEATS_PER_ROW - 3, SEATS_PER_ROW - 2, SEATS_PER_ROW - 1, SEATS_PER_ROW);
+        }
+        // Медиана после прогрева: отдельные замеры может исказить сборка мусора
+        long[] warm = Arrays.copyOfRange(nanos, rounds / 2, rounds);
+        Arrays.sort(warm);
+        long median = warm[warm.length / 2];
+        assertTrue(median < 1_000_000, "Поиск мест занял " + median + " нс");
+    }
+
+    private void givenArena(int rows, int seatsPerRow) {
+        List<SeatRow> layout = new ArrayList<>();
+        for (long r = 1; r <= rows; r++) {
+            layout.add(SeatRow.builder().id(r).section("A").rowNumber((int) r).seatsCount(seatsPerRow).build());
+        }
+        lenient().when(seatRowRepository.findByLocationIdOrderBySectionAscRowNumberAsc(1L)).thenReturn(layout);
+    }
+
+    private void assertSeats(List<SeatRefView> seats, long rowId, int... numbers) {
+        assertEquals(numbers.length, seats.size());
+        for (int i = 0; i < numbers.length; i++) {
+            assertEquals(rowId, seats.get(i).getRowId());
+            assertEquals(numbers[i], seats.get(i).getSeatNumber());
+        }
+    }
+
+    private Ticket ticket(Long id, int seats) {
+        return Ticket.builder().id(id).tournament(tournament).seatsCount(seats).build();
+    }
+
+    private SeatRefView seatRef(long rowId, int seatNumber) {
+        return new SeatRefView() {
+            public Long getRowId() { return rowId; }
+            public Integer getSeatNumber() { return seatNumber; }
+        };
+    }
+}
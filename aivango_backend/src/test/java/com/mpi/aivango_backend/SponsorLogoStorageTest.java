@@ -0,0 +1,157 @@
+package com.mpi.aivango_backend;
+
+import com.mpi.aivango_backend.services.sponsorship.SponsorLogoStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SponsorLogoStorageTest {
+
+    @TempDir
+    Path root;
+
+    private SponsorLogoStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new SponsorLogoStorage(root.toString());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        storage.shutdown();
+    }
+
+    @Test
+    void store_SameLogoTwice_StoredOnceAndResizedInBackground() throws Exception {
+        byte[] logo = png(800, 400);
+
+        String first = storage.store(new ByteArrayInputStream(logo), "image/png");
+        String second = storage.store(new ByteArrayInputStream(logo), "image/png");
+
+        assertEquals(first, second);
+        assertEquals(64, first.length());
+        assertEquals(1, countFiles(first + ".png"));
+
+        Path small = awaitResized(first, 64);
+        BufferedImage image = ImageIO.read(small.toFile());
+        assertEquals(64, image.getWidth());
+        assertEquals(32, image.getHeight());
+        assertEquals(256, ImageIO.read(awaitResized(first, 256).toFile()).getWidth());
+
+        // Временные файлы загрузки не остаются
+        assertEquals(0, countFiles(".tmp"));
+    }
+
+    @Test
+    void store_DifferentLogos_DifferentHashes() throws Exception {
+        String first = storage.store(new ByteArrayInputStream(png(100, 100)), "image/png");
+        String second = storage.store(new ByteArrayInputStream(png(120, 100)), "image/png");
+
+        assertNotEquals(first, second);
+        assertTrue(storage.resolve(first, null).isPresent());
+        assertTrue(storage.resolve(second, null).isPresent());
+    }
+
+    @Test
+    void store_UnsupportedOrOversized_Rejected() throws IOException {
+        assertThrows(IllegalArgumentException.class,
+                () -> storage.store(new ByteArrayInputStream(new byte[]{1, 2, 3}), "application/pdf"));
+
+        // Поток длиннее лимита обрывается на чтении, целиком в памяти не собирается
+        InputStream endless = new InputStream() {
+            @Override
+            public int read() {
+                return 0;
+            }
+        };
+        assertThrows(IllegalArgumentException.class, () -> storage.store(endless, "image/png"));
+        assertEquals(0, countFiles(""));
+    }
+
+    @Test
+    void store_SvgOrContentNotMatchingType_Rejected() throws IOException {
+        byte[] svg = "<svg xmlns=\"http://www.w3.org/2000/svg\"><script>alert(1)</script></svg>"
+                .getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(IllegalArgumentException.class, () -> storage.store(new ByteArrayInputStream(svg), "image/svg+xml"));
+        // Заявленный тип не спасает: по сигнатуре это не PNG
+        assertThrows(IllegalArgumentException.class, () -> storage.store(new ByteArrayInputStream(svg), "image/png"));
+        assertEquals(0, countFiles(""));
+    }
+
+    @Test
+    void store_HugeDeclaredDimensions_RejectedBeforeDecoding() throws IOException {
+        // Несколько сотен байт, но в заголовке 30000×30000 — декодирование заняло бы гигабайты
+        byte[] bomb = withDimensions(png(10, 10), 30000, 30000);
+
+        assertThrows(IllegalArgumentException.class, () -> storage.store(new ByteArrayInputStream(bomb), "image/png"));
+        assertEquals(0, countFiles(""));
+    }
+
+    @Test
+    void resolve_InvalidHash_Empty() {
+        assertTrue(storage.resolve("../../etc/passwd", null).isEmpty());
+        assertTrue(storage.resolve("0".repeat(64), 64).isEmpty());
+    }
+
+    private Path awaitResized(String hash, int size) throws InterruptedException {
+        Path resized = root.resolve(hash + "-" + size + ".png");
+        for (int i = 0; i < 100 && !Files.exists(resized); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(Files.exists(resized), "Уменьшенная копия " + size + " не построена");
+        assertEquals(resized, storage.resolve(hash, size).orElseThrow());
+        return resized;
+    }
+
+    private long countFiles(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(root)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(suffix)).count();
+        }
+    }
+
+    /**
+     * Подменить размеры в заголовке IHDR, пересчитав его контрольную сумму
+     */
+    private static byte[] withDimensions(byte[] png, int width, int height) {
+        ByteBuffer buffer = ByteBuffer.wrap(png);
+        buffer.putInt(16, width);
+        buffer.putInt(20, height);
+        CRC32 crc = new CRC32();
+        crc.update(png, 12, 17);
+        buffer.putInt(29, (int) crc.getValue());
+        return png;
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.ORANGE);
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(Color.BLUE);
+        graphics.drawLine(0, 0, width - 1, height - 1);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
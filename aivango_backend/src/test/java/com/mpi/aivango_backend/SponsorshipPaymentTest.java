@@ -0,0 +1,194 @@
+package com.mpi.aivango_backend;
+
+import com.mpi.aivango_backend.controller.PaymentController;
+import com.mpi.aivango_backend.dto.sponsorship.PaymentCallbackRequest;
+import com.mpi.aivango_backend.dto.sponsorship.SponsorshipPaymentDTO;
+import com.mpi.aivango_backend.dto.sponsorship.SponsorshipRequest;
+import com.mpi.aivango_backend.models.sponsorship.Sponsorship;
+import com.mpi.aivango_backend.models.sponsorship.SponsorshipPackage;
+import com.mpi.aivango_backend.models.sponsorship.SponsorshipStatus;
+import com.mpi.aivango_backend.models.tournament.Tournament;
+import com.mpi.aivango_backend.models.tournament.TournamentStatus;
+import com.mpi.aivango_backend.models.user.TournamentRolesEnum;
+import com.mpi.aivango_backend.models.user.UserAccount;
+import com.mpi.aivango_backend.repository.SponsorshipRepository;
+import com.mpi.aivango_backend.repository.TournamentRepository;
+import com.mpi.aivango_backend.repository.UserRepository;
+import com.mpi.aivango_backend.repository.UserTournamentRoleRepository;
+import com.mpi.aivango_backend.services.email.EmailSendService;
+import com.mpi.aivango_backend.services.payment.LocalPaymentGateway;
+import com.mpi.aivango_backend.services.payment.PaymentCallback;
+import com.mpi.aivango_backend.services.payment.PaymentCallbackInbox;
+import com.mpi.aivango_backend.services.payment.PaymentCharge;
+import com.mpi.aivango_backend.services.sponsorship.SponsorshipPaymentRequestedEvent;
+import com.mpi.aivango_backend.services.sponsorship.SponsorshipService;
+import com.mpi.aivango_backend.services.tournament.TournamentRoleService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SponsorshipPaymentTest {
+
+    @Mock
+    private SponsorshipRepository sponsorshipRepository;
+
+    @Mock
+    private TournamentRepository tournamentRepository;
+
+    @Mock
+    private TournamentRoleService tournamentRoleService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserTournamentRoleRepository userTournamentRoleRepository;
+
+    @Mock
+    private EmailSendService emailSendService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private SponsorshipService sponsorshipService;
+
+    private Tournament tournament;
+    private UserAccount sponsor;
+
+    @BeforeEach
+    void setUp() {
+        tournament = Tournament.builder()
+                .id(1L)
+                .name("Test Tournament")
+                .requiredAmount(new BigDecimal("20000.00"))
+                .tournamentStatus(TournamentStatus.WAITING_DONATION)
+                .build();
+        sponsor = new UserAccount(5L, "sponsor@example.com", "Sponsor", "Rich", false);
+    }
+
+    @Test
+    void createSponsorship_RecordsPendingPaymentWithoutFunding() {
+        when(tournamentRepository.findById(1L)).thenReturn(Optional.of(tournament));
+        when(userRepository.findById(5L)).thenReturn(Optional.of(sponsor));
+        when(tournamentRoleService.getUserRolesInTournament(5L, 1L)).thenReturn(Set.of());
+        when(tournamentRepository.findCollectedAmount(1L)).thenReturn(BigDecimal.ZERO);
+
+        SponsorshipPaymentDTO created = sponsorshipService.createSponsorship(1L,
+                new SponsorshipRequest(SponsorshipPackage.SILVER, "Acme"), 5L);
+
+        assertEquals(SponsorshipStatus.PENDING, created.getStatus());
+        ArgumentCaptor<Sponsorship> saved = ArgumentCaptor.forClass(Sponsorship.class);
+        verify(sponsorshipRepository).save(saved.capture());
+        assertNotNull(saved.getValue().getPaymentReference());
+        verify(tournamentRepository, never()).addFunding(anyLong(), any());
+        verifyNoInteractions(emailSendService);
+
+        ArgumentCaptor<SponsorshipPaymentRequestedEvent> event = ArgumentCaptor.forClass(SponsorshipPaymentRequestedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(saved.getValue().getPaymentReference(), event.getValue().charge().reference());
+        assertEquals(new BigDecimal("15000.00"), event.getValue().charge().amount());
+    }
+
+    @Test
+    void applyPaymentResults_RepeatedCallbacks_FundedOnce() {
+        Sponsorship sponsorship = pending("ref-1");
+        when(sponsorshipRepository.findByPaymentReferenceIn(any())).thenReturn(List.of(sponsorship));
+        when(tournamentRepository.addFunding(1L, new BigDecimal("15000.00"))).thenReturn(1);
+
+        PaymentCallback approved = new PaymentCallback("ref-1", true, null);
+        SponsorshipService.PaymentBatchOutcome first = sponsorshipService.applyPaymentResults(List.of(approved, approved));
+        SponsorshipService.PaymentBatchOutcome second = sponsorshipService.applyPaymentResults(List.of(approved));
+
+        assertEquals(1, first.confirmed().size());
+        assertTrue(second.confirmed().isEmpty());
+        assertEquals(SponsorshipStatus.CONFIRMED, sponsorship.getStatus());
+        assertNotNull(sponsorship.getPaidAt());
+        verify(tournamentRepository, times(1)).addFunding(1L, new BigDecimal("15000.00"));
+    }
+
+    @Test
+    void applyPaymentResults_DeclinedOrLate_RejectedAndLateOneRefunded() {
+        Sponsorship declined = pending("ref-declined");
+        Sponsorship late = pending("ref-late");
+        when(sponsorshipRepository.findByPaymentReferenceIn(any())).thenReturn(List.of(declined, late));
+        when(tournamentRepository.addFunding(1L, new BigDecimal("15000.00"))).thenReturn(0);
+
+        SponsorshipService.PaymentBatchOutcome outcome = sponsorshipService.applyPaymentResults(List.of(
+                new PaymentCallback("ref-declined", false, "Недостаточно средств"),
+                new PaymentCallback("ref-late", true, null),
+                new PaymentCallback("ref-unknown", true, null)));
+
+        assertTrue(outcome.confirmed().isEmpty());
+        assertEquals(List.of("ref-late"), outcome.refunds());
+        assertEquals(SponsorshipStatus.REJECTED, declined.getStatus());
+        assertEquals(SponsorshipStatus.REJECTED, late.getStatus());
+        verify(userTournamentRoleRepository, times(2))
+                .deleteByUserIdAndTournamentIdAndRole(5L, 1L, TournamentRolesEnum.SPONSOR);
+    }
+
+    @Test
+    void localGateway_ApprovesChargeAsynchronously() throws Exception {
+        PaymentCallbackInbox inbox = new PaymentCallbackInbox();
+        LocalPaymentGateway gateway = new LocalPaymentGateway(inbox, 50);
+
+        gateway.submitCharge(new PaymentCharge("ref-1", new BigDecimal("5000.00"), "sponsor@example.com", "test"));
+        assertTrue(inbox.drain(10).isEmpty());
+
+        List<PaymentCallback> callbacks = List.of();
+        for (int i = 0; i < 100 && callbacks.isEmpty(); i++) {
+            Thread.sleep(20);
+            callbacks = inbox.drain(10);
+        }
+        gateway.shutdown();
+        assertEquals(List.of(new PaymentCallback("ref-1", true, null)), callbacks);
+    }
+
+    @Test
+    void receiveCallback_WithoutConfiguredOrMatchingToken_Rejected() {
+        PaymentCallbackInbox inbox = new PaymentCallbackInbox();
+        PaymentCallbackRequest request = new PaymentCallbackRequest(
+                List.of(new PaymentCallbackRequest.Result("ref-1", true, null)));
+
+        assertEquals(HttpStatus.FORBIDDEN, new PaymentController(inbox, "")
+                .receiveCallback("anything", request).getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, new PaymentController(inbox, "secret")
+                .receiveCallback("guess", request).getStatusCode());
+        assertTrue(inbox.drain(10).isEmpty());
+
+        assertEquals(HttpStatus.ACCEPTED, new PaymentController(inbox, "secret")
+                .receiveCallback("secret", request).getStatusCode());
+        assertEquals(1, inbox.drain(10).size());
+    }
+
+    private Sponsorship pending(String reference) {
+        return Sponsorship.builder()
+                .id((long) reference.hashCode())
+                .sponsor(sponsor)
+                .tournament(tournament)
+                .packageType(SponsorshipPackage.SILVER)
+                .amount(new BigDecimal("15000.00"))
+                .createdAt(LocalDateTime.now())
+                .status(SponsorshipStatus.PENDING)
+                .paymentReference(reference)
+                .build();
+    }
+}
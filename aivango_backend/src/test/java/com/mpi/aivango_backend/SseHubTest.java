@@ -0,0 +1,226 @@
+package com.mpi.aivango_backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mpi.aivango_backend.services.stream.SseHub;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+public class SseHubTest {
+
+    private static final int CLIENTS = 500;
+    private static final int EVENTS = 10;
+    private static final String STALLED_TOPIC = "stalled:1";
+
+    private final ObjectMapper objectMapper = spy(new ObjectMapper());
+    private ExecutorService sender;
+    private SseHub hub;
+    private MockMvc mockMvc;
+    private final AtomicBoolean stallWrites = new AtomicBoolean();
+    private final CountDownLatch writeStalled = new CountDownLatch(1);
+
+    @RestController
+    static class StreamController {
+
+        private final SseHub hub;
+
+        StreamController(SseHub hub) {
+            this.hub = hub;
+        }
+
+        @GetMapping("/stream/{topic}")
+        SseEmitter stream(@PathVariable String topic) {
+            return hub.subscribe(topic, "snapshot", Map.of("initial", true));
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        sender = Executors.newFixedThreadPool(4);
+        connectTo(new SseHub(objectMapper, sender));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        hub.shutdown();
+    }
+
+    @Test
+    void publish_ManyClients_SerializedOnceDeliveredInOrder() throws Exception {
+        List<MockHttpServletResponse> clients = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            clients.add(connect("bracket:1"));
+        }
+        assertEquals(CLIENTS, hub.subscriberCount("bracket:1"));
+        clearInvocations(objectMapper);
+
+        for (int i = 0; i < EVENTS; i++) {
+            hub.publish("bracket:1", "result-recorded", Map.of("n", i));
+        }
+        hub.publish("bracket:2", "result-recorded", Map.of("n", -1)); // другой турнир, подписчиков нет
+
+        verify(objectMapper, times(EVENTS)).writeValueAsString(any());
+        for (MockHttpServletResponse client : clients) {
+            String stream = await(client, body -> body.contains("data:{\"n\":" + (EVENTS - 1) + "}"));
+            assertTrue(stream.startsWith("event:snapshot\ndata:{\"initial\":true}"));
+            int previous = -1;
+            for (int i = 0; i < EVENTS; i++) {
+                int position = stream.indexOf("event:result-recorded\ndata:{\"n\":" + i + "}");
+                assertTrue(position > previous, "Событие " + i + " пришло не по порядку");
+                previous = position;
+            }
+        }
+    }
+
+    @Test
+    void publish_ClientNotReading_DisconnectedWhenBufferOverflows() throws Exception {
+        // Единственный поток отправки занят — буферы клиентов не опустошаются
+        ExecutorService stalled = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        stalled.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        hub.shutdown();
+        connectTo(new SseHub(objectMapper, stalled));
+        connect("bracket:1");
+        connect("bracket:1");
+
+        // Первое место в буфере заняла сетка, отправленная при подписке
+        for (int i = 0; i < SseHub.CLIENT_BUFFER - 1; i++) {
+            hub.publish("bracket:1", "result-recorded", Map.of("n", i));
+        }
+        assertEquals(2, hub.subscriberCount("bracket:1"));
+
+        hub.publish("bracket:1", "result-recorded", Map.of("n", SseHub.CLIENT_BUFFER));
+        assertEquals(0, hub.subscriberCount("bracket:1"));
+        release.countDown();
+    }
+
+    @Test
+    void dropStalledClients_WriteHangs_ClientDroppedOthersServed() throws Exception {
+        hub.shutdown();
+        connectTo(new SseHub(objectMapper, Executors.newFixedThreadPool(4), 100));
+        MockHttpServletResponse healthy = connect("bracket:2");
+        connect(STALLED_TOPIC);
+        stallWrites.set(true);
+
+        hub.publish(STALLED_TOPIC, "result-recorded", Map.of("n", 1));
+        assertTrue(writeStalled.await(5, TimeUnit.SECONDS));
+        Thread.sleep(200);
+        hub.dropStalledClients();
+
+        assertEquals(0, hub.subscriberCount(STALLED_TOPIC));
+        assertEquals(1, hub.topicCount()); // пустая тема убрана из карты
+        stallWrites.set(false);
+        hub.publish("bracket:2", "result-recorded", Map.of("n", 2));
+        assertTrue(await(healthy, body -> body.contains("data:{\"n\":2}")).contains("data:{\"n\":2}"));
+    }
+
+    @Test
+    void heartbeat_IdleClientReceivesPing() throws Exception {
+        MockHttpServletResponse client = connect("bracket:1");
+
+        hub.heartbeat();
+
+        assertTrue(await(client, body -> body.contains(":ping")).contains(":ping"));
+    }
+
+    private void connectTo(SseHub sseHub) {
+        hub = sseHub;
+        mockMvc = MockMvcBuilders.standaloneSetup(new StreamController(sseHub))
+                .addFilter((request, response, chain) -> chain.doFilter(request,
+                        ((HttpServletRequest) request).getRequestURI().endsWith(STALLED_TOPIC)
+                                ? stalling((HttpServletResponse) response) : response))
+                .build();
+    }
+
+    /**
+     * Ответ клиента, запись в который зависает до прерывания, пока включён {@link #stallWrites}
+     */
+    private HttpServletResponse stalling(HttpServletResponse response) {
+        return new HttpServletResponseWrapper(response) {
+            private final ServletOutputStream stream = new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    response.getOutputStream().write(b);
+                }
+
+                @Override
+                public void write(byte[] bytes, int offset, int length) throws IOException {
+                    if (stallWrites.get()) {
+                        writeStalled.countDown();
+                        try {
+                            new CountDownLatch(1).await();
+                        } catch (InterruptedException e) {
+                            throw new IOException("Запись прервана", e);
+                        }
+                    }
+                    response.getOutputStream().write(bytes, offset, length);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener listener) {
+                }
+            };
+
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return stream;
+            }
+        };
+    }
+
+    private MockHttpServletResponse connect(String topic) throws Exception {
+        return mockMvc.perform(get("/stream/" + topic))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private static String await(MockHttpServletResponse client, Predicate<String> condition) throws Exception {
+        String body = client.getContentAsString();
+        for (int i = 0; i < 100 && !condition.test(body); i++) {
+            Thread.sleep(50);
+            body = client.getContentAsString();
+        }
+        return body;
+    }
+}
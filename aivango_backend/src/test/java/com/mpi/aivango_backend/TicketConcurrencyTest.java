@@ -0,0 +1,380 @@
+package com.mpi.aivango_backend;
+
+import com.mpi.aivango_backend.dto.ticket.BulkBookingRequest;
+import com.mpi.aivango_backend.dto.ticket.TicketBookingRequest;
+import com.mpi.aivango_backend.models.ticket.Ticket;
+import com.mpi.aivango_backend.models.tournament.Tournament;
+import com.mpi.aivango_backend.models.tournament.TournamentStatus;
+import com.mpi.aivango_backend.models.user.UserAccount;
+import com.mpi.aivango_backend.models.waitlist.WaitlistEntry;
+import com.mpi.aivango_backend.models.waitlist.WaitlistStatus;
+import com.mpi.aivango_backend.repository.TicketRepository;
+import com.mpi.aivango_backend.repository.TournamentRepository;
+import com.mpi.aivango_backend.repository.UserRepository;
+import com.mpi.aivango_backend.repository.UserTournamentRoleRepository;
+import com.mpi.aivango_backend.repository.WaitlistEntryRepository;
+import com.mpi.aivango_backend.services.ticket.BulkBookingService;
+import com.mpi.aivango_backend.services.ticket.SeatAllocationService;
+import com.mpi.aivango_backend.services.ticket.SeatsReleasedEvent;
+import com.mpi.aivango_backend.services.ticket.TicketBookingService;
+import com.mpi.aivango_backend.services.ticket.TicketMailPipeline;
+import com.mpi.aivango_backend.services.ticket.TournamentActivatedEvent;
+import com.mpi.aivango_backend.services.ticket.WaitlistService;
+import com.mpi.aivango_backend.services.tournament.TournamentRoleService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Счётчик мест не даёт продать лишнее при параллельных покупках, в том числе оптовых, лист ожидания продвигается
+ * с головы и не выдаёт одну запись дважды при параллельных обработчиках
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tickets;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database=H2",
+        "spring.jpa.show-sql=false"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TicketConcurrencyTest {
+
+    private static final int SEATS = 20;
+
+    @Autowired
+    private TournamentRepository tournamentRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserTournamentRoleRepository userTournamentRoleRepository;
+
+    @Autowired
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private TicketBookingService ticketBookingService;
+    private WaitlistService waitlistService;
+    private BulkBookingService bulkBookingService;
+    private TransactionTemplate tx;
+
+    @BeforeEach
+    void setUp() {
+        TournamentRoleService tournamentRoleService = mock(TournamentRoleService.class);
+        ticketBookingService = new TicketBookingService(ticketRepository, tournamentRepository, tournamentRoleService,
+                userTournamentRoleRepository, mock(TicketMailPipeline.class), eventPublisher,
+                mock(SeatAllocationService.class));
+        waitlistService = new WaitlistService(waitlistEntryRepository, tournamentRepository, ticketRepository,
+                tournamentRoleService, ticketBookingService, eventPublisher);
+        SeatAllocationService seatAllocationService = mock(SeatAllocationService.class);
+        when(seatAllocationService.assignSeats(any(Tournament.class), anyList())).thenAnswer(invocation ->
+                Collections.nCopies(invocation.<List<?>>getArgument(1).size(), List.of()));
+        bulkBookingService = new BulkBookingService(tournamentRepository, ticketRepository, userRepository,
+                userTournamentRoleRepository, ticketBookingService, seatAllocationService,
+                mock(TicketMailPipeline.class), jdbcTemplate, eventPublisher);
+        tx = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void bookTicket_ConcurrentBuyers_NoOversell() throws Exception {
+        Long tournamentId = tournament(TournamentStatus.TICKET_SALES, 0);
+        List<UserAccount> buyers = users("buyer", SEATS * 3);
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger booked = new AtomicInteger();
+        List<Future<?>> results = new ArrayList<>();
+        for (UserAccount buyer : buyers) {
+            results.add(pool.submit(() -> {
+                start.await();
+                try {
+                    tx.executeWithoutResult(status ->
+                            ticketBookingService.bookTicket(tournamentId, new TicketBookingRequest(1, true), buyer));
+                    booked.incrementAndGet();
+                } catch (IllegalArgumentException rejected) {
+                    // мест нет или продажи уже закрыты
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        pool.shutdown();
+
+        assertEquals(SEATS, booked.get());
+        assertEquals(SEATS, tournamentRepository.findBookedSeats(tournamentId));
+        assertEquals(SEATS, confirmedSeats(tournamentId));
+        assertEquals(TournamentStatus.ACTIVE, tournamentRepository.findById(tournamentId).orElseThrow().getTournamentStatus());
+    }
+
+    /**
+     * Оптовые заявки занимают места тем же счётчиком, что и одиночные покупки:
+     * заявка проходит целиком или не проходит вовсе, лишнего не продаётся
+     */
+    @Test
+    void bookBulk_ConcurrentWithSingleBuyers_NoOversell() throws Exception {
+        UserAccount organizer = organizer();
+        Long tournamentId = tournament(TournamentStatus.TICKET_SALES, 0, organizer);
+        List<List<UserAccount>> groups = new ArrayList<>();
+        for (int g = 0; g < 6; g++) {
+            groups.add(users("group" + g + "-", 3));
+        }
+        List<UserAccount> buyers = users("single", 10);
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger bookedSeats = new AtomicInteger();
+        List<Future<?>> results = new ArrayList<>();
+        for (List<UserAccount> group : groups) {
+            BulkBookingRequest request = new BulkBookingRequest("School", true, group.stream()
+                    .map(user -> new BulkBookingRequest.Attendee(user.getEmail(), null, null, 2))
+                    .toList());
+            results.add(pool.submit(() -> {
+                start.await();
+                try {
+                    bookedSeats.addAndGet(tx.execute(status ->
+                            bulkBookingService.bookBulk(tournamentId, request, organizer)).getSeatsCount());
+                } catch (IllegalArgumentException rejected) {
+                    // мест на всю заявку не хватило
+                }
+                return null;
+            }));
+        }
+        for (UserAccount buyer : buyers) {
+            results.add(pool.submit(() -> {
+                start.await();
+                try {
+                    tx.executeWithoutResult(status ->
+                            ticketBookingService.bookTicket(tournamentId, new TicketBookingRequest(1, true), buyer));
+                    bookedSeats.incrementAndGet();
+                } catch (IllegalArgumentException rejected) {
+                    // мест нет или продажи уже закрыты
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        pool.shutdown();
+
+        int booked = tournamentRepository.findBookedSeats(tournamentId);
+        assertTrue(booked <= SEATS, "Продано больше мест, чем есть: " + booked);
+        // Спрос втрое больше мест: свободными могут остаться лишь места, которых не хватило оптовой заявке
+        assertTrue(booked > SEATS - 6, "Продано слишком мало: " + booked);
+        assertEquals(bookedSeats.get(), booked);
+        assertEquals(booked, confirmedSeats(tournamentId));
+    }
+
+    @Test
+    void bookBulk_NotTournamentOrganizerOrUnregisteredAttendee_Rejected() {
+        UserAccount organizer = organizer();
+        Long tournamentId = tournament(TournamentStatus.TICKET_SALES, 0, organizer);
+        UserAccount viewer = users("viewer", 1).get(0);
+        BulkBookingRequest request = new BulkBookingRequest("School", true, List.of(
+                new BulkBookingRequest.Attendee(viewer.getEmail(), null, null, 1),
+                new BulkBookingRequest.Attendee("nobody-" + System.nanoTime() + "@example.com", null, null, 1)));
+
+        assertThrows(IllegalArgumentException.class, () -> tx.execute(status ->
+                bulkBookingService.bookBulk(tournamentId, request, viewer)));
+        // Организатор другого турнира не бронирует на чужой
+        BulkBookingRequest valid = new BulkBookingRequest("School", true, List.of(
+                new BulkBookingRequest.Attendee(viewer.getEmail(), null, null, 1)));
+        assertThrows(IllegalArgumentException.class, () -> tx.execute(status ->
+                bulkBookingService.bookBulk(tournamentId, valid, organizer())));
+        assertThrows(IllegalArgumentException.class, () -> tx.execute(status ->
+                bulkBookingService.bookBulk(tournamentId, request, organizer)));
+        assertEquals(0, tournamentRepository.findBookedSeats(tournamentId));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_account WHERE email LIKE 'nobody-%'",
+                Integer.class));
+    }
+
+    @Test
+    void join_SoldOutTournamentAfterCancellation_AcceptedAndPromoted() {
+        Long tournamentId = tournament(TournamentStatus.TICKET_SALES, 0);
+        List<UserAccount> buyers = users("sold", SEATS);
+        buyers.forEach(buyer -> tx.executeWithoutResult(status ->
+                ticketBookingService.bookTicket(tournamentId, new TicketBookingRequest(1, true), buyer)));
+        assertEquals(TournamentStatus.ACTIVE, tournamentRepository.findById(tournamentId).orElseThrow().getTournamentStatus());
+
+        tx.executeWithoutResult(status -> ticketBookingService.cancelTicket(tournamentId, buyers.get(0)));
+        UserAccount late = users("late", 1).get(0);
+
+        // Турнир активен — прямое бронирование закрыто, свободное место достаётся через очередь
+        assertThrows(IllegalArgumentException.class, () -> tx.executeWithoutResult(status ->
+                ticketBookingService.bookTicket(tournamentId, new TicketBookingRequest(1, true), late)));
+        tx.executeWithoutResult(status -> waitlistService.join(tournamentId, new TicketBookingRequest(1, true), late));
+        verify(eventPublisher).publishEvent(new SeatsReleasedEvent(tournamentId, 0));
+
+        Optional<Ticket> promoted = tx.execute(status -> waitlistService.promoteNext(tournamentId));
+        assertTrue(promoted.isPresent());
+        assertEquals(SEATS, tournamentRepository.findBookedSeats(tournamentId));
+        assertEquals(SEATS, confirmedSeats(tournamentId));
+    }
+
+    @Test
+    void promoteNext_Sequential_HeadFirstAndNoOvertaking() {
+        Long tournamentId = tournament(TournamentStatus.ACTIVE, SEATS - 3);
+        List<Long> entries = waitlist(tournamentId, users("queue", 4), new int[]{1, 2, 1, 1});
+
+        List<Long> promoted = new ArrayList<>();
+        Optional<Ticket> ticket;
+        while ((ticket = tx.execute(status -> waitlistService.promoteNext(tournamentId))).isPresent()) {
+            promoted.add(ticket.get().getId());
+        }
+
+        // Трёх мест хватило первым двум записям; третьей нужно место, но четвёртая её не обгоняет
+        assertEquals(2, promoted.size());
+        assertEquals(WaitlistStatus.PROMOTED, status(entries.get(0)));
+        assertEquals(WaitlistStatus.PROMOTED, status(entries.get(1)));
+        assertEquals(WaitlistStatus.WAITING, status(entries.get(2)));
+        assertEquals(WaitlistStatus.WAITING, status(entries.get(3)));
+        assertEquals(SEATS, tournamentRepository.findBookedSeats(tournamentId));
+    }
+
+    @Test
+    void promoteNext_LastSeatsSold_TournamentActivated() {
+        Long tournamentId = tournament(TournamentStatus.TICKET_SALES, SEATS - 2);
+        waitlist(tournamentId, users("last", 1), new int[]{2});
+
+        assertTrue(tx.execute(status -> waitlistService.promoteNext(tournamentId)).isPresent());
+
+        assertEquals(SEATS, tournamentRepository.findBookedSeats(tournamentId));
+        assertEquals(TournamentStatus.ACTIVE, tournamentRepository.findById(tournamentId).orElseThrow().getTournamentStatus());
+        verify(eventPublisher).publishEvent(new TournamentActivatedEvent(tournamentId));
+    }
+
+    /**
+     * Обработчики по очереди захватывают голову очереди через FOR UPDATE;
+     * ни запись, ни место не выдаются дважды
+     */
+    @Test
+    void promoteNext_ConcurrentWorkers_EachEntryAndSeatOnce() throws Exception {
+        Long tournamentId = tournament(TournamentStatus.ACTIVE, SEATS - 10);
+        List<Long> entries = waitlist(tournamentId, users("parallel", 30), new int[30]);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> workers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            workers.add(pool.submit(() -> {
+                start.await();
+                int count = 0;
+                while (tx.execute(status -> waitlistService.promoteNext(tournamentId)).isPresent()) {
+                    count++;
+                }
+                return count;
+            }));
+        }
+        start.countDown();
+        int promoted = 0;
+        for (Future<Integer> worker : workers) {
+            promoted += worker.get();
+        }
+        pool.shutdown();
+
+        assertEquals(10, promoted);
+        assertEquals(SEATS, tournamentRepository.findBookedSeats(tournamentId));
+        assertEquals(10, confirmedSeats(tournamentId));
+        assertEquals(10, entries.stream().filter(id -> status(id) == WaitlistStatus.PROMOTED).count());
+        assertEquals(10, jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT ticket_id) FROM waitlist_entries " +
+                "WHERE tournament_id = ? AND status = 'PROMOTED'", Integer.class, tournamentId));
+    }
+
+    private Long tournament(TournamentStatus status, int bookedSeats) {
+        return tournament(status, bookedSeats, null);
+    }
+
+    private Long tournament(TournamentStatus status, int bookedSeats, UserAccount organizer) {
+        Long tournamentId = tournamentRepository.save(Tournament.builder()
+                .name("Tickets " + System.nanoTime())
+                .tournamentStatus(status)
+                .totalSeats(SEATS)
+                .userAccount(organizer)
+                .build()).getId();
+        // Счётчик сущность не пишет — только UPDATE
+        jdbcTemplate.update("UPDATE tournament SET booked_seats = ? WHERE id = ?", bookedSeats, tournamentId);
+        return tournamentId;
+    }
+
+    private List<UserAccount> users(String prefix, int count) {
+        List<UserAccount> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(userRepository.save(new UserAccount(null, prefix + i + "-" + System.nanoTime() + "@example.com",
+                    "User", prefix + i, false)));
+        }
+        return users;
+    }
+
+    private UserAccount organizer() {
+        return userRepository.save(new UserAccount(null, "org-" + System.nanoTime() + "@example.com",
+                "Org", "Org", true));
+    }
+
+    /**
+     * Записи листа ожидания в порядке очереди; 0 мест в seats означает одно место
+     */
+    private List<Long> waitlist(Long tournamentId, List<UserAccount> users, int[] seats) {
+        Tournament tournament = tournamentRepository.findById(tournamentId).orElseThrow();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            ids.add(waitlistEntryRepository.save(WaitlistEntry.builder()
+                    .tournament(tournament)
+                    .user(users.get(i))
+                    .seatsCount(Math.max(1, seats[i]))
+                    .status(WaitlistStatus.WAITING)
+                    .createdAt(LocalDateTime.now())
+                    .build()).getId());
+        }
+        return ids;
+    }
+
+    private WaitlistStatus status(Long entryId) {
+        return waitlistEntryRepository.findById(entryId).orElseThrow().getStatus();
+    }
+
+    private int confirmedSeats(Long tournamentId) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(seats_count), 0) FROM tickets " +
+                "WHERE tournament_id = ? AND confirmed = TRUE", Integer.class, tournamentId);
+    }
+}
@@ -0,0 +1,200 @@
+package com.mpi.aivango_backend;
+
+import com.mpi.aivango_backend.dto.vote.KnightForVotingDTO;
+import com.mpi.aivango_backend.dto.vote.VoteRequest;
+import com.mpi.aivango_backend.models.tournament.Tournament;
+import com.mpi.aivango_backend.models.tournament.TournamentStatus;
+import com.mpi.aivango_backend.models.user.TournamentRolesEnum;
+import com.mpi.aivango_backend.models.user.UserAccount;
+import com.mpi.aivango_backend.repository.ApplicationRepository;
+import com.mpi.aivango_backend.repository.TournamentRepository;
+import com.mpi.aivango_backend.repository.UserRepository;
+import com.mpi.aivango_backend.repository.UserTournamentRoleRepository;
+import com.mpi.aivango_backend.repository.VoteRepository;
+import com.mpi.aivango_backend.services.ticket.SpectatorsChangedEvent;
+import com.mpi.aivango_backend.services.ticket.TournamentActivatedEvent;
+import com.mpi.aivango_backend.services.vote.VoteIngestion;
+import com.mpi.aivango_backend.services.vote.VoteLeaderboard;
+import com.mpi.aivango_backend.services.vote.VoteService;
+import com.mpi.aivango_backend.services.vote.VotingEligibilityCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class VoteEligibilityTest {
+
+    private static final long TOURNAMENT_ID = 1L;
+    private static final long KNIGHT_ID = 7L;
+
+    @Mock
+    private TournamentRepository tournamentRepository;
+
+    @Mock
+    private UserTournamentRoleRepository userTournamentRoleRepository;
+
+    @Mock
+    private VoteRepository voteRepository;
+
+    @Mock
+    private ApplicationRepository applicationRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private VoteLeaderboard voteLeaderboard;
+
+    @Mock
+    private VoteIngestion voteIngestion;
+
+    private VotingEligibilityCache eligibilityCache;
+    private VoteService voteService;
+
+    @BeforeEach
+    void setUp() {
+        Tournament tournament = Tournament.builder()
+                .id(TOURNAMENT_ID)
+                .tournamentStatus(TournamentStatus.ACTIVE)
+                .build();
+        when(tournamentRepository.findById(TOURNAMENT_ID)).thenReturn(Optional.of(tournament));
+        when(userTournamentRoleRepository.findUserIdsByTournamentIdAndRole(TOURNAMENT_ID, TournamentRolesEnum.SPECTATOR))
+                .thenReturn(LongStream.rangeClosed(1, 10_000).boxed().toList());
+        when(userTournamentRoleRepository.findUsersByTournamentIdAndRole(TOURNAMENT_ID, TournamentRolesEnum.KNIGHT))
+                .thenReturn(List.of(new UserAccount(KNIGHT_ID, "knight@example.com", "Ланселот", "Озёрный", false)));
+        when(voteRepository.findVoterIdsByTournamentId(TOURNAMENT_ID)).thenReturn(List.of(5L));
+
+        eligibilityCache = new VotingEligibilityCache(tournamentRepository, userTournamentRoleRepository, voteRepository);
+        voteService = new VoteService(voteRepository, applicationRepository, userRepository,
+                voteLeaderboard, eligibilityCache, voteIngestion);
+        eligibilityCache.onTournamentActivated(new TournamentActivatedEvent(TOURNAMENT_ID));
+    }
+
+    @Test
+    void submitVote_LoadedOnActivation_ValidatedWithoutQueries() {
+        clearInvocations(tournamentRepository, userTournamentRoleRepository, voteRepository);
+
+        List<KnightForVotingDTO> knights = voteService.getKnightsForVoting(TOURNAMENT_ID, 42L);
+        voteService.submitVote(new VoteRequest(TOURNAMENT_ID, KNIGHT_ID), 42L);
+
+        assertEquals(1, knights.size());
+        assertEquals("Ланселот", knights.get(0).getName());
+        assertSame(knights, voteService.getKnightsForVoting(TOURNAMENT_ID, 43L));
+        verify(voteIngestion).accept(any());
+        verifyNoInteractions(tournamentRepository, userTournamentRoleRepository, voteRepository);
+
+        assertThrows(RuntimeException.class, () -> voteService.getKnightsForVoting(TOURNAMENT_ID, 42L));
+        assertThrows(RuntimeException.class, () -> voteService.submitVote(new VoteRequest(TOURNAMENT_ID, KNIGHT_ID), 5L));
+        assertThrows(RuntimeException.class, () -> voteService.submitVote(new VoteRequest(TOURNAMENT_ID, 8L), 43L));
+    }
+
+    @Test
+    void submitVote_SpectatorsUpdatedByTicketEvents() {
+        long lateSpectator = 20_000L;
+        eligibilityCache.onSpectatorsChanged(SpectatorsChangedEvent.admitted(TOURNAMENT_ID, List.of(lateSpectator)));
+        eligibilityCache.onSpectatorsChanged(SpectatorsChangedEvent.cancelled(TOURNAMENT_ID, 3L));
+
+        voteService.submitVote(new VoteRequest(TOURNAMENT_ID, KNIGHT_ID), lateSpectator);
+        assertThrows(RuntimeException.class, () -> voteService.submitVote(new VoteRequest(TOURNAMENT_ID, KNIGHT_ID), 3L));
+        // Зритель без билета отклоняется по кэшу, сколько бы раз ни пробовал
+        assertThrows(RuntimeException.class, () -> voteService.submitVote(new VoteRequest(TOURNAMENT_ID, KNIGHT_ID), 30_000L));
+        assertThrows(RuntimeException.class, () -> voteService.getKnightsForVoting(TOURNAMENT_ID, 30_000L));
+        verify(userTournamentRoleRepository, never()).existsByUserIdAndTournamentIdAndRole(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void onSpectatorsChanged_DuringLoad_AppliedAfterLoad() throws Exception {
+        long lateSpectator = 20_000L;
+        VotingEligibilityCache cache = new VotingEligibilityCache(tournamentRepository, userTournamentRoleRepository, voteRepository);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        CountDownLatch eventSent = new CountDownLatch(1);
+        // Билет выдан, пока запрос зрителей ещё выполняется и его не видит
+        when(userTournamentRoleRepository.findUserIdsByTournamentIdAndRole(TOURNAMENT_ID, TournamentRolesEnum.SPECTATOR))
+                .thenAnswer(invocation -> {
+                    pool.submit(() -> {
+                        eventSent.countDown();
+                        cache.onSpectatorsChanged(SpectatorsChangedEvent.admitted(TOURNAMENT_ID, List.of(lateSpectator)));
+                    });
+                    assertTrue(eventSent.await(5, TimeUnit.SECONDS));
+                    Thread.sleep(100);
+                    return List.of(1L);
+                });
+
+        cache.onTournamentActivated(new TournamentActivatedEvent(TOURNAMENT_ID));
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+
+        VoteService service = new VoteService(voteRepository, applicationRepository, userRepository,
+                voteLeaderboard, cache, voteIngestion);
+        service.submitVote(new VoteRequest(TOURNAMENT_ID, KNIGHT_ID), lateSpectator);
+        verify(voteIngestion).accept(any());
+    }
+
+    @Test
+    void closeVoting_IntakeClosedBeforeFlush_CachesEvictedAfterCompletion() {
+        voteService.submitVote(new VoteRequest(TOURNAMENT_ID, KNIGHT_ID), 42L);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            voteService.closeVoting(TOURNAMENT_ID);
+            verify(voteIngestion).flush();
+
+            // До фиксации кэш не выгружается и не поднимается заново открытым — голос отклоняется
+            assertThrows(IllegalArgumentException.class,
+                    () -> voteService.submitVote(new VoteRequest(TOURNAMENT_ID, KNIGHT_ID), 43L));
+            verify(voteIngestion, times(1)).accept(any());
+            verify(voteLeaderboard, never()).evict(TOURNAMENT_ID);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            verify(voteLeaderboard).evict(TOURNAMENT_ID);
+            verify(tournamentRepository, times(1)).findById(TOURNAMENT_ID);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void submitVote_ParallelVotesOfOneSpectator_ExactlyOneAccepted() throws Exception {
+        int attempts = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(attempts);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        for (int i = 0; i < attempts; i++) {
+            pool.submit(() -> {
+                start.await();
+                try {
+                    voteService.submitVote(new VoteRequest(TOURNAMENT_ID, KNIGHT_ID), 100L);
+                    accepted.incrementAndGet();
+                } catch (RuntimeException ignored) {
+                    // Повторный голос
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1, accepted.get());
+        verify(voteIngestion, times(1)).accept(any());
+    }
+}
@@ -0,0 +1,150 @@
+package com.mpi.aivango_backend;
+
+import com.mpi.aivango_backend.services.vote.VoteIngestion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class VoteIngestionTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private VoteIngestion voteIngestion;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        voteIngestion = new VoteIngestion(jdbcTemplate, transactionManager);
+    }
+
+    @Test
+    void flush_AcceptedVotesWrittenInBatchesOfThousand() {
+        for (long voter = 1; voter <= 2500; voter++) {
+            voteIngestion.accept(vote(voter));
+        }
+        assertEquals(2500, voteIngestion.pendingCount());
+        verifyNoInteractions(jdbcTemplate);
+
+        voteIngestion.flush();
+
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), batches.capture());
+        assertEquals(List.of(1000, 1000, 500), batches.getAllValues().stream().map(List::size).toList());
+        assertEquals(2500, batches.getAllValues().stream().flatMap(List::stream)
+                .map(row -> row[0]).collect(Collectors.toSet()).size());
+        assertEquals(0, voteIngestion.pendingCount());
+    }
+
+    @Test
+    void flush_DatabaseFailure_BatchKeptInOrderAndRetried() {
+        voteIngestion.accept(vote(1L));
+        voteIngestion.accept(vote(2L));
+
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new RuntimeException("db down"));
+        voteIngestion.scheduledFlush();
+        assertEquals(2, voteIngestion.pendingCount());
+
+        reset(jdbcTemplate);
+        voteIngestion.accept(vote(3L));
+        voteIngestion.scheduledFlush();
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture());
+        assertEquals(List.of(1L, 2L, 3L), batch.getValue().stream().map(row -> row[0]).toList());
+        assertEquals(0, voteIngestion.pendingCount());
+    }
+
+    @Test
+    void flush_RejectedVote_DroppedAndOthersWritten() {
+        voteIngestion.accept(vote(1L));
+        voteIngestion.accept(vote(2L));
+        voteIngestion.accept(vote(3L));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            if (rows.size() > 1 || rows.get(0)[0].equals(2L)) {
+                throw new DataIntegrityViolationException("fk_votes_voted_for");
+            }
+            return new int[]{1};
+        });
+
+        voteIngestion.flush();
+
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(4)).batchUpdate(anyString(), batches.capture());
+        assertEquals(List.of(1L, 2L, 3L), batches.getAllValues().subList(1, 4).stream()
+                .map(rows -> rows.get(0)[0]).toList());
+        assertEquals(0, voteIngestion.pendingCount());
+    }
+
+    @Test
+    void flush_VoteFailingRepeatedly_DroppedAfterMaxAttempts() {
+        voteIngestion.accept(vote(1L));
+        voteIngestion.accept(vote(2L));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            if (rows.get(0)[0].equals(1L)) {
+                throw new IllegalStateException("broken row");
+            }
+            return new int[]{1};
+        });
+
+        for (int attempt = 1; attempt < VoteIngestion.MAX_ROW_ATTEMPTS; attempt++) {
+            voteIngestion.scheduledFlush();
+            assertEquals(2, voteIngestion.pendingCount());
+        }
+        voteIngestion.scheduledFlush();
+
+        assertEquals(0, voteIngestion.pendingCount());
+    }
+
+    @Test
+    void flush_DatabaseUnavailable_BatchNotSplit() {
+        voteIngestion.accept(vote(1L));
+        voteIngestion.accept(vote(2L));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new CannotGetJdbcConnectionException("connection refused"));
+
+        for (int attempt = 0; attempt < VoteIngestion.MAX_ROW_ATTEMPTS * 2; attempt++) {
+            voteIngestion.scheduledFlush();
+        }
+
+        verify(jdbcTemplate, times(VoteIngestion.MAX_ROW_ATTEMPTS * 2)).batchUpdate(anyString(), anyList());
+        assertEquals(2, voteIngestion.pendingCount());
+    }
+
+    @Test
+    void shutdown_DrainsQueue() {
+        voteIngestion.accept(vote(1L));
+        voteIngestion.shutdown();
+
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+        assertEquals(0, voteIngestion.pendingCount());
+    }
+
+    private VoteIngestion.PendingVote vote(long voterId) {
+        return new VoteIngestion.PendingVote(voterId, 100L, 1L, LocalDateTime.now());
+    }
+}
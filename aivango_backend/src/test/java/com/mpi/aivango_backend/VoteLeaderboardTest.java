@@ -0,0 +1,136 @@
+package com.mpi.aivango_backend;
+
+import com.mpi.aivango_backend.dto.vote.LeaderboardDTO;
+import com.mpi.aivango_backend.dto.vote.VoteTallyView;
+import com.mpi.aivango_backend.models.tournament.Tournament;
+import com.mpi.aivango_backend.models.tournament.TournamentStatus;
+import com.mpi.aivango_backend.models.user.UserAccount;
+import com.mpi.aivango_backend.repository.TournamentRepository;
+import com.mpi.aivango_backend.repository.UserRepository;
+import com.mpi.aivango_backend.repository.UserTournamentRoleRepository;
+import com.mpi.aivango_backend.repository.VoteRepository;
+import com.mpi.aivango_backend.services.stream.SseHub;
+import com.mpi.aivango_backend.services.vote.VoteIngestion;
+import com.mpi.aivango_backend.services.vote.VoteLeaderboard;
+import com.mpi.aivango_backend.services.vote.VotingEligibilityCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Таблица симпатий держит в памяти только турниры, где идёт голосование
+ */
+@ExtendWith(MockitoExtension.class)
+public class VoteLeaderboardTest {
+
+    @Mock
+    private VoteRepository voteRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TournamentRepository tournamentRepository;
+
+    @Mock
+    private SseHub sseHub;
+
+    @Mock
+    private UserTournamentRoleRepository userTournamentRoleRepository;
+
+    @Mock
+    private VoteIngestion voteIngestion;
+
+    private VoteLeaderboard voteLeaderboard;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(tournamentRepository.findById(1L)).thenReturn(Optional.of(
+                Tournament.builder().id(1L).tournamentStatus(TournamentStatus.ACTIVE).build()));
+        VotingEligibilityCache eligibilityCache = new VotingEligibilityCache(tournamentRepository,
+                userTournamentRoleRepository, voteRepository);
+        voteLeaderboard = new VoteLeaderboard(voteRepository, userRepository, tournamentRepository, sseHub,
+                eligibilityCache, voteIngestion);
+    }
+
+    @Test
+    void snapshot_TournamentNotVotingOrMissing_RejectedAndNotCached() {
+        when(tournamentRepository.findStatusById(1L)).thenReturn(Optional.of(TournamentStatus.COMPLETED));
+        when(tournamentRepository.findStatusById(2L)).thenReturn(Optional.empty());
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(IllegalArgumentException.class, () -> voteLeaderboard.snapshot(1L));
+            assertThrows(IllegalArgumentException.class, () -> voteLeaderboard.subscribe(2L));
+        }
+
+        // Промахи в кэш не попадают: каждый запрос заново сверяется со статусом, таблица не строится
+        verify(tournamentRepository, times(3)).findStatusById(1L);
+        verify(tournamentRepository, times(3)).findStatusById(2L);
+        verifyNoInteractions(voteRepository, sseHub, voteIngestion);
+    }
+
+    @Test
+    void snapshot_VotingTournament_LoadedOnceUntilEvicted() {
+        when(tournamentRepository.findStatusById(1L)).thenReturn(Optional.of(TournamentStatus.ACTIVE));
+        when(voteRepository.tallyByTournamentId(1L)).thenReturn(List.of());
+        UserAccount knight = new UserAccount(5L, "knight@example.com", "Knight", "Brave", false);
+
+        voteLeaderboard.prepare(1L);
+        voteLeaderboard.record(1L, knight);
+        voteLeaderboard.record(1L, knight);
+        LeaderboardDTO snapshot = voteLeaderboard.snapshot(1L);
+
+        assertEquals(2, snapshot.getTotalVotes());
+        assertEquals(5L, snapshot.getEntries().get(0).getKnightId());
+        verify(tournamentRepository, times(1)).findStatusById(anyLong());
+        verify(voteRepository, times(1)).tallyByTournamentId(1L);
+
+        // Голосование закрыто — таблица освобождена и больше не поднимается
+        voteLeaderboard.evict(1L);
+        when(tournamentRepository.findStatusById(1L)).thenReturn(Optional.of(TournamentStatus.COMPLETED));
+        assertThrows(IllegalArgumentException.class, () -> voteLeaderboard.snapshot(1L));
+        verify(voteRepository, times(1)).tallyByTournamentId(1L);
+    }
+
+    @Test
+    void prepare_BufferedVotes_FlushedBeforeTallyAndCountedOnce() {
+        when(tournamentRepository.findStatusById(1L)).thenReturn(Optional.of(TournamentStatus.ACTIVE));
+        UserAccount knight = new UserAccount(5L, "knight@example.com", "Knight", "Brave", false);
+        when(userRepository.findAllById(List.of(5L))).thenReturn(List.of(knight));
+        // Голос принят до загрузки таблицы: в агрегате он появится только после сброса очереди записи
+        boolean[] flushed = {false};
+        doAnswer(invocation -> flushed[0] = true).when(voteIngestion).flush();
+        when(voteRepository.tallyByTournamentId(1L)).thenAnswer(invocation ->
+                flushed[0] ? List.of(tally(5L, 1L)) : List.of());
+
+        voteLeaderboard.record(1L, knight);
+        voteLeaderboard.prepare(1L);
+        voteLeaderboard.record(1L, knight);
+
+        LeaderboardDTO snapshot = voteLeaderboard.snapshot(1L);
+        assertEquals(2, snapshot.getTotalVotes());
+        assertEquals("Knight", snapshot.getEntries().get(0).getName());
+        InOrder order = inOrder(voteIngestion, voteRepository);
+        order.verify(voteIngestion).flush();
+        order.verify(voteRepository).tallyByTournamentId(1L);
+    }
+
+    private VoteTallyView tally(Long knightId, long votes) {
+        return new VoteTallyView() {
+            public Long getKnightId() { return knightId; }
+            public Long getVotes() { return votes; }
+            public LocalDateTime getFirstVoteAt() { return LocalDateTime.now(); }
+        };
+    }
+}
@@ -0,0 +1,128 @@
+package com.mpi.aivango_backend;
+
+import com.mpi.aivango_backend.dto.vote.VoteTallyView;
+import com.mpi.aivango_backend.models.tournament.Tournament;
+import com.mpi.aivango_backend.models.tournament.TournamentStatus;
+import com.mpi.aivango_backend.models.user.UserAccount;
+import com.mpi.aivango_backend.models.vote.Vote;
+import com.mpi.aivango_backend.repository.VoteRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Агрегат голосов в БД: итог одним запросом, упорядоченный по правилу ничьей.
+ * Время агрегата и прежнего попарного reduce только пишется в лог — от скорости машины тест не зависит
+ */
+@Slf4j
+@DataJpaTest(properties = {"spring.jpa.database=H2", "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+public class VoteTallyBenchmarkTest {
+
+    private static final int VOTES = 100_000;
+    private static final int KNIGHTS = 8;
+    private static final int LEGACY_SAMPLE = 10_000;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long tournamentId;
+    private long firstKnightId;
+
+    @BeforeEach
+    void setUp() {
+        UserAccount organizer = entityManager.persist(UserAccount.builder().email("org@example.com").name("Org").build());
+        for (int k = 0; k < KNIGHTS; k++) {
+            UserAccount knight = entityManager.persist(UserAccount.builder().email("knight" + k + "@example.com").name("Knight" + k).build());
+            if (k == 0) {
+                firstKnightId = knight.getId();
+            }
+        }
+        Tournament tournament = entityManager.persist(Tournament.builder()
+                .name("Benchmark")
+                .tournamentStatus(TournamentStatus.ACTIVE)
+                .userAccount(organizer)
+                .build());
+        tournamentId = tournament.getId();
+        entityManager.flush();
+
+        jdbcTemplate.update("INSERT INTO user_account (email, name, second_name, is_organizer) " +
+                "SELECT CONCAT('viewer', X, '@example.com'), 'Viewer', CAST(X AS VARCHAR), FALSE FROM SYSTEM_RANGE(1, ?)", VOTES);
+        // Голоса распределены неравномерно (доли 1, 2, 3, 3, 6, 6, 7, 8 из 36),
+        // у рыцарей 2 и 3 поровну — проверяем правило разрешения ничьей
+        jdbcTemplate.update("INSERT INTO votes (voter_id, voted_for_id, tournament_id, vote_date) " +
+                "SELECT u.id, ? + CASE WHEN MOD(u.id, 36) < 1 THEN 0 WHEN MOD(u.id, 36) < 3 THEN 1 " +
+                "WHEN MOD(u.id, 36) < 6 THEN 2 WHEN MOD(u.id, 36) < 9 THEN 3 WHEN MOD(u.id, 36) < 15 THEN 4 " +
+                "WHEN MOD(u.id, 36) < 21 THEN 5 WHEN MOD(u.id, 36) < 28 THEN 6 ELSE 7 END, ?, " +
+                "DATEADD('SECOND', u.id, TIMESTAMP '2026-05-01 10:00:00') " +
+                "FROM user_account u WHERE u.email LIKE 'viewer%'", firstKnightId, tournamentId);
+    }
+
+    @Test
+    void tally_100kVotes_AggregateIsRankedInOneQuery() {
+        voteRepository.tallyByTournamentId(tournamentId); // прогрев
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        long started = System.nanoTime();
+        List<VoteTallyView> tally = voteRepository.tallyByTournamentId(tournamentId);
+        long aggregateMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertEquals(1, statistics.getPrepareStatementCount(), "Итог голосования — один запрос");
+        assertEquals(KNIGHTS, tally.size());
+        assertEquals(VOTES, tally.stream().mapToLong(VoteTallyView::getVotes).sum());
+        for (int i = 1; i < tally.size(); i++) {
+            assertTrue(tally.get(i - 1).getVotes() >= tally.get(i).getVotes());
+        }
+        assertEquals(firstKnightId + 7, tally.get(0).getKnightId());
+
+        // Рыцари 2 и 3 набрали поровну (5-е и 6-е места); выше тот, за кого проголосовали раньше
+        VoteTallyView tiedFirst = tally.get(4);
+        VoteTallyView tiedSecond = tally.get(5);
+        assertEquals(tiedFirst.getVotes(), tiedSecond.getVotes());
+        assertEquals(firstKnightId + 2, tiedFirst.getKnightId());
+        assertTrue(tiedFirst.getFirstVoteAt().isBefore(tiedSecond.getFirstVoteAt()));
+
+        // Прежний алгоритм: попарный reduce с пересчётом по всему списку на каждом шаге.
+        // На 100 000 голосов он квадратичен (~2·10^10 сравнений), поэтому меряем его на выборке
+        List<Vote> sample = voteRepository.findByTournamentId(tournamentId).subList(0, LEGACY_SAMPLE);
+        started = System.nanoTime();
+        Long legacyWinner = legacyWinner(sample);
+        long legacyMillis = (System.nanoTime() - started) / 1_000_000;
+
+        log.info("Агрегат в БД, {} голосов: {} мс; прежний reduce, {} голосов: {} мс",
+                VOTES, aggregateMillis, LEGACY_SAMPLE, legacyMillis);
+        assertNotNull(legacyWinner);
+    }
+
+    private Long legacyWinner(List<Vote> votes) {
+        return votes.stream()
+                .map(vote -> vote.getVotedFor().getId())
+                .reduce((a, b) -> {
+                    long countA = votes.stream().filter(v -> v.getVotedFor().getId().equals(a)).count();
+                    long countB = votes.stream().filter(v -> v.getVotedFor().getId().equals(b)).count();
+                    return countA >= countB ? a : b;
+                })
+                .orElse(null);
+    }
+}
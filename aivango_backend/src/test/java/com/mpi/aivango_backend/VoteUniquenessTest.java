@@ -0,0 +1,144 @@
+package com.mpi.aivango_backend;
+
+import com.mpi.aivango_backend.config.VoteUniquenessUpgrade;
+import com.mpi.aivango_backend.services.vote.AlreadyVotedException;
+import com.mpi.aivango_backend.services.vote.VoteIngestion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Один голос зрителя на турнир обеспечивает уникальный индекс: параллельные записи
+ * одного и того же голоса (повтор пачки, второй экземпляр приложения) оставляют одну строку
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:votes;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.show-sql=false"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(VoteUniquenessUpgrade.class)
+public class VoteUniquenessTest {
+
+    private static final int WRITERS = 8;
+    private static final int VOTERS = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private VoteUniquenessUpgrade voteUniquenessUpgrade;
+
+    private long tournamentId;
+    private long knightId;
+    private long firstVoterId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO user_account (email, name, is_organizer) VALUES ('knight@example.com', 'Knight', FALSE)");
+        knightId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM user_account", Long.class);
+        jdbcTemplate.update("INSERT INTO tournament (name, tournament_status) VALUES ('Votes', 3)");
+        tournamentId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM tournament", Long.class);
+        jdbcTemplate.update("INSERT INTO user_account (email, name, is_organizer) " +
+                "SELECT CONCAT('viewer', X, '@example.com'), 'Viewer', FALSE FROM SYSTEM_RANGE(1, ?)", VOTERS);
+        firstVoterId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM user_account WHERE email LIKE 'viewer%'", Long.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM votes");
+        jdbcTemplate.update("DELETE FROM tournament");
+        jdbcTemplate.update("DELETE FROM user_account");
+    }
+
+    @Test
+    void flush_ParallelWritersWithSameVotes_OneRowPerVoter() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            // Каждый писатель — отдельный экземпляр приёма со своими копиями всех голосов
+            VoteIngestion ingestion = new VoteIngestion(jdbcTemplate, transactionManager);
+            writers.add(pool.submit(() -> {
+                start.await();
+                for (long voter = firstVoterId; voter < firstVoterId + VOTERS; voter++) {
+                    ingestion.accept(new VoteIngestion.PendingVote(voter, knightId, tournamentId, LocalDateTime.now()));
+                }
+                ingestion.flush();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        pool.shutdown();
+
+        assertEquals(VOTERS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM votes", Integer.class));
+        assertEquals(VOTERS, jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT voter_id) FROM votes", Integer.class));
+    }
+
+    @Test
+    void accept_QueueFull_DuplicateRejectedByIndex() {
+        VoteIngestion ingestion = new VoteIngestion(jdbcTemplate, transactionManager);
+        VoteIngestion.PendingVote vote = new VoteIngestion.PendingVote(firstVoterId, knightId, tournamentId, LocalDateTime.now());
+        ingestion.accept(vote);
+        ingestion.flush();
+
+        // Забиваем очередь, чтобы следующий голос писался синхронно
+        for (int i = 0; i < 100_000; i++) {
+            ingestion.accept(new VoteIngestion.PendingVote(firstVoterId + 1, knightId, tournamentId, LocalDateTime.now()));
+        }
+        assertThrows(AlreadyVotedException.class, () -> ingestion.accept(vote));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM votes WHERE voter_id = ?", Integer.class, firstVoterId));
+    }
+
+    @Test
+    void upgrade_ExistingDuplicates_EarliestVoteKeptAndConstraintAdded() {
+        jdbcTemplate.execute("ALTER TABLE votes DROP CONSTRAINT uk_votes_voter_tournament");
+        for (int copy = 0; copy < 3; copy++) {
+            jdbcTemplate.update("INSERT INTO votes (voter_id, voted_for_id, tournament_id, vote_date) VALUES (?, ?, ?, ?)",
+                    firstVoterId, knightId, tournamentId, LocalDateTime.now());
+        }
+        jdbcTemplate.update("INSERT INTO votes (voter_id, voted_for_id, tournament_id, vote_date) VALUES (?, ?, ?, ?)",
+                firstVoterId + 1, knightId, tournamentId, LocalDateTime.now());
+        long earliest = jdbcTemplate.queryForObject("SELECT MIN(id) FROM votes WHERE voter_id = ?", Long.class, firstVoterId);
+
+        voteUniquenessUpgrade.upgrade();
+
+        assertEquals(List.of(earliest), jdbcTemplate.queryForList("SELECT id FROM votes WHERE voter_id = ?",
+                Long.class, firstVoterId));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM votes", Integer.class));
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "INSERT INTO votes (voter_id, voted_for_id, tournament_id, vote_date) VALUES (?, ?, ?, ?)",
+                firstVoterId, knightId, tournamentId, LocalDateTime.now()));
+
+        // Ограничение уже есть — повторный запуск ничего не меняет
+        voteUniquenessUpgrade.upgrade();
+    }
+}